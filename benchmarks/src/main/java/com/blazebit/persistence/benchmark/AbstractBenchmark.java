@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.view.EntityViewManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Base class for benchmark states that need an entity manager. Since an entity manager must not be shared,
+ * every benchmark thread gets its own one.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public abstract class AbstractBenchmark {
+
+    protected CriteriaBuilderFactory cbf;
+    protected EntityViewManager evm;
+    protected EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUpEntityManager(BenchmarkContext context) {
+        cbf = context.getCriteriaBuilderFactory();
+        evm = context.getEntityViewManager();
+        em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownEntityManager() {
+        if (em != null) {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.model.Person;
+import com.blazebit.persistence.benchmark.model.Version;
+import com.blazebit.persistence.benchmark.view.DocumentJoinView;
+import com.blazebit.persistence.benchmark.view.DocumentMultisetView;
+import com.blazebit.persistence.benchmark.view.DocumentSelectView;
+import com.blazebit.persistence.benchmark.view.DocumentSubselectView;
+import com.blazebit.persistence.benchmark.view.DocumentUpdateView;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.benchmark.view.DocumentWideView;
+import com.blazebit.persistence.benchmark.view.PersonView;
+import com.blazebit.persistence.benchmark.view.VersionNestedView;
+import com.blazebit.persistence.benchmark.view.VersionView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * The shared state of all benchmarks. Bootstraps Hibernate against an in-memory H2 database,
+ * creates the criteria builder factory and entity view manager and populates the database.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final int PERSON_COUNT = 20;
+    public static final int VERSIONS_PER_DOCUMENT = 5;
+    public static final int TAGS_PER_DOCUMENT = 3;
+
+    @Param("100")
+    private int documentCount;
+
+    private EntityManagerFactory emf;
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("benchmark");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonView.class);
+        cfg.addEntityView(VersionView.class);
+        cfg.addEntityView(DocumentView.class);
+        cfg.addEntityView(DocumentJoinView.class);
+        cfg.addEntityView(DocumentSelectView.class);
+        cfg.addEntityView(DocumentSubselectView.class);
+        cfg.addEntityView(DocumentMultisetView.class);
+        cfg.addEntityView(DocumentUpdateView.class);
+        cfg.addEntityView(VersionNestedView.class);
+        cfg.addEntityView(DocumentWideView.class);
+        evm = cfg.createEntityViewManager(cbf);
+        populate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    private void populate() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Person[] persons = new Person[PERSON_COUNT];
+            for (int i = 0; i < persons.length; i++) {
+                persons[i] = new Person("person-" + i, 20 + i);
+                if (i > 0) {
+                    persons[i].setFriend(persons[i - 1]);
+                }
+                em.persist(persons[i]);
+            }
+            for (int i = 0; i < documentCount; i++) {
+                Document document = new Document("document-" + i, persons[i % persons.length]);
+                document.setAge(i);
+                for (int j = 0; j < TAGS_PER_DOCUMENT; j++) {
+                    document.getTags().add("tag-" + j);
+                }
+                em.persist(document);
+                for (int j = 0; j < VERSIONS_PER_DOCUMENT; j++) {
+                    Version version = new Version(j, "https://example.com/" + i + "/" + j, document);
+                    document.getVersions().add(version);
+                    em.persist(version);
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    public CriteriaBuilderFactory getCriteriaBuilderFactory() {
+        return cbf;
+    }
+
+    public EntityViewManager getEntityViewManager() {
+        return evm;
+    }
+}
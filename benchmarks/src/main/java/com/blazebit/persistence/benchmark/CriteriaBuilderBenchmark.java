@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.model.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.Tuple;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of criteria builders and the rendering of the JPQL query string.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBuilderBenchmark extends AbstractBenchmark {
+
+    @Benchmark
+    public CriteriaBuilder<Tuple> joinGraphConstruction() {
+        return createJoinGraphQuery();
+    }
+
+    @Benchmark
+    public String simpleQueryString() {
+        return cbf.create(em, Document.class, "d")
+                .where("d.name").eq("document-1")
+                .orderByAsc("d.id")
+                .getQueryString();
+    }
+
+    @Benchmark
+    public String joinGraphQueryString() {
+        return createJoinGraphQuery().getQueryString();
+    }
+
+    @Benchmark
+    public String subqueryQueryString() {
+        return cbf.create(em, Document.class, "d")
+                .where("d.id").in()
+                    .from(Version.class, "v")
+                    .select("v.document.id")
+                    .where("v.idx").gt(1)
+                .end()
+                .where("d.owner.friend.name").isNotNull()
+                .orderByAsc("d.id")
+                .getQueryString();
+    }
+
+    private CriteriaBuilder<Tuple> createJoinGraphQuery() {
+        return cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .leftJoin("d.versions", "v")
+                .leftJoin("d.owner.friend", "f")
+                .leftJoin("d.tags", "t")
+                .select("d.name")
+                .select("f.name")
+                .select("COUNT(v.id)")
+                .select("COUNT(t)")
+                .where("d.age").gt(1L)
+                .whereOr()
+                    .where("f.age").lt(30)
+                    .where("f.name").like().value("person-1%").noEscape()
+                .endOr()
+                .groupBy("d.name")
+                .groupBy("f.name")
+                .having("COUNT(v.id)").gt(1L)
+                .orderByAsc("d.name")
+                .orderByDesc("f.name");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.view.DocumentUpdateView;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flushing dirty updatable entity views within a transaction.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewUpdateBenchmark extends AbstractBenchmark {
+
+    private static final String EXTRA_TAG = "extra-tag";
+
+    @Param("10")
+    private int viewCount;
+
+    private List<DocumentUpdateView> views;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUpViews() {
+        views = evm.applySetting(EntityViewSetting.create(DocumentUpdateView.class), cbf.create(em, Document.class).orderByAsc("id"))
+                .setMaxResults(viewCount)
+                .getResultList();
+    }
+
+    @Benchmark
+    public long flushDirtyViews() {
+        long value = counter++;
+        em.getTransaction().begin();
+        try {
+            for (int i = 0; i < views.size(); i++) {
+                DocumentUpdateView view = views.get(i);
+                view.setName("document-" + i + "-" + value);
+                view.setAge(value);
+                if ((value & 1) == 0) {
+                    view.getTags().add(EXTRA_TAG);
+                } else {
+                    view.getTags().remove(EXTRA_TAG);
+                }
+                evm.save(em, view);
+            }
+            em.getTransaction().commit();
+        } catch (RuntimeException ex) {
+            em.getTransaction().rollback();
+            throw ex;
+        } finally {
+            em.clear();
+        }
+        return value;
+    }
+}
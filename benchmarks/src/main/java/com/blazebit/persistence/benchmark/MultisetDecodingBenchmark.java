@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.parser.JsonParser;
+import com.blazebit.persistence.parser.XmlParser;
+import com.blazebit.persistence.view.impl.type.IntegerBasicUserType;
+import com.blazebit.persistence.view.impl.type.StringBasicUserType;
+import com.blazebit.persistence.view.impl.type.TimestampBasicUserType;
+import com.blazebit.persistence.view.spi.type.BasicUserTypeStringSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of aggregated JSON and XML multiset strings into typed element tuples,
+ * the way the multiset tuple transformers of entity views do it.
+ * The interesting metric of this benchmark is the allocation rate, so it should be run with the GC profiler
+ * i.e. <code>-prof gc</code> and the <code>gc.alloc.rate.norm</code> result, the bytes allocated per operation, should be compared.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultisetDecodingBenchmark {
+
+    private static final String[] FIELDS = { "f0", "f1", "f2" };
+    @SuppressWarnings("unchecked")
+    private static final BasicUserTypeStringSupport<Object>[] CONVERTERS = new BasicUserTypeStringSupport[] {
+        IntegerBasicUserType.INSTANCE,
+        StringBasicUserType.INSTANCE,
+        TimestampBasicUserType.INSTANCE
+    };
+
+    @Param({ "10", "1000" })
+    private int elements;
+    private String json;
+    private String xml;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder jsonBuilder = new StringBuilder();
+        StringBuilder xmlBuilder = new StringBuilder();
+        jsonBuilder.append('[');
+        for (int i = 0; i < elements; i++) {
+            if (i != 0) {
+                jsonBuilder.append(',');
+            }
+            String timestamp = "2020-01-01 12:00:" + (10 + i % 50) + ".123456";
+            jsonBuilder.append("{\"f0\":\"").append(i).append("\",\"f1\":\"Document ").append(i).append("\",\"f2\":\"").append(timestamp).append("\"}");
+            xmlBuilder.append("<e><f0>").append(i).append("</f0><f1>Document ").append(i).append("</f1><f2>").append(timestamp).append("</f2></e>");
+        }
+        jsonBuilder.append(']');
+        json = jsonBuilder.toString();
+        xml = xmlBuilder.toString();
+    }
+
+    @Benchmark
+    public List<Object[]> json() {
+        return decode(JsonParser.parseStringOnly(json, FIELDS));
+    }
+
+    @Benchmark
+    public List<Object[]> xml() {
+        return decode(XmlParser.parse(xml, FIELDS));
+    }
+
+    private static List<Object[]> decode(List<Object[]> objects) {
+        for (int i = 0; i < objects.size(); i++) {
+            Object[] elementTuple = objects.get(i);
+            for (int j = 0; j < CONVERTERS.length; j++) {
+                if (elementTuple[j] instanceof CharSequence) {
+                    elementTuple[j] = CONVERTERS[j].fromString((CharSequence) elementTuple[j]);
+                }
+            }
+        }
+        return objects;
+    }
+}
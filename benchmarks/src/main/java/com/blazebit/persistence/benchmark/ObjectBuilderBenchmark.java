@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.view.DocumentJoinView;
+import com.blazebit.persistence.benchmark.view.DocumentMultisetView;
+import com.blazebit.persistence.benchmark.view.DocumentSelectView;
+import com.blazebit.persistence.benchmark.view.DocumentSubselectView;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fetching entity views, i.e. the query execution and the tuple transformation done by the object builders,
+ * for the different collection fetch strategies.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectBuilderBenchmark extends AbstractBenchmark {
+
+    @Param({ "JOIN", "SELECT", "SUBSELECT", "MULTISET" })
+    private String fetchStrategy;
+
+    private Class<? extends DocumentView> viewClass;
+
+    @Setup(Level.Trial)
+    public void setUpViewClass() {
+        switch (fetchStrategy) {
+            case "JOIN":
+                viewClass = DocumentJoinView.class;
+                break;
+            case "SELECT":
+                viewClass = DocumentSelectView.class;
+                break;
+            case "SUBSELECT":
+                viewClass = DocumentSubselectView.class;
+                break;
+            case "MULTISET":
+                viewClass = DocumentMultisetView.class;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported fetch strategy: " + fetchStrategy);
+        }
+    }
+
+    @Benchmark
+    public List<? extends DocumentView> resultList() {
+        return evm.applySetting(EntityViewSetting.create(viewClass), cbf.create(em, Document.class).orderByAsc("id"))
+                .getResultList();
+    }
+}
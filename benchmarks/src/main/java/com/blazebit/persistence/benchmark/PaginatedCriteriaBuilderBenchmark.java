@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the id, object and count queries of paginated criteria builders
+ * as well as the execution of all three against H2.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginatedCriteriaBuilderBenchmark extends AbstractBenchmark {
+
+    @Benchmark
+    public String pageIdQueryString() {
+        return createPaginatedQuery().getPageIdQueryString();
+    }
+
+    @Benchmark
+    public String objectQueryString() {
+        return createPaginatedQuery().getQueryString();
+    }
+
+    @Benchmark
+    public String pageCountQueryString() {
+        return createPaginatedQuery().getPageCountQueryString();
+    }
+
+    @Benchmark
+    public PagedList<Document> pagedResultList() {
+        PagedList<Document> resultList = createPaginatedQuery().getResultList();
+        em.clear();
+        return resultList;
+    }
+
+    private PaginatedCriteriaBuilder<Document> createPaginatedQuery() {
+        // The collection fetch requires a separate id query
+        return cbf.create(em, Document.class, "d")
+                .fetch("versions")
+                .where("d.owner.age").ge(20)
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(10, 10);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.benchmark.view;
+
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Mapping;
+
+import java.util.Set;
+
+/**
+ * The base document view. The sub views only differ in the fetch strategy that is used for the collections.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@EntityView(Document.class)
+public interface DocumentView {
+
+    @IdMapping
+    Long getId();
+
+    String getName();
+
+    PersonView getOwner();
+
+    @Mapping("owner.friend.name")
+    String getOwnerFriendName();
+
+    Set<VersionView> getVersions();
+}
@@ -108,6 +108,17 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The maximum number of entries per cache name of a size bounded expression cache like
+     * <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * The maximum size of a specific cache name can be configured by appending <code>.&lt;cacheName&gt;</code> to the property name.
+     * Valid values are positive integers.
+     * Default is <code>10000</code>
+     *
+     * @since 1.6.8
+     */
+    public static final String EXPRESSION_CACHE_MAX_SIZE = "com.blazebit.persistence.expression.cache_max_size";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -119,6 +130,35 @@ public final class ConfigurationProperties {
      */
     public static final String VALUES_CLAUSE_FILTER_NULLS = "com.blazebit.persistence.values.filter_nulls";
 
+    /**
+     * If set to true, a VALUES clause binds one array parameter per column that is unnested into a table
+     * instead of one parameter per value and column. This makes the SQL independent of the value count,
+     * so a VALUES clause allows an arbitrary number of values and the query plan can be reused for every collection size.
+     * The strategy is only used when the DBMS and the JPA provider support array parameters
+     * and every value attribute maps to a single column. Otherwise the DBMS specific default strategy is used.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * The property can be changed for a criteria builder before using the VALUES clause.
+     *
+     * @since 1.6.8
+     */
+    public static final String VALUES_CLAUSE_ARRAY_STRATEGY = "com.blazebit.persistence.values.array_strategy";
+
+    /**
+     * The minimum number of values of a VALUES clause for which the values are inserted into a session scoped temporary table
+     * via a JDBC batch instead of being rendered as parameters into the SQL. This avoids huge SQL strings and parse times for VALUES clauses
+     * with a lot of values. The strategy is only used within an active transaction, when the DBMS and the JPA provider support it
+     * and every value attribute maps to a single column of a basic type. Otherwise the DBMS specific default strategy is used.
+     * Valid values for this property are non-negative integers. A value of 0 disables the strategy.
+     * Default is <code>0</code>
+     *
+     * The property can be changed for a criteria builder before using the VALUES clause.
+     *
+     * @since 1.6.8
+     */
+    public static final String VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD = "com.blazebit.persistence.values.temporary_table_threshold";
+
     /**
      * If set to false, parameters are always rendered as such, otherwise the values might get inlined when no type can be inferred.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -130,6 +170,22 @@ public final class ConfigurationProperties {
      */
     public static final String PARAMETER_AS_LITERAL_RENDERING = "com.blazebit.persistence.parameter_literal_rendering";
 
+    /**
+     * Defines whether the values of collection valued parameters and the value count of VALUES clauses should be padded
+     * to a bucket size by repeating the last value. This reduces the number of distinct SQL strings that are created for collections
+     * of different sizes which would otherwise fill up query plan and statement caches.
+     * Valid values for this property are <code>false</code>, <code>true</code> to pad to the next power of two,
+     * or a comma separated list of ascending bucket sizes like <code>10,50,100</code>. Sizes beyond the last bucket are padded
+     * to the next multiple of the last bucket size.
+     * Default is <code>false</code>
+     *
+     * Note that VALUES clauses are only padded if {@link #VALUES_CLAUSE_FILTER_NULLS} is enabled.
+     * The property can be changed for a criteria builder before using the VALUES clause or constructing a query.
+     *
+     * @since 1.6.8
+     */
+    public static final String PARAMETER_LIST_PADDING = "com.blazebit.persistence.parameter_list_padding";
+
     /**
      * If set to true, the keyset predicate is rendered in an optimized form so that database optimizers are more likely
      * to use indices.
@@ -211,6 +267,81 @@ public final class ConfigurationProperties {
      */
     public static final String CRITERIA_VALUE_AS_PARAMETER = "com.blazebit.persistence.criteria_value_as_parameter";
 
+    /**
+     * The maximum number of entries of the factory wide cache for the SQL of custom queries.
+     * Structurally identical criteria builders render the same JPQL, so the SQL post-processing can be reused
+     * between criteria builders instead of being redone for every builder instance.
+     * Valid values for this property are non-negative integers.
+     * Default is <code>0</code> which disables the cache.
+     *
+     * @since 1.6.8
+     */
+    public static final String QUERY_STRING_CACHE_MAX_SIZE = "com.blazebit.persistence.query_string_cache_max_size";
+
+    /**
+     * The maximum number of custom SQL query plans that are cached per persistence unit by the JPA provider integration.
+     * The cache is accessible through the {@link QueryPlanCache} service. The Hibernate 6 integration ignores this property.
+     * Valid values are non-negative integers, 0 disables the cache.
+     * Default is <code>2048</code>
+     *
+     * @since 1.6.8
+     */
+    public static final String QUERY_PLAN_CACHE_MAX_SIZE = "com.blazebit.persistence.query_plan_cache_max_size";
+
+    /**
+     * The maximum number of queries for which keyset bookmarks are remembered in the factory wide keyset bookmark cache.
+     * A bookmark is the keyset of the row right before a page boundary. When a paginated criteria builder requests a page
+     * that is too far away from the given keyset page for keyset pagination, the nearest bookmark is used as keyset
+     * and only the remaining rows are skipped via an offset. Note that bookmarks might get out of date when the data changes,
+     * so invalidate bookmarks through the {@code KeysetBookmarkCache} service of the criteria builder factory on modifications.
+     * Valid values for this property are non-negative integers.
+     * Default is <code>0</code> which disables the cache.
+     *
+     * @since 1.6.8
+     */
+    public static final String KEYSET_BOOKMARK_CACHE_MAX_SIZE = "com.blazebit.persistence.keyset_bookmark_cache_max_size";
+
+    /**
+     * The number of pages between two keyset bookmarks that are remembered in the keyset bookmark cache.
+     * Valid values for this property are non-negative integers. A value of 0 disables remembering new bookmarks.
+     * Default is <code>10</code>
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.8
+     */
+    public static final String KEYSET_BOOKMARK_INTERVAL = "com.blazebit.persistence.keyset_bookmark_interval";
+
+    /**
+     * The maximum number of entries of the factory wide cache for count query results of paginated criteria builders
+     * that enabled count caching via {@link PaginatedCriteriaBuilder#withCachedCount(long)}.
+     * Valid values for this property are non-negative integers.
+     * Default is <code>1000</code>. A value of <code>0</code> disables the cache.
+     *
+     * @since 1.6.8
+     */
+    public static final String COUNT_CACHE_MAX_SIZE = "com.blazebit.persistence.count_cache_max_size";
+
+    /**
+     * The maximum number of result elements that the factory wide cache for results of criteria builders
+     * that enabled result caching via {@link FullQueryBuilder#withCachedResult(long)} may hold in total.
+     * Valid values for this property are non-negative integers.
+     * Default is <code>10000</code>. A value of <code>0</code> disables the cache.
+     *
+     * @since 1.6.8
+     */
+    public static final String RESULT_CACHE_MAX_SIZE = "com.blazebit.persistence.result_cache_max_size";
+
+    /**
+     * If set to true, the <code>TO_MULTISET</code> function aggregates tuples to an array of records instead of JSON on DBMS that support it, currently PostgreSQL.
+     * This avoids the JSON construction in the database and the JSON parsing in the JVM. On other DBMS, the JSON or XML encoding is used.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * @since 1.6.8
+     */
+    public static final String MULTISET_ARRAY_ENCODING = "com.blazebit.persistence.multiset_array_encoding";
+
     private ConfigurationProperties() {
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * Describes how the total size of a {@link PagedList} was determined.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ * @see PagedList#getCountMode()
+ */
+public enum CountMode {
+
+    /**
+     * No count was determined, so the total size is <code>-1</code> or just a lower bound derived from the page.
+     */
+    NONE,
+    /**
+     * The total size was determined by a count query.
+     */
+    EXACT,
+    /**
+     * The total size was determined by a count query that was bounded via {@link PaginatedCriteriaBuilder#withBoundedCount(long)}
+     * and reached the bound, so the actual total size might be bigger.
+     */
+    BOUNDED,
+    /**
+     * The total size is the result of a previous count query that was cached via {@link PaginatedCriteriaBuilder#withCachedCount(long)}.
+     */
+    CACHED,
+    /**
+     * The total size is an estimate based on the statistics of the DBMS as requested via {@link PaginatedCriteriaBuilder#withEstimatedCount(boolean)}.
+     */
+    ESTIMATED;
+}
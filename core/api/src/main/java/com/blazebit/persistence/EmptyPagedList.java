@@ -42,6 +42,11 @@ class EmptyPagedList<T> implements PagedList<T>, Serializable {
         return 0;
     }
 
+    @Override
+    public CountMode getCountMode() {
+        return CountMode.EXACT;
+    }
+
     @Override
     public int getPage() {
         return 0;
@@ -18,6 +18,7 @@ package com.blazebit.persistence;
 
 import javax.persistence.TypedQuery;
 import java.lang.reflect.Constructor;
+import java.util.Collection;
 
 /**
  * A base interface for builders that support normal query functionality.
@@ -384,6 +385,43 @@ public interface FullQueryBuilder<T, X extends FullQueryBuilder<T, X>> extends Q
      */
     public X rightJoinFetchDefault(String path, String alias);
 
+    /**
+     * Enables caching of the query result for the given amount of milliseconds.
+     * Delegates to {@link #withCachedResult(long, Object, Collection)} without a cache key and additional entity types.
+     *
+     * @param timeToLive the number of milliseconds for which a result should be cached
+     * @return The query builder for chaining calls
+     * @since 1.6.8
+     */
+    public X withCachedResult(long timeToLive);
+
+    /**
+     * Enables caching of the result of {@link #getResultList()} for the given amount of milliseconds. The result is cached in the factory wide
+     * {@link QueryResultCache} per query string, parameter values, first and max results and the given cache key, which has to distinguish
+     * object builders that produce different objects for the same query. A value of <code>0</code> disables caching.
+     *
+     * A cached result is invalidated when one of the entity types used by the query or one of the given entity types is modified
+     * through a modification criteria builder of the same factory or invalidated via {@link QueryResultCache#invalidate(Class)}.
+     * Since cached results are shared, caching should only be used for results that are never modified like scalar values or read-only objects,
+     * but not for entities. The result list that is returned is a copy of the cached list. Queries with data modifying CTEs are never cached.
+     * Only {@link #getResultList()} uses the cache, {@link #getSingleResult()}, {@link #getResultStream()} and the query of {@link #getQuery()} always execute the query.
+     *
+     * @param timeToLive the number of milliseconds for which a result should be cached
+     * @param cacheKey an additional key to distinguish results or <code>null</code>
+     * @param entityClasses the entity types on which the result depends in addition to the ones used in the query
+     * @return The query builder for chaining calls
+     * @since 1.6.8
+     */
+    public X withCachedResult(long timeToLive, Object cacheKey, Collection<Class<?>> entityClasses);
+
+    /**
+     * Returns the number of milliseconds for which a result is cached or <code>0</code> if caching is disabled.
+     *
+     * @return the number of milliseconds for which a result is cached
+     * @since 1.6.8
+     */
+    public long getCachedResultTimeToLive();
+
     /*
      * Select methods
      */
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that requires all tuples belonging to the same result object to be transformed together via {@link #buildList(java.util.List)},
+ * e.g. because multiple tuples are collapsed into a single object with a collection.
+ *
+ * Such an object builder can still be used for streaming results, as long as the tuples of a group are adjacent in the result,
+ * which is usually achieved by ordering by the identifier of the result object.
+ * The objects built via {@link #build(Object[])} are collected into windows of {@link #getGroupWindowSize()} groups
+ * and each window is transformed via {@link #buildList(java.util.List)} separately.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface GroupingObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns the maximum number of groups that should be transformed at once or <code>0</code> if every object can be transformed individually.
+     *
+     * @return The group window size
+     */
+    public int getGroupWindowSize();
+
+    /**
+     * Returns the key of the group to which the given object, as returned by {@link #build(Object[])}, belongs.
+     *
+     * @param object The object as returned by {@link #build(Object[])}
+     * @return The group key
+     */
+    public Object getGroupKey(T object);
+}
@@ -50,6 +50,14 @@ public interface PagedList<T> extends List<T> {
      */
     public long getTotalSize();
 
+    /**
+     * Returns how the total size was determined i.e. whether it is exact, bounded, cached or estimated.
+     *
+     * @return The count mode
+     * @since 1.6.8
+     */
+    public CountMode getCountMode();
+
     /**
      * Returns the number of this page, numbered from 1.
      * 
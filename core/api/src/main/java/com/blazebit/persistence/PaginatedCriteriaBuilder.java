@@ -17,6 +17,7 @@
 package com.blazebit.persistence;
 
 import javax.persistence.TypedQuery;
+import java.util.concurrent.Executor;
 
 /**
  * A builder for paginated criteria queries.
@@ -135,6 +136,47 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public long getBoundedCount();
 
+    /**
+     * Enables caching of the count query result for the given amount of milliseconds. The result is cached per count query and parameter values
+     * and reused by subsequent queries as long as it didn't expire or was invalidated through the <code>CountCache</code> service of the criteria builder factory.
+     * A value of <code>0</code> disables caching.
+     *
+     * @param timeToLive the number of milliseconds for which a count should be cached
+     * @return The query builder for chaining calls
+     * @since 1.6.8
+     * @see CountMode#CACHED
+     */
+    public PaginatedCriteriaBuilder<T> withCachedCount(long timeToLive);
+
+    /**
+     * Returns the number of milliseconds for which a count is cached or <code>0</code> if caching is disabled.
+     *
+     * @return the number of milliseconds for which a count is cached
+     * @since 1.6.8
+     */
+    public long getCachedCountTimeToLive();
+
+    /**
+     * Enables or disables the use of a row count estimate of the DBMS instead of a count query.
+     * For a query over a single entity table without restrictions, the estimate comes from the table statistics of the DBMS.
+     * For other queries without grouping or collection joins, the estimate comes from the plan of the count query if the DBMS provides one.
+     * Otherwise a count query is executed.
+     *
+     * @param withEstimatedCount true to enable, false to disable the use of row count estimates
+     * @return The query builder for chaining calls
+     * @since 1.6.8
+     * @see CountMode#ESTIMATED
+     */
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount);
+
+    /**
+     * Returns whether the use of row count estimates is enabled or not.
+     *
+     * @return true when enabled, false otherwise
+     * @since 1.6.8
+     */
+    public boolean isWithEstimatedCount();
+
     /**
      * Forces the use of an id query even if the pagination would not need it.
      *
@@ -204,6 +246,30 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithInlineCountQuery();
 
+    /**
+     * Enables the execution of the count query in parallel to the id and object query by submitting it to the given executor.
+     * The count query is executed through a separate entity manager created from the entity manager factory of this query builder
+     * with the properties of the entity manager of this query builder, so it uses a separate connection.
+     * Since such an entity manager doesn't see uncommitted changes, the count query is executed sequentially while the entity manager is joined to a transaction.
+     *
+     * The parallel execution is only used if the count query is not inlined and doesn't require custom SQL i.e. no CTEs, entity functions or bounded counting,
+     * and when no reference entity for navigation is used, as in that case the count query determines the page. Otherwise the count query is executed sequentially.
+     * With JPA 2.0 providers, it is always executed sequentially, as it can't be determined whether the entity manager is joined to a transaction.
+     *
+     * @param executor the executor to run the count query with or <code>null</code> to execute the count query sequentially
+     * @return The query builder for chaining calls
+     * @since 1.6.8
+     */
+    public PaginatedCriteriaBuilder<T> withParallelCountQuery(Executor executor);
+
+    /**
+     * Returns the executor that is used for running the count query in parallel or <code>null</code> if it is executed sequentially.
+     *
+     * @return the executor for the count query or <code>null</code>
+     * @since 1.6.8
+     */
+    public Executor getParallelCountQueryExecutor();
+
     /**
      * Creates and returns a new {@link CriteriaBuilder} that can be used to query the id values for the current page.
      *
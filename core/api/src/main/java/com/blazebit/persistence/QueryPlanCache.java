@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * The cache for the query plans of custom SQL queries i.e. queries that use CTEs, the VALUES clause or other features that JPQL does not support.
+ * The cache is maintained by the JPA provider integration per persistence unit and is available through {@link CriteriaBuilderFactory#getService(Class)}.
+ * The capacity is configured via {@link ConfigurationProperties#QUERY_PLAN_CACHE_MAX_SIZE}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface QueryPlanCache {
+
+    /**
+     * Returns the statistics of the query plan cache of the persistence unit of the given entity manager
+     * or <code>null</code> if the JPA provider integration does not cache query plans.
+     *
+     * @param em The entity manager
+     * @return the query plan cache statistics or <code>null</code>
+     */
+    public QueryPlanCacheStatistics getStatistics(EntityManager em);
+
+    /**
+     * Discards all cached query plans of the persistence unit of the given entity manager.
+     *
+     * @param em The entity manager
+     */
+    public void clear(EntityManager em);
+
+    /**
+     * Compiles and caches the query plan of the query of the given query builder, so that the first execution of the query doesn't have to.
+     * This is meant to be invoked for known queries at startup. Since the values of collection valued parameters influence the SQL,
+     * such parameters should be bound to representative values.
+     *
+     * @param queryBuilder The query builder of which to warm up the query plan
+     * @return <code>true</code> if a query plan was compiled, <code>false</code> if it was cached already, the query is not a custom SQL query
+     * or the JPA provider integration does not cache query plans
+     */
+    public boolean warmUp(Queryable<?, ?> queryBuilder);
+}
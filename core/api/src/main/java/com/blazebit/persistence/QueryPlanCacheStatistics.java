@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence;
+
+/**
+ * A snapshot of the statistics of the query plan cache for custom SQL queries of a persistence unit as returned by {@link QueryPlanCache#getStatistics(javax.persistence.EntityManager)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class QueryPlanCacheStatistics {
+
+    private final int maxSize;
+    private final int size;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long compileTimeSavedNanos;
+
+    /**
+     * Creates a new statistics snapshot.
+     *
+     * @param maxSize The maximum number of query plans or <code>-1</code> if unknown
+     * @param size The number of cached query plans
+     * @param hitCount The number of cache hits or <code>-1</code> if unknown
+     * @param missCount The number of cache misses or <code>-1</code> if unknown
+     * @param evictionCount The number of evicted query plans or <code>-1</code> if unknown
+     * @param compileTimeSavedNanos The saved compile time in nanoseconds or <code>-1</code> if unknown
+     */
+    public QueryPlanCacheStatistics(int maxSize, int size, long hitCount, long missCount, long evictionCount, long compileTimeSavedNanos) {
+        this.maxSize = maxSize;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.compileTimeSavedNanos = compileTimeSavedNanos;
+    }
+
+    /**
+     * Returns the maximum number of query plans or <code>-1</code> if unknown.
+     *
+     * @return the maximum number of query plans
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of cached query plans.
+     *
+     * @return the number of cached query plans
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of cache hits or <code>-1</code> if unknown.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of cache misses or <code>-1</code> if unknown.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of evicted query plans or <code>-1</code> if unknown.
+     *
+     * @return the number of evicted query plans
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the sum of the time in nanoseconds it took to compile the query plans that were served from the cache
+     * or <code>-1</code> if unknown.
+     *
+     * @return the saved compile time in nanoseconds
+     */
+    public long getCompileTimeSavedNanos() {
+        return compileTimeSavedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlanCacheStatistics{" +
+                "maxSize=" + maxSize +
+                ", size=" + size +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", compileTimeSavedNanos=" + compileTimeSavedNanos +
+                '}';
+    }
+}
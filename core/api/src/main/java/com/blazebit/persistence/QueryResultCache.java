@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * A size bounded cache for the results of criteria builders that is shared between all criteria builders of a factory.
+ * Results are only cached for criteria builders that enabled result caching via {@link FullQueryBuilder#withCachedResult(long, Object, java.util.Collection)}.
+ * The cache is available through {@link CriteriaBuilderFactory#getService(Class)} if it isn't disabled via {@link ConfigurationProperties#RESULT_CACHE_MAX_SIZE}.
+ *
+ * Modification criteria builders of the factory invalidate the results that depend on the modified entity type automatically.
+ * Changes that are done through other means must be announced via {@link #invalidate(EntityManager, Class)} or {@link #invalidate(Class)}.
+ *
+ * A transaction that invalidated an entity type neither reads nor caches results that depend on the entity type until it completed,
+ * so that its uncommitted changes never become visible to other transactions through the cache.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface QueryResultCache {
+
+    /**
+     * Invalidates the cached results of all queries that depend on the given entity type or a type of the same entity hierarchy.
+     *
+     * @param entityClass The entity type that was modified
+     */
+    public void invalidate(Class<?> entityClass);
+
+    /**
+     * Invalidates the cached results of all queries that depend on the given entity type or a type of the same entity hierarchy
+     * and bypasses the cache for these queries in the current transaction of the given entity manager until the transaction completed.
+     * Since other transactions might cache results based on the old state until then, the results are invalidated again after the transaction completed.
+     * If there is no active transaction, this is the same as {@link #invalidate(Class)}.
+     *
+     * @param em The entity manager that modified the entity type
+     * @param entityClass The entity type that was modified
+     */
+    public void invalidate(EntityManager em, Class<?> entityClass);
+
+    /**
+     * Invalidates all cached results.
+     */
+    public void invalidateAll();
+
+    /**
+     * Returns the maximum number of result elements the cache holds.
+     *
+     * @return the maximum number of result elements
+     */
+    public int getMaxSize();
+
+    /**
+     * Returns the number of result elements the cache currently holds.
+     *
+     * @return the number of result elements
+     */
+    public int getSize();
+
+    /**
+     * Returns the number of lookups that returned a cached result.
+     *
+     * @return the hit count
+     */
+    public long getHitCount();
+
+    /**
+     * Returns the number of lookups that did not return a cached result.
+     *
+     * @return the miss count
+     */
+    public long getMissCount();
+
+    /**
+     * Returns the number of results that were evicted to stay within the maximum size.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount();
+
+    /**
+     * Returns the number of invalidations.
+     *
+     * @return the invalidation count
+     */
+    public long getInvalidationCount();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.spi;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The parameter value for one column of a VALUES clause that uses the {@link ValuesStrategy#ARRAY} strategy.
+ * The JPA provider integration has to bind it as SQL array of the given element type.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class ArrayValue implements Serializable {
+
+    private final String elementSqlType;
+    private final Object[] values;
+
+    /**
+     * Creates a new array value.
+     *
+     * @param elementSqlType The SQL type of the array elements
+     * @param values The elements
+     */
+    public ArrayValue(String elementSqlType, Object[] values) {
+        this.elementSqlType = elementSqlType;
+        this.values = values;
+    }
+
+    /**
+     * Returns the SQL type name of the array elements as expected by {@link java.sql.Connection#createArrayOf(String, Object[])},
+     * i.e. without length, precision or scale.
+     *
+     * @return The SQL type name of the array elements
+     */
+    public String getElementTypeName() {
+        int parenthesisIndex = elementSqlType.indexOf('(');
+        if (parenthesisIndex == -1) {
+            return elementSqlType;
+        }
+        return elementSqlType.substring(0, parenthesisIndex).trim();
+    }
+
+    /**
+     * Returns the SQL type of the array elements.
+     *
+     * @return The SQL type of the array elements
+     */
+    public String getElementSqlType() {
+        return elementSqlType;
+    }
+
+    /**
+     * Returns the elements of the array.
+     *
+     * @return The elements
+     */
+    public Object[] getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArrayValue)) {
+            return false;
+        }
+        ArrayValue that = (ArrayValue) o;
+        return elementSqlType.equals(that.elementSqlType) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * elementSqlType.hashCode() + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
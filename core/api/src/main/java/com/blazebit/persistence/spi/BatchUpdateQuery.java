@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.spi;
+
+/**
+ * Interface for modification queries that can execute multiple sets of parameter values as batch.
+ * A batch entry is added by binding the parameter values on the query and invoking {@link #addBatch()}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface BatchUpdateQuery {
+
+    /**
+     * Adds the currently bound parameter values as entry to the batch of this query.
+     * If the SQL for the currently bound parameter values differs from the SQL of the pending batch entries,
+     * the pending batch entries are executed first.
+     */
+    public void addBatch();
+
+    /**
+     * Executes all pending batch entries and clears the batch.
+     *
+     * @return The update counts of the executed batch entries
+     */
+    public int[] executeBatch();
+
+    /**
+     * Returns the number of pending batch entries.
+     *
+     * @return The number of pending batch entries
+     */
+    public int getBatchSize();
+}
@@ -396,6 +396,79 @@ public interface DbmsDialect {
      */
     public ValuesStrategy getValuesStrategy();
 
+    /**
+     * Returns true if the dbms supports unnesting array parameters into a table via <code>unnest(?, ...)</code>,
+     * which is required for the {@link ValuesStrategy#ARRAY} strategy.
+     *
+     * @return Whether array parameters can be unnested
+     * @since 1.6.8
+     */
+    public boolean supportsArrayValues();
+
+    /**
+     * Returns the name under which the session scoped temporary table with the given name must be referenced.
+     *
+     * @param name The name of the temporary table
+     * @return The name to use for referring to the temporary table
+     * @since 1.6.8
+     */
+    public String getTemporaryTableName(String name);
+
+    /**
+     * Returns the SQL to create a session scoped temporary table with the given columns if it doesn't exist yet,
+     * or <code>null</code> if the dbms does not support the {@link ValuesStrategy#TEMPORARY_TABLE} strategy.
+     * The rows of the table must only be visible to the current session.
+     *
+     * @param tableName The name of the temporary table as returned by {@link #getTemporaryTableName(String)}
+     * @param columnNames The column names
+     * @param columnTypes The java types of the columns
+     * @return The SQL to create the temporary table or <code>null</code>
+     * @since 1.6.8
+     */
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes);
+
+    /**
+     * Returns the SQL to delete all rows of the temporary table which is run before a transaction completes,
+     * or <code>null</code> if the temporary table created via {@link #getCreateTemporaryTableSql(String, String[], Class[])} deletes the rows on commit.
+     *
+     * @param tableName The name of the temporary table as returned by {@link #getTemporaryTableName(String)}
+     * @return The SQL to delete the rows of the temporary table or <code>null</code>
+     * @since 1.6.8
+     */
+    public String getClearTemporaryTableSql(String tableName);
+
+    /**
+     * Returns a SQL query that selects the estimated number of rows of the given table as single numeric value
+     * based on the statistics of the dbms, or <code>null</code> if the dbms does not provide such statistics.
+     * The query may return no row, <code>null</code> or a negative value if no statistics are available for the table.
+     *
+     * @param tableReference The table as it appears in the from clause of a SQL query i.e. possibly qualified and quoted
+     * @return The SQL to select the estimated row count or <code>null</code>
+     * @since 1.6.8
+     */
+    public String getTableRowCountEstimateSql(String tableReference);
+
+    /**
+     * Returns a SQL statement that explains the given select statement such that the estimated number of result rows
+     * can be extracted via {@link #getQueryRowCountEstimate(List)}, or <code>null</code> if the dbms does not provide such an estimate.
+     * The returned SQL must contain the parameters of the given select statement in the same order.
+     *
+     * @param sql The select statement
+     * @return The SQL to explain the select statement or <code>null</code>
+     * @since 1.6.8
+     */
+    public String getQueryRowCountEstimateSql(String sql);
+
+    /**
+     * Returns the estimated number of result rows from the values of the first column of the result of the SQL statement
+     * returned by {@link #getQueryRowCountEstimateSql(String)}, or a negative value if the result contains no estimate.
+     *
+     * @param planRows The values of the first column of the explain result
+     * @return The estimated row count or a negative value
+     * @since 1.6.8
+     */
+    public long getQueryRowCountEstimate(List<Object> planRows);
+
     /**
      * Returns whether select items need to have unique names even though table column aliasing is used
      * i.e. `from (select ...) t(c1,c2)`.
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.spi;
 
+import com.blazebit.persistence.QueryPlanCacheStatistics;
 import com.blazebit.persistence.ReturningResult;
 
 import javax.persistence.EntityManager;
@@ -47,6 +48,26 @@ public interface ExtendedQuerySupport {
      */
     public boolean needsExampleQueryForAdvancedDml();
 
+    /**
+     * Returns whether the JPA provider can bind {@link ArrayValue} parameters as SQL arrays
+     * which is required for the {@link ValuesStrategy#ARRAY} strategy.
+     *
+     * @return Whether array values can be bound as parameters
+     * @since 1.6.8
+     */
+    public boolean supportsArrayValues();
+
+    /**
+     * Returns whether the JPA provider can insert rows into temporary tables of the session of the given entity manager
+     * which is required for the {@link ValuesStrategy#TEMPORARY_TABLE} strategy.
+     * Since the rows are bound to the transaction, this requires an active transaction.
+     *
+     * @param em The entity manager
+     * @return Whether rows can be inserted into temporary tables
+     * @since 1.6.8
+     */
+    public boolean supportsTemporaryTableValues(EntityManager em);
+
     /**
      * Applies the first and max results to the query.
      *
@@ -179,6 +200,116 @@ public interface ExtendedQuerySupport {
      */
     public int executeUpdate(ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String sqlOverride, boolean queryPlanCacheEnabled);
 
+    /**
+     * Executes the Query once for every batch entry by replacing the SQL with the given overriding SQL query and returns the update counts.
+     * Before the parameters of a batch entry are collected, the respective binder is run which binds the parameter values of that entry to the participating queries.
+     * Implementations should send the statements as JDBC batch if possible.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param baseQuery The base query which represents the original modification query
+     * @param query The main query to execute
+     * @param sqlOverride The actual SQL query to execute instead of the query's original SQL
+     * @param batchBinders The binders for the parameter values of the batch entries
+     * @param queryPlanCacheEnabled Designates whether query plans can be cached and reused
+     * @return The update counts of the batch entries
+     * @since 1.6.8
+     */
+    public int[] executeBatchUpdate(ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String sqlOverride, List<? extends Runnable> batchBinders, boolean queryPlanCacheEnabled);
+
+    /**
+     * Inserts the given rows into a session scoped temporary table via a JDBC batch, after creating the table with the given SQL if necessary.
+     * The rows must be removed before the transaction completes, either by the DBMS or by executing the given clear SQL.
+     * Since the rows are bound to the transaction, an active transaction is required.
+     * The create and clear SQL should only be executed for the first insert into a table within a transaction.
+     *
+     * @param em The entity manager
+     * @param createSql The SQL to create the temporary table if it doesn't exist yet
+     * @param clearSql The SQL to delete the rows of the temporary table before the transaction completes or <code>null</code> if the DBMS deletes the rows on commit
+     * @param insertSql The SQL to insert a single row
+     * @param sqlTypes The {@link java.sql.Types} of the insert parameters which are used for binding <code>null</code> values
+     * @param rows The parameter values of the rows to insert
+     * @param afterTransactionCompletion The callback to invoke after the transaction completed, i.e. when the rows are gone
+     * @since 1.6.8
+     */
+    public void insertTemporaryTableValues(EntityManager em, String createSql, String clearSql, String insertSql, int[] sqlTypes, List<Object[]> rows, Runnable afterTransactionCompletion);
+
+    /**
+     * Executes the given SQL with the parameter values of the given query and returns the values of the first column of the result rows.
+     * The SQL must contain the parameters of the SQL of the query in the same order, like e.g. an EXPLAIN statement for the SQL of the query.
+     *
+     * @param em The entity manager
+     * @param query The query that provides the parameter values
+     * @param sql The SQL to execute
+     * @return The values of the first column of the result rows
+     * @since 1.6.8
+     */
+    public List<Object> getFirstColumnValues(EntityManager em, Query query, String sql);
+
+    /**
+     * Registers the given callback to be invoked after the current transaction of the given entity manager completed.
+     * Returns <code>false</code> without registering the callback if there is no active transaction or if the JPA provider does not support such callbacks.
+     *
+     * @param em The entity manager
+     * @param callback The callback to invoke after the transaction completed
+     * @return Whether the callback was registered
+     * @since 1.6.8
+     */
+    public boolean registerAfterTransactionCompletion(EntityManager em, Runnable callback);
+
+    /**
+     * Returns the resource that is bound to the current transaction of the given entity manager for the given key.
+     * Returns <code>null</code> if there is no such resource, no active transaction or if the JPA provider does not support transaction bound resources.
+     *
+     * @param em The entity manager
+     * @param key The resource key
+     * @return The resource or <code>null</code>
+     * @since 1.6.8
+     */
+    public Object getTransactionResource(EntityManager em, Object key);
+
+    /**
+     * Binds the given resource for the given key to the current transaction of the given entity manager until the transaction completed.
+     * Returns <code>false</code> without binding the resource if there is no active transaction or if the JPA provider does not support transaction bound resources.
+     *
+     * @param em The entity manager
+     * @param key The resource key
+     * @param value The resource
+     * @return Whether the resource was bound
+     * @since 1.6.8
+     */
+    public boolean putTransactionResource(EntityManager em, Object key, Object value);
+
+    /**
+     * Returns the statistics of the cache for the query plans of custom SQL queries of the persistence unit of the given entity manager
+     * or <code>null</code> if the JPA provider integration does not cache query plans.
+     *
+     * @param em The entity manager
+     * @return The query plan cache statistics or <code>null</code>
+     * @since 1.6.8
+     */
+    public QueryPlanCacheStatistics getQueryPlanCacheStatistics(EntityManager em);
+
+    /**
+     * Discards the cached query plans of custom SQL queries of the persistence unit of the given entity manager.
+     *
+     * @param em The entity manager
+     * @since 1.6.8
+     */
+    public void clearQueryPlanCache(EntityManager em);
+
+    /**
+     * Compiles and caches the query plan of the given custom SQL select query without executing it.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param query The main query
+     * @param sqlOverride The actual SQL query to compile instead of the query's original SQL
+     * @return Whether a query plan was compiled, <code>false</code> if it was cached already or if the JPA provider integration does not cache query plans
+     * @since 1.6.8
+     */
+    public boolean warmUpQueryPlan(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride);
+
     /**
      * Executes and returns the returning result of the Query by replacing the SQL with the given overriding SQL query.
      *
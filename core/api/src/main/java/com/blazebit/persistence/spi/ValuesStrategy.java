@@ -25,8 +25,19 @@ package com.blazebit.persistence.spi;
 public enum ValuesStrategy {
     VALUES,
     SELECT_VALUES,
-    SELECT_UNION;
-
-    // NOTE: another possible strategy would be to use a temporary table
-    // CREATE TEMPORARY TABLE IF NOT EXISTS table2 AS (SELECT * FROM table1)
+    SELECT_UNION,
+    /**
+     * Binds one array parameter per column and unnests the arrays into a table.
+     * The SQL is independent of the number of values.
+     *
+     * @since 1.6.8
+     */
+    ARRAY,
+    /**
+     * Inserts the values into a session scoped temporary table before executing the query and selects from that table.
+     * The SQL is independent of the number of values.
+     *
+     * @since 1.6.8
+     */
+    TEMPORARY_TABLE;
 }
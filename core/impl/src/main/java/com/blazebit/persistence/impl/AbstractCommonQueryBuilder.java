@@ -26,6 +26,7 @@ import com.blazebit.persistence.DefaultKeyset;
 import com.blazebit.persistence.From;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.FullSelectCTECriteriaBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.HavingOrBuilder;
 import com.blazebit.persistence.JoinOnBuilder;
 import com.blazebit.persistence.JoinType;
@@ -94,6 +95,7 @@ import com.blazebit.persistence.parser.expression.StringLiteral;
 import com.blazebit.persistence.parser.expression.Subquery;
 import com.blazebit.persistence.parser.expression.SubqueryExpression;
 import com.blazebit.persistence.parser.expression.SubqueryExpressionFactory;
+import com.blazebit.persistence.parser.expression.VisitorAdapter;
 import com.blazebit.persistence.parser.expression.modifier.ExpressionModifier;
 import com.blazebit.persistence.parser.predicate.Predicate;
 import com.blazebit.persistence.parser.util.ExpressionUtils;
@@ -2749,6 +2751,30 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         orderByManager.acceptVisitor(expressionVisitor);
     }
 
+    /**
+     * Collects the entity types of the from clause elements of this query and all of its subqueries.
+     *
+     * @param entityClasses The set to add the entity types to
+     */
+    protected void collectEntityClasses(final Set<Class<?>> entityClasses) {
+        joinManager.acceptVisitor(new JoinNodeVisitor() {
+            @Override
+            public void visit(JoinNode node) {
+                if (node.getType() instanceof EntityType<?>) {
+                    entityClasses.add(node.getJavaType());
+                }
+            }
+        });
+        applyVisitor(new VisitorAdapter() {
+            @Override
+            public void visit(SubqueryExpression expression) {
+                if (expression.getSubquery() instanceof AbstractCommonQueryBuilder<?, ?, ?, ?, ?>) {
+                    ((AbstractCommonQueryBuilder<?, ?, ?, ?, ?>) expression.getSubquery()).collectEntityClasses(entityClasses);
+                }
+            }
+        });
+    }
+
     public void applyExpressionTransformersAndBuildGroupByClauses(JoinVisitor joinVisitor) {
         groupByManager.resetCollected();
         groupByManager.collectGroupByClauses(joinVisitor);
@@ -2868,7 +2894,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         boolean shouldRenderCteNodes = lateralSb == null && renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(false) : Collections.<CTENode>emptyList();
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameterImpls(), parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                this, baseQuery, baseQueryString, parameterManager.getParameterImpls(), parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                 mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
         );
 
@@ -2953,6 +2979,14 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         String dummyTable = dbmsDialect.getDummyTable();
 
         for (JoinNode node : valuesNodes) {
+            ValuesStrategy valuesStrategy;
+            if (node.getValuesTemporaryTable() != null) {
+                valuesStrategy = ValuesStrategy.TEMPORARY_TABLE;
+            } else if (node.getValuesArrayElementTypes() != null) {
+                valuesStrategy = ValuesStrategy.ARRAY;
+            } else {
+                valuesStrategy = strategy;
+            }
             Class<?> clazz = node.getInternalEntityType().getJavaType();
             String valueClazzAttributeName = node.getValuesLikeAttribute();
             int valueCount = node.getValueCount();
@@ -2964,7 +2998,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             // We construct an example query representing the values clause with a SELECT clause that selects the fields in the right order which we need to construct SQL
             // that uses proper aliases and filters null values which are there in the first place to pad up parameters in case we don't reach the desired value count
             StringBuilder valuesSb = new StringBuilder(20 + valueCount * attributes.length * 3);
-            Query valuesExampleQuery = getValuesExampleQuery(clazz, valueCount, identifiableReference, valueClazzAttributeName, rootAlias, castedParameter, attributes, valuesSb, strategy, dummyTable, node);
+            Query valuesExampleQuery = getValuesExampleQuery(clazz, valueCount, identifiableReference, valueClazzAttributeName, rootAlias, castedParameter, attributes, valuesSb, valuesStrategy, dummyTable, node);
 
             String exampleQuerySql = mainQuery.cbf.getExtendedQuerySupport().getSql(mainQuery.em, valuesExampleQuery);
             String exampleQuerySqlAlias = mainQuery.cbf.getExtendedQuerySupport().getSqlAlias(mainQuery.em, valuesExampleQuery, "e", 0);
@@ -2974,13 +3008,13 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             }
             StringBuilder whereClauseSb = new StringBuilder(exampleQuerySql.length());
             String filterNullsTableAlias = "fltr_nulls_tbl_als_";
-            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQuerySql, whereClauseSb, filterNullsTableAlias, strategy, dummyTable);
+            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQuerySql, whereClauseSb, filterNullsTableAlias, valuesStrategy, dummyTable);
 
-            if (strategy == ValuesStrategy.SELECT_VALUES) {
+            if (valuesStrategy == ValuesStrategy.SELECT_VALUES || valuesStrategy == ValuesStrategy.TEMPORARY_TABLE) {
                 valuesSb.insert(0, valuesAliases);
                 valuesSb.append(')');
                 valuesAliases = null;
-            } else if (strategy == ValuesStrategy.SELECT_UNION) {
+            } else if (valuesStrategy == ValuesStrategy.SELECT_UNION) {
                 valuesSb.insert(0, valuesAliases);
                 if (!filterNulls) {
                     // We must order by all values and use a limit in such a case
@@ -3156,10 +3190,10 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
         StringBuilder sb;
 
-        if (strategy == ValuesStrategy.VALUES) {
+        if (strategy == ValuesStrategy.VALUES || strategy == ValuesStrategy.ARRAY) {
             sb = new StringBuilder((endIndex - startIndex) - (tableAlias.length() + 3) * attributeCount);
             sb.append('(');
-        } else if (strategy == ValuesStrategy.SELECT_VALUES) {
+        } else if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.TEMPORARY_TABLE) {
             sb = new StringBuilder(endIndex - startIndex);
             sb.append("(select ");
         } else if (strategy == ValuesStrategy.SELECT_UNION) {
@@ -3182,7 +3216,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             whereClauseSb.append(columnNames[i]);
             whereClauseSb.append(" is not null");
 
-            if (strategy == ValuesStrategy.SELECT_VALUES) {
+            if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.TEMPORARY_TABLE) {
                 // TODO: This naming is actually H2 specific
                 sb.append('c');
                 sb.append(i + 1);
@@ -3195,9 +3229,9 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             sb.append(',');
         }
 
-        if (strategy == ValuesStrategy.VALUES) {
+        if (strategy == ValuesStrategy.VALUES || strategy == ValuesStrategy.ARRAY) {
             sb.setCharAt(sb.length() - 1, ')');
-        } else if (strategy == ValuesStrategy.SELECT_VALUES) {
+        } else if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.TEMPORARY_TABLE) {
             sb.setCharAt(sb.length() - 1, ' ');
             sb.append(" from ");
         } else if (strategy == ValuesStrategy.SELECT_UNION) {
@@ -3319,7 +3353,22 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         sb.append(" WHERE ");
         joinManager.renderPlaceholderRequiringPredicate(sb, valuesNode, "e", false, false);
 
-        if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.VALUES) {
+        if (strategy == ValuesStrategy.ARRAY) {
+            // One array parameter per attribute is unnested into a table, so the SQL is independent of the value count
+            valuesSb.append("unnest(");
+            for (int j = 0; j < attributes.length; j++) {
+                valuesSb.append("?,");
+            }
+            valuesSb.setCharAt(valuesSb.length() - 1, ')');
+            return mainQuery.em.createQuery(sb.toString());
+        } else if (strategy == ValuesStrategy.TEMPORARY_TABLE) {
+            // The values are inserted into the temporary table with a key that is bound as the only parameter
+            valuesSb.append(valuesNode.getValuesTemporaryTable().getTableName());
+            valuesSb.append(" where ");
+            valuesSb.append(ValuesTemporaryTable.KEY_COLUMN);
+            valuesSb.append(" = ?");
+            return mainQuery.em.createQuery(sb.toString());
+        } else if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.VALUES) {
             valuesSb.append("(VALUES ");
         } else if (strategy == ValuesStrategy.SELECT_UNION) {
             // Nothing to do here
@@ -3974,11 +4023,53 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         }
     }
 
+    /**
+     * Returns whether the tuples of a query root are guaranteed to be adjacent in the result.
+     * That is the case when there are no collection joins or when the order by items are unique for the query root
+     * and no order by item up to the unique one depends on a collection join.
+     */
+    private boolean hasAdjacentRootTuples() {
+        if (!joinManager.hasCollections()) {
+            return true;
+        }
+        if (!orderByManager.hasOrderBys()) {
+            return false;
+        }
+        List<OrderByExpression> orderByExpressions = orderByManager.getOrderByExpressions(false, whereManager.rootPredicate.getPredicate(), hasGroupBy ? Arrays.asList(getGroupByIdentifierExpressions()) : Collections.<ResolvedExpression>emptyList(), null);
+        List<JoinNode> joinNodes = new ArrayList<>();
+        JoinNodeGathererVisitor joinNodeGathererVisitor = new JoinNodeGathererVisitor(joinNodes);
+        for (int i = 0; i < orderByExpressions.size(); i++) {
+            OrderByExpression orderByExpression = orderByExpressions.get(i);
+            orderByExpression.getExpression().accept(joinNodeGathererVisitor);
+            for (int j = 0; j < joinNodes.size(); j++) {
+                for (JoinNode node = joinNodes.get(j); node.getParent() != null; node = node.getParent()) {
+                    if (node.getParentTreeNode().isCollection()) {
+                        return false;
+                    }
+                }
+            }
+            joinNodes.clear();
+            if (orderByExpression.isResultUnique()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query) {
         ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
         if (selectObjectBuilder != null) {
-            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder);
+            ObjectBuilderTypedQuery.AdjacencyCheck adjacencyCheck = null;
+            if (selectObjectBuilder instanceof GroupingObjectBuilder<?>) {
+                adjacencyCheck = new ObjectBuilderTypedQuery.AdjacencyCheck() {
+                    @Override
+                    public boolean hasAdjacentRootTuples() {
+                        return AbstractCommonQueryBuilder.this.hasAdjacentRootTuples();
+                    }
+                };
+            }
+            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder, adjacencyCheck);
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             return new TypedQueryWrapper<>((TypedQuery<QueryResultType>) query, parameterManager.getCriteriaNameMapping());
         } else {
@@ -45,6 +45,7 @@ import com.blazebit.persistence.impl.query.CustomQuerySpecification;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
 import com.blazebit.persistence.impl.query.QuerySpecification;
+import com.blazebit.persistence.impl.query.ResultCache;
 import com.blazebit.persistence.impl.query.TypedQueryWrapper;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContext;
@@ -72,6 +73,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,6 +116,9 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
     private ResolvedExpression[] entityIdentifierExpressions;
     private ResolvedExpression[] uniqueIdentifierExpressions;
     private JoinNodeGathererVisitor joinNodeGathererVisitor;
+    private long cachedResultTimeToLive;
+    private Object cachedResultKey;
+    private Collection<Class<?>> cachedResultEntityClasses = Collections.emptySet();
 
     /**
      * Create flat copy of builder
@@ -123,6 +128,9 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
     protected AbstractFullQueryBuilder(AbstractFullQueryBuilder<T, ? extends FullQueryBuilder<T, ?>, ?, ?, ?> builder) {
         super(builder);
         this.entityIdentifierExpressions = builder.entityIdentifierExpressions;
+        this.cachedResultTimeToLive = builder.cachedResultTimeToLive;
+        this.cachedResultKey = builder.cachedResultKey;
+        this.cachedResultEntityClasses = builder.cachedResultEntityClasses;
     }
 
     public AbstractFullQueryBuilder(MainQuery mainQuery, boolean isMainQuery, Class<T> clazz, String alias, FinalSetReturn finalSetOperationBuilder) {
@@ -165,6 +173,107 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         return newBuilder;
     }
 
+    @Override
+    public X withCachedResult(long timeToLive) {
+        return withCachedResult(timeToLive, null, Collections.<Class<?>>emptySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public X withCachedResult(long timeToLive, Object cacheKey, Collection<Class<?>> entityClasses) {
+        if (timeToLive < 0L) {
+            throw new IllegalArgumentException("The time to live must be non-negative but was: " + timeToLive);
+        }
+        this.cachedResultTimeToLive = timeToLive;
+        this.cachedResultKey = cacheKey;
+        this.cachedResultEntityClasses = entityClasses == null ? Collections.<Class<?>>emptySet() : entityClasses;
+        return (X) this;
+    }
+
+    @Override
+    public long getCachedResultTimeToLive() {
+        return cachedResultTimeToLive;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> getResultList() {
+        ResultCache.Key key = getResultCacheKey();
+        if (key == null) {
+            return super.getResultList();
+        }
+        ResultCache resultCache = cbf.getResultCache();
+        if (resultCache.isInvalidatedInTransaction(em, key)) {
+            return super.getResultList();
+        }
+        List<T> cachedResult = (List<T>) resultCache.get(key);
+        if (cachedResult == null) {
+            // The generations are determined upfront so that a concurrent modification invalidates the result we are about to cache
+            long[] generations = resultCache.getGenerations(key);
+            List<T> result = super.getResultList();
+            resultCache.put(key, copyResultList(result), generations);
+            return result;
+        }
+        return copyResultList(cachedResult);
+    }
+
+    /**
+     * Returns a copy of the given result list, so that cached result lists are never exposed.
+     *
+     * @param list The result list
+     * @return The copy
+     */
+    protected List<T> copyResultList(List<T> list) {
+        return new ArrayList<>(list);
+    }
+
+    /**
+     * Adds the settings that influence the result of the query, besides the query string and parameter values, to the given result cache fingerprint.
+     *
+     * @param fingerprint The fingerprint
+     */
+    protected void appendResultCacheFingerprint(List<Object> fingerprint) {
+    }
+
+    private ResultCache.Key getResultCacheKey() {
+        ResultCache resultCache = cbf.getResultCache();
+        if (cachedResultTimeToLive == 0L || resultCache == null || hasDataModifyingCtes()) {
+            return null;
+        }
+        String queryString = getQueryString();
+        List<Object> fingerprint = new ArrayList<>();
+        for (ParameterManager.ParameterImpl<?> parameter : parameterManager.getParameterImpls()) {
+            String name = parameter.getName();
+            fingerprint.add(name == null ? parameter.getPosition() : name);
+            fingerprint.add(parameter.getValue());
+        }
+        appendResultCacheFingerprint(fingerprint);
+        Set<Class<?>> entityClasses = getFingerprintEntityClasses();
+        entityClasses.addAll(cachedResultEntityClasses);
+        return new ResultCache.Key(queryString, fingerprint, firstResult, maxResults, cachedResultKey, resultCache.getRootEntityClasses(entityClasses), cachedResultTimeToLive);
+    }
+
+    private boolean hasDataModifyingCtes() {
+        for (CTEInfo cteInfo : mainQuery.cteManager.getCtes()) {
+            if (cteInfo.nonRecursiveCriteriaBuilder instanceof AbstractModificationCriteriaBuilder<?, ?, ?>) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected Set<Class<?>> getFingerprintEntityClasses() {
+        Set<Class<?>> entityClasses = new LinkedHashSet<>();
+        collectEntityClasses(entityClasses);
+        for (CTEInfo cteInfo : mainQuery.cteManager.getCtes()) {
+            cteInfo.nonRecursiveCriteriaBuilder.collectEntityClasses(entityClasses);
+            if (cteInfo.recursiveCriteriaBuilder != null) {
+                cteInfo.recursiveCriteriaBuilder.collectEntityClasses(entityClasses);
+            }
+        }
+        return entityClasses;
+    }
+
     @Override
     public CriteriaBuilder<Object[]> createPageIdQuery(int firstResult, int maxResults, String identifierExpression) {
         return createPageIdQuery(null, firstResult, maxResults, getIdentifierExpressionsToUse(identifierExpression, null));
@@ -681,7 +790,7 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
             String valueParameterName = dualNode.getAlias() + "_value_0";
             String[][] parameterNames = new String[1][1];
             parameterNames[0][0] = valueParameterName;
-            ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1]);
+            ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1], null, null);
             parameters.add(new ParameterManager.ParameterImpl<Object>(dualNode.getAlias(), false, null, null, valuesParameterWrapper));
             valuesParameters.put(valueParameterName, dualNode.getAlias());
             valuesBinders.put(dualNode.getAlias(), valuesParameterWrapper.getBinder());
@@ -710,7 +819,7 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameters, parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                this, baseQuery, countQueryString, parameters, parameterListNames, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                 mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(),
                 useCountWrapper ? getCountExampleQuery() : null
         );
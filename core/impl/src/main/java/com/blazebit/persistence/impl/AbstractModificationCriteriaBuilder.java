@@ -33,6 +33,7 @@ import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.ModificationQuerySpecification;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.query.QueryWrapper;
+import com.blazebit.persistence.impl.query.ResultCache;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContext;
 import com.blazebit.persistence.spi.AttributePath;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
@@ -245,7 +246,18 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public int executeUpdate() {
-        return getQuery().executeUpdate();
+        try {
+            return getQuery().executeUpdate();
+        } finally {
+            invalidateResultCache();
+        }
+    }
+
+    private void invalidateResultCache() {
+        ResultCache resultCache = cbf.getResultCache();
+        if (resultCache != null) {
+            resultCache.invalidate(em, entityType.getJavaType());
+        }
     }
     
     @Override
@@ -311,7 +323,11 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public ReturningResult<Tuple> executeWithReturning(String... attributes) {
-        return getWithReturningQuery(attributes).getSingleResult();
+        try {
+            return getWithReturningQuery(attributes).getSingleResult();
+        } finally {
+            invalidateResultCache();
+        }
     }
 
     public TypedQuery<ReturningResult<Tuple>> getWithReturningQuery(String... attributes) {
@@ -330,7 +346,11 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public <Z> ReturningResult<Z> executeWithReturning(String attribute, Class<Z> type) {
-        return getWithReturningQuery(attribute, type).getSingleResult();
+        try {
+            return getWithReturningQuery(attribute, type).getSingleResult();
+        } finally {
+            invalidateResultCache();
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -362,7 +382,11 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public <Z> ReturningResult<Z> executeWithReturning(ReturningObjectBuilder<Z> objectBuilder) {
-        return getWithReturningQuery(objectBuilder).getSingleResult();
+        try {
+            return getWithReturningQuery(objectBuilder).getSingleResult();
+        } finally {
+            invalidateResultCache();
+        }
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
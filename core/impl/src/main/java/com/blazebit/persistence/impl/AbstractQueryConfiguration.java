@@ -40,11 +40,21 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(isExpressionOptimizationEnabled());
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return getExpressionCacheClass();
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(isValuesClauseFilterNullsEnabled());
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY: return Boolean.toString(isValuesClauseArrayStrategyEnabled());
+            case ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD: return Integer.toString(getValuesClauseTemporaryTableThreshold());
+            case ConfigurationProperties.PARAMETER_LIST_PADDING: return getParameterListPadding().toString();
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled());
             case ConfigurationProperties.INLINE_ID_QUERY: return getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled());
             case ConfigurationProperties.INLINE_COUNT_QUERY: return getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled());
             case ConfigurationProperties.INLINE_CTES: return getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled());
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(isQueryPlanCacheEnabled());
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE: return Integer.toString(getQueryStringCacheMaxSize());
+            case ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE: return Integer.toString(getQueryPlanCacheMaxSize());
+            case ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE: return Integer.toString(getKeysetBookmarkCacheMaxSize());
+            case ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL: return Integer.toString(getKeysetBookmarkInterval());
+            case ConfigurationProperties.COUNT_CACHE_MAX_SIZE: return Integer.toString(getCountCacheMaxSize());
+            case ConfigurationProperties.RESULT_CACHE_MAX_SIZE: return Integer.toString(getResultCacheMaxSize());
+            case ConfigurationProperties.MULTISET_ARRAY_ENCODING: return Boolean.toString(isMultisetArrayEncodingEnabled());
             default: return null;
         }
     }
@@ -61,11 +71,21 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(isExpressionOptimizationEnabled()));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, getExpressionCacheClass());
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(isValuesClauseFilterNullsEnabled()));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, Boolean.toString(isValuesClauseArrayStrategyEnabled()));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, Integer.toString(getValuesClauseTemporaryTableThreshold()));
+        properties.put(ConfigurationProperties.PARAMETER_LIST_PADDING, getParameterListPadding().toString());
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled()));
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(isQueryPlanCacheEnabled()));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE, Integer.toString(getQueryStringCacheMaxSize()));
+        properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, Integer.toString(getQueryPlanCacheMaxSize()));
+        properties.put(ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE, Integer.toString(getKeysetBookmarkCacheMaxSize()));
+        properties.put(ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL, Integer.toString(getKeysetBookmarkInterval()));
+        properties.put(ConfigurationProperties.COUNT_CACHE_MAX_SIZE, Integer.toString(getCountCacheMaxSize()));
+        properties.put(ConfigurationProperties.RESULT_CACHE_MAX_SIZE, Integer.toString(getResultCacheMaxSize()));
+        properties.put(ConfigurationProperties.MULTISET_ARRAY_ENCODING, Boolean.toString(isMultisetArrayEncodingEnabled()));
         return properties;
     }
 
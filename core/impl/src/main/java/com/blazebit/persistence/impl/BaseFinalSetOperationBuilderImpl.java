@@ -84,7 +84,18 @@ public abstract class BaseFinalSetOperationBuilderImpl<T, X extends BaseFinalSet
     public boolean isEmpty() {
         return super.isEmpty() && setOperationManager.isEmpty();
     }
-    
+
+    @Override
+    protected void collectEntityClasses(Set<Class<?>> entityClasses) {
+        super.collectEntityClasses(entityClasses);
+        if (setOperationManager.getStartQueryBuilder() != null) {
+            setOperationManager.getStartQueryBuilder().collectEntityClasses(entityClasses);
+        }
+        for (AbstractCommonQueryBuilder<?, ?, ?, ?, ?> setOperation : setOperationManager.getSetOperations()) {
+            setOperation.collectEntityClasses(entityClasses);
+        }
+    }
+
     private static boolean isNestedAndComplex(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder) {
         if (queryBuilder instanceof BaseFinalSetOperationBuilderImpl<?, ?, ?>) {
             BaseFinalSetOperationBuilderImpl<?, ?, ?> builder = (BaseFinalSetOperationBuilderImpl<?, ?, ?>) queryBuilder;
@@ -21,8 +21,17 @@ import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
 import com.blazebit.persistence.InsertCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
+import com.blazebit.persistence.QueryPlanCache;
+import com.blazebit.persistence.QueryResultCache;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.impl.function.tomultiset.PostgreSQLArrayToMultisetFunction;
+import com.blazebit.persistence.impl.function.tomultiset.ToMultisetFunction;
+import com.blazebit.persistence.impl.keyset.KeysetBookmarkCache;
+import com.blazebit.persistence.impl.query.CountCache;
+import com.blazebit.persistence.impl.query.QueryPlanCacheImpl;
+import com.blazebit.persistence.impl.query.ResultCache;
+import com.blazebit.persistence.impl.query.QueryStringCache;
 import com.blazebit.persistence.parser.FunctionKind;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
@@ -64,6 +73,11 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final Map<String, FunctionKind> functions;
     private final Map<Class<?>, String> namedTypes;
     private final ExpressionCache expressionCache;
+    private final QueryStringCache queryStringCache;
+    private final KeysetBookmarkCache keysetBookmarkCache;
+    private final CountCache countCache;
+    private final ResultCache resultCache;
+    private final QueryPlanCacheImpl queryPlanCache;
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
@@ -85,7 +99,9 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             throw new IllegalArgumentException("Multiple EntityManagerFactoryIntegrator were found on the classpath! Please remove the wrong integrations from the classpath!");
         }
         EntityManagerFactoryIntegrator integrator = integrators.get(0);
-        EntityManagerFactory emf = integrator.registerFunctions(entityManagerFactory, config.getFunctions());
+        this.queryConfiguration = new ImmutableQueryConfiguration((Map<String, String>) (Map<?, ?>) config.getProperties());
+        Map<String, JpqlFunctionGroup> configuredFunctions = configureFunctions(config.getFunctions(), integrator, entityManagerFactory);
+        EntityManagerFactory emf = integrator.registerFunctions(entityManagerFactory, configuredFunctions);
         Map<String, JpqlFunction> registeredFunctions = new HashMap<>(integrator.getRegisteredFunctions(emf));
         String dbms = integrator.getDbms(emf);
         Map<String, DbmsDialect> dbmsDialects = config.getDbmsDialects();
@@ -102,7 +118,6 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.configuredRegisteredFunctions = registeredFunctions;
         this.configuredJpaProviderFactory = integrator.getJpaProviderFactory(emf);
 
-        this.queryConfiguration = new ImmutableQueryConfiguration((Map<String, String>) (Map<?, ?>) config.getProperties());
         final boolean compatibleMode = queryConfiguration.isCompatibleModeEnabled();
         final boolean optimize = queryConfiguration.isExpressionOptimizationEnabled();
 
@@ -112,12 +127,17 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
 
         this.transientEntityParameterTransformerFactory = new TransientEntityAssociationParameterTransformerFactory(metamodel, new AssociationToIdParameterTransformer(jpaProvider));
         this.extendedQuerySupport = config.getExtendedQuerySupport();
-        this.functions = resolveFunctions(config.getFunctions(), configuredRegisteredFunctions);
+        this.functions = resolveFunctions(configuredFunctions, configuredRegisteredFunctions);
         this.registeredFunctionNames = caseInsensitiveFunctions(configuredRegisteredFunctions);
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), (Map<String, String>) (Map<?, ?>) config.getProperties());
+        this.queryStringCache = queryConfiguration.getQueryStringCacheMaxSize() == 0 ? null : new QueryStringCache(queryConfiguration.getQueryStringCacheMaxSize());
+        this.keysetBookmarkCache = queryConfiguration.getKeysetBookmarkCacheMaxSize() == 0 ? null : new KeysetBookmarkCache(queryConfiguration.getKeysetBookmarkCacheMaxSize());
+        this.countCache = queryConfiguration.getCountCacheMaxSize() == 0 ? null : new CountCache(queryConfiguration.getCountCacheMaxSize());
+        this.queryPlanCache = new QueryPlanCacheImpl(extendedQuerySupport);
+        this.resultCache = queryConfiguration.getResultCacheMaxSize() == 0 ? null : new ResultCache(queryConfiguration.getResultCacheMaxSize(), metamodel, extendedQuerySupport);
         ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
         ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory));
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
@@ -126,14 +146,38 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
     }
 
-    private ExpressionCache createCache(String className) {
+    private ExpressionCache createCache(String className, Map<String, String> properties) {
         try {
-            return (ExpressionCache) Class.forName(className).newInstance();
+            Class<?> cacheClass = Class.forName(className);
+            // Prefer a constructor that accepts the configuration properties so that caches can be configured
+            try {
+                return (ExpressionCache) cacheClass.getConstructor(Map.class).newInstance(properties);
+            } catch (NoSuchMethodException ex) {
+                return (ExpressionCache) cacheClass.newInstance();
+            }
         } catch (Exception ex) {
             throw new IllegalArgumentException("Could not instantiate expression cache: " + className, ex);
         }
     }
 
+    private Map<String, JpqlFunctionGroup> configureFunctions(Map<String, JpqlFunctionGroup> functions, EntityManagerFactoryIntegrator integrator, EntityManagerFactory entityManagerFactory) {
+        if (!queryConfiguration.isMultisetArrayEncodingEnabled()) {
+            return functions;
+        }
+        String dbms = integrator.getDbms(entityManagerFactory);
+        if (!"postgresql".equals(dbms)) {
+            return functions;
+        }
+        // Replace the JSON based to_multiset implementation for the DBMS, the default implementation is kept for the other DBMS
+        JpqlFunctionGroup originalGroup = functions.get(ToMultisetFunction.FUNCTION_NAME);
+        JpqlFunctionGroup group = new JpqlFunctionGroup(originalGroup.getName(), originalGroup.getKind());
+        group.add(null, originalGroup.get(null));
+        group.add(dbms, new PostgreSQLArrayToMultisetFunction());
+        Map<String, JpqlFunctionGroup> configuredFunctions = new HashMap<>(functions);
+        configuredFunctions.put(ToMultisetFunction.FUNCTION_NAME, group);
+        return configuredFunctions;
+    }
+
     private static Map<String, FunctionKind> resolveFunctions(Map<String, JpqlFunctionGroup> functions, Map<String, JpqlFunction> configuredFunctions) {
         Map<String, FunctionKind> map = new HashMap<>();
         for (Map.Entry<String, JpqlFunctionGroup> entry : functions.entrySet()) {
@@ -224,6 +268,22 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return expressionCache;
     }
 
+    public QueryStringCache getQueryStringCache() {
+        return queryStringCache;
+    }
+
+    public KeysetBookmarkCache getKeysetBookmarkCache() {
+        return keysetBookmarkCache;
+    }
+
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
     public ExpressionFactory getExpressionFactory() {
         return expressionFactory;
     }
@@ -360,12 +420,22 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) configuredDbmsDialect;
         } else if (ExtendedQuerySupport.class.equals(serviceClass)) {
             return (T) extendedQuerySupport;
+        } else if (QueryPlanCache.class.equals(serviceClass)) {
+            return (T) queryPlanCache;
         } else if (JpaProviderFactory.class.equals(serviceClass)) {
             return (T) configuredJpaProviderFactory;
         } else if (JpaProvider.class.equals(serviceClass)) {
             return (T) jpaProvider;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
+        } else if (QueryStringCache.class.equals(serviceClass)) {
+            return (T) queryStringCache;
+        } else if (KeysetBookmarkCache.class.equals(serviceClass)) {
+            return (T) keysetBookmarkCache;
+        } else if (CountCache.class.equals(serviceClass)) {
+            return (T) countCache;
+        } else if (QueryResultCache.class.equals(serviceClass) || ResultCache.class.equals(serviceClass)) {
+            return (T) resultCache;
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
             return (T) metamodel;
         } else if (EntityManagerFactory.class.equals(serviceClass)) {
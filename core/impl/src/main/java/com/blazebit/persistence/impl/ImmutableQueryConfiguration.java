@@ -39,12 +39,22 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean implicitGroupByFromHavingEnabled;
     private final boolean implicitGroupByFromOrderByEnabled;
     private final boolean valuesClauseFilterNullsEnabled;
+    private final boolean valuesClauseArrayStrategyEnabled;
+    private final int valuesClauseTemporaryTableThreshold;
     private final boolean parameterAsLiteralRenderingEnabled;
+    private final ParameterListPadding parameterListPadding;
     private final boolean optimizedKeysetPredicateRenderingEnabled;
     private final Boolean inlineIdQuery;
     private final Boolean inlineCountQuery;
     private final Boolean inlineCtes;
     private final boolean queryPlanCacheEnabled;
+    private final int queryStringCacheMaxSize;
+    private final int queryPlanCacheMaxSize;
+    private final int keysetBookmarkCacheMaxSize;
+    private final int keysetBookmarkInterval;
+    private final int countCacheMaxSize;
+    private final int resultCacheMaxSize;
+    private final boolean multisetArrayEncodingEnabled;
 
     public ImmutableQueryConfiguration(Map<String, String> properties) {
         this.compatibleModeEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.COMPATIBLE_MODE, false);
@@ -57,7 +67,10 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.implicitGroupByFromHavingEnabled =             getBooleanProperty(properties, ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_HAVING,       "true");
         this.implicitGroupByFromOrderByEnabled =            getBooleanProperty(properties, ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY,     "true");
         this.valuesClauseFilterNullsEnabled =               getBooleanProperty(properties, ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS,          "true");
+        this.valuesClauseArrayStrategyEnabled =             getBooleanProperty(properties, ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY,        "false");
+        this.valuesClauseTemporaryTableThreshold =          getIntProperty(properties, ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, "0");
         this.parameterAsLiteralRenderingEnabled =           getBooleanProperty(properties, ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING,      "true");
+        this.parameterListPadding =                         ParameterListPadding.parse(ConfigurationProperties.PARAMETER_LIST_PADDING, getProperty(properties, ConfigurationProperties.PARAMETER_LIST_PADDING, "false"));
         this.optimizedKeysetPredicateRenderingEnabled =     getBooleanProperty(properties, ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING,"true");
         String inlineIdQuery =                              getProperty(properties, ConfigurationProperties.INLINE_ID_QUERY,                            "auto");
         String inlineCountQuery =                           getProperty(properties, ConfigurationProperties.INLINE_COUNT_QUERY,                         "auto");
@@ -66,6 +79,13 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineCountQuery = "auto".equalsIgnoreCase(inlineCountQuery) ? null : Boolean.parseBoolean(inlineCountQuery);
         this.inlineCtes = "auto".equalsIgnoreCase(inlineCtes) ? null : Boolean.parseBoolean(inlineCtes);
         this.queryPlanCacheEnabled =                        getBooleanProperty(properties, ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED,            "true");
+        this.queryStringCacheMaxSize =                      getIntProperty(properties, ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE,             "0");
+        this.queryPlanCacheMaxSize =                        getIntProperty(properties, ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE,               "2048");
+        this.keysetBookmarkCacheMaxSize =                   getIntProperty(properties, ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE,          "0");
+        this.keysetBookmarkInterval =                       getIntProperty(properties, ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL,                "10");
+        this.countCacheMaxSize =                            getIntProperty(properties, ConfigurationProperties.COUNT_CACHE_MAX_SIZE,                    "1000");
+        this.resultCacheMaxSize =                           getIntProperty(properties, ConfigurationProperties.RESULT_CACHE_MAX_SIZE,                   "10000");
+        this.multisetArrayEncodingEnabled =                 getBooleanProperty(properties, ConfigurationProperties.MULTISET_ARRAY_ENCODING,         "false");
     }
 
     @Override
@@ -113,11 +133,26 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return valuesClauseFilterNullsEnabled;
     }
 
+    @Override
+    public boolean isValuesClauseArrayStrategyEnabled() {
+        return valuesClauseArrayStrategyEnabled;
+    }
+
+    @Override
+    public int getValuesClauseTemporaryTableThreshold() {
+        return valuesClauseTemporaryTableThreshold;
+    }
+
     @Override
     public boolean isParameterAsLiteralRenderingEnabled() {
         return parameterAsLiteralRenderingEnabled;
     }
 
+    @Override
+    public ParameterListPadding getParameterListPadding() {
+        return parameterListPadding;
+    }
+
     @Override
     public boolean isOptimizedKeysetPredicateRenderingEnabled() {
         return optimizedKeysetPredicateRenderingEnabled;
@@ -153,6 +188,41 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public int getQueryStringCacheMaxSize() {
+        return queryStringCacheMaxSize;
+    }
+
+    @Override
+    public int getQueryPlanCacheMaxSize() {
+        return queryPlanCacheMaxSize;
+    }
+
+    @Override
+    public int getKeysetBookmarkCacheMaxSize() {
+        return keysetBookmarkCacheMaxSize;
+    }
+
+    @Override
+    public int getKeysetBookmarkInterval() {
+        return keysetBookmarkInterval;
+    }
+
+    @Override
+    public int getCountCacheMaxSize() {
+        return countCacheMaxSize;
+    }
+
+    @Override
+    public int getResultCacheMaxSize() {
+        return resultCacheMaxSize;
+    }
+
+    @Override
+    public boolean isMultisetArrayEncodingEnabled() {
+        return multisetArrayEncodingEnabled;
+    }
+
     @Override
     public String getProperty(String name) {
         switch (name) {
@@ -165,12 +235,22 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(expressionOptimizationEnabled);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return expressionCacheClass;
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(valuesClauseFilterNullsEnabled);
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY: return Boolean.toString(valuesClauseArrayStrategyEnabled);
+            case ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD: return Integer.toString(valuesClauseTemporaryTableThreshold);
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING: return Boolean.toString(parameterAsLiteralRenderingEnabled);
+            case ConfigurationProperties.PARAMETER_LIST_PADDING: return parameterListPadding.toString();
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(optimizedKeysetPredicateRenderingEnabled);
             case ConfigurationProperties.INLINE_ID_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_COUNT_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_CTES: return inlineCtes == null ? "auto" : Boolean.toString(inlineCtes);
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(queryPlanCacheEnabled);
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE: return Integer.toString(queryStringCacheMaxSize);
+            case ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE: return Integer.toString(queryPlanCacheMaxSize);
+            case ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE: return Integer.toString(keysetBookmarkCacheMaxSize);
+            case ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL: return Integer.toString(keysetBookmarkInterval);
+            case ConfigurationProperties.COUNT_CACHE_MAX_SIZE: return Integer.toString(countCacheMaxSize);
+            case ConfigurationProperties.RESULT_CACHE_MAX_SIZE: return Integer.toString(resultCacheMaxSize);
+            case ConfigurationProperties.MULTISET_ARRAY_ENCODING: return Boolean.toString(multisetArrayEncodingEnabled);
             default: return null;
         }
     }
@@ -187,12 +267,22 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(expressionOptimizationEnabled));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, expressionCacheClass);
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(valuesClauseFilterNullsEnabled));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, Boolean.toString(valuesClauseArrayStrategyEnabled));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, Integer.toString(valuesClauseTemporaryTableThreshold));
         properties.put(ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING, Boolean.toString(parameterAsLiteralRenderingEnabled));
+        properties.put(ConfigurationProperties.PARAMETER_LIST_PADDING, parameterListPadding.toString());
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(optimizedKeysetPredicateRenderingEnabled));
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(queryPlanCacheEnabled));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE, Integer.toString(queryStringCacheMaxSize));
+        properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, Integer.toString(queryPlanCacheMaxSize));
+        properties.put(ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE, Integer.toString(keysetBookmarkCacheMaxSize));
+        properties.put(ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL, Integer.toString(keysetBookmarkInterval));
+        properties.put(ConfigurationProperties.COUNT_CACHE_MAX_SIZE, Integer.toString(countCacheMaxSize));
+        properties.put(ConfigurationProperties.RESULT_CACHE_MAX_SIZE, Integer.toString(resultCacheMaxSize));
+        properties.put(ConfigurationProperties.MULTISET_ARRAY_ENCODING, Boolean.toString(multisetArrayEncodingEnabled));
         return properties;
     }
 
@@ -208,6 +298,20 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         throw new IllegalArgumentException("Can't set a property on factory level!");
     }
 
+    private int getIntProperty(Map<String, String> properties, String propertyName, String defaultValue) {
+        String value = getProperty(properties, propertyName, defaultValue);
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through to the exception
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + value + "' for non-negative integer property '" + propertyName + "'");
+    }
+
     private boolean getBooleanProperty(Map<String, String> properties, String propertyName, String defaultValue) {
         return Boolean.parseBoolean(getProperty(properties, propertyName, defaultValue));
     }
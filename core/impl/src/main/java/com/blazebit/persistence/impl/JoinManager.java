@@ -403,7 +403,11 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         if (rootAlias == null) {
             throw new IllegalArgumentException("Illegal empty alias for the VALUES clause: " + valueHolderEntityClass.getName());
         }
-        // TODO: we should pad the value count to avoid filling query caches
+        QueryConfiguration queryConfiguration = mainQuery.getQueryConfiguration();
+        // Padding only works when the rows for missing values are filtered, otherwise they would show up as null rows
+        if (queryConfiguration.isValuesClauseFilterNullsEnabled()) {
+            valueCount = queryConfiguration.getParameterListPadding().pad(valueCount);
+        }
         EntityType<?> entityType = mainQuery.metamodel.getEntity(valueHolderEntityClass);
         Type<?> type = mainQuery.metamodel.type(valueClass);
 
@@ -471,23 +475,26 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
             }
         }
 
-        String[][] parameterNames = new String[valueCount][attributePaths.size()];
-        String[] attributes = new String[attributePaths.size()];
+        String[] attributes = attributePaths.toArray(new String[attributePaths.size()]);
+        String[] arrayElementTypes = getValuesArrayElementTypes(extendedManagedType, valueClass, typeName, simpleValue, valueClazzAttributeSingular, valuesClassAttributeName, qualificationExpression, attributes);
+        ValuesTemporaryTable temporaryTable = arrayElementTypes == null ? getValuesTemporaryTable(extendedManagedType, valueClass, valueCount, typeName, simpleValue, valueClazzAttributeSingular, valuesClassAttributeName, qualificationExpression, attributes) : null;
+        // With the array strategy, there is only a single parameter per attribute that is bound to an array of all values
+        int parameterValueCount = arrayElementTypes == null && temporaryTable == null ? valueCount : 1;
+        String[][] parameterNames = new String[parameterValueCount][attributePaths.size()];
         AttributeAccessor<Object, Object>[] pathExpressions = new AttributeAccessor[attributePaths.size()];
 
         for (int i = 0; i < attributePaths.size(); i++) {
             String attributeName = attributePaths.get(i);
             String parameterPart = attributeName.replace('.', '_');
-            attributes[i] = attributeName;
             if (simpleValueAttributePrefix.isEmpty()) {
                 pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName);
-                for (int j = 0; j < valueCount; j++) {
+                for (int j = 0; j < parameterValueCount; j++) {
                     parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                 }
             } else {
                 if (attributeName.startsWith(simpleValueAttributePrefix)) {
                     pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName.substring(simpleValueAttributePrefix.length()));
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterValueCount; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 } else if (simpleValue || attributeName.equals(valuesClassAttributeName)) {
@@ -495,22 +502,27 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                     if (qualificationExpression != null) {
                         parameterPart += '_' + qualificationExpression.toLowerCase();
                     }
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterValueCount; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 } else {
                     pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName);
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterValueCount; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 }
             }
         }
 
-        parameterManager.registerValuesParameter(rootAlias, valueClass, parameterNames, pathExpressions, queryBuilder);
+        if (temporaryTable != null) {
+            // With the temporary table strategy, the only parameter is the key of the rows in the temporary table
+            parameterNames = new String[][]{ { parameterNames[0][0] } };
+        }
+
+        parameterManager.registerValuesParameter(rootAlias, valueClass, parameterNames, pathExpressions, arrayElementTypes, temporaryTable, queryBuilder);
 
         JoinAliasInfo rootAliasInfo = new JoinAliasInfo(rootAlias, rootAlias, false, true, aliasManager);
-        JoinNode rootNode = JoinNode.createValuesRootNode(type, entityType, typeName, valueCount, idAttributeNames, valueLikeClause, qualificationExpression, valueClazzAttributeSingular, simpleValue, valuesClassAttributeName, castedParameter, attributes, rootAliasInfo);
+        JoinNode rootNode = JoinNode.createValuesRootNode(type, entityType, typeName, valueCount, idAttributeNames, valueLikeClause, qualificationExpression, valueClazzAttributeSingular, simpleValue, valuesClassAttributeName, castedParameter, attributes, arrayElementTypes, temporaryTable, rootAliasInfo);
         rootAliasInfo.setJoinNode(rootNode);
         rootNodes.add(rootNode);
         explicitJoinNodes.add(rootNode);
@@ -520,6 +532,76 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         return rootAlias;
     }
 
+    private String[] getValuesArrayElementTypes(ExtendedManagedType<?> extendedManagedType, Class<?> valueClass, String typeName, boolean simpleValue, boolean valueClazzAttributeSingular, String valuesClassAttributeName, String qualificationExpression, String[] attributes) {
+        if (!mainQuery.getQueryConfiguration().isValuesClauseArrayStrategyEnabled() || !mainQuery.dbmsDialect.supportsArrayValues() || !mainQuery.cbf.getExtendedQuerySupport().supportsArrayValues()) {
+            return null;
+        }
+        // The array strategy is only possible if every attribute is a single column basic value that the JDBC driver can put into an array as is
+        if (!valueClazzAttributeSingular || qualificationExpression != null) {
+            return null;
+        }
+        String[] elementTypes = new String[attributes.length];
+        if (typeName != null) {
+            elementTypes[0] = getArrayElementTypeName(valueClass);
+            return elementTypes[0] == null ? null : elementTypes;
+        }
+        for (int i = 0; i < attributes.length; i++) {
+            ExtendedAttribute<?, ?> attribute = extendedManagedType.getAttributes().get(simpleValue ? valuesClassAttributeName : attributes[i]);
+            if (attribute == null || attribute.getAttribute().getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                return null;
+            }
+            String[] columnTypes = attribute.getColumnTypes();
+            if (columnTypes == null || columnTypes.length != 1) {
+                return null;
+            }
+            // The column DDL type may contain a length, precision or scale, so we use the plain type name of the dialect instead
+            elementTypes[i] = getArrayElementTypeName(attribute.getElementClass());
+            if (elementTypes[i] == null) {
+                return null;
+            }
+        }
+        return elementTypes;
+    }
+
+    private String getArrayElementTypeName(Class<?> javaType) {
+        // The dialects map booleans to a numeric type for which the JDBC drivers can't create arrays of boolean values
+        if (!ValuesTemporaryTable.isColumnType(javaType) || javaType == Boolean.class || javaType == boolean.class) {
+            return null;
+        }
+        return mainQuery.dbmsDialect.getSqlType(javaType);
+    }
+
+    private ValuesTemporaryTable getValuesTemporaryTable(ExtendedManagedType<?> extendedManagedType, Class<?> valueClass, int valueCount, String typeName, boolean simpleValue, boolean valueClazzAttributeSingular, String valuesClassAttributeName, String qualificationExpression, String[] attributes) {
+        int threshold = mainQuery.getQueryConfiguration().getValuesClauseTemporaryTableThreshold();
+        if (threshold == 0 || valueCount < threshold || !mainQuery.cbf.getExtendedQuerySupport().supportsTemporaryTableValues(mainQuery.em)) {
+            return null;
+        }
+        // Every attribute must be a single column basic value that can be bound via JDBC as is
+        if (!valueClazzAttributeSingular || qualificationExpression != null) {
+            return null;
+        }
+        Class<?>[] columnTypes = new Class<?>[attributes.length];
+        if (typeName != null) {
+            if (!ValuesTemporaryTable.isColumnType(valueClass)) {
+                return null;
+            }
+            columnTypes[0] = valueClass;
+        } else {
+            for (int i = 0; i < attributes.length; i++) {
+                ExtendedAttribute<?, ?> attribute = extendedManagedType.getAttributes().get(simpleValue ? valuesClassAttributeName : attributes[i]);
+                if (attribute == null || attribute.getAttribute().getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC || !ValuesTemporaryTable.isColumnType(attribute.getElementClass())) {
+                    return null;
+                }
+                String[] attributeColumnTypes = attribute.getColumnTypes();
+                if (attributeColumnTypes == null || attributeColumnTypes.length != 1) {
+                    return null;
+                }
+                columnTypes[i] = attribute.getElementClass();
+            }
+        }
+        return ValuesTemporaryTable.create(mainQuery.em, mainQuery.dbmsDialect, mainQuery.cbf.getExtendedQuerySupport(), columnTypes);
+    }
+
     String addRoot(EntityType<?> entityType, String rootAlias, boolean lateral) {
         if (rootAlias == null) {
             // TODO: not sure if other JPA providers support case sensitive queries like hibernate
@@ -1651,9 +1733,19 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                 String[] attributes = rootNode.getValuesAttributes();
                 String valueClazzAttributeName = rootNode.getValuesLikeAttribute();
                 String prefix = rootNode.getAlias();
+                // With the array strategy we render just one parameter per attribute. The parameter must not be compared
+                // with the attribute though, as the JPA provider would then expect a value of the attribute type rather than an array
+                // The same applies to the temporary table strategy, which only renders the parameter for the key of the rows in the temporary table
+                boolean temporaryTableStrategy = rootNode.getValuesTemporaryTable() != null;
+                boolean arrayStrategy = rootNode.getValuesArrayElementTypes() != null || temporaryTableStrategy;
+                int parameterValueCount = arrayStrategy ? 1 : valueCount;
+                int parameterAttributeCount = temporaryTableStrategy ? 1 : attributes.length;
+                if (arrayStrategy) {
+                    sb.append('(');
+                }
 
-                for (int i = 0; i < valueCount; i++) {
-                    for (int j = 0; j < attributes.length; j++) {
+                for (int i = 0; i < parameterValueCount; i++) {
+                    for (int j = 0; j < parameterAttributeCount; j++) {
                         if (typeName != null) {
                             sb.append("TREAT_");
                             sb.append(typeName);
@@ -1688,7 +1780,11 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                             }
                         }
 
-                        sb.append(" = ");
+                        if (arrayStrategy) {
+                            sb.append(" IS NULL OR ");
+                        } else {
+                            sb.append(" = ");
+                        }
 
                         sb.append(':');
                         sb.append(prefix);
@@ -1703,11 +1799,17 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                             sb.append(rootNode.getQualificationExpression().toLowerCase());
                         }
                         sb.append('_').append(i);
+                        if (arrayStrategy) {
+                            sb.append(" IS NOT NULL");
+                        }
                         sb.append(" OR ");
                     }
                 }
 
                 sb.setLength(sb.length() - " OR ".length());
+                if (arrayStrategy) {
+                    sb.append(')');
+                }
                 if (renderMarkerPredicate) {
                     sb.append(" AND ").append(EntityFunction.MARKER_PREDICATE).append(" AND ").append(rootNode.getAlias()).append(".");
                     if (rootNode.getValuesTypeName() != null) {
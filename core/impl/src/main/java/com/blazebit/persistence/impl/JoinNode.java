@@ -86,6 +86,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
     private final String valuesLikeAttribute;
     private final String valuesCastedParameter;
     private final String[] valuesAttributes;
+    private final String[] valuesArrayElementTypes;
+    private final ValuesTemporaryTable valuesTemporaryTable;
     private final String qualificationExpression;
     private final JoinAliasInfo aliasInfo;
     private final List<JoinNode> joinNodesForTreatConstraint;
@@ -137,6 +139,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valuesLikeAttribute = treatedJoinNode.valuesLikeAttribute;
         this.valuesCastedParameter = treatedJoinNode.valuesCastedParameter;
         this.valuesAttributes = treatedJoinNode.valuesAttributes;
+        this.valuesArrayElementTypes = treatedJoinNode.valuesArrayElementTypes;
+        this.valuesTemporaryTable = treatedJoinNode.valuesTemporaryTable;
         this.aliasInfo = treatedJoinAliasInfo;
         this.lateral = treatedJoinNode.lateral;
         List<JoinNode> joinNodesForTreatConstraint;
@@ -175,6 +179,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valuesLikeAttribute = null;
         this.valuesCastedParameter = null;
         this.valuesAttributes = null;
+        this.valuesArrayElementTypes = null;
+        this.valuesTemporaryTable = null;
         this.qualificationExpression = qualificationExpression;
         this.aliasInfo = aliasInfo;
         if (treatType != null) {
@@ -189,7 +195,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         onUpdate(null);
     }
 
-    private JoinNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdNames, String valuesLikeClause, String valueClazzAttributeQualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
+    private JoinNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdNames, String valuesLikeClause, String valueClazzAttributeQualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute,
+                     String valuesCastedParameter, String[] valuesAttributes, String[] valuesArrayElementTypes, ValuesTemporaryTable valuesTemporaryTable, JoinAliasInfo aliasInfo) {
         this.parent = null;
         this.parentTreeNode = null;
         this.joinType = null;
@@ -207,6 +214,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valuesLikeAttribute = valuesLikeAttribute;
         this.valuesCastedParameter = valuesCastedParameter;
         this.valuesAttributes = valuesAttributes;
+        this.valuesArrayElementTypes = valuesArrayElementTypes;
+        this.valuesTemporaryTable = valuesTemporaryTable;
         this.qualificationExpression = valueClazzAttributeQualificationExpression;
         this.aliasInfo = aliasInfo;
         this.joinNodesForTreatConstraint = Collections.emptyList();
@@ -222,11 +231,12 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         String sqlType = mainQuery.dbmsDialect.getSqlType(Long.class);
         String valuesTypeName = mainQuery.cbf.getNamedTypes().get(Long.class);
         String valuesCastedParameter = mainQuery.dbmsDialect.cast("?", sqlType);
-        return new JoinNode(mainQuery.metamodel.type(nodeType), mainQuery.metamodel.entity(ValuesEntity.class), valuesTypeName, valueCount, null, null, null, true, true, "value", valuesCastedParameter, new String[] { "value" }, aliasInfo);
+        return new JoinNode(mainQuery.metamodel.type(nodeType), mainQuery.metamodel.entity(ValuesEntity.class), valuesTypeName, valueCount, null, null, null, true, true, "value", valuesCastedParameter, new String[] { "value" }, null, null, aliasInfo);
     }
 
-    public static JoinNode createValuesRootNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdName, String valuesLikeClause, String qualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
-        return new JoinNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdName, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, aliasInfo);
+    public static JoinNode createValuesRootNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdName, String valuesLikeClause, String qualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute,
+                                                String valuesCastedParameter, String[] valuesAttributes, String[] valuesArrayElementTypes, ValuesTemporaryTable valuesTemporaryTable, JoinAliasInfo aliasInfo) {
+        return new JoinNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdName, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, valuesArrayElementTypes, valuesTemporaryTable, aliasInfo);
     }
 
     public static JoinNode createCorrelationRootNode(JoinNode correlationParent, String correlationPath, Attribute<?, ?> correlatedAttribute, Type<?> nodeType, EntityType<?> treatType, JoinAliasInfo aliasInfo, boolean lateral) {
@@ -245,7 +255,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         // NOTE: no cloning of treatedJoinNodes and entityJoinNodes is intentional
         JoinNode newNode;
         if (valueCount > 0) {
-            newNode = createValuesRootNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdNames, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, aliasInfo);
+            newNode = createValuesRootNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdNames, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, valuesArrayElementTypes, valuesTemporaryTable, aliasInfo);
         } else if (correlationParent == null) {
             newNode = createRootNode((EntityType<?>) nodeType, aliasInfo);
         } else {
@@ -769,6 +779,14 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         return valuesAttributes;
     }
 
+    public String[] getValuesArrayElementTypes() {
+        return valuesArrayElementTypes;
+    }
+
+    public ValuesTemporaryTable getValuesTemporaryTable() {
+        return valuesTemporaryTable;
+    }
+
     public JoinNode getCorrelationParent() {
         return correlationParent;
     }
@@ -48,7 +48,7 @@ public class MainQuery {
     private final JpqlMacroStorage macroStorage;
     private QueryConfiguration queryConfiguration;
 
-    private MainQuery(CriteriaBuilderFactoryImpl cbf, EntityManager em, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions, Map<String, String> registeredFunctionNames, ParameterManager parameterManager) {
+    private MainQuery(CriteriaBuilderFactoryImpl cbf, EntityManager em, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions, Map<String, String> registeredFunctionNames) {
         super();
         this.cbf = cbf;
         this.queryConfiguration = cbf.getQueryConfiguration();
@@ -62,7 +62,7 @@ public class MainQuery {
         this.dbmsDialect = dbmsDialect;
         this.registeredFunctions = registeredFunctions;
         this.registeredFunctionNames = registeredFunctionNames;
-        this.parameterManager = parameterManager;
+        this.parameterManager = new ParameterManager(jpaProvider, metamodel, this);
         this.cteManager = new CTEManager(this);
 
         if (jpaProvider.supportsTransientEntityAsParameter()) {
@@ -78,8 +78,7 @@ public class MainQuery {
         }
 
         JpaProvider jpaProvider = cbf.getJpaProvider();
-        ParameterManager parameterManager = new ParameterManager(jpaProvider, cbf.getMetamodel());
-        return new MainQuery(cbf, em, jpaProvider, dbmsDialect, registeredFunctions, registeredFunctionNames, parameterManager);
+        return new MainQuery(cbf, em, jpaProvider, dbmsDialect, registeredFunctions, registeredFunctionNames);
     }
 
     public final void registerMacro(String macroName, JpqlMacro jpqlMacro) {
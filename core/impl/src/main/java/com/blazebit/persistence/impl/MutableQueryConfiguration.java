@@ -30,6 +30,12 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean compatibleModeEnabled;
     private final boolean expressionOptimizationEnabled;
     private final String expressionCacheClass;
+    private final int queryStringCacheMaxSize;
+    private final int queryPlanCacheMaxSize;
+    private final int keysetBookmarkCacheMaxSize;
+    private final int countCacheMaxSize;
+    private final int resultCacheMaxSize;
+    private final boolean multisetArrayEncodingEnabled;
 
     private boolean returningClauseCaseSensitive;
     private boolean sizeToCountTransformationEnabled;
@@ -37,25 +43,39 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private boolean implicitGroupByFromHavingEnabled;
     private boolean implicitGroupByFromOrderByEnabled;
     private boolean valuesClauseFilterNullsEnabled;
+    private boolean valuesClauseArrayStrategyEnabled;
+    private int valuesClauseTemporaryTableThreshold;
     private boolean parameterAsLiteralRenderingEnabled;
+    private ParameterListPadding parameterListPadding;
     private boolean optimizedKeysetPredicateRenderingEnabled;
     private boolean cacheable;
     private Boolean inlineIdQuery;
     private Boolean inlineCountQuery;
     private Boolean inlineCtes;
     private boolean queryPlanCacheEnabled;
+    private int keysetBookmarkInterval;
 
     public MutableQueryConfiguration(QueryConfiguration queryConfiguration) {
         this.compatibleModeEnabled = queryConfiguration.isCompatibleModeEnabled();
         this.expressionOptimizationEnabled = queryConfiguration.isExpressionOptimizationEnabled();
         this.expressionCacheClass = queryConfiguration.getExpressionCacheClass();
+        this.queryStringCacheMaxSize = queryConfiguration.getQueryStringCacheMaxSize();
+        this.queryPlanCacheMaxSize = queryConfiguration.getQueryPlanCacheMaxSize();
+        this.keysetBookmarkCacheMaxSize = queryConfiguration.getKeysetBookmarkCacheMaxSize();
+        this.keysetBookmarkInterval = queryConfiguration.getKeysetBookmarkInterval();
+        this.countCacheMaxSize = queryConfiguration.getCountCacheMaxSize();
+        this.resultCacheMaxSize = queryConfiguration.getResultCacheMaxSize();
+        this.multisetArrayEncodingEnabled = queryConfiguration.isMultisetArrayEncodingEnabled();
         this.returningClauseCaseSensitive = queryConfiguration.isReturningClauseCaseSensitive();
         this.sizeToCountTransformationEnabled = queryConfiguration.isCountTransformationEnabled();
         this.implicitGroupByFromSelectEnabled = queryConfiguration.isImplicitGroupByFromSelectEnabled();
         this.implicitGroupByFromHavingEnabled = queryConfiguration.isImplicitGroupByFromHavingEnabled();
         this.implicitGroupByFromOrderByEnabled = queryConfiguration.isImplicitGroupByFromOrderByEnabled();
         this.valuesClauseFilterNullsEnabled = queryConfiguration.isValuesClauseFilterNullsEnabled();
+        this.valuesClauseArrayStrategyEnabled = queryConfiguration.isValuesClauseArrayStrategyEnabled();
+        this.valuesClauseTemporaryTableThreshold = queryConfiguration.getValuesClauseTemporaryTableThreshold();
         this.parameterAsLiteralRenderingEnabled = queryConfiguration.isParameterAsLiteralRenderingEnabled();
+        this.parameterListPadding = queryConfiguration.getParameterListPadding();
         this.optimizedKeysetPredicateRenderingEnabled = queryConfiguration.isOptimizedKeysetPredicateRenderingEnabled();
         this.cacheable = queryConfiguration.isCacheable();
         this.inlineIdQuery = queryConfiguration.getInlineIdQueryEnabled();
@@ -108,11 +128,26 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return valuesClauseFilterNullsEnabled;
     }
 
+    @Override
+    public boolean isValuesClauseArrayStrategyEnabled() {
+        return valuesClauseArrayStrategyEnabled;
+    }
+
+    @Override
+    public int getValuesClauseTemporaryTableThreshold() {
+        return valuesClauseTemporaryTableThreshold;
+    }
+
     @Override
     public boolean isParameterAsLiteralRenderingEnabled() {
         return parameterAsLiteralRenderingEnabled;
     }
 
+    @Override
+    public ParameterListPadding getParameterListPadding() {
+        return parameterListPadding;
+    }
+
     @Override
     public boolean isOptimizedKeysetPredicateRenderingEnabled() {
         return optimizedKeysetPredicateRenderingEnabled;
@@ -148,6 +183,41 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public int getQueryStringCacheMaxSize() {
+        return queryStringCacheMaxSize;
+    }
+
+    @Override
+    public int getQueryPlanCacheMaxSize() {
+        return queryPlanCacheMaxSize;
+    }
+
+    @Override
+    public int getKeysetBookmarkCacheMaxSize() {
+        return keysetBookmarkCacheMaxSize;
+    }
+
+    @Override
+    public int getKeysetBookmarkInterval() {
+        return keysetBookmarkInterval;
+    }
+
+    @Override
+    public int getCountCacheMaxSize() {
+        return countCacheMaxSize;
+    }
+
+    @Override
+    public int getResultCacheMaxSize() {
+        return resultCacheMaxSize;
+    }
+
+    @Override
+    public boolean isMultisetArrayEncodingEnabled() {
+        return multisetArrayEncodingEnabled;
+    }
+
     @Override
     public void setProperties(Map<String, String> properties) {
         for (Map.Entry<String, String> entry : properties.entrySet()) {
@@ -168,12 +238,22 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION:               throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS:                throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS:            valuesClauseFilterNullsEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY:          valuesClauseArrayStrategyEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD: valuesClauseTemporaryTableThreshold = intOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING:        parameterAsLiteralRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.PARAMETER_LIST_PADDING:                parameterListPadding = ParameterListPadding.parse(propertyName, propertyValue); break;
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING:  optimizedKeysetPredicateRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_ID_QUERY:                       inlineIdQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_COUNT_QUERY:                    inlineCountQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_CTES:                           inlineCtes = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED:              queryPlanCacheEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE:           throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE:             throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE:        throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL:              keysetBookmarkInterval = intOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.COUNT_CACHE_MAX_SIZE:                  throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.RESULT_CACHE_MAX_SIZE:                 throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.MULTISET_ARRAY_ENCODING:               throw propertySetNotAllowed(propertyName);
             default: break;
         }
         // CHECKSTYLE:ON: OneStatementPerLine
@@ -192,4 +272,17 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
 
         throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for boolean property '" + propertyName + "'");
     }
+
+    private int intOrFail(String propertyName, String propertyValue) {
+        try {
+            int intValue = Integer.parseInt(propertyValue);
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through to the exception
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for non-negative integer property '" + propertyName + "'");
+    }
 }
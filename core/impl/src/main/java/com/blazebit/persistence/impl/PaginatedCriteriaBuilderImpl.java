@@ -25,6 +25,7 @@ import com.blazebit.persistence.Keyset;
 import com.blazebit.persistence.KeysetPage;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PagedArrayList;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
 import com.blazebit.persistence.RestrictionBuilder;
@@ -42,16 +43,20 @@ import com.blazebit.persistence.impl.function.limit.LimitFunction;
 import com.blazebit.persistence.impl.function.pageposition.PagePositionFunction;
 import com.blazebit.persistence.impl.function.querywrapper.QueryWrapperFunction;
 import com.blazebit.persistence.impl.function.rowvalue.RowValueSubqueryComparisonFunction;
+import com.blazebit.persistence.impl.keyset.KeysetBookmarkCache;
+import com.blazebit.persistence.impl.keyset.KeysetManager;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
 import com.blazebit.persistence.impl.keyset.SimpleKeysetLink;
 import com.blazebit.persistence.impl.query.AbstractCustomQuery;
 import com.blazebit.persistence.impl.query.CTENode;
+import com.blazebit.persistence.impl.query.CountCache;
 import com.blazebit.persistence.impl.query.CustomQuerySpecification;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
 import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
 import com.blazebit.persistence.impl.query.QuerySpecification;
+import com.blazebit.persistence.impl.query.RowCountEstimator;
 import com.blazebit.persistence.impl.query.TypedQueryWrapper;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.FunctionExpression;
@@ -64,10 +69,13 @@ import com.blazebit.persistence.parser.predicate.CompoundPredicate;
 import com.blazebit.persistence.parser.predicate.EqPredicate;
 import com.blazebit.persistence.parser.predicate.InPredicate;
 import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.AttributeAccessor;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
 
 import javax.persistence.Parameter;
 import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -78,6 +86,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -98,6 +107,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private Boolean withInlineIdQuery;
     private boolean withInlineCountQuery;
     private long maximumCount = Long.MAX_VALUE;
+    private long cachedCountTimeToLive;
+    private boolean withEstimatedCount;
+    private Executor parallelCountQueryExecutor;
     private int highestOffset = 0;
     private final KeysetPage keysetPage;
     private final ResolvedExpression[] identifierExpressions;
@@ -109,6 +121,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private String[] identifierToUseSelectAliases;
     private KeysetMode keysetMode;
     private boolean forceFirstResult;
+    private KeysetPage keysetBookmarkPage;
+    private int keysetBookmarkOffset;
 
     // Cache
     private String cachedIdQueryString;
@@ -169,6 +183,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         builder.withKeysetExtraction(keysetExtraction);
         builder.withExtractAllKeysets(withExtractAllKeysets);
         builder.withCountQuery(withCountQuery);
+        builder.withCachedCount(cachedCountTimeToLive);
+        builder.withEstimatedCount(withEstimatedCount);
+        builder.withParallelCountQuery(parallelCountQueryExecutor);
         builder.withForceIdQuery(withForceIdQuery);
         builder.withHighestKeysetOffset(highestOffset);
         return builder;
@@ -237,6 +254,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         super.afterKeyset(keyset);
         this.keysetMode = KeysetMode.NEXT;
         this.forceFirstResult = true;
+        this.keysetBookmarkPage = null;
+        this.keysetBookmarkOffset = 0;
         return this;
     }
 
@@ -245,12 +264,16 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         super.beforeKeyset(keyset);
         this.keysetMode = KeysetMode.PREVIOUS;
         this.forceFirstResult = true;
+        this.keysetBookmarkPage = null;
+        this.keysetBookmarkOffset = 0;
         return this;
     }
 
     private void updateKeysetMode() {
         KeysetMode oldMode = this.keysetMode;
         this.keysetMode = KeysetPaginationHelper.getKeysetMode(keysetPage, entityId, firstResult, maxResults);
+        this.keysetBookmarkPage = null;
+        this.keysetBookmarkOffset = 0;
         if (keysetMode == KeysetMode.NONE) {
             this.keysetManager.setKeysetLink(null);
         } else if (keysetMode == KeysetMode.NEXT) {
@@ -317,6 +340,56 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return maximumCount;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withCachedCount(long timeToLive) {
+        if (timeToLive < 0L) {
+            throw new IllegalArgumentException("The time to live must be non-negative but was: " + timeToLive);
+        }
+        this.cachedCountTimeToLive = timeToLive;
+        if (timeToLive != 0L) {
+            disableInlineCountQuery();
+        }
+        return this;
+    }
+
+    @Override
+    public long getCachedCountTimeToLive() {
+        return cachedCountTimeToLive;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount) {
+        this.withEstimatedCount = withEstimatedCount;
+        if (withEstimatedCount) {
+            disableInlineCountQuery();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isWithEstimatedCount() {
+        return withEstimatedCount;
+    }
+
+    private void disableInlineCountQuery() {
+        // A cached or estimated count replaces the count query, so it must not be inlined into the page query
+        if (withInlineCountQuery) {
+            prepareForModification(ClauseType.SELECT);
+            withInlineCountQuery = false;
+        }
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withParallelCountQuery(Executor executor) {
+        this.parallelCountQueryExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public Executor getParallelCountQueryExecutor() {
+        return parallelCountQueryExecutor;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> withForceIdQuery(boolean withForceIdQuery) {
         this.withForceIdQuery = withForceIdQuery;
@@ -487,14 +560,14 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             String valueParameterName = dualNode.getAlias() + "_value_0";
             String[][] parameterNames = new String[1][1];
             parameterNames[0][0] = valueParameterName;
-            ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1]);
+            ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1], null, null);
             parameters.add(new ParameterManager.ParameterImpl<Object>(dualNode.getAlias(), false, null, null, valuesParameterWrapper));
             valuesParameters = new HashMap<>(valuesParameters);
             valuesParameters.put(valueParameterName, dualNode.getAlias());
             valuesBinders.put(dualNode.getAlias(), valuesParameterWrapper.getBinder());
         }
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                this, baseQuery, countQueryString, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                 mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
         );
 
@@ -519,6 +592,29 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     @Override
     public PaginatedTypedQueryImpl<T> getQuery() {
         prepareAndCheck();
+        KeysetBookmarkCache keysetBookmarkCache = cbf.getKeysetBookmarkCache();
+        KeysetBookmarkCache.Key keysetBookmarkKey = null;
+        KeysetPage bookmarkPage = null;
+        int keysetBookmarkInterval = mainQuery.getQueryConfiguration().getKeysetBookmarkInterval();
+        if (keysetBookmarkCache != null && entityId == null && !forceFirstResult) {
+            keysetBookmarkKey = getKeysetBookmarkKey(keysetBookmarkInterval * maxResults);
+            if (keysetMode == KeysetMode.NONE && firstResult > 0) {
+                bookmarkPage = keysetBookmarkCache.getNearestBookmark(keysetBookmarkKey, firstResult);
+            }
+        }
+        if (bookmarkPage == null) {
+            return getQuery(keysetBookmarkCache, keysetBookmarkKey, keysetBookmarkInterval);
+        }
+        // The bookmark only applies to the queries created now, so we restore the offset based state of the builder afterwards
+        applyKeysetBookmark(bookmarkPage);
+        try {
+            return getQuery(keysetBookmarkCache, keysetBookmarkKey, keysetBookmarkInterval);
+        } finally {
+            removeKeysetBookmark();
+        }
+    }
+
+    private PaginatedTypedQueryImpl<T> getQuery(KeysetBookmarkCache keysetBookmarkCache, KeysetBookmarkCache.Key keysetBookmarkKey, int keysetBookmarkInterval) {
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
         Set<JoinNode> keyRestrictedLeftJoins = getKeyRestrictedLeftJoins();
         boolean normalQueryMode = !isMainQuery || (!mainQuery.cteManager.hasCtes() && !joinManager.hasEntityFunctions() && keyRestrictedLeftJoins.isEmpty());
@@ -582,12 +678,32 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             objectBuilder = entry.getValue();
             inlinedIdQuery = isWithInlineIdQuery() && (hasCollections || withForceIdQuery);
         }
+        CountCache countCache = null;
+        CountCache.Key countCacheKey = null;
+        RowCountEstimator rowCountEstimator = null;
+        if (entityId == null && firstResult < maximumCount && withCountQuery && !inlinedCountQuery) {
+            if (cachedCountTimeToLive != 0L && cbf.getCountCache() != null) {
+                countCache = cbf.getCountCache();
+                countCacheKey = new CountCache.Key(countQueryString, getFingerprintParameterValues(), getFingerprintEntityClasses(), cachedCountTimeToLive);
+            }
+            if (withEstimatedCount && normalQueryMode && maximumCount == Long.MAX_VALUE) {
+                rowCountEstimator = getRowCountEstimator(countQuery);
+            }
+        }
+        // Only plain JPQL count queries can be executed through a separate entity manager
+        Executor countQueryExecutor = null;
+        if (parallelCountQueryExecutor != null && entityId == null && !inlinedCountQuery && !(countQuery instanceof CustomSQLTypedQuery<?>)) {
+            countQueryExecutor = parallelCountQueryExecutor;
+        }
         PaginatedTypedQueryImpl<T> query = new PaginatedTypedQueryImpl<>(
                 withExtractAllKeysets,
                 firstResult < maximumCount && withCountQuery,
-                maximumCount != Long.MAX_VALUE,
+                maximumCount,
                 highestOffset,
                 countQuery,
+                countQueryExecutor,
+                countQueryExecutor == null ? null : em,
+                countQueryString,
                 idQuery,
                 objectQuery,
                 objectBuilder,
@@ -600,17 +716,145 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 needsNewIdList,
                 keysetToSelectIndexMapping,
                 keysetMode,
-                keysetPage,
+                keysetBookmarkPage == null ? keysetPage : keysetBookmarkPage,
+                keysetBookmarkOffset,
                 forceFirstResult,
                 inlinedIdQuery,
-                inlinedCountQuery
+                inlinedCountQuery,
+                keysetBookmarkKey == null || keysetBookmarkInterval == 0 ? null : keysetBookmarkCache,
+                keysetBookmarkKey,
+                countCache,
+                countCacheKey,
+                rowCountEstimator
         );
         return query;
     }
 
+    private RowCountEstimator getRowCountEstimator(TypedQuery<?> countQuery) {
+        // Grouping or aggregate filtering makes the estimate of the rows before grouping useless
+        if (hasGroupBy || !havingManager.isEmpty()) {
+            return null;
+        }
+        ExtendedQuerySupport extendedQuerySupport = cbf.getExtendedQuerySupport();
+        if (extendedQuerySupport == null || !extendedQuerySupport.supportsAdvancedSql()) {
+            return null;
+        }
+        String sql = extendedQuerySupport.getSql(em, countQuery);
+        int fromIndex = SqlUtils.indexOfFrom(sql);
+        // Only a plain count(*) counts the rows of the FROM and WHERE clause, a count distinct is used if collections are joined
+        String[] selectItems = SqlUtils.getSelectItemExpressions(sql, 0);
+        if (fromIndex == -1 || selectItems.length != 1 || !"count(*)".equalsIgnoreCase(selectItems[0].replace(" ", ""))) {
+            return null;
+        }
+
+        String tableReference = getSingleTableReference(extendedQuerySupport, countQuery, sql, fromIndex);
+        if (tableReference != null) {
+            String rowCountEstimateSql = mainQuery.dbmsDialect.getTableRowCountEstimateSql(tableReference);
+            if (rowCountEstimateSql != null) {
+                return RowCountEstimator.forTable(em, rowCountEstimateSql);
+            }
+        }
+        // The select clause has no parameters, so the explained statement has the parameters of the count query in the same order
+        String rowCountEstimateSql = mainQuery.dbmsDialect.getQueryRowCountEstimateSql("select 1" + sql.substring(fromIndex));
+        if (rowCountEstimateSql == null) {
+            return null;
+        }
+        return RowCountEstimator.forQuery(em, extendedQuerySupport, mainQuery.dbmsDialect, countQuery, rowCountEstimateSql);
+    }
+
+    private String getSingleTableReference(ExtendedQuerySupport extendedQuerySupport, TypedQuery<?> countQuery, String sql, int fromIndex) {
+        // Table statistics only represent the count of an unrestricted query over a single entity table
+        if (joinManager.getRoots().size() != 1 || !(joinManager.getRoots().get(0).getType() instanceof EntityType<?>)) {
+            return null;
+        }
+        ExtendedQuerySupport.SqlFromInfo sqlFromInfo = extendedQuerySupport.getSqlFromInfo(em, countQuery, joinManager.getRoots().get(0).getAlias(), 0);
+        int fromStartIndex = sqlFromInfo.getFromStartIndex();
+        int fromEndIndex = sqlFromInfo.getFromEndIndex();
+        // The SQL might still contain joins or restrictions e.g. for secondary tables or discriminators
+        if (fromStartIndex < fromIndex || !sql.substring(fromIndex + SqlUtils.FROM.length(), fromStartIndex).trim().isEmpty() || !sql.substring(fromEndIndex).trim().isEmpty()) {
+            return null;
+        }
+        String fromElement = sql.substring(fromStartIndex, fromEndIndex).trim();
+        String sqlAlias = sqlFromInfo.getAlias();
+        if (!fromElement.endsWith(sqlAlias)) {
+            return null;
+        }
+        String tableReference = fromElement.substring(0, fromElement.length() - sqlAlias.length()).trim();
+        // Strip the optional AS keyword between the table and the alias
+        String as = SqlUtils.AS.substring(0, SqlUtils.AS.length() - 1);
+        if (tableReference.regionMatches(true, tableReference.length() - as.length(), as, 0, as.length())) {
+            tableReference = tableReference.substring(0, tableReference.length() - as.length()).trim();
+        }
+        return tableReference.isEmpty() ? null : tableReference;
+    }
+
+    private KeysetBookmarkCache.Key getKeysetBookmarkKey(int rowInterval) {
+        // The fingerprint must be independent of the page, so we use the count query and the order by clause
+        StringBuilder sb = new StringBuilder(getPageCountQueryStringWithoutCheck());
+        orderByManager.buildOrderBy(sb, false, false, false, false);
+        return new KeysetBookmarkCache.Key(sb.toString(), getFingerprintParameterValues(), getFingerprintEntityClasses(), rowInterval);
+    }
+
+    private List<Object> getFingerprintParameterValues() {
+        // Keyset parameters are excluded as they change from page to page
+        List<Object> parameterValues = new ArrayList<>();
+        for (ParameterManager.ParameterImpl<?> parameter : parameterManager.getParameterImpls()) {
+            String name = parameter.getName();
+            if (name == null || !name.startsWith(KeysetManager.KEY_SET_PARAMETER_NAME)) {
+                parameterValues.add(name == null ? parameter.getPosition() : name);
+                parameterValues.add(parameter.getValue());
+            }
+        }
+        return parameterValues;
+    }
+
+    private void applyKeysetBookmark(KeysetPage bookmarkPage) {
+        // The bookmark page ends right before the bookmarked row, so we continue after its highest keyset and skip the remaining rows
+        this.keysetMode = KeysetMode.NEXT;
+        this.keysetManager.setKeysetLink(new SimpleKeysetLink(bookmarkPage.getHighest(), keysetMode));
+        this.keysetBookmarkPage = bookmarkPage;
+        this.keysetBookmarkOffset = firstResult - bookmarkPage.getFirstResult() - bookmarkPage.getMaxResults();
+        prepareForModification(ClauseType.WHERE);
+        prepareAndCheck();
+    }
+
+    private void removeKeysetBookmark() {
+        this.keysetMode = KeysetMode.NONE;
+        this.keysetManager.setKeysetLink(null);
+        this.keysetBookmarkPage = null;
+        this.keysetBookmarkOffset = 0;
+        prepareForModification(ClauseType.WHERE);
+    }
+
+    private int getKeysetAwareOffset() {
+        if (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null) {
+            return firstResult;
+        }
+        return keysetBookmarkOffset;
+    }
+
     @Override
     public PagedList<T> getResultList() {
-        return getQuery().getResultList();
+        return (PagedList<T>) super.getResultList();
+    }
+
+    @Override
+    protected List<T> copyResultList(List<T> list) {
+        PagedList<T> pagedList = (PagedList<T>) list;
+        return new PagedArrayList<>(pagedList, pagedList.getKeysetPage(), pagedList.getTotalSize(), pagedList.getCountMode(), pagedList.getFirstResult(), pagedList.getMaxResults());
+    }
+
+    @Override
+    protected void appendResultCacheFingerprint(List<Object> fingerprint) {
+        fingerprint.add(getPageIdQueryString());
+        fingerprint.add(withCountQuery ? getPageCountQueryString() : null);
+        fingerprint.add(entityId);
+        fingerprint.add(maximumCount);
+        fingerprint.add(cachedCountTimeToLive != 0L);
+        fingerprint.add(withEstimatedCount);
+        fingerprint.add(keysetExtraction);
+        fingerprint.add(withExtractAllKeysets);
+        fingerprint.add(highestOffset);
     }
 
     @Override
@@ -953,7 +1197,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 String valueParameterName = dualNode.getAlias() + "_value_0";
                 String[][] parameterNames = new String[1][1];
                 parameterNames[0][0] = valueParameterName;
-                ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1]);
+                ParameterManager.ValuesParameterWrapper valuesParameterWrapper = new ParameterManager.ValuesParameterWrapper(dualNode.getJavaType(), parameterNames, new AttributeAccessor[1], null, null);
                 parameters.add(new ParameterManager.ParameterImpl<Object>(dualNode.getAlias(), false, null, null, valuesParameterWrapper));
                 valuesParameters = new HashMap<>(valuesParameters);
                 valuesParameters.put(valueParameterName, dualNode.getAlias());
@@ -962,7 +1206,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 parameters = (Collection<Parameter<?>>) (Collection<?>) parameterManager.getParameterImpls();
             }
             QuerySpecification querySpecification = new CustomQuerySpecification(
-                    this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                    this, baseQuery, queryString, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                     mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
             );
 
@@ -1000,7 +1244,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         if (transformerObjectBuilder != null) {
-            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder);
+            // Paginated queries always have a unique ordering
+            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder, true);
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             if (!(query instanceof CustomSQLTypedQuery<?>)) {
                 query = new TypedQueryWrapper<>(query, parameterManager.getCriteriaNameMapping());
@@ -1033,7 +1278,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameterManager.getParameterImpls(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                this, baseQuery, idQueryString, parameterManager.getParameterImpls(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                 mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
         );
 
@@ -1068,7 +1313,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             return applyObjectBuilder(query);
         }
 
-        TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
+        String objectQueryString = getBaseQueryString(null, null);
+        TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(objectQueryString, selectManager.getExpectedQueryResultType());
         Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery, ID_PARAM_NAME);
 
         if (identifierExpressionsToUse.length == 1) {
@@ -1087,7 +1333,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             parameters = (Collection<Parameter<?>>) (Collection<?>) parameterManager.getParameterImpls();
         }
         QuerySpecification querySpecification = new CustomQuerySpecification(
-                this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
+                this, baseQuery, objectQueryString, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
                 mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
         );
 
@@ -1258,9 +1504,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             sbSelectFrom.append(" LIMIT ");
             sbSelectFrom.append(maxResults);
 
-            if (firstResult != 0 && (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null)) {
+            int offset = getKeysetAwareOffset();
+            if (offset != 0) {
                 sbSelectFrom.append(" OFFSET ");
-                sbSelectFrom.append(firstResult);
+                sbSelectFrom.append(offset);
             }
         }
     }
@@ -1528,8 +1775,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                     sbSelectFrom.append(mainQuery.jpaProvider.getCustomFunctionInvocation(LimitFunction.FUNCTION_NAME, 1));
                     appendPageIdQueryAsSubquery(sbSelectFrom, externalRepresentation);
                     sbSelectFrom.append(',').append(maxResults);
-                    if (firstResult != 0 && (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null)) {
-                        sbSelectFrom.append(',').append(firstResult);
+                    int offset = getKeysetAwareOffset();
+                    if (offset != 0) {
+                        sbSelectFrom.append(',').append(offset);
                     }
                     sbSelectFrom.append(')');
                 }
@@ -1564,8 +1812,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                     sbSelectFrom.append(mainQuery.jpaProvider.getCustomFunctionInvocation(LimitFunction.FUNCTION_NAME, 1));
                     appendPageIdQueryAsSubquery(sbSelectFrom, externalRepresentation);
                     sbSelectFrom.append(',').append(maxResults);
-                    if (firstResult != 0 && (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null)) {
-                        sbSelectFrom.append(',').append(firstResult);
+                    int offset = getKeysetAwareOffset();
+                    if (offset != 0) {
+                        sbSelectFrom.append(',').append(offset);
                     }
                     sbSelectFrom.append(')');
                 }
@@ -23,11 +23,19 @@ import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedTypedQuery;
 import com.blazebit.persistence.impl.builder.object.CountExtractionObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilder;
+import com.blazebit.persistence.impl.keyset.KeysetBookmarkCache;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
+import com.blazebit.persistence.CountMode;
 import com.blazebit.persistence.DefaultKeysetPage;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.query.CountCache;
+import com.blazebit.persistence.impl.query.QueryWrapper;
+import com.blazebit.persistence.impl.query.RowCountEstimator;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.parser.util.SiblingEntityManagerFactory;
 
+
+import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
@@ -50,6 +58,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * @author Christian Beikov
@@ -60,8 +73,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean withExtractAllKeysets;
     private final boolean withCount;
     private final boolean boundedCount;
+    private final long maximumCount;
     private final int highestOffset;
     private final TypedQuery<?> countQuery;
+    private final Executor countQueryExecutor;
+    private final EntityManager countQueryEntityManager;
+    private final String countQueryString;
     private final TypedQuery<?> idQuery;
     private final TypedQuery<X> objectQuery;
     private final ObjectBuilder<X> objectBuilder;
@@ -78,17 +95,30 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final int keysetSuffix;
     private final KeysetMode keysetMode;
     private final KeysetPage keysetPage;
+    private final int keysetOffset;
     private final boolean forceFirstResult;
     private final boolean inlinedIdQuery;
     private final boolean inlinedCountQuery;
-
-    public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, boolean boundedCount, int highestOffset, TypedQuery<?> countQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping,
-                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery) {
+    private final KeysetBookmarkCache keysetBookmarkCache;
+    private final KeysetBookmarkCache.Key keysetBookmarkKey;
+    private final CountCache countCache;
+    private final CountCache.Key countCacheKey;
+    private final RowCountEstimator rowCountEstimator;
+
+    public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, long maximumCount, int highestOffset, TypedQuery<?> countQuery, Executor countQueryExecutor, EntityManager countQueryEntityManager,
+                                   String countQueryString, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping,
+                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, int keysetOffset, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery,
+                                   KeysetBookmarkCache keysetBookmarkCache, KeysetBookmarkCache.Key keysetBookmarkKey, CountCache countCache, CountCache.Key countCacheKey,
+                                   RowCountEstimator rowCountEstimator) {
         this.withExtractAllKeysets = withExtractAllKeysets;
         this.withCount = withCount;
-        this.boundedCount = boundedCount;
+        this.boundedCount = maximumCount != Long.MAX_VALUE;
+        this.maximumCount = maximumCount;
         this.highestOffset = highestOffset;
         this.countQuery = countQuery;
+        this.countQueryExecutor = countQueryExecutor;
+        this.countQueryEntityManager = countQueryEntityManager;
+        this.countQueryString = countQueryString;
         this.idQuery = idQuery;
         this.objectQuery = objectQuery;
         this.objectBuilder = objectBuilder;
@@ -101,9 +131,15 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.keysetToSelectIndexMapping = keysetToSelectIndexMapping;
         this.keysetMode = keysetMode;
         this.keysetPage = keysetPage;
+        this.keysetOffset = keysetOffset;
         this.forceFirstResult = forceFirstResult;
         this.inlinedIdQuery = inlinedIdQuery;
         this.inlinedCountQuery = inlinedCountQuery;
+        this.keysetBookmarkCache = keysetBookmarkCache;
+        this.keysetBookmarkKey = keysetBookmarkKey;
+        this.countCache = countCache;
+        this.countCacheKey = countCacheKey;
+        this.rowCountEstimator = rowCountEstimator;
         this.criteriaNameMapping = criteriaNameMapping;
 
         Map<String, Parameter<?>> params = new HashMap<>(parameters.size());
@@ -179,11 +215,95 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         return ((Number) countQuery.getSingleResult()).longValue();
     }
 
+    private long getTotalCount(Future<Object> countFuture) {
+        long totalCount = countFuture == null ? getTotalCount() : awaitTotalCount(countFuture);
+        if (countCache != null) {
+            countCache.put(countCacheKey, totalCount);
+        }
+        return totalCount;
+    }
+
+    private static long awaitTotalCount(Future<Object> countFuture) {
+        try {
+            return ((Number) countFuture.get()).longValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while waiting for the count query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PersistenceException("The count query failed", cause);
+        }
+    }
+
+    private FutureTask<Object> submitCountQuery() {
+        // The entity manager is not thread safe, so the count query is executed through a separate one
+        EntityManager countEntityManager = new SiblingEntityManagerFactory(countQueryEntityManager).createEntityManager();
+        try {
+            TypedQuery<Long> query = countEntityManager.createQuery(countQueryString, Long.class);
+            Query originalQuery = countQuery instanceof QueryWrapper ? ((QueryWrapper) countQuery).getDelegate() : countQuery;
+            for (Map.Entry<String, Object> entry : originalQuery.getHints().entrySet()) {
+                query.setHint(entry.getKey(), entry.getValue());
+            }
+            for (Parameter<?> parameter : originalQuery.getParameters()) {
+                if (originalQuery.isBound(parameter)) {
+                    if (parameter.getName() == null) {
+                        query.setParameter(parameter.getPosition(), originalQuery.getParameterValue(parameter));
+                    } else {
+                        query.setParameter(parameter.getName(), originalQuery.getParameterValue(parameter));
+                    }
+                }
+            }
+            CountQueryTask task = new CountQueryTask(countEntityManager, query);
+            countQueryExecutor.execute(task);
+            return task;
+        } catch (RuntimeException ex) {
+            countEntityManager.close();
+            throw ex;
+        }
+    }
+
+    private boolean isJoinedToTransaction() {
+        // Within a transaction, the count query must see the changes of the transaction, which a separate entity manager doesn't
+        try {
+            return countQueryEntityManager.isJoinedToTransaction();
+        } catch (AbstractMethodError | NoSuchMethodError e) {
+            // A JPA 2.0 provider can't tell, so we assume a transaction to be safe
+            return true;
+        }
+    }
+
+    private static void cancelCountQuery(FutureTask<Object> countFuture) {
+        if (countFuture != null && countFuture.cancel(false)) {
+            // The task was never run, so we have to close the entity manager
+            ((CountQueryTask) countFuture).close();
+        }
+    }
+
+    private void rememberKeysetBookmark(int firstRow, int resultSize, Serializable[] highest) {
+        if (keysetBookmarkCache != null && highest != null) {
+            // The highest keyset is the one of the last row before the highest offset, so the bookmark is for the row after that
+            int row = firstRow + Math.min(resultSize, pageSize - highestOffset);
+            keysetBookmarkCache.putBookmark(keysetBookmarkKey, row, highest);
+        }
+    }
+
+    private CountMode getCountMode(CountMode countMode, long totalSize) {
+        if (boundedCount && (countMode == CountMode.NONE || countMode == CountMode.EXACT && totalSize >= maximumCount)) {
+            return CountMode.BOUNDED;
+        }
+        return countMode;
+    }
+
     @Override
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
-        return getResultList(queryFirstResult, firstRow, -1L);
+        return getResultList(queryFirstResult, firstRow, -1L, CountMode.NONE, null);
     }
 
     @Override
@@ -192,9 +312,37 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
         long totalSize = -1L;
+        CountMode countMode = withCount ? CountMode.EXACT : CountMode.NONE;
         if (withCount && !inlinedCountQuery) {
-            if (entityId == null) {
-                totalSize = ((Number) countQuery.getSingleResult()).longValue();
+            if (rowCountEstimator != null) {
+                totalSize = rowCountEstimator.getRowCountEstimate();
+                if (totalSize != -1L) {
+                    countMode = CountMode.ESTIMATED;
+                }
+            }
+            if (totalSize == -1L && countCache != null) {
+                Long cachedCount = countCache.get(countCacheKey);
+                if (cachedCount != null) {
+                    totalSize = cachedCount;
+                    countMode = CountMode.CACHED;
+                }
+            }
+            if (totalSize != -1L) {
+                // The count was determined without executing the count query
+            } else if (countQueryExecutor != null && !isJoinedToTransaction()) {
+                FutureTask<Object> countFuture = submitCountQuery();
+                boolean success = false;
+                try {
+                    PagedList<X> result = getResultList(queryFirstResult, firstRow, totalSize, countMode, countFuture);
+                    success = true;
+                    return result;
+                } finally {
+                    if (!success) {
+                        cancelCountQuery(countFuture);
+                    }
+                }
+            } else if (entityId == null) {
+                totalSize = getTotalCount(null);
             } else {
                 Object[] result = (Object[]) countQuery.getSingleResult();
                 totalSize = ((Number) result[0]).longValue();
@@ -211,21 +359,22 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             }
         }
 
-        if (totalSize == 0L) {
-            return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
+        // Only an exact count guarantees that there are no results
+        if (totalSize == 0L && countMode == CountMode.EXACT) {
+            return new PagedArrayList<X>(null, totalSize, countMode, queryFirstResult, pageSize);
         }
 
-        return getResultList(queryFirstResult, firstRow, totalSize);
+        return getResultList(queryFirstResult, firstRow, totalSize, countMode, null);
     }
 
-    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
+    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize, CountMode countMode, Future<Object> countFuture) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
 
             if (forceFirstResult || keysetMode == KeysetMode.NONE) {
                 idQuery.setFirstResult(firstRow);
             } else {
-                idQuery.setFirstResult(0);
+                idQuery.setFirstResult(keysetOffset);
             }
 
             List<?> ids = idQuery.getResultList();
@@ -238,7 +387,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
                 long size;
                 if (withCount && totalSize == -1) {
-                    size = getTotalCount();
+                    size = getTotalCount(countFuture);
                 } else {
                     size = totalSize;
                 }
@@ -249,7 +398,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         size = Math.max(size, firstRow);
                     }
                 }
-                return new PagedArrayList<X>(newKeysetPage, size, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, size, getCountMode(countMode, size), queryFirstResult, pageSize);
             }
 
             Serializable[] lowest = null;
@@ -382,12 +531,17 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             if (keysetToSelectIndexMapping != null) {
                 newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
+                rememberKeysetBookmark(firstRow, ids.size(), highest);
             }
 
-            totalSize = Math.max(totalSize, firstRow + ids.size());
+            // Run the object query before awaiting the count so that both queries execute concurrently
             List<X> queryResultList = objectQuery.getResultList();
+            if (countFuture != null) {
+                totalSize = getTotalCount(countFuture);
+            }
+            totalSize = Math.max(totalSize, firstRow + ids.size());
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, getCountMode(countMode, totalSize), queryFirstResult, pageSize);
             return pagedResultList;
         } else {
             if (!inlinedIdQuery) {
@@ -396,7 +550,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 if (forceFirstResult || keysetMode == KeysetMode.NONE) {
                     objectQuery.setFirstResult(firstRow);
                 } else {
-                    objectQuery.setFirstResult(0);
+                    objectQuery.setFirstResult(keysetOffset);
                 }
             }
 
@@ -413,7 +567,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     if (inlinedCountQuery && firstRow == 0) {
                         totalSize = 0L;
                     } else if (withCount) {
-                        totalSize = getTotalCount();
+                        totalSize = getTotalCount(countFuture);
                     }
                 }
                 if (boundedCount) {
@@ -424,7 +578,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     }
                 }
 
-                return new PagedArrayList<X>(newKeysetPage, totalSize, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, totalSize, getCountMode(countMode, totalSize), queryFirstResult, pageSize);
             }
 
             if (keysetMode == KeysetMode.PREVIOUS) {
@@ -458,14 +612,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         totalSize = keysetExtractionObjectBuilder.getCount();
                     }
                     newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
+                    rememberKeysetBookmark(firstRow, result.size(), highest);
                 } else if (objectBuilder instanceof CountExtractionObjectBuilder<?>) {
                     totalSize = ((CountExtractionObjectBuilder<X>) objectBuilder).getCount();
                 }
             }
 
+            if (countFuture != null) {
+                totalSize = getTotalCount(countFuture);
+            }
             totalSize = Math.max(totalSize, firstRow + result.size());
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, getCountMode(countMode, totalSize), queryFirstResult, pageSize);
             return pagedResultList;
         }
     }
@@ -894,4 +1052,35 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
         public abstract List<Query> getQueries(Query countQuery, Query idQuery, Query objectQuery);
     }
+
+    /**
+     * Runs the count query through a separate entity manager and closes it afterwards.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class CountQueryTask extends FutureTask<Object> {
+
+        private final EntityManager entityManager;
+
+        public CountQueryTask(final EntityManager entityManager, final TypedQuery<Long> countQuery) {
+            super(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    try {
+                        return countQuery.getSingleResult();
+                    } finally {
+                        entityManager.close();
+                    }
+                }
+            });
+            this.entityManager = entityManager;
+        }
+
+        public void close() {
+            if (entityManager.isOpen()) {
+                entityManager.close();
+            }
+        }
+    }
 }
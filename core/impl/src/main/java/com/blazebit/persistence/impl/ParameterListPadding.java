@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pads the size of collection valued parameters and VALUES clauses to a bucket size so that the amount of distinct SQL strings stays bounded.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class ParameterListPadding {
+
+    public static final ParameterListPadding NONE = new ParameterListPadding("false", null);
+    public static final ParameterListPadding POWER_OF_TWO = new ParameterListPadding("true", new int[0]);
+
+    private final String value;
+    // null means disabled, an empty array means padding to the next power of two
+    private final int[] buckets;
+
+    private ParameterListPadding(String value, int[] buckets) {
+        this.value = value;
+        this.buckets = buckets;
+    }
+
+    public static ParameterListPadding parse(String propertyName, String propertyValue) {
+        if (propertyValue == null || "false".equalsIgnoreCase(propertyValue)) {
+            return NONE;
+        } else if ("true".equalsIgnoreCase(propertyValue)) {
+            return POWER_OF_TWO;
+        }
+
+        String[] parts = propertyValue.split(",");
+        int[] buckets = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                buckets[i] = Integer.parseInt(parts[i].trim());
+                if (buckets[i] < 1 || i > 0 && buckets[i] <= buckets[i - 1]) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for property '" + propertyName + "'! Expected true, false or a comma separated list of ascending positive bucket sizes.");
+        }
+
+        return new ParameterListPadding(propertyValue, buckets);
+    }
+
+    public boolean isEnabled() {
+        return buckets != null;
+    }
+
+    public int pad(int size) {
+        if (buckets == null || size < 2) {
+            return size;
+        }
+        if (buckets.length == 0) {
+            int paddedSize = Integer.highestOneBit(size - 1) << 1;
+            // Avoid overflowing for huge sizes
+            return paddedSize < 0 ? size : paddedSize;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            if (size <= buckets[i]) {
+                return buckets[i];
+            }
+        }
+        int lastBucket = buckets[buckets.length - 1];
+        return (size + lastBucket - 1) / lastBucket * lastBucket;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Object pad(Object value) {
+        if (buckets == null || !(value instanceof Collection<?>)) {
+            return value;
+        }
+        Collection<Object> collection = (Collection<Object>) value;
+        int size = collection.size();
+        int paddedSize = pad(size);
+        if (paddedSize == size) {
+            return value;
+        }
+
+        List<Object> paddedValues = new ArrayList<>(paddedSize);
+        paddedValues.addAll(collection);
+        Object lastValue = getLast(collection);
+        for (int i = size; i < paddedSize; i++) {
+            paddedValues.add(lastValue);
+        }
+        return paddedValues;
+    }
+
+    private static Object getLast(Collection<Object> collection) {
+        if (collection instanceof List<?>) {
+            List<Object> list = (List<Object>) collection;
+            return list.get(list.size() - 1);
+        }
+        Object lastValue = null;
+        Iterator<Object> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            lastValue = iterator.next();
+        }
+        return lastValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParameterListPadding)) {
+            return false;
+        }
+        return Arrays.equals(buckets, ((ParameterListPadding) o).buckets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(buckets);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
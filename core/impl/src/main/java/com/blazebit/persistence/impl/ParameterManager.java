@@ -66,6 +66,7 @@ public class ParameterManager {
     private int counter;
     private final JpaProvider jpaProvider;
     private final EntityMetamodel entityMetamodel;
+    private final MainQuery mainQuery;
     private final Map<String, ParameterImpl<?>> parameters = new TreeMap<>();
     private final Map<String, String> valuesParameters = new TreeMap<>();
     private final ParameterRegistrationVisitor parameterRegistrationVisitor;
@@ -73,9 +74,10 @@ public class ParameterManager {
     private Map<javax.persistence.criteria.ParameterExpression<?>, String> criteriaNameMapping;
     private int positionalOffset = -1; // Records the last positional parameter index that was used
 
-    public ParameterManager(JpaProvider jpaProvider, EntityMetamodel entityMetamodel) {
+    public ParameterManager(JpaProvider jpaProvider, EntityMetamodel entityMetamodel, MainQuery mainQuery) {
         this.jpaProvider = jpaProvider;
         this.entityMetamodel = entityMetamodel;
+        this.mainQuery = mainQuery;
         this.parameterRegistrationVisitor = new ParameterRegistrationVisitor(this);
         this.parameterUnregistrationVisitor = new ParameterUnregistrationVisitor(this);
     }
@@ -214,6 +216,7 @@ public class ParameterManager {
     }
 
     void parameterizeQuery(Query q, String skippedParameterPrefix) {
+        ParameterListPadding parameterListPadding = mainQuery.getQueryConfiguration().getParameterListPadding();
         Set<String> requestedValueParameters = new HashSet<String>();
         for (Parameter<?> p : q.getParameters()) {
             String parameterName = p.getName();
@@ -245,7 +248,7 @@ public class ParameterManager {
                     q.setParameter(parameterName, parameter.getValue());
                 }
             } else {
-                parameter.bind(q);
+                parameter.bind(q, parameterListPadding);
             }
         }
 
@@ -449,14 +452,14 @@ public class ParameterManager {
         }
     }
 
-    public void registerValuesParameter(String parameterName, Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder) {
+    public void registerValuesParameter(String parameterName, Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, String[] arrayElementTypes, ValuesTemporaryTable temporaryTable, AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder) {
         if (parameterName == null) {
             throw new NullPointerException("parameterName");
         }
         if (parameters.containsKey(parameterName)) {
             throw new IllegalArgumentException("Can't register parameter for VALUES clause because there already exists a parameter with the name: " + parameterName);
         }
-        parameters.put(parameterName, new ParameterImpl<Object>(parameterName, false, ClauseType.JOIN, queryBuilder, new ValuesParameterWrapper(type, parameterNames, pathExpressions)));
+        parameters.put(parameterName, new ParameterImpl<Object>(parameterName, false, ClauseType.JOIN, queryBuilder, new ValuesParameterWrapper(type, parameterNames, pathExpressions, arrayElementTypes, temporaryTable)));
         for (int i = 0; i < parameterNames.length; i++) {
             for (int j = 0; j < parameterNames[i].length; j++) {
                 valuesParameters.put(parameterNames[i][j], parameterName);
@@ -725,6 +728,10 @@ public class ParameterManager {
         }
 
         public void bind(Query q) {
+            bind(q, ParameterListPadding.NONE);
+        }
+
+        public void bind(Query q, ParameterListPadding parameterListPadding) {
             if (valueSet) {
                 if (value instanceof ParameterValue) {
                     if (name == null) {
@@ -733,10 +740,12 @@ public class ParameterManager {
                         ((ParameterValue) value).bind(q, name);
                     }
                 } else {
+                    // Padding the collection to a bucket size reduces the amount of distinct SQL strings for different collection sizes
+                    Object boundValue = collectionValued ? parameterListPadding.pad(value) : value;
                     if (name == null) {
-                        q.setParameter(position, value);
+                        q.setParameter(position, boundValue);
                     } else {
-                        q.setParameter(name, value);
+                        q.setParameter(name, boundValue);
                     }
                 }
             }
@@ -897,9 +906,9 @@ public class ParameterManager {
         private final ValuesParameterBinder binder;
         private Collection<Object> value;
 
-        public ValuesParameterWrapper(Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions) {
+        public ValuesParameterWrapper(Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, String[] arrayElementTypes, ValuesTemporaryTable temporaryTable) {
             this.type = type;
-            this.binder = new ValuesParameterBinder(parameterNames, pathExpressions);
+            this.binder = new ValuesParameterBinder(parameterNames, pathExpressions, arrayElementTypes, temporaryTable);
         }
 
         private ValuesParameterWrapper(Class<?> type, ValuesParameterBinder binder) {
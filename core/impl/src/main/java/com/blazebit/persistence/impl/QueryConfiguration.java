@@ -43,8 +43,14 @@ public interface QueryConfiguration {
 
     public boolean isValuesClauseFilterNullsEnabled();
 
+    public boolean isValuesClauseArrayStrategyEnabled();
+
+    public int getValuesClauseTemporaryTableThreshold();
+
     public boolean isParameterAsLiteralRenderingEnabled();
 
+    public ParameterListPadding getParameterListPadding();
+
     public boolean isOptimizedKeysetPredicateRenderingEnabled();
 
     public Boolean getInlineIdQueryEnabled();
@@ -66,4 +72,18 @@ public interface QueryConfiguration {
     public boolean isCacheable();
 
     public boolean isQueryPlanCacheEnabled();
+
+    public int getQueryStringCacheMaxSize();
+
+    public int getQueryPlanCacheMaxSize();
+
+    public int getKeysetBookmarkCacheMaxSize();
+
+    public int getKeysetBookmarkInterval();
+
+    public int getCountCacheMaxSize();
+
+    public int getResultCacheMaxSize();
+
+    public boolean isMultisetArrayEncodingEnabled();
 }
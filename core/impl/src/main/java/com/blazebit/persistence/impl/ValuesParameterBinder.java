@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.spi.ArrayValue;
 import com.blazebit.persistence.spi.AttributeAccessor;
 
 import javax.persistence.Query;
@@ -31,13 +32,26 @@ public class ValuesParameterBinder {
 
     private final String[][] parameterNames;
     private final AttributeAccessor<Object, Object>[] pathExpressions;
+    private final String[] arrayElementTypes;
+    private final ValuesTemporaryTable temporaryTable;
 
-    public ValuesParameterBinder(String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions) {
+    public ValuesParameterBinder(String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, String[] arrayElementTypes, ValuesTemporaryTable temporaryTable) {
         this.parameterNames = parameterNames;
         this.pathExpressions = pathExpressions;
+        this.arrayElementTypes = arrayElementTypes;
+        this.temporaryTable = temporaryTable;
     }
 
     public void bind(Query query, Collection<Object> value) {
+        if (arrayElementTypes != null) {
+            bindArrays(query, value);
+            return;
+        }
+        if (temporaryTable != null) {
+            // The only parameter is the key of the rows in the temporary table
+            query.setParameter(parameterNames[0][0], temporaryTable.insert(value, pathExpressions));
+            return;
+        }
         Iterator<Object> iterator = value.iterator();
         for (int i = 0; i < parameterNames.length; i++) {
             Object element;
@@ -57,6 +71,26 @@ public class ValuesParameterBinder {
         }
     }
 
+    private void bindArrays(Query query, Collection<Object> value) {
+        Object[][] arrays = new Object[arrayElementTypes.length][value.size()];
+        int i = 0;
+        for (Object element : value) {
+            if (element != null) {
+                for (int j = 0; j < arrays.length; j++) {
+                    if (pathExpressions[j] == null) {
+                        arrays[j][i] = element;
+                    } else {
+                        arrays[j][i] = pathExpressions[j].getNullSafe(element);
+                    }
+                }
+            }
+            i++;
+        }
+        for (int j = 0; j < arrays.length; j++) {
+            query.setParameter(parameterNames[0][j], new ArrayValue(arrayElementTypes[j], arrays[j]));
+        }
+    }
+
     public String[][] getParameterNames() {
         return parameterNames;
     }
@@ -66,6 +100,10 @@ public class ValuesParameterBinder {
     }
 
     public int size() {
+        // With the array or temporary table strategy, the number of values is unbounded
+        if (arrayElementTypes != null || temporaryTable != null) {
+            return Integer.MAX_VALUE;
+        }
         return parameterNames.length;
     }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.AttributeAccessor;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A session scoped temporary table for a VALUES clause of a specific shape. Every binding of new values inserts its rows with a new key,
+ * so the same table can be used for multiple VALUES clauses of a session.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ValuesTemporaryTable {
+
+    public static final String KEY_COLUMN = "values_key";
+    private static final String TABLE_NAME_PREFIX = "bp_values_";
+    private static final int MAX_TABLE_NAME_LENGTH = 30;
+    private static final AtomicLong KEY_SEQUENCE = new AtomicLong();
+
+    private final EntityManager em;
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final String tableName;
+    private final String createSql;
+    private final String clearSql;
+    private final String insertSql;
+    private final int[] sqlTypes;
+    private List<Object[]> insertedRows;
+    private long insertedKey;
+
+    private ValuesTemporaryTable(EntityManager em, ExtendedQuerySupport extendedQuerySupport, String tableName, String createSql, String clearSql, String insertSql, int[] sqlTypes) {
+        this.em = em;
+        this.extendedQuerySupport = extendedQuerySupport;
+        this.tableName = tableName;
+        this.createSql = createSql;
+        this.clearSql = clearSql;
+        this.insertSql = insertSql;
+        this.sqlTypes = sqlTypes;
+    }
+
+    /**
+     * Returns the temporary table for the given column types or <code>null</code> if the dbms doesn't support temporary tables.
+     *
+     * @param em The entity manager
+     * @param dbmsDialect The dbms dialect
+     * @param extendedQuerySupport The extended query support
+     * @param columnTypes The java types of the VALUES clause columns
+     * @return The temporary table or <code>null</code>
+     */
+    public static ValuesTemporaryTable create(EntityManager em, DbmsDialect dbmsDialect, ExtendedQuerySupport extendedQuerySupport, Class<?>[] columnTypes) {
+        String[] columnNames = new String[columnTypes.length + 1];
+        Class<?>[] tableColumnTypes = new Class<?>[columnTypes.length + 1];
+        int[] sqlTypes = new int[columnTypes.length + 1];
+        StringBuilder nameSb = new StringBuilder(TABLE_NAME_PREFIX);
+        columnNames[0] = KEY_COLUMN;
+        tableColumnTypes[0] = Long.class;
+        sqlTypes[0] = Types.BIGINT;
+        for (int i = 0; i < columnTypes.length; i++) {
+            // The column names match the ones used for the SELECT_VALUES strategy
+            columnNames[i + 1] = "c" + (i + 1);
+            tableColumnTypes[i + 1] = columnTypes[i];
+            sqlTypes[i + 1] = getSqlType(columnTypes[i]);
+            nameSb.append(getTypeCode(columnTypes[i]));
+        }
+        if (nameSb.length() > MAX_TABLE_NAME_LENGTH) {
+            // Keep the table name short enough for every dbms
+            String typeCodes = nameSb.substring(TABLE_NAME_PREFIX.length());
+            nameSb.setLength(TABLE_NAME_PREFIX.length());
+            nameSb.append(typeCodes.length()).append('_').append(Integer.toHexString(typeCodes.hashCode()));
+        }
+        String tableName = dbmsDialect.getTemporaryTableName(nameSb.toString());
+        String createSql = dbmsDialect.getCreateTemporaryTableSql(tableName, columnNames, tableColumnTypes);
+        if (createSql == null) {
+            return null;
+        }
+
+        StringBuilder insertSb = new StringBuilder();
+        insertSb.append("insert into ").append(tableName).append(" (");
+        for (int i = 0; i < columnNames.length; i++) {
+            insertSb.append(columnNames[i]).append(',');
+        }
+        insertSb.setCharAt(insertSb.length() - 1, ')');
+        insertSb.append(" values (");
+        for (int i = 0; i < columnNames.length; i++) {
+            insertSb.append("?,");
+        }
+        insertSb.setCharAt(insertSb.length() - 1, ')');
+        return new ValuesTemporaryTable(em, extendedQuerySupport, tableName, createSql, dbmsDialect.getClearTemporaryTableSql(tableName), insertSb.toString(), sqlTypes);
+    }
+
+    /**
+     * Returns whether the given java type can be stored in a column of a temporary table.
+     *
+     * @param javaType The java type
+     * @return Whether the type is supported
+     */
+    public static boolean isColumnType(Class<?> javaType) {
+        return javaType == String.class || javaType == Long.class || javaType == long.class || javaType == Integer.class || javaType == int.class
+                || javaType == Short.class || javaType == short.class || javaType == BigDecimal.class || javaType == BigInteger.class
+                || javaType == Boolean.class || javaType == boolean.class;
+    }
+
+    private static int getSqlType(Class<?> javaType) {
+        if (javaType == String.class) {
+            return Types.VARCHAR;
+        } else if (javaType == Long.class || javaType == long.class) {
+            return Types.BIGINT;
+        } else if (javaType == Integer.class || javaType == int.class) {
+            return Types.INTEGER;
+        } else if (javaType == Short.class || javaType == short.class) {
+            return Types.SMALLINT;
+        } else if (javaType == BigDecimal.class || javaType == BigInteger.class) {
+            return Types.NUMERIC;
+        } else {
+            return Types.BOOLEAN;
+        }
+    }
+
+    private static char getTypeCode(Class<?> javaType) {
+        if (javaType == String.class) {
+            return 's';
+        } else if (javaType == Long.class || javaType == long.class) {
+            return 'l';
+        } else if (javaType == Integer.class || javaType == int.class) {
+            return 'i';
+        } else if (javaType == Short.class || javaType == short.class) {
+            return 'h';
+        } else if (javaType == BigDecimal.class) {
+            return 'd';
+        } else if (javaType == BigInteger.class) {
+            return 'b';
+        } else {
+            return 'z';
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Inserts the given values with a new key into the temporary table and returns the key.
+     * If the same values were already inserted in the current transaction, the key of these rows is returned instead.
+     *
+     * @param values The values to insert
+     * @param pathExpressions The accessors for the column values or <code>null</code> elements if the value itself is the column value
+     * @return The key of the inserted rows
+     */
+    public long insert(Collection<Object> values, AttributeAccessor<Object, Object>[] pathExpressions) {
+        final List<Object[]> rows = new ArrayList<>(values.size());
+        for (Object element : values) {
+            Object[] row = new Object[pathExpressions.length + 1];
+            if (element != null) {
+                for (int i = 0; i < pathExpressions.length; i++) {
+                    Object value = pathExpressions[i] == null ? element : pathExpressions[i].getNullSafe(element);
+                    // Not every JDBC driver supports binding BigInteger
+                    if (value instanceof BigInteger) {
+                        value = new BigDecimal((BigInteger) value);
+                    }
+                    row[i + 1] = value;
+                }
+            }
+            rows.add(row);
+        }
+        // A query is bound multiple times e.g. for the count, id and object query of a paginated query, so we reuse the rows if possible
+        if (insertedRows != null && equalRows(insertedRows, rows)) {
+            return insertedKey;
+        }
+        Long key = KEY_SEQUENCE.incrementAndGet();
+        for (Object[] row : rows) {
+            row[0] = key;
+        }
+        extendedQuerySupport.insertTemporaryTableValues(em, createSql, clearSql, insertSql, sqlTypes, rows, new Runnable() {
+            @Override
+            public void run() {
+                // The rows are gone after the transaction completed
+                if (insertedRows == rows) {
+                    insertedRows = null;
+                }
+            }
+        });
+        insertedRows = rows;
+        insertedKey = key;
+        return key;
+    }
+
+    private static boolean equalRows(List<Object[]> rows1, List<Object[]> rows2) {
+        if (rows1.size() != rows2.size()) {
+            return false;
+        }
+        for (int i = 0; i < rows1.size(); i++) {
+            Object[] row1 = rows1.get(i);
+            Object[] row2 = rows2.get(i);
+            // The first element is the key
+            for (int j = 1; j < row1.length; j++) {
+                if (!Objects.equals(row1[j], row2[j])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
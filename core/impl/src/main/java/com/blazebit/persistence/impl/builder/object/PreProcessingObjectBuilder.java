@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl.builder.object;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -26,7 +27,7 @@ import java.util.List;
  * @author Christian Beikov
  * @since 1.5.0
  */
-public class PreProcessingObjectBuilder<T> implements ObjectBuilder<T> {
+public class PreProcessingObjectBuilder<T> implements GroupingObjectBuilder<T> {
 
     private final ObjectBuilder<Object[]> preProcessor;
     private final ObjectBuilder<T> objectBuilder;
@@ -50,4 +51,17 @@ public class PreProcessingObjectBuilder<T> implements ObjectBuilder<T> {
     public List<T> buildList(List<T> list) {
         return objectBuilder.buildList(list);
     }
+
+    @Override
+    public int getGroupWindowSize() {
+        if (objectBuilder instanceof GroupingObjectBuilder<?>) {
+            return ((GroupingObjectBuilder<T>) objectBuilder).getGroupWindowSize();
+        }
+        return 0;
+    }
+
+    @Override
+    public Object getGroupKey(T object) {
+        return ((GroupingObjectBuilder<T>) objectBuilder).getGroupKey(object);
+    }
 }
@@ -41,4 +41,22 @@ public class CockroachSQLDbmsDialect extends PostgreSQLDbmsDialect {
             appendEmulatedOrderByElementWithNulls(sqlSb, element, aliases);
         }
     }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        // Temporary tables are experimental and don't support ON COMMIT DELETE ROWS
+        return null;
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        // The pg_class table does not contain row count statistics
+        return null;
+    }
+
+    @Override
+    public String getQueryRowCountEstimateSql(String sql) {
+        // The explain output does not contain the estimate in the first row
+        return null;
+    }
 }
@@ -525,6 +525,136 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return ValuesStrategy.VALUES;
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return false;
+    }
+
+    @Override
+    public String getTemporaryTableName(String name) {
+        return name;
+    }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        return null;
+    }
+
+    @Override
+    public String getClearTemporaryTableSql(String tableName) {
+        return "delete from " + tableName;
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        return null;
+    }
+
+    @Override
+    public String getQueryRowCountEstimateSql(String sql) {
+        return null;
+    }
+
+    @Override
+    public long getQueryRowCountEstimate(List<Object> planRows) {
+        // The root node of the plan is rendered first and reports the estimate as rows=<number>
+        if (planRows.isEmpty() || !(planRows.get(0) instanceof String)) {
+            return -1L;
+        }
+        String plan = (String) planRows.get(0);
+        int index = plan.indexOf("rows=");
+        if (index == -1) {
+            return -1L;
+        }
+        int start = index + "rows=".length();
+        int end = start;
+        while (end < plan.length() && (Character.isDigit(plan.charAt(end)) || plan.charAt(end) == '.')) {
+            end++;
+        }
+        if (start == end) {
+            return -1L;
+        }
+        try {
+            return Math.round(Double.parseDouble(plan.substring(start, end)));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Splits the possibly qualified and quoted table reference into the schema and table name part as stored in the catalog.
+     * The schema part is <code>null</code> if the table reference is not qualified.
+     *
+     * @param tableReference The table reference
+     * @param upperCaseUnquoted Whether unquoted identifiers are stored upper case in the catalog
+     * @return The schema and table name
+     */
+    protected static String[] getCatalogTableName(String tableReference, boolean upperCaseUnquoted) {
+        int dotIndex = -1;
+        char quote = 0;
+        for (int i = 0; i < tableReference.length(); i++) {
+            char c = tableReference.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '[') {
+                quote = ']';
+            } else if (c == '.') {
+                dotIndex = i;
+            }
+        }
+        if (dotIndex == -1) {
+            return new String[]{ null, getCatalogIdentifier(tableReference, upperCaseUnquoted) };
+        }
+        return new String[]{
+            getCatalogIdentifier(tableReference.substring(0, dotIndex), upperCaseUnquoted),
+            getCatalogIdentifier(tableReference.substring(dotIndex + 1), upperCaseUnquoted)
+        };
+    }
+
+    private static String getCatalogIdentifier(String identifier, boolean upperCaseUnquoted) {
+        char first = identifier.charAt(0);
+        if (first == '"' || first == '`' || first == '[') {
+            return identifier.substring(1, identifier.length() - 1);
+        }
+        return upperCaseUnquoted ? identifier.toUpperCase() : identifier;
+    }
+
+    protected static String toStringLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    protected void appendTemporaryTableColumns(StringBuilder sqlSb, String[] columnNames, Class<?>[] columnTypes) {
+        sqlSb.append('(');
+        for (int i = 0; i < columnNames.length; i++) {
+            sqlSb.append(columnNames[i]);
+            sqlSb.append(' ');
+            sqlSb.append(getTemporaryTableColumnType(columnTypes[i]));
+            sqlSb.append(',');
+        }
+        sqlSb.setCharAt(sqlSb.length() - 1, ')');
+    }
+
+    protected String getTemporaryTableColumnType(Class<?> javaType) {
+        if (javaType == String.class) {
+            return "varchar";
+        } else if (javaType == Long.class || javaType == Long.TYPE) {
+            return "bigint";
+        } else if (javaType == Integer.class || javaType == Integer.TYPE) {
+            return "integer";
+        } else if (javaType == Short.class || javaType == Short.TYPE) {
+            return "smallint";
+        } else if (javaType == BigDecimal.class || javaType == BigInteger.class) {
+            return "numeric";
+        } else if (javaType == Boolean.class || javaType == Boolean.TYPE) {
+            return "boolean";
+        }
+        throw new IllegalArgumentException("Unsupported temporary table column type: " + javaType.getName());
+    }
+
     @Override
     public boolean needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing() {
         return false;
@@ -106,6 +106,35 @@ public class H2DbmsDialect extends DefaultDbmsDialect {
         return ValuesStrategy.SELECT_VALUES;
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return true;
+    }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        StringBuilder sqlSb = new StringBuilder();
+        sqlSb.append("create local temporary table if not exists ").append(tableName).append(' ');
+        appendTemporaryTableColumns(sqlSb, columnNames, columnTypes);
+        // TRANSACTIONAL prevents the implicit commit that H2 does for DDL statements
+        sqlSb.append(" on commit delete rows transactional");
+        return sqlSb.toString();
+    }
+
+    @Override
+    public String getClearTemporaryTableSql(String tableName) {
+        // The table is created with ON COMMIT DELETE ROWS
+        return null;
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        String[] name = getCatalogTableName(tableReference, true);
+        return "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA = "
+                + (name[0] == null ? "schema()" : toStringLiteral(name[0]))
+                + " and TABLE_NAME = " + toStringLiteral(name[1]);
+    }
+
     @Override
     public boolean needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing() {
         return true;
@@ -26,6 +26,8 @@ import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Map;
 
 /**
@@ -218,4 +220,37 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsLimitWithoutOrderBy() {
         return false;
     }
+
+    @Override
+    public String getTemporaryTableName(String name) {
+        return "#" + name;
+    }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        StringBuilder sqlSb = new StringBuilder();
+        sqlSb.append("if object_id('tempdb..").append(tableName).append("') is null create table ").append(tableName).append(' ');
+        appendTemporaryTableColumns(sqlSb, columnNames, columnTypes);
+        return sqlSb.toString();
+    }
+
+    @Override
+    protected String getTemporaryTableColumnType(Class<?> javaType) {
+        if (javaType == String.class) {
+            return "nvarchar(max)";
+        } else if (javaType == BigDecimal.class) {
+            return "decimal(38,10)";
+        } else if (javaType == BigInteger.class) {
+            return "decimal(38,0)";
+        } else if (javaType == Boolean.class || javaType == Boolean.TYPE) {
+            return "bit";
+        }
+        return super.getTemporaryTableColumnType(javaType);
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        // The row count of the heap or clustered index is maintained by the storage engine
+        return "select sum(rows) from sys.partitions where object_id = object_id(" + toStringLiteral(tableReference) + ") and index_id in (0, 1)";
+    }
 }
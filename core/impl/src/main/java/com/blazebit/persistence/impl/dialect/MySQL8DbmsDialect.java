@@ -106,4 +106,10 @@ public class MySQL8DbmsDialect extends MySQLDbmsDialect {
 
         return null;
     }
+
+    @Override
+    public String getQueryRowCountEstimateSql(String sql) {
+        // The tree format renders the root node first e.g. "-> Filter: (d.name like ?)  (cost=0.75 rows=1)"
+        return "explain format=tree " + sql;
+    }
 }
@@ -23,6 +23,8 @@ import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -192,4 +194,32 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return false;
     }
 
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        StringBuilder sqlSb = new StringBuilder();
+        // Creating a temporary table does not cause an implicit commit
+        sqlSb.append("create temporary table if not exists ").append(tableName).append(' ');
+        appendTemporaryTableColumns(sqlSb, columnNames, columnTypes);
+        return sqlSb.toString();
+    }
+
+    @Override
+    protected String getTemporaryTableColumnType(Class<?> javaType) {
+        if (javaType == String.class) {
+            return "longtext";
+        } else if (javaType == BigDecimal.class) {
+            return "decimal(65,30)";
+        } else if (javaType == BigInteger.class) {
+            return "decimal(65,0)";
+        }
+        return super.getTemporaryTableColumnType(javaType);
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        String[] name = getCatalogTableName(tableReference, false);
+        return "select TABLE_ROWS from information_schema.TABLES where TABLE_SCHEMA = "
+                + (name[0] == null ? "database()" : toStringLiteral(name[0]))
+                + " and TABLE_NAME = " + toStringLiteral(name[1]);
+    }
 }
@@ -299,4 +299,12 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         }
     }
 
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        String[] name = getCatalogTableName(tableReference, true);
+        // NUM_ROWS is null if the table statistics were never gathered
+        return "select NUM_ROWS from ALL_TABLES where OWNER = "
+                + (name[0] == null ? "sys_context('USERENV', 'CURRENT_SCHEMA')" : toStringLiteral(name[0]))
+                + " and TABLE_NAME = " + toStringLiteral(name[1]);
+    }
 }
@@ -301,4 +301,36 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsArbitraryLengthMultiset() {
         return true;
     }
+
+    @Override
+    public boolean supportsArrayValues() {
+        return true;
+    }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        StringBuilder sqlSb = new StringBuilder();
+        sqlSb.append("create temporary table if not exists ").append(tableName).append(' ');
+        appendTemporaryTableColumns(sqlSb, columnNames, columnTypes);
+        sqlSb.append(" on commit delete rows");
+        return sqlSb.toString();
+    }
+
+    @Override
+    public String getClearTemporaryTableSql(String tableName) {
+        // The table is created with ON COMMIT DELETE ROWS
+        return null;
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        // The planner statistics are -1 if the table was never vacuumed or analyzed
+        return "select cast(reltuples as bigint) from pg_class where oid = to_regclass(" + toStringLiteral(tableReference) + ")";
+    }
+
+    @Override
+    public String getQueryRowCountEstimateSql(String sql) {
+        // The first row of the text format describes the root node e.g. "Seq Scan on document d  (cost=0.00..1.05 rows=5 width=0)"
+        return "explain " + sql;
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.tomultiset;
+
+import com.blazebit.persistence.impl.util.SqlUtils;
+import com.blazebit.persistence.parser.RecordArrayParser;
+import com.blazebit.persistence.spi.FunctionRenderContext;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A <code>to_multiset</code> implementation that aggregates the tuples to a PostgreSQL array of records instead of JSON,
+ * which avoids the JSON construction in the database and the JSON parsing in the JVM.
+ * The array is transferred in its text representation, as JPA providers read the result as string,
+ * but arrays as returned by {@link Array#getArray()} consisting of {@link Struct}, <code>Object[]</code> or record literal elements are supported as well.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class PostgreSQLArrayToMultisetFunction extends ToMultisetFunction {
+
+    private static final String START_CHUNK = "(select cast(array_agg(row(";
+
+    public PostgreSQLArrayToMultisetFunction() {
+        super(null, null);
+    }
+
+    @Override
+    protected void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        context.addChunk(START_CHUNK);
+
+        int orderByIndex = SqlUtils.indexOfOrderBy(subquery, fromIndex);
+        if (orderByIndex == -1) {
+            renderRowArguments(context, selectItemExpressions);
+            context.addChunk(")) as text)");
+            context.addChunk(subquery.substring(fromIndex));
+        } else {
+            int limitIndex = SqlUtils.indexOfLimit(subquery, orderByIndex);
+            if (limitIndex == -1) {
+                renderRowArguments(context, selectItemExpressions);
+                context.addChunk(")");
+                // Aggregate in the order of the subquery, the order by clause ends before the closing parenthesis of the subquery
+                context.addChunk(subquery.substring(orderByIndex, subquery.length() - 1));
+                context.addChunk(") as text)");
+                context.addChunk(subquery.substring(fromIndex, orderByIndex));
+                context.addChunk(")");
+            } else {
+                renderRowArguments(context, fields);
+                context.addChunk(")) as text) from (select ");
+                for (int i = 0; i < fields.length; i++) {
+                    if (i != 0) {
+                        context.addChunk(",");
+                    }
+                    context.addChunk(selectItemExpressions[i]);
+                    context.addChunk(" ");
+                    context.addChunk(fields[i]);
+                }
+                context.addChunk(subquery.substring(fromIndex));
+                context.addChunk(" tmp)");
+            }
+        }
+    }
+
+    private void renderRowArguments(FunctionRenderContext context, String[] selectItemExpressions) {
+        // Like the JSON encoding, we concatenate with an empty string so that the values are rendered with the text output of their types
+        // An explicit cast to text is not equivalent, since it renders e.g. booleans as true/false instead of t/f
+        for (int i = 0; i < selectItemExpressions.length; i++) {
+            if (i != 0) {
+                context.addChunk(",");
+            }
+            context.addChunk("'' || ");
+            context.addChunk(selectItemExpressions[i]);
+        }
+    }
+
+    @Override
+    protected Object process(Object result, String[] fields) {
+        try {
+            if (result instanceof Array) {
+                Array array = (Array) result;
+                try {
+                    return processElements((Object[]) array.getArray(), fields.length);
+                } finally {
+                    array.free();
+                }
+            } else if (result instanceof Object[]) {
+                return processElements((Object[]) result, fields.length);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Couldn't read the multiset result", ex);
+        }
+        CharSequence charSequence = toCharSequence(result);
+        if (charSequence == null) {
+            return null;
+        }
+        return RecordArrayParser.parse(charSequence, fields.length);
+    }
+
+    private static List<Object[]> processElements(Object[] elements, int fieldCount) throws SQLException {
+        List<Object[]> list = new ArrayList<>(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            Object element = elements[i];
+            if (element instanceof Struct) {
+                list.add(((Struct) element).getAttributes());
+            } else if (element instanceof Object[]) {
+                list.add((Object[]) element);
+            } else if (element instanceof CharSequence) {
+                list.add(RecordArrayParser.parseRecord((CharSequence) element, fieldCount));
+            } else if (element != null) {
+                // The PostgreSQL driver represents records as PGobject whose string representation is the record literal
+                list.add(RecordArrayParser.parseRecord(element.toString(), fieldCount));
+            }
+        }
+        return list;
+    }
+}
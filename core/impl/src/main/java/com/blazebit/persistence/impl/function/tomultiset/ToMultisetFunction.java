@@ -26,15 +26,20 @@ import com.blazebit.persistence.spi.FunctionRenderContext;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionProcessor;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Clob;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * @author Christian Beikov
  * @since 1.5.0
  */
-public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<CharSequence> {
+public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<Object> {
 
     public static final String FUNCTION_NAME = "to_multiset";
+    private static final int BUFFER_SIZE = 8192;
 
     private final AbstractToStringJsonFunction toJsonFunction;
     private final AbstractToStringXmlFunction toXmlFunction;
@@ -60,7 +65,7 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
     }
 
     @Override
-    public Object process(CharSequence result, List<Object> arguments) {
+    public Object process(Object result, List<Object> arguments) {
         SubqueryExpression subqueryExpression = (SubqueryExpression) arguments.get(0);
         Subquery subquery = subqueryExpression.getSubquery();
         String[] fields;
@@ -69,11 +74,48 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
         } else {
             throw new IllegalArgumentException("Can't handle: " + subquery);
         }
+        return process(result, fields);
+    }
+
+    protected Object process(Object result, String[] fields) {
+        CharSequence charSequence = toCharSequence(result);
         if (toJsonFunction == null) {
-            return toXmlFunction.process(result, fields);
+            return toXmlFunction.process(charSequence, fields);
         } else {
-            return toJsonFunction.process(result, fields);
+            return toJsonFunction.process(charSequence, fields);
+        }
+    }
+
+    protected static CharSequence toCharSequence(Object result) {
+        if (result == null || result instanceof CharSequence) {
+            return (CharSequence) result;
+        }
+        // The parsers work on any char sequence, so we read LOBs into a single buffer rather than materializing a string
+        try {
+            if (result instanceof Clob) {
+                Clob clob = (Clob) result;
+                try (Reader reader = clob.getCharacterStream()) {
+                    return read(reader, (int) clob.length());
+                }
+            } else if (result instanceof Reader) {
+                try (Reader reader = (Reader) result) {
+                    return read(reader, BUFFER_SIZE);
+                }
+            }
+        } catch (SQLException | IOException ex) {
+            throw new RuntimeException("Couldn't read the multiset result", ex);
         }
+        throw new IllegalArgumentException("Unsupported multiset result type: " + result.getClass().getName());
+    }
+
+    private static CharSequence read(Reader reader, int initialCapacity) throws IOException {
+        StringBuilder sb = new StringBuilder(initialCapacity);
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            sb.append(buffer, 0, read);
+        }
+        return sb;
     }
 
     @Override
@@ -92,6 +134,10 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
             selectItemExpressions = SqlUtils.getSelectItemExpressions(subquery, SqlUtils.SELECT_FINDER.indexIn(subquery, 1));
         }
         String[] fields = createFields(selectItemExpressions.length);
+        render(context, fields, selectItemExpressions, subquery, fromIndex);
+    }
+
+    protected void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
         if (toJsonFunction == null) {
             toXmlFunction.render(context, fields, selectItemExpressions, subquery, fromIndex);
         } else {
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.keyset;
+
+import com.blazebit.persistence.DefaultKeysetPage;
+import com.blazebit.persistence.KeysetPage;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache of keyset bookmarks that is shared between all paginated criteria builders of a factory.
+ * A bookmark remembers the keyset of the row right before a page boundary, so that a far offset can be turned into
+ * a keyset predicate for the nearest bookmark and a small offset. Only the page boundaries that are a multiple of the row interval
+ * of a {@link Key} are remembered, which is the keyset bookmark interval times the page size of the paginated query.
+ *
+ * Bookmarks of a query are invalidated when one of the entity types used by the query is invalidated.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class KeysetBookmarkCache {
+
+    private static final int MAX_BOOKMARKS_PER_QUERY = 1024;
+
+    private final int maxSize;
+    private final Map<Key, Bookmarks> cache;
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public KeysetBookmarkCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<Key, Bookmarks>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Bookmarks> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a keyset page that ends right before the bookmark that is nearest to the given first row or <code>null</code> if there is none.
+     *
+     * @param key The query fingerprint
+     * @param firstRow The first row of the requested page
+     * @return The keyset page of the row right before the nearest bookmark or <code>null</code>
+     */
+    public KeysetPage getNearestBookmark(Key key, int firstRow) {
+        Bookmarks bookmarks;
+        synchronized (cache) {
+            bookmarks = cache.get(key);
+        }
+        if (bookmarks != null) {
+            if (isValid(bookmarks)) {
+                Map.Entry<Integer, Serializable[]> entry;
+                synchronized (bookmarks) {
+                    entry = bookmarks.rows.floorEntry(firstRow);
+                }
+                if (entry != null) {
+                    hitCount.incrementAndGet();
+                    int row = entry.getKey() - 1;
+                    return new DefaultKeysetPage(row, 1, entry.getValue(), entry.getValue(), null);
+                }
+            } else {
+                synchronized (cache) {
+                    cache.remove(key);
+                }
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Remembers the given keyset as bookmark for the given row, i.e. the keyset is the one of the row right before the given row.
+     * Only rows that are a multiple of the row interval of the key are remembered.
+     *
+     * @param key The query fingerprint
+     * @param row The row for which the bookmark is
+     * @param keyset The keyset of the row right before the given row
+     */
+    public void putBookmark(Key key, int row, Serializable[] keyset) {
+        if (row < 1 || key.rowInterval < 1 || row % key.rowInterval != 0 || keyset == null || keyset.length == 0) {
+            return;
+        }
+        Bookmarks bookmarks;
+        synchronized (cache) {
+            bookmarks = cache.get(key);
+            if (bookmarks == null || !isValid(bookmarks)) {
+                bookmarks = new Bookmarks(key.entityClasses, getGenerations(key.entityClasses));
+                cache.put(key, bookmarks);
+            }
+        }
+        synchronized (bookmarks) {
+            if (bookmarks.rows.size() < MAX_BOOKMARKS_PER_QUERY || bookmarks.rows.containsKey(row)) {
+                bookmarks.rows.put(row, keyset);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the bookmarks of all queries that use the given entity type.
+     *
+     * @param entityClass The entity type that was modified
+     */
+    public void invalidate(Class<?> entityClass) {
+        AtomicLong generation = generations.get(entityClass);
+        if (generation == null) {
+            AtomicLong newGeneration = new AtomicLong();
+            generation = generations.putIfAbsent(entityClass, newGeneration);
+            if (generation == null) {
+                generation = newGeneration;
+            }
+        }
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Invalidates all bookmarks.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    private boolean isValid(Bookmarks bookmarks) {
+        return Arrays.equals(bookmarks.generations, getGenerations(bookmarks.entityClasses));
+    }
+
+    private long[] getGenerations(Class<?>[] entityClasses) {
+        long[] result = new long[entityClasses.length];
+        for (int i = 0; i < entityClasses.length; i++) {
+            AtomicLong generation = generations.get(entityClasses[i]);
+            result[i] = generation == null ? 0L : generation.get();
+        }
+        return result;
+    }
+
+    /**
+     * The fingerprint of a paginated query without the pagination specific parts. The row interval is not part of the identity,
+     * it's the number of rows between two bookmarks that are put for the key.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public static final class Key {
+        private final String queryString;
+        private final List<Object> parameterValues;
+        private final Class<?>[] entityClasses;
+        private final int rowInterval;
+        private final int hashCode;
+
+        public Key(String queryString, List<Object> parameterValues, Collection<Class<?>> entityClasses, int rowInterval) {
+            this.queryString = queryString;
+            this.parameterValues = parameterValues;
+            this.entityClasses = entityClasses.toArray(new Class<?>[entityClasses.size()]);
+            this.rowInterval = rowInterval;
+            this.hashCode = Objects.hash(queryString, parameterValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode &&
+                    queryString.equals(that.queryString) &&
+                    parameterValues.equals(that.parameterValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The bookmarks of a query, keyed by the row they point to.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class Bookmarks {
+        private final Class<?>[] entityClasses;
+        private final long[] generations;
+        private final TreeMap<Integer, Serializable[]> rows = new TreeMap<>();
+
+        Bookmarks(Class<?>[] entityClasses, long[] generations) {
+            this.entityClasses = entityClasses;
+            this.generations = generations;
+        }
+    }
+}
@@ -39,7 +39,7 @@ import java.util.List;
  */
 public class KeysetManager extends AbstractKeysetBuilderEndedListener {
 
-    private static final String KEY_SET_PARAMETER_NAME = "_keysetParameter";
+    public static final String KEY_SET_PARAMETER_NAME = "_keysetParameter";
 
     private final AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder;
     private final ResolvingQueryGenerator queryGenerator;
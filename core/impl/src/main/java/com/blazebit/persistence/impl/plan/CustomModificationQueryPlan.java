@@ -52,4 +52,9 @@ public class CustomModificationQueryPlan implements ModificationQueryPlan {
         return extendedQuerySupport.executeUpdate(serviceProvider, participatingQueries, baseQuery, delegate, sql, queryPlanCacheEnabled);
     }
 
+    @Override
+    public int[] executeBatchUpdate(List<? extends Runnable> batchBinders) {
+        return extendedQuerySupport.executeBatchUpdate(serviceProvider, participatingQueries, baseQuery, delegate, sql, batchBinders, queryPlanCacheEnabled);
+    }
+
 }
@@ -71,6 +71,16 @@ public class CustomReturningModificationQueryPlan<T> implements ModificationQuer
         return result.getUpdateCount();
     }
 
+    @Override
+    public int[] executeBatchUpdate(List<? extends Runnable> batchBinders) {
+        int[] updateCounts = new int[batchBinders.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            batchBinders.get(i).run();
+            updateCounts[i] = executeUpdate();
+        }
+        return updateCounts;
+    }
+
     @Override
     public List<ReturningResult<T>> getResultList() {
         return Arrays.asList(getSingleResult());
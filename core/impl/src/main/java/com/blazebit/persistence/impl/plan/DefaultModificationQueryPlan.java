@@ -19,6 +19,7 @@ package com.blazebit.persistence.impl.plan;
 import com.blazebit.persistence.spi.DbmsStatementType;
 
 import javax.persistence.Query;
+import java.util.List;
 
 /**
  *
@@ -49,4 +50,14 @@ public class DefaultModificationQueryPlan implements ModificationQueryPlan {
         return query.executeUpdate();
     }
 
+    @Override
+    public int[] executeBatchUpdate(List<? extends Runnable> batchBinders) {
+        int[] updateCounts = new int[batchBinders.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            batchBinders.get(i).run();
+            updateCounts[i] = executeUpdate();
+        }
+        return updateCounts;
+    }
+
 }
@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -25,4 +27,13 @@ public interface ModificationQueryPlan {
 
     public int executeUpdate();
 
+    /**
+     * Executes the plan once for every batch binder which binds the parameter values of the respective batch entry.
+     *
+     * @param batchBinders The binders for the batch entries
+     * @return The update counts of the batch entries
+     * @since 1.6.8
+     */
+    public int[] executeBatchUpdate(List<? extends Runnable> batchBinders);
+
 }
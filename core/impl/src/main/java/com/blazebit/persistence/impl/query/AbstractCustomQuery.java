@@ -26,6 +26,7 @@ import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
 import javax.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -180,6 +181,39 @@ public abstract class AbstractCustomQuery<T> implements Query, CteQueryWrapper {
         }
     }
 
+    /**
+     * Creates a binder that restores the currently bound parameter values and binds them to the participating queries.
+     *
+     * @return The binder for the currently bound parameter values
+     */
+    protected Runnable createBatchBinder() {
+        final Map<String, ValueBinder> valueBinderSnapshot = new HashMap<>(valueBinders);
+        final Map<String, Object> valuesSnapshot = new HashMap<>(valuesParameters.size());
+        for (ValuesParameter valuesParameter : valuesParameters.values()) {
+            Object value = valuesParameter.getValue();
+            // The collection might be reused for the next batch entry, so copy it
+            valuesSnapshot.put(valuesParameter.getName(), value == null ? null : new ArrayList<>((Collection<?>) value));
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                for (Map.Entry<String, ValueBinder> entry : valueBinderSnapshot.entrySet()) {
+                    ValueBinder valueBinder = entry.getValue();
+                    if (valueBinder != null && valueBinder.getValue() instanceof Collection<?>) {
+                        querySpecification.onCollectionParameterChange(entry.getKey(), (Collection<?>) valueBinder.getValue());
+                    }
+                }
+                valueBinders.putAll(valueBinderSnapshot);
+                for (Map.Entry<String, Object> entry : valuesSnapshot.entrySet()) {
+                    if (entry.getValue() != null) {
+                        valuesParameters.get(entry.getKey()).setValue(entry.getValue());
+                    }
+                }
+                bindParameters();
+            }
+        };
+    }
+
     private String getName(Parameter<?> parameter) {
         return criteriaNameMapping != null && parameter instanceof ParameterExpression<?> ? criteriaNameMapping.get(parameter) : parameter.getName();
     }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache for the results of count queries of paginated criteria builders that is shared between all criteria builders of a factory.
+ * A count is cached per count query and parameter values for the time to live requested by the criteria builder.
+ *
+ * Counts of a query are invalidated when one of the entity types used by the query is invalidated.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class CountCache {
+
+    private final int maxSize;
+    private final Map<Key, Entry> cache;
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public CountCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached count for the given query or <code>null</code> if there is none or it expired.
+     *
+     * @param key The query fingerprint
+     * @return The cached count or <code>null</code>
+     */
+    public Long get(Key key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry != null && (entry.expiresAt - System.currentTimeMillis() <= 0 || !Arrays.equals(entry.generations, getGenerations(key.entityClasses)))) {
+                cache.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.count;
+    }
+
+    /**
+     * Caches the given count for the given query for the time to live of the key.
+     *
+     * @param key The query fingerprint
+     * @param count The count
+     */
+    public void put(Key key, long count) {
+        Entry entry = new Entry(count, System.currentTimeMillis() + key.timeToLive, getGenerations(key.entityClasses));
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    /**
+     * Invalidates the counts of all queries that use the given entity type.
+     *
+     * @param entityClass The entity type that was modified
+     */
+    public void invalidate(Class<?> entityClass) {
+        AtomicLong generation = generations.get(entityClass);
+        if (generation == null) {
+            AtomicLong newGeneration = new AtomicLong();
+            generation = generations.putIfAbsent(entityClass, newGeneration);
+            if (generation == null) {
+                generation = newGeneration;
+            }
+        }
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Invalidates all counts.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    private long[] getGenerations(Class<?>[] entityClasses) {
+        long[] result = new long[entityClasses.length];
+        for (int i = 0; i < entityClasses.length; i++) {
+            AtomicLong generation = generations.get(entityClasses[i]);
+            result[i] = generation == null ? 0L : generation.get();
+        }
+        return result;
+    }
+
+    /**
+     * The fingerprint of a count query. The time to live is not part of the identity,
+     * it's the number of milliseconds for which a count put for the key is valid.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public static final class Key {
+        private final String queryString;
+        private final List<Object> parameterValues;
+        private final Class<?>[] entityClasses;
+        private final long timeToLive;
+        private final int hashCode;
+
+        public Key(String queryString, List<Object> parameterValues, Collection<Class<?>> entityClasses, long timeToLive) {
+            this.queryString = queryString;
+            this.parameterValues = parameterValues;
+            this.entityClasses = entityClasses.toArray(new Class<?>[entityClasses.size()]);
+            this.timeToLive = timeToLive;
+            this.hashCode = Objects.hash(queryString, parameterValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode &&
+                    queryString.equals(that.queryString) &&
+                    parameterValues.equals(that.parameterValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A cached count.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class Entry {
+        private final long count;
+        private final long expiresAt;
+        private final long[] generations;
+
+        Entry(long count, long expiresAt, long[] generations) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+            this.generations = generations;
+        }
+    }
+}
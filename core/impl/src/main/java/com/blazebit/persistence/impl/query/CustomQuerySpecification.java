@@ -56,6 +56,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
 
     protected final DbmsStatementType statementType;
     protected final Query baseQuery;
+    protected final String baseQueryString;
+    protected final QueryStringCache queryStringCache;
     protected final Collection<? extends Parameter<?>> parameters;
     protected final Map<String, Collection<?>> listParameters;
     protected final String limit;
@@ -78,12 +80,20 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Collection<? extends Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
                                     List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes,
                                     boolean queryPlanCacheEnabled, Query countWrapperExampleQuery) {
+        this(commonQueryBuilder, baseQuery, null, parameters, listParameters, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCtes, queryPlanCacheEnabled, countWrapperExampleQuery);
+    }
+
+    public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, String baseQueryString, Collection<? extends Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
+                                    List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes,
+                                    boolean queryPlanCacheEnabled, Query countWrapperExampleQuery) {
         this.em = commonQueryBuilder.getEntityManager();
         this.dbmsDialect = commonQueryBuilder.getService(DbmsDialect.class);
         this.serviceProvider = commonQueryBuilder;
         this.extendedQuerySupport = commonQueryBuilder.getService(ExtendedQuerySupport.class);
         this.statementType = commonQueryBuilder.getStatementType();
         this.baseQuery = baseQuery;
+        this.baseQueryString = baseQueryString;
+        this.queryStringCache = baseQueryString == null ? null : commonQueryBuilder.getService(QueryStringCache.class);
         this.parameters = parameters;
         this.listParameters = new HashMap<>();
         this.limit = limit;
@@ -120,6 +130,16 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         return new CustomSelectQueryPlan<>(extendedQuerySupport, serviceProvider, baseQuery, countWrapperExampleQuery == null ? baseQuery : countWrapperExampleQuery, participatingQueries, sql, firstResult, maxResults, queryPlanCacheEnabled);
     }
 
+    /**
+     * Compiles and caches the query plan of this select query through the JPA provider integration.
+     *
+     * @return Whether a query plan was compiled
+     */
+    public boolean warmUpQueryPlan() {
+        final String sql = getSql();
+        return queryPlanCacheEnabled && extendedQuerySupport.warmUpQueryPlan(serviceProvider, participatingQueries, countWrapperExampleQuery == null ? baseQuery : countWrapperExampleQuery, sql);
+    }
+
     @Override
     public String getSql() {
         if (dirty) {
@@ -170,6 +190,21 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
             baseQuery.setParameter(entry.getKey(), entry.getValue());
         }
 
+        QueryStringCache.Key cacheKey = null;
+        if (queryStringCache != null && !contributesCtes()) {
+            cacheKey = createQueryStringCacheKey();
+            QueryStringCache.Entry cacheEntry = queryStringCache.get(cacheKey);
+            if (cacheEntry != null) {
+                // Without CTEs, the base query is the only participating query
+                participatingQueries.add(baseQuery);
+                this.sql = cacheEntry.getSql();
+                this.participatingQueries = participatingQueries;
+                this.addedCtes = cacheEntry.getAddedCtes();
+                this.dirty = false;
+                return;
+            }
+        }
+
         String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sqlSb = applySqlTransformations(sqlQuery);
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
@@ -185,6 +220,23 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.participatingQueries = participatingQueries;
         this.addedCtes = addedCtes;
         this.dirty = false;
+
+        if (cacheKey != null) {
+            queryStringCache.put(cacheKey, new QueryStringCache.Entry(sql, addedCtes));
+        }
+    }
+
+    private boolean contributesCtes() {
+        // Mirrors the early exit in applyCtes, CTE queries and cascading deletes contribute participating queries that can't be cached
+        return shouldRenderCtes && (!ctes.isEmpty() || statementType == DbmsStatementType.DELETE && dbmsDialect.supportsModificationQueryInWithClause());
+    }
+
+    private QueryStringCache.Key createQueryStringCacheKey() {
+        Map<String, Integer> listParameterSizes = new HashMap<>(listParameters.size());
+        for (Map.Entry<String, Collection<?>> entry : listParameters.entrySet()) {
+            listParameterSizes.put(entry.getKey(), entry.getValue().size());
+        }
+        return new QueryStringCache.Key(baseQueryString, listParameterSizes, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, countPrefix);
     }
 
     protected Map<String, String> applyExtendedSql(StringBuilder sqlSb, boolean isSubquery, boolean isEmbedded, StringBuilder withClause, String dmlAffectedTable, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates) {
@@ -18,12 +18,14 @@ package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.impl.ParameterValueTransformer;
 import com.blazebit.persistence.impl.ValuesParameterBinder;
+import com.blazebit.persistence.spi.BatchUpdateQuery;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -32,9 +34,12 @@ import java.util.stream.Stream;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public class CustomSQLQuery extends AbstractCustomQuery<Object> {
+public class CustomSQLQuery extends AbstractCustomQuery<Object> implements BatchUpdateQuery {
 
     private final Query delegate;
+    private final List<Runnable> batchBinders = new ArrayList<>();
+    private String batchSql;
+    private int[] executedUpdateCounts;
 
     public CustomSQLQuery(QuerySpecification querySpecification, Query delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, Map<String, ParameterValueTransformer> transformers, Map<String, String> valuesParameters, Map<String, ValuesParameterBinder> valuesBinders) {
         super(querySpecification, criteriaNameMapping, transformers, valuesParameters, valuesBinders);
@@ -62,6 +67,54 @@ public class CustomSQLQuery extends AbstractCustomQuery<Object> {
         return querySpecification.createModificationPlan(firstResult, maxResults).executeUpdate();
     }
 
+    @Override
+    public void addBatch() {
+        bindParameters();
+        String sql = querySpecification.getSql();
+        Runnable batchBinder = createBatchBinder();
+        // Statements with a different SQL can't be part of the same JDBC batch
+        if (!batchBinders.isEmpty() && !sql.equals(batchSql)) {
+            executePendingBatch();
+        }
+        batchSql = sql;
+        batchBinders.add(batchBinder);
+    }
+
+    @Override
+    public int[] executeBatch() {
+        executePendingBatch();
+        int[] updateCounts = executedUpdateCounts == null ? new int[0] : executedUpdateCounts;
+        executedUpdateCounts = null;
+        return updateCounts;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchBinders.size();
+    }
+
+    private void executePendingBatch() {
+        if (batchBinders.isEmpty()) {
+            return;
+        }
+        try {
+            // Bind the first entry so that the plan is created for the SQL of the pending entries
+            batchBinders.get(0).run();
+            int[] updateCounts = querySpecification.createModificationPlan(firstResult, maxResults).executeBatchUpdate(batchBinders);
+            if (executedUpdateCounts == null) {
+                executedUpdateCounts = updateCounts;
+            } else {
+                int[] newUpdateCounts = new int[executedUpdateCounts.length + updateCounts.length];
+                System.arraycopy(executedUpdateCounts, 0, newUpdateCounts, 0, executedUpdateCounts.length);
+                System.arraycopy(updateCounts, 0, newUpdateCounts, executedUpdateCounts.length, updateCounts.length);
+                executedUpdateCounts = newUpdateCounts;
+            }
+        } finally {
+            batchBinders.clear();
+            batchSql = null;
+        }
+    }
+
     @Override
     public Query setHint(String hintName, Object value) {
         delegate.setHint(hintName, value);
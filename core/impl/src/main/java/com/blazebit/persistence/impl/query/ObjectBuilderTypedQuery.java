@@ -16,13 +16,22 @@
 
 package com.blazebit.persistence.impl.query;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
@@ -36,12 +45,35 @@ import javax.persistence.criteria.ParameterExpression;
  */
 public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
+    private static final AdjacencyCheck ADJACENT = new AdjacencyCheck() {
+        @Override
+        public boolean hasAdjacentRootTuples() {
+            return true;
+        }
+    };
+    private static final AdjacencyCheck NOT_ADJACENT = new AdjacencyCheck() {
+        @Override
+        public boolean hasAdjacentRootTuples() {
+            return false;
+        }
+    };
+
     private final ObjectBuilder<X> builder;
+    private final AdjacencyCheck adjacencyCheck;
 
-    @SuppressWarnings("unchecked")
     public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder) {
+        this(delegate, criteriaNameMapping, builder, false);
+    }
+
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder, boolean groupsAdjacent) {
+        this(delegate, criteriaNameMapping, builder, groupsAdjacent ? ADJACENT : NOT_ADJACENT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder, AdjacencyCheck adjacencyCheck) {
         super((TypedQuery<X>) delegate, criteriaNameMapping);
         this.builder = builder;
+        this.adjacencyCheck = adjacencyCheck;
     }
 
     @Override
@@ -77,17 +109,28 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
         return builder.buildList(newList);
     }
 
+    @SuppressWarnings("unchecked")
     public Stream<X> getResultStream() {
+        if (builder instanceof GroupingObjectBuilder<?> && ((GroupingObjectBuilder<X>) builder).getGroupWindowSize() > 0) {
+            if (!adjacencyCheck.hasAdjacentRootTuples()) {
+                // Tuples of a group that are split across windows would silently produce multiple partial result objects
+                throw new IllegalStateException("Streaming results that are built from multiple tuples requires the order by items to be unique for the result objects! " +
+                        "Consider ordering by the identifier of the result objects!");
+            }
+            final Stream<X> resultStream = super.getResultStream();
+            GroupingSpliterator<X> spliterator = new GroupingSpliterator<>(resultStream.iterator(), (GroupingObjectBuilder<X>) builder);
+            return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+                @Override
+                public void run() {
+                    resultStream.close();
+                }
+            });
+        }
         final Stream<X> resultStream = super.getResultStream();
         return resultStream.map(new Function<X, X>() {
             @Override
             public X apply(X tuple) {
-                Object[] array;
-                if (tuple instanceof Object[]) {
-                    array = (Object[]) tuple;
-                } else {
-                    array = new Object[]{tuple};
-                }
+                Object[] array = toArray(tuple);
                 X result = builder.build(array);
                 if (result == array) {
                     throw new UnsupportedOperationException("Object builder is not streaming capable: " + builder);
@@ -102,4 +145,93 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
         });
     }
 
+    private static Object[] toArray(Object tuple) {
+        if (tuple instanceof Object[]) {
+            return (Object[]) tuple;
+        } else {
+            return new Object[]{ tuple };
+        }
+    }
+
+    /**
+     * Collects the built objects of adjacent tuples into windows of groups and transforms each window via {@link ObjectBuilder#buildList(List)}.
+     * This allows to stream results with constant memory even if multiple tuples are collapsed into a single result object.
+     *
+     * @param <X> The result type
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class GroupingSpliterator<X> extends Spliterators.AbstractSpliterator<X> {
+
+        private final Iterator<X> tupleIterator;
+        private final GroupingObjectBuilder<X> builder;
+        private final int windowSize;
+        private final Set<Object> windowGroupKeys;
+        private Object currentGroupKey;
+        private X pendingObject;
+        private Object pendingGroupKey;
+        private Iterator<X> windowResults;
+
+        public GroupingSpliterator(Iterator<X> tupleIterator, GroupingObjectBuilder<X> builder) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.tupleIterator = tupleIterator;
+            this.builder = builder;
+            this.windowSize = builder.getGroupWindowSize();
+            this.windowGroupKeys = new HashSet<>(windowSize);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super X> action) {
+            if (windowResults == null || !windowResults.hasNext()) {
+                windowResults = nextWindow();
+                if (!windowResults.hasNext()) {
+                    return false;
+                }
+            }
+            action.accept(windowResults.next());
+            return true;
+        }
+
+        private Iterator<X> nextWindow() {
+            List<X> window = new ArrayList<>();
+            windowGroupKeys.clear();
+            if (pendingObject != null) {
+                window.add(pendingObject);
+                windowGroupKeys.add(pendingGroupKey);
+                currentGroupKey = pendingGroupKey;
+                pendingObject = null;
+                pendingGroupKey = null;
+            }
+            while (tupleIterator.hasNext()) {
+                X object = builder.build(toArray(tupleIterator.next()));
+                Object groupKey = builder.getGroupKey(object);
+                if (!Objects.equals(currentGroupKey, groupKey) || window.isEmpty()) {
+                    if (windowGroupKeys.size() == windowSize) {
+                        pendingObject = object;
+                        pendingGroupKey = groupKey;
+                        break;
+                    }
+                    if (!windowGroupKeys.add(groupKey)) {
+                        throw new IllegalStateException("The tuples for the result object with the key " + groupKey + " are not adjacent in the result. " +
+                                "Make sure the query is ordered by the identifier of the result objects when streaming results!");
+                    }
+                    currentGroupKey = groupKey;
+                }
+                window.add(object);
+            }
+            return builder.buildList(window).iterator();
+        }
+    }
+
+    /**
+     * Determines whether the tuples of a result object are adjacent in the query result.
+     * Only invoked when streaming results of a grouping object builder, as the analysis is not for free.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public interface AdjacencyCheck {
+
+        public boolean hasAdjacentRootTuples();
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.QueryPlanCache;
+import com.blazebit.persistence.QueryPlanCacheStatistics;
+import com.blazebit.persistence.Queryable;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+/**
+ * Exposes the query plan cache of the JPA provider integration which is accessed through the {@link ExtendedQuerySupport}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class QueryPlanCacheImpl implements QueryPlanCache {
+
+    private final ExtendedQuerySupport extendedQuerySupport;
+
+    public QueryPlanCacheImpl(ExtendedQuerySupport extendedQuerySupport) {
+        this.extendedQuerySupport = extendedQuerySupport;
+    }
+
+    @Override
+    public QueryPlanCacheStatistics getStatistics(EntityManager em) {
+        if (extendedQuerySupport == null) {
+            return null;
+        }
+        return extendedQuerySupport.getQueryPlanCacheStatistics(em);
+    }
+
+    @Override
+    public void clear(EntityManager em) {
+        if (extendedQuerySupport != null) {
+            extendedQuerySupport.clearQueryPlanCache(em);
+        }
+    }
+
+    @Override
+    public boolean warmUp(Queryable<?, ?> queryBuilder) {
+        TypedQuery<?> query = queryBuilder.getQuery();
+        while (query instanceof TypedQueryWrapper<?>) {
+            query = ((TypedQueryWrapper<?>) query).getDelegate();
+        }
+        // Plain JPQL queries are cached by the JPA provider itself
+        if (!(query instanceof AbstractCustomQuery<?>)) {
+            return false;
+        }
+        QuerySpecification<?> querySpecification = ((AbstractCustomQuery<?>) query).getQuerySpecification();
+        if (!(querySpecification instanceof CustomQuerySpecification<?>) || querySpecification instanceof ModificationQuerySpecification<?>) {
+            return false;
+        }
+        return ((CustomQuerySpecification<?>) querySpecification).warmUpQueryPlan();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache for the final SQL of custom queries that is shared between all criteria builders of a factory.
+ * Structurally identical builders render the same base JPQL, so the JPQL together with everything else that influences
+ * the SQL post-processing serves as fingerprint.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class QueryStringCache {
+
+    private final int maxSize;
+    private final Map<Key, Entry> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public QueryStringCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Entry get(Key key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    public void put(Key key, Entry entry) {
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * The fingerprint of a query specification.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public static final class Key {
+        private final String queryString;
+        private final Map<String, Integer> listParameterSizes;
+        private final String limit;
+        private final String offset;
+        private final List<String> keyRestrictedLeftJoinAliases;
+        private final String entityFunctionNodes;
+        private final String countPrefix;
+        private final int hashCode;
+
+        public Key(String queryString, Map<String, Integer> listParameterSizes, String limit, String offset, List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, String countPrefix) {
+            this.queryString = queryString;
+            this.listParameterSizes = listParameterSizes;
+            this.limit = limit;
+            this.offset = offset;
+            this.keyRestrictedLeftJoinAliases = keyRestrictedLeftJoinAliases;
+            this.entityFunctionNodes = fingerprint(entityFunctionNodes);
+            this.countPrefix = countPrefix;
+            this.hashCode = Objects.hash(queryString, listParameterSizes, limit, offset, keyRestrictedLeftJoinAliases, this.entityFunctionNodes, countPrefix);
+        }
+
+        private static String fingerprint(List<EntityFunctionNode> entityFunctionNodes) {
+            if (entityFunctionNodes.isEmpty()) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (EntityFunctionNode node : entityFunctionNodes) {
+                sb.append(node.getEntityName()).append('|');
+                sb.append(node.getSubquery()).append('|');
+                sb.append(node.getAliases()).append('|');
+                sb.append(node.getSyntheticPredicate()).append('|');
+                sb.append(node.getPluralTableJoin()).append('|');
+                appendFromInfo(sb, node.getTableAlias());
+                appendFromInfo(sb, node.getPluralCollectionTableAlias());
+                appendFromInfo(sb, node.getPluralTableAlias());
+                sb.append(node.isLateral()).append(';');
+            }
+            return sb.toString();
+        }
+
+        private static void appendFromInfo(StringBuilder sb, ExtendedQuerySupport.SqlFromInfo fromInfo) {
+            if (fromInfo != null) {
+                sb.append(fromInfo.getAlias()).append(',');
+                sb.append(fromInfo.getFromStartIndex()).append(',');
+                sb.append(fromInfo.getFromEndIndex());
+            }
+            sb.append('|');
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode &&
+                    queryString.equals(that.queryString) &&
+                    listParameterSizes.equals(that.listParameterSizes) &&
+                    Objects.equals(limit, that.limit) &&
+                    Objects.equals(offset, that.offset) &&
+                    keyRestrictedLeftJoinAliases.equals(that.keyRestrictedLeftJoinAliases) &&
+                    entityFunctionNodes.equals(that.entityFunctionNodes) &&
+                    Objects.equals(countPrefix, that.countPrefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The cached result of the SQL rendering of a query specification.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public static final class Entry {
+        private final String sql;
+        private final Map<String, String> addedCtes;
+
+        public Entry(String sql, Map<String, String> addedCtes) {
+            this.sql = sql;
+            this.addedCtes = addedCtes == null ? null : Collections.unmodifiableMap(addedCtes);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Map<String, String> getAddedCtes() {
+            return addedCtes;
+        }
+    }
+}
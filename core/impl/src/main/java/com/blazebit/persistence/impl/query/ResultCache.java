@@ -0,0 +1,359 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.QueryResultCache;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.IdentifiableType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for the results of criteria builders that is shared between all criteria builders of a factory.
+ * The size of the cache is bounded by the total number of result elements, evicting the least recently used results first.
+ * A result is cached per query string, parameter values, first and max results and cache key for the time to live requested by the criteria builder.
+ *
+ * Results of a query are invalidated when an entity type of the same entity hierarchy as one of the entity types used by the query is invalidated.
+ * The root entity types that a transaction invalidated are bound to the transaction, so that the transaction bypasses the cache for queries using these types
+ * and doesn't publish results containing its uncommitted changes.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ResultCache implements QueryResultCache {
+
+    private final int maxSize;
+    private final EntityMetamodel metamodel;
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final LinkedHashMap<Key, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    // The number of active transactions that invalidated entity types, which allows to skip looking up the transaction bound types
+    private final AtomicLong invalidatingTransactionCount = new AtomicLong();
+    private int size;
+
+    public ResultCache(int maxSize, EntityMetamodel metamodel, ExtendedQuerySupport extendedQuerySupport) {
+        this.maxSize = maxSize;
+        this.metamodel = metamodel;
+        this.extendedQuerySupport = extendedQuerySupport;
+    }
+
+    /**
+     * Returns whether the current transaction of the given entity manager invalidated one of the entity types of the given query.
+     * The cache must neither be read nor written for such a query, as the transaction might see its own uncommitted changes.
+     *
+     * @param em The entity manager
+     * @param key The query fingerprint
+     * @return Whether the cache must be bypassed
+     */
+    public boolean isInvalidatedInTransaction(EntityManager em, Key key) {
+        if (invalidatingTransactionCount.get() == 0L) {
+            return false;
+        }
+        Set<Class<?>> invalidatedEntityClasses = getInvalidatedEntityClasses(em);
+        if (invalidatedEntityClasses != null) {
+            for (Class<?> entityClass : key.entityClasses) {
+                if (invalidatedEntityClasses.contains(entityClass)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cached result for the given query or <code>null</code> if there is none or it expired.
+     *
+     * @param key The query fingerprint
+     * @return The cached result or <code>null</code>
+     */
+    public List<?> get(Key key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry != null && (entry.expiresAt - System.currentTimeMillis() <= 0 || !Arrays.equals(entry.generations, getGenerations(key.entityClasses)))) {
+                cache.remove(key);
+                size -= entry.weight;
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.result;
+    }
+
+    /**
+     * Returns the modification generations of the entity types of the given query.
+     * The generations must be determined before executing the query, so that modifications during the execution invalidate the result.
+     *
+     * @param key The query fingerprint
+     * @return The generations
+     */
+    public long[] getGenerations(Key key) {
+        return getGenerations(key.entityClasses);
+    }
+
+    /**
+     * Caches the given result for the given query for the time to live of the key.
+     * Results that are bigger than the maximum size of the cache are not cached.
+     *
+     * @param key The query fingerprint
+     * @param result The result
+     * @param generations The generations of the entity types as determined before executing the query
+     */
+    public void put(Key key, List<?> result, long[] generations) {
+        int weight = Math.max(1, result.size());
+        if (weight > maxSize) {
+            return;
+        }
+        Entry entry = new Entry(result, weight, System.currentTimeMillis() + key.timeToLive, generations);
+        synchronized (cache) {
+            Entry oldEntry = cache.put(key, entry);
+            if (oldEntry != null) {
+                size -= oldEntry.weight;
+            }
+            size += weight;
+            Iterator<Entry> iterator = cache.values().iterator();
+            while (size > maxSize) {
+                size -= iterator.next().weight;
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the root entity types of the hierarchies of the given entity types, which are used to track modifications.
+     *
+     * @param entityClasses The entity types
+     * @return The root entity types
+     */
+    public Set<Class<?>> getRootEntityClasses(Collection<Class<?>> entityClasses) {
+        Set<Class<?>> rootEntityClasses = new LinkedHashSet<>(entityClasses.size());
+        for (Class<?> entityClass : entityClasses) {
+            rootEntityClasses.add(getRootEntityClass(entityClass));
+        }
+        return rootEntityClasses;
+    }
+
+    @Override
+    public void invalidate(EntityManager em, Class<?> entityClass) {
+        Class<?> rootEntityClass = getRootEntityClass(entityClass);
+        invalidateRootEntityClass(rootEntityClass);
+        Set<Class<?>> invalidatedEntityClasses = getInvalidatedEntityClasses(em);
+        if (invalidatedEntityClasses == null) {
+            final Set<Class<?>> newInvalidatedEntityClasses = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+            if (extendedQuerySupport == null || !extendedQuerySupport.putTransactionResource(em, this, newInvalidatedEntityClasses)) {
+                return;
+            }
+            invalidatingTransactionCount.incrementAndGet();
+            extendedQuerySupport.registerAfterTransactionCompletion(em, new Runnable() {
+                @Override
+                public void run() {
+                    invalidatingTransactionCount.decrementAndGet();
+                    // Other transactions could cache results based on the old state until the completion
+                    for (Class<?> invalidatedEntityClass : newInvalidatedEntityClasses) {
+                        invalidateRootEntityClass(invalidatedEntityClass);
+                    }
+                }
+            });
+            invalidatedEntityClasses = newInvalidatedEntityClasses;
+        }
+        invalidatedEntityClasses.add(rootEntityClass);
+    }
+
+    @Override
+    public void invalidate(Class<?> entityClass) {
+        invalidateRootEntityClass(getRootEntityClass(entityClass));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Class<?>> getInvalidatedEntityClasses(EntityManager em) {
+        if (extendedQuerySupport == null) {
+            return null;
+        }
+        return (Set<Class<?>>) extendedQuerySupport.getTransactionResource(em, this);
+    }
+
+    private void invalidateRootEntityClass(Class<?> rootEntityClass) {
+        AtomicLong generation = generations.get(rootEntityClass);
+        if (generation == null) {
+            AtomicLong newGeneration = new AtomicLong();
+            generation = generations.putIfAbsent(rootEntityClass, newGeneration);
+            if (generation == null) {
+                generation = newGeneration;
+            }
+        }
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            size = 0;
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (cache) {
+            return size;
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    private Class<?> getRootEntityClass(Class<?> entityClass) {
+        EntityType<?> entityType = metamodel.getEntity(entityClass);
+        if (entityType == null) {
+            return entityClass;
+        }
+        IdentifiableType<?> supertype = entityType.getSupertype();
+        while (supertype != null) {
+            if (supertype instanceof EntityType<?>) {
+                entityType = (EntityType<?>) supertype;
+            }
+            supertype = supertype.getSupertype();
+        }
+        return entityType.getJavaType();
+    }
+
+    private long[] getGenerations(Class<?>[] entityClasses) {
+        long[] result = new long[entityClasses.length];
+        for (int i = 0; i < entityClasses.length; i++) {
+            AtomicLong generation = generations.get(entityClasses[i]);
+            result[i] = generation == null ? 0L : generation.get();
+        }
+        return result;
+    }
+
+    /**
+     * The fingerprint of a query. The entity classes, which must be root entity types, and the time to live are not part of the identity.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public static final class Key {
+        private final String queryString;
+        private final List<Object> parameterValues;
+        private final int firstResult;
+        private final int maxResults;
+        private final Object cacheKey;
+        private final Class<?>[] entityClasses;
+        private final long timeToLive;
+        private final int hashCode;
+
+        public Key(String queryString, List<Object> parameterValues, int firstResult, int maxResults, Object cacheKey, Collection<Class<?>> entityClasses, long timeToLive) {
+            this.queryString = queryString;
+            this.parameterValues = parameterValues;
+            this.firstResult = firstResult;
+            this.maxResults = maxResults;
+            this.cacheKey = cacheKey;
+            this.entityClasses = entityClasses.toArray(new Class<?>[entityClasses.size()]);
+            this.timeToLive = timeToLive;
+            this.hashCode = Objects.hash(queryString, parameterValues, firstResult, maxResults, cacheKey);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode &&
+                    firstResult == that.firstResult &&
+                    maxResults == that.maxResults &&
+                    queryString.equals(that.queryString) &&
+                    parameterValues.equals(that.parameterValues) &&
+                    Objects.equals(cacheKey, that.cacheKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A cached result.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class Entry {
+        private final List<?> result;
+        private final int weight;
+        private final long expiresAt;
+        private final long[] generations;
+
+        Entry(List<?> result, int weight, long expiresAt, long[] generations) {
+            this.result = result;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+            this.generations = generations;
+        }
+    }
+}
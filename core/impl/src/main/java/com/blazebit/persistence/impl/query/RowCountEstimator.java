@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Determines the estimated result count of a count query based on the statistics of the DBMS.
+ * The estimate either comes from the table statistics for an unrestricted query over a single table,
+ * or from the plan of the count query which is explained with the parameter values that are bound to the count query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class RowCountEstimator {
+
+    private final EntityManager em;
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final DbmsDialect dbmsDialect;
+    private final Query countQuery;
+    private final String sql;
+    private final boolean tableStatistics;
+
+    private RowCountEstimator(EntityManager em, ExtendedQuerySupport extendedQuerySupport, DbmsDialect dbmsDialect, Query countQuery, String sql, boolean tableStatistics) {
+        this.em = em;
+        this.extendedQuerySupport = extendedQuerySupport;
+        this.dbmsDialect = dbmsDialect;
+        this.countQuery = countQuery;
+        this.sql = sql;
+        this.tableStatistics = tableStatistics;
+    }
+
+    /**
+     * Creates an estimator that executes the given SQL as returned by {@link DbmsDialect#getTableRowCountEstimateSql(String)}.
+     *
+     * @param em The entity manager
+     * @param sql The SQL to select the estimated row count of the table
+     * @return The estimator
+     */
+    public static RowCountEstimator forTable(EntityManager em, String sql) {
+        return new RowCountEstimator(em, null, null, null, sql, true);
+    }
+
+    /**
+     * Creates an estimator that executes the given SQL as returned by {@link DbmsDialect#getQueryRowCountEstimateSql(String)}
+     * with the parameter values of the given count query.
+     *
+     * @param em The entity manager
+     * @param extendedQuerySupport The extended query support to execute the SQL with the parameter values of the count query
+     * @param dbmsDialect The dialect to extract the estimate from the plan
+     * @param countQuery The count query
+     * @param sql The SQL to explain the count query
+     * @return The estimator
+     */
+    public static RowCountEstimator forQuery(EntityManager em, ExtendedQuerySupport extendedQuerySupport, DbmsDialect dbmsDialect, Query countQuery, String sql) {
+        return new RowCountEstimator(em, extendedQuerySupport, dbmsDialect, countQuery, sql, false);
+    }
+
+    /**
+     * Returns the estimated row count or <code>-1</code> if the DBMS has no statistics.
+     *
+     * @return The estimated row count or <code>-1</code>
+     */
+    public long getRowCountEstimate() {
+        long estimate;
+        if (tableStatistics) {
+            List<?> result = em.createNativeQuery(sql).getResultList();
+            if (result.isEmpty() || !(result.get(0) instanceof Number)) {
+                return -1L;
+            }
+            estimate = ((Number) result.get(0)).longValue();
+        } else {
+            estimate = dbmsDialect.getQueryRowCountEstimate(extendedQuerySupport.getFirstColumnValues(em, countQuery, sql));
+        }
+        // A negative value means the DBMS has no statistics
+        return estimate < 0L ? -1L : estimate;
+    }
+}
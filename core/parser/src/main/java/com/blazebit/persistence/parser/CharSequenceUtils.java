@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.parser;
 
+import java.sql.Timestamp;
+
 /**
  *
  * @author Christian Beikov
@@ -44,7 +46,12 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return lastIndexOf(charSequence.toString(), c, fromIndex, endIndex);
+            for (int i = endIndex; i >= fromIndex; i--) {
+                if (charSequence.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
         }
     }
 
@@ -70,7 +77,12 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return indexOf(charSequence.toString(), c, fromIndex, endIndex);
+            for (int i = fromIndex; i <= endIndex; i++) {
+                if (charSequence.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
         }
     }
 
@@ -92,8 +104,150 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return indexOf(charSequence.toString(), target, fromIndex, endIndex);
+            int targetLength = target.length();
+            int end = endIndex - targetLength + 1;
+            for (int i = fromIndex; i <= end; i++) {
+                if (regionMatches(charSequence, i, target)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Returns whether the characters of the char sequence starting at the given offset are equal to the given target.
+     *
+     * @param charSequence The char sequence
+     * @param offset The offset within the char sequence
+     * @param target The target string to compare to
+     * @return true if the region matches, false otherwise
+     * @since 1.6.8
+     */
+    public static boolean regionMatches(CharSequence charSequence, int offset, String target) {
+        int targetLength = target.length();
+        if (offset < 0 || offset + targetLength > charSequence.length()) {
+            return false;
+        }
+        for (int i = 0; i < targetLength; i++) {
+            if (charSequence.charAt(offset + i) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the char sequence as signed decimal integer like {@link Integer#parseInt(String)} does, but without creating a string for it.
+     *
+     * @param charSequence The char sequence to parse
+     * @return The parsed integer
+     * @throws NumberFormatException if the char sequence does not contain a parsable integer
+     * @since 1.6.8
+     */
+    public static int parseInt(CharSequence charSequence) {
+        int length = charSequence.length();
+        // 9 digits always fit into an int, so only longer sequences need overflow checks which we leave to the JDK
+        if (length == 0 || length > 9) {
+            return Integer.parseInt(charSequence.toString());
+        }
+        int i = 0;
+        char first = charSequence.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return Integer.parseInt(charSequence.toString());
+            }
+            i = 1;
+        }
+        int result = 0;
+        for (; i < length; i++) {
+            int digit = charSequence.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(charSequence.toString());
+            }
+            result = result * 10 + digit;
+        }
+        return first == '-' ? -result : result;
+    }
+
+    /**
+     * Parses the char sequence as signed decimal long like {@link Long#parseLong(String)} does, but without creating a string for it.
+     *
+     * @param charSequence The char sequence to parse
+     * @return The parsed long
+     * @throws NumberFormatException if the char sequence does not contain a parsable long
+     * @since 1.6.8
+     */
+    public static long parseLong(CharSequence charSequence) {
+        int length = charSequence.length();
+        // 18 digits always fit into a long, so only longer sequences need overflow checks which we leave to the JDK
+        if (length == 0 || length > 18) {
+            return Long.parseLong(charSequence.toString());
+        }
+        int i = 0;
+        char first = charSequence.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return Long.parseLong(charSequence.toString());
+            }
+            i = 1;
+        }
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = charSequence.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(charSequence.toString());
+            }
+            result = result * 10 + digit;
+        }
+        return first == '-' ? -result : result;
+    }
+
+    /**
+     * Parses the char sequence in the format <code>yyyy-mm-dd hh:mm:ss[.f...]</code> like {@link Timestamp#valueOf(String)} does,
+     * but without creating a string for the common case of a fixed width format. Other formats are delegated to {@link Timestamp#valueOf(String)}.
+     *
+     * @param charSequence The char sequence to parse
+     * @return The parsed timestamp
+     * @throws IllegalArgumentException if the char sequence is not in the JDBC timestamp escape format
+     * @since 1.6.8
+     */
+    @SuppressWarnings("deprecation")
+    public static Timestamp parseTimestamp(CharSequence charSequence) {
+        int length = charSequence.length();
+        if (length < 19 || length > 29 || length == 20 || charSequence.charAt(4) != '-' || charSequence.charAt(7) != '-' || charSequence.charAt(10) != ' '
+                || charSequence.charAt(13) != ':' || charSequence.charAt(16) != ':' || length > 19 && charSequence.charAt(19) != '.') {
+            return Timestamp.valueOf(charSequence.toString());
+        }
+        int year = parseDigits(charSequence, 0, 4);
+        int month = parseDigits(charSequence, 5, 7);
+        int day = parseDigits(charSequence, 8, 10);
+        int hour = parseDigits(charSequence, 11, 13);
+        int minute = parseDigits(charSequence, 14, 16);
+        int second = parseDigits(charSequence, 17, 19);
+        int nanos = 0;
+        if (length > 20) {
+            nanos = parseDigits(charSequence, 20, length);
+            for (int i = length; nanos > 0 && i < 29; i++) {
+                nanos *= 10;
+            }
+        }
+        if ((year | month | day | hour | minute | second | nanos) < 0 || year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Timestamp.valueOf(charSequence.toString());
+        }
+        return new Timestamp(year - 1900, month - 1, day, hour, minute, second, nanos);
+    }
+
+    private static int parseDigits(CharSequence charSequence, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = charSequence.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.MIN_VALUE;
+            }
+            result = result * 10 + digit;
         }
+        return result;
     }
 
 }
@@ -17,9 +17,7 @@
 package com.blazebit.persistence.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a specialized parser for the JSON structure that will be produced by the JSON functions in Blaze-Persistence.
@@ -35,19 +33,16 @@ public final class JsonParser {
 
     public static List<Object[]> parseStringOnly(CharSequence json, String... fields) {
         List<Object[]> list = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
         if (json != null && json.length() != 0) {
-            Map<String, Integer> fieldMap = new HashMap<>(fields.length);
-            for (int i = 0; i < fields.length; i++) {
-                fieldMap.put(fields[i], i);
-            }
-
+            // Only needed for values with escape sequences, otherwise values are sub sequences of the JSON
+            StringBuilder sb = null;
             int start = CharSequenceUtils.indexOf(json, '[') + 1;
             int end = CharSequenceUtils.lastIndexOf(json, ']');
             for (int i = start; i < end; i++) {
                 Object[] object = new Object[fields.length];
                 boolean quoteMode = false;
                 int fieldIndex = -1;
+                int valueStart = -1;
                 boolean escapes = false;
                 i = CharSequenceUtils.indexOf(json, '{', i) + 1;
                 for (; i < end; i++) {
@@ -55,6 +50,7 @@ public final class JsonParser {
                     if (!quoteMode) {
                         if (c == '"') {
                             quoteMode = true;
+                            valueStart = i + 1;
                         } else if (c == '}') {
                             break;
                         } else if (c != ':' && c != ',' && !Character.isWhitespace(c)) {
@@ -79,7 +75,14 @@ public final class JsonParser {
                         }
                     } else {
                         if (c == '\\') {
-                            escapes = true;
+                            if (!escapes) {
+                                escapes = true;
+                                if (sb == null) {
+                                    sb = new StringBuilder();
+                                }
+                                sb.setLength(0);
+                                sb.append(json, valueStart, i);
+                            }
                             c = json.charAt(++i);
                             switch (c) {
                                 case 'b':
@@ -111,19 +114,22 @@ public final class JsonParser {
                             sb.append(c);
                         } else if (c == '"') {
                             if (fieldIndex == -1) {
-                                fieldIndex = fieldMap.get(sb.toString());
+                                if (escapes) {
+                                    fieldIndex = fieldIndex(sb, 0, sb.length(), fields);
+                                } else {
+                                    fieldIndex = fieldIndex(json, valueStart, i, fields);
+                                }
                             } else {
                                 if (escapes) {
                                     object[fieldIndex] = sb.toString();
                                 } else {
-                                    object[fieldIndex] = new SubSequence(json, i - sb.length(), i);
+                                    object[fieldIndex] = new SubSequence(json, valueStart, i);
                                 }
                                 fieldIndex = -1;
-                                escapes = false;
                             }
-                            sb.setLength(0);
+                            escapes = false;
                             quoteMode = false;
-                        } else {
+                        } else if (escapes) {
                             sb.append(c);
                         }
                     }
@@ -134,6 +140,16 @@ public final class JsonParser {
         return list;
     }
 
+    static int fieldIndex(CharSequence charSequence, int start, int end, String[] fields) {
+        int length = end - start;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].length() == length && CharSequenceUtils.regionMatches(charSequence, start, fields[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unexpected field '" + charSequence.subSequence(start, end) + "' at position: " + start);
+    }
+
     private static int findEnd(CharSequence json, int i) {
         int arrayLevel = 1;
         int end = json.length();
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a specialized parser for the text representation of PostgreSQL arrays of records as produced by <code>array_agg(row(...))::text</code>.
+ * Array elements are records which are quoted with backslash escaping if necessary, and record fields are quoted with double quote and backslash doubling if necessary.
+ * Both levels are decoded in a single pass. Fields that need no unquoting are returned as sub sequences of the given text, other fields as strings.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class RecordArrayParser {
+
+    private RecordArrayParser() {
+    }
+
+    public static List<Object[]> parse(CharSequence text, int fieldCount) {
+        List<Object[]> list = new ArrayList<>();
+        if (text != null && text.length() != 0) {
+            StringBuilder sb = new StringBuilder();
+            int end = CharSequenceUtils.lastIndexOf(text, '}');
+            int i = CharSequenceUtils.indexOf(text, '{') + 1;
+            while (i < end) {
+                char c = text.charAt(i);
+                if (c == ',') {
+                    i++;
+                } else if (c == 'N') {
+                    // A NULL element, which array_agg(row(...)) never produces
+                    i += 4;
+                } else {
+                    Object[] object = new Object[fieldCount];
+                    if (c == '"') {
+                        // Skip the closing quote of the element
+                        i = parseRecord(text, i + 1, true, object, sb) + 1;
+                    } else {
+                        i = parseRecord(text, i, false, object, sb);
+                    }
+                    list.add(object);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Parses the text representation of a single record like <code>(1,"a b")</code>.
+     *
+     * @param text The text representation of the record
+     * @param fieldCount The number of fields of the record
+     * @return The field values
+     */
+    public static Object[] parseRecord(CharSequence text, int fieldCount) {
+        Object[] object = new Object[fieldCount];
+        parseRecord(text, 0, false, object, new StringBuilder());
+        return object;
+    }
+
+    private static int parseRecord(CharSequence text, int i, boolean quotedElement, Object[] object, StringBuilder sb) {
+        if (text.charAt(i) != '(') {
+            throw new IllegalStateException("Expected the start of a record at position: " + i);
+        }
+        i++;
+        int fieldIndex = 0;
+        while (true) {
+            char c = text.charAt(i);
+            if (c == ',' || c == ')') {
+                // A NULL field
+                fieldIndex++;
+                i++;
+            } else if (c == '"' || quotedElement && c == '\\' && text.charAt(i + 1) == '"') {
+                // A quoted field, the quote is escaped when the element is quoted
+                i += c == '"' ? 1 : 2;
+                sb.setLength(0);
+                while (true) {
+                    c = text.charAt(i++);
+                    if (quotedElement && c == '\\') {
+                        c = text.charAt(i++);
+                    }
+                    if (c == '"') {
+                        // Either the end of the field or a doubled quote
+                        char next = text.charAt(i);
+                        if (quotedElement && next == '\\' && text.charAt(i + 1) == '"') {
+                            sb.append('"');
+                            i += 2;
+                        } else if (!quotedElement && next == '"') {
+                            sb.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else if (c == '\\') {
+                        // A doubled backslash within the record
+                        c = text.charAt(i++);
+                        if (quotedElement && c == '\\') {
+                            c = text.charAt(i++);
+                        }
+                        sb.append(c);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+                object[fieldIndex++] = sb.toString();
+                c = text.charAt(i++);
+            } else {
+                int fieldStart = i;
+                do {
+                    c = text.charAt(++i);
+                } while (c != ',' && c != ')');
+                object[fieldIndex++] = new SubSequence(text, fieldStart, i);
+                i++;
+            }
+            if (c == ')') {
+                return i;
+            }
+        }
+    }
+}
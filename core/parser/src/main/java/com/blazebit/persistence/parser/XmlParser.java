@@ -17,9 +17,7 @@
 package com.blazebit.persistence.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a specialized parser for the XML structure that will be produced by the XML functions in Blaze-Persistence.
@@ -35,18 +33,15 @@ public final class XmlParser {
 
     public static List<Object[]> parse(CharSequence xml, String... fields) {
         List<Object[]> list = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
         if (xml != null && xml.length() != 0) {
-            Map<String, Integer> fieldMap = new HashMap<>(fields.length);
-            for (int i = 0; i < fields.length; i++) {
-                fieldMap.put(fields[i], i);
-            }
-
+            // Only needed for values with escape sequences, otherwise values are sub sequences of the XML
+            StringBuilder sb = null;
             for (int i = 0; i < xml.length(); i++) {
                 Object[] object = new Object[fields.length];
                 boolean key = true;
                 boolean escape = false;
                 int fieldIndex = -1;
+                int valueStart = -1;
                 i = CharSequenceUtils.indexOf(xml, "<e>", i) + 3;
                 LOOP: for (; i < xml.length(); i++) {
                     char c = xml.charAt(i);
@@ -58,28 +53,35 @@ public final class XmlParser {
                                     i = endIndex;
                                     break LOOP;
                                 }
-                                String tag = xml.subSequence(i + 1, endIndex).toString();
-                                fieldIndex = fieldMap.get(tag);
+                                fieldIndex = JsonParser.fieldIndex(xml, i + 1, endIndex, fields);
                                 i = endIndex;
+                                valueStart = i + 1;
                                 key = false;
                             } else {
-                                String tag = xml.subSequence(i + 2, endIndex).toString();
-                                if (xml.charAt(i + 1) != '/' || !tag.equals(fields[fieldIndex])) {
+                                String field = fields[fieldIndex];
+                                if (xml.charAt(i + 1) != '/' || endIndex - i - 2 != field.length() || !CharSequenceUtils.regionMatches(xml, i + 2, field)) {
                                     throw new IllegalStateException("Unexpected tag at position: " + i);
                                 }
                                 if (escape) {
                                     object[fieldIndex] = sb.toString();
                                 } else {
-                                    object[fieldIndex] = new SubSequence(xml, i - sb.length(), i);
+                                    object[fieldIndex] = new SubSequence(xml, valueStart, i);
                                 }
                                 key = true;
+                                escape = false;
                                 fieldIndex = -1;
                                 i = endIndex;
                             }
-                            sb.setLength(0);
                             break;
                         case '&':
-                            escape = true;
+                            if (!escape) {
+                                escape = true;
+                                if (sb == null) {
+                                    sb = new StringBuilder();
+                                }
+                                sb.setLength(0);
+                                sb.append(xml, valueStart, i);
+                            }
                             switch (xml.charAt(i + 1)) {
                                 case 'a':
                                     sb.append('&');
@@ -98,7 +100,9 @@ public final class XmlParser {
                             }
                             break;
                         default:
-                            sb.append(c);
+                            if (escape) {
+                                sb.append(c);
+                            }
                             break;
                     }
                 }
@@ -17,6 +17,7 @@
 package com.blazebit.persistence.parser.expression;
 
 import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.parser.util.BoundedCache;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -24,7 +25,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -206,9 +206,12 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
      * @since 1.2.0
      */
     private static final class ExpressionCacheEntry {
+        // Every distinct set of macro implementations produces a new entry, so we bound this to avoid leaking memory
+        private static final int MACRO_CONFIGURATION_CACHE_MAX_SIZE = 64;
+
         final Expression expression;
         final Set<String> usedMacros;
-        final ConcurrentHashMap<MacroConfiguration, Expression> macroConfigurationCache;
+        final BoundedCache<MacroConfiguration, Expression> macroConfigurationCache;
 
         public ExpressionCacheEntry(Expression expression, Set<String> usedMacros) {
             if (usedMacros.isEmpty()) {
@@ -220,7 +223,7 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
             } else {
                 this.expression = null;
                 this.usedMacros = usedMacros;
-                this.macroConfigurationCache = new ConcurrentHashMap<>();
+                this.macroConfigurationCache = new BoundedCache<>(MACRO_CONFIGURATION_CACHE_MAX_SIZE);
             }
         }
 
@@ -237,7 +240,7 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
         }
 
         public void addMacroConfigurationExpression(MacroConfiguration macroConfiguration, Expression expression) {
-            macroConfigurationCache.put(macroConfiguration, expression);
+            macroConfigurationCache.putIfAbsent(macroConfiguration, expression);
         }
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import com.blazebit.persistence.parser.util.BoundedCache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An expression cache that bounds every cache name to a maximum number of entries and evicts with a W-TinyLFU policy.
+ * The maximum size can be configured globally via {@link #MAX_SIZE_PROPERTY} and per cache name by appending
+ * <code>.&lt;cacheName&gt;</code> to the property name.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class BoundedExpressionCache<T> implements ExpressionCache<T> {
+
+    public static final String MAX_SIZE_PROPERTY = "com.blazebit.persistence.expression.cache_max_size";
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final int defaultMaxSize;
+    private final Map<String, Integer> maxSizes;
+    private final ConcurrentMap<String, BoundedCache<Key, T>> cacheManager;
+
+    public BoundedExpressionCache() {
+        this(Collections.<String, String>emptyMap());
+    }
+
+    public BoundedExpressionCache(Map<String, String> properties) {
+        Map<String, Integer> maxSizes = new HashMap<>();
+        int defaultMaxSize = DEFAULT_MAX_SIZE;
+        String prefix = MAX_SIZE_PROPERTY + ".";
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            if (MAX_SIZE_PROPERTY.equals(entry.getKey())) {
+                defaultMaxSize = parseMaxSize(entry.getKey(), entry.getValue());
+            } else if (entry.getKey().startsWith(prefix)) {
+                maxSizes.put(entry.getKey().substring(prefix.length()), parseMaxSize(entry.getKey(), entry.getValue()));
+            }
+        }
+        this.defaultMaxSize = defaultMaxSize;
+        this.maxSizes = maxSizes;
+        this.cacheManager = new ConcurrentHashMap<>();
+    }
+
+    private static int parseMaxSize(String propertyName, String value) {
+        int maxSize;
+        try {
+            maxSize = Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid non-integer value '" + value + "' for property: " + propertyName, ex);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid non-positive value '" + value + "' for property: " + propertyName);
+        }
+        return maxSize;
+    }
+
+    @Override
+    public T get(String cacheName, Key key) {
+        // Create the cache eagerly so that misses are accounted for
+        return getOrCreateCache(cacheName).get(key);
+    }
+
+    @Override
+    public T putIfAbsent(String cacheName, Key key, T value) {
+        T oldValue = getOrCreateCache(cacheName).putIfAbsent(key, value);
+        if (oldValue != null) {
+            return oldValue;
+        }
+
+        return value;
+    }
+
+    private BoundedCache<Key, T> getOrCreateCache(String cacheName) {
+        BoundedCache<Key, T> cache = cacheManager.get(cacheName);
+
+        if (cache == null) {
+            cache = new BoundedCache<>(getMaximumSize(cacheName));
+            BoundedCache<Key, T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
+
+            if (oldCache != null) {
+                cache = oldCache;
+            }
+        }
+
+        return cache;
+    }
+
+    public int getMaximumSize(String cacheName) {
+        Integer maxSize = maxSizes.get(cacheName);
+        return maxSize == null ? defaultMaxSize : maxSize;
+    }
+
+    public int getSize(String cacheName) {
+        final BoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0 : cache.size();
+    }
+
+    public long getHitCount(String cacheName) {
+        final BoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getHitCount();
+    }
+
+    public long getMissCount(String cacheName) {
+        final BoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getMissCount();
+    }
+
+    public long getEvictionCount(String cacheName) {
+        final BoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getEvictionCount();
+    }
+
+    public Iterable<String> getCacheNames() {
+        return Collections.unmodifiableSet(cacheManager.keySet());
+    }
+
+    public void clear() {
+        for (BoundedCache<Key, T> cache : cacheManager.values()) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent, size bounded cache with a W-TinyLFU eviction policy.
+ *
+ * New entries enter a small LRU window. Entries leaving the window compete with the least recently used entry of the
+ * main segmented LRU region and only the one that was accessed more frequently, according to a count-min sketch, is retained.
+ * This keeps one-off keys from flushing frequently used entries out of the cache.
+ *
+ * Lookups are lock free. Access recording is lossy, i.e. when the policy lock is contended, an access is not recorded
+ * rather than blocking the reader.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class BoundedCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maximumSize;
+    private final int maximumWindowSize;
+    private final int maximumProtectedSize;
+    private final ConcurrentMap<K, Node<K, V>> data;
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrderQueue<K, V> window = new AccessOrderQueue<>();
+    private final AccessOrderQueue<K, V> probation = new AccessOrderQueue<>();
+    private final AccessOrderQueue<K, V> protectedQueue = new AccessOrderQueue<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public BoundedCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive but was: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWindowSize = Math.max(1, maximumSize / 100);
+        this.maximumProtectedSize = (int) ((maximumSize - maximumWindowSize) * 0.8);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.incrementAndGet();
+            if (policyLock.tryLock()) {
+                try {
+                    sketch.increment(key.hashCode());
+                } finally {
+                    policyLock.unlock();
+                }
+            }
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            return node.value;
+        }
+
+        policyLock.lock();
+        try {
+            node = new Node<>(key, value);
+            Node<K, V> oldNode = data.putIfAbsent(key, node);
+            if (oldNode != null) {
+                return oldNode.value;
+            }
+            sketch.increment(key.hashCode());
+            node.queue = WINDOW;
+            window.addLast(node);
+            evict();
+            return null;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void clear() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        // The node might have been evicted concurrently
+        if (node.queue == -1) {
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                while (protectedQueue.size > maximumProtectedSize) {
+                    Node<K, V> demoted = protectedQueue.removeFirst();
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void evict() {
+        // Move entries that overflow the window to the probation segment of the main region
+        while (window.size > maximumWindowSize) {
+            Node<K, V> candidate = window.removeFirst();
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            if (data.size() > maximumSize) {
+                Node<K, V> victim = probation.first;
+                if (victim == candidate) {
+                    victim = protectedQueue.first;
+                }
+                // The candidate is only admitted if it was accessed more frequently than the victim
+                if (victim == null || sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                    victim = candidate;
+                }
+                remove(victim);
+            }
+        }
+        while (data.size() > maximumSize) {
+            Node<K, V> victim = probation.first;
+            if (victim == null) {
+                victim = protectedQueue.first == null ? window.first : protectedQueue.first;
+            }
+            remove(victim);
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node);
+                break;
+            default:
+                break;
+        }
+        node.queue = -1;
+        data.remove(node.key, node);
+        evictionCount.incrementAndGet();
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        int queue;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes in access order. Not thread safe, guarded by the policy lock.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class AccessOrderQueue<K, V> {
+        Node<K, V> first;
+        Node<K, V> last;
+        int size;
+
+        void addLast(Node<K, V> node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        Node<K, V> removeFirst() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * A count-min sketch with 4-bit counters and periodic aging to estimate the access frequency of keys.
+     * Not thread safe, guarded by the policy lock.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int tableSize = Integer.highestOneBit(Math.max(1, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+            this.table = new long[Math.max(tableSize, 8)];
+            this.tableMask = table.length - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        int frequency(int hashCode) {
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = hash(hashCode, i);
+                int index = (int) (hash >>> 32) & tableMask;
+                int offset = ((int) hash & 15) << 2;
+                frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 15L));
+            }
+            return frequency;
+        }
+
+        void increment(int hashCode) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = hash(hashCode, i);
+                int index = (int) (hash >>> 32) & tableMask;
+                int offset = ((int) hash & 15) << 2;
+                long mask = 15L << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+
+        private static long hash(int hashCode, int depth) {
+            long hash = (hashCode + SEEDS[depth]) * SEEDS[depth];
+            return hash ^ (hash >>> 29);
+        }
+    }
+}
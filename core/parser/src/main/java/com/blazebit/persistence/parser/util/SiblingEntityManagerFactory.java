@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.util;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates entity managers for read only queries that can't be run through an original entity manager,
+ * because they run on a different thread or after the original entity manager was closed.
+ *
+ * The created entity managers use the properties of the original entity manager, which are captured on construction,
+ * so that e.g. tenant identifiers, timeouts or query hints configured for the original entity manager also apply.
+ * Since they are separate persistence contexts, they don't see uncommitted changes of the original entity manager.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class SiblingEntityManagerFactory {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<String, Object> properties;
+
+    /**
+     * Captures the entity manager factory and the properties of the given open entity manager.
+     *
+     * @param entityManager The original entity manager
+     */
+    public SiblingEntityManagerFactory(EntityManager entityManager) {
+        this.entityManagerFactory = entityManager.getEntityManagerFactory();
+        this.properties = new HashMap<>(entityManager.getProperties());
+    }
+
+    /**
+     * Creates a new entity manager with the properties of the original entity manager that only flushes on commit.
+     * The caller is responsible for closing it.
+     *
+     * @return A new entity manager
+     */
+    public EntityManager createEntityManager() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager(properties);
+        try {
+            entityManager.setFlushMode(FlushModeType.COMMIT);
+        } catch (RuntimeException ex) {
+            entityManager.close();
+            throw ex;
+        }
+        return entityManager;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String PATH_CACHE = "com.blazebit.persistence.parser.expression.cache.PathExpression";
+    private static final String SIMPLE_CACHE = "com.blazebit.persistence.parser.expression.cache.SimpleExpression";
+
+    @Test
+    public void testMaximumSizePerCacheName() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(BoundedExpressionCache.MAX_SIZE_PROPERTY, "100");
+        properties.put(BoundedExpressionCache.MAX_SIZE_PROPERTY + "." + PATH_CACHE, "10");
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>(properties);
+
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(PATH_CACHE, key("a" + i), i);
+            cache.putIfAbsent(SIMPLE_CACHE, key("a" + i), i);
+        }
+
+        Assert.assertEquals(10, cache.getMaximumSize(PATH_CACHE));
+        Assert.assertEquals(10, cache.getSize(PATH_CACHE));
+        Assert.assertEquals(40, cache.getEvictionCount(PATH_CACHE));
+        Assert.assertEquals(100, cache.getMaximumSize(SIMPLE_CACHE));
+        Assert.assertEquals(50, cache.getSize(SIMPLE_CACHE));
+        Assert.assertEquals(0, cache.getEvictionCount(SIMPLE_CACHE));
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScan() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(BoundedExpressionCache.MAX_SIZE_PROPERTY, "20");
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>(properties);
+
+        for (int i = 0; i < 10; i++) {
+            cache.putIfAbsent(PATH_CACHE, key("hot" + i), i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertNotNull(cache.get(PATH_CACHE, key("hot" + i)));
+            }
+        }
+        // A scan of one-off keys must not flush out the frequently used entries
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertNull(cache.get(PATH_CACHE, key("cold" + i)));
+            cache.putIfAbsent(PATH_CACHE, key("cold" + i), i);
+            if (i % 100 == 0) {
+                for (int j = 0; j < 10; j++) {
+                    cache.get(PATH_CACHE, key("hot" + j));
+                }
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, cache.get(PATH_CACHE, key("hot" + i)));
+        }
+        Assert.assertEquals(20, cache.getSize(PATH_CACHE));
+    }
+
+    @Test
+    public void testStatistics() {
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>();
+        Assert.assertNull(cache.get(PATH_CACHE, key("a")));
+        Assert.assertEquals(1, cache.putIfAbsent(PATH_CACHE, key("a"), 1));
+        Assert.assertEquals(1, cache.putIfAbsent(PATH_CACHE, key("a"), 2));
+        Assert.assertEquals(1, cache.get(PATH_CACHE, key("a")));
+
+        Assert.assertEquals(1, cache.getHitCount(PATH_CACHE));
+        Assert.assertEquals(1, cache.getMissCount(PATH_CACHE));
+        Assert.assertEquals(1, cache.getSize(PATH_CACHE));
+        Assert.assertEquals(BoundedExpressionCache.DEFAULT_MAX_SIZE, cache.getMaximumSize(PATH_CACHE));
+    }
+
+    @Test
+    public void testCachingExpressionFactory() {
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>();
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashMap<String, FunctionKind>(), true, true), cache);
+
+        Expression expr1 = ef.createSimpleExpression("a.b + 1", false, true, false, null, null);
+        Expression expr2 = ef.createSimpleExpression("a.b + 1", false, true, false, null, null);
+
+        Assert.assertFalse(expr1 == expr2);
+        Assert.assertEquals(expr1, expr2);
+        Assert.assertEquals(1, cache.getSize(SIMPLE_CACHE));
+        Assert.assertEquals(1, cache.getMissCount(SIMPLE_CACHE));
+        Assert.assertEquals(1, cache.getHitCount(SIMPLE_CACHE));
+    }
+
+    private static ExpressionCache.Key key(String expression) {
+        return new ExpressionCache.Key(expression, false, false, false);
+    }
+}
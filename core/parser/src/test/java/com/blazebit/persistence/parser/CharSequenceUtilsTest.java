@@ -18,6 +18,8 @@ package com.blazebit.persistence.parser;
 
 import org.junit.Test;
 
+import java.sql.Timestamp;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -32,6 +34,38 @@ public class CharSequenceUtilsTest {
         assertEquals(1, new SubSequence("[{},{\"asd\":[{\"x\":null}]},{}]", 11, 23).indexOf('{', 1, 12));
         assertEquals(11, CharSequenceUtils.lastIndexOf(new SubSequence("[{\"f0\":\"Doc1\",\"f1\":\"0\",\"f2\":[{\"f0\":\"a\"}]},{\"f0\":\"Doc1\",\"f1\":\"0\",\"f2\":[{\"f0\":\"b\"}]},{\"f0\":\"Doc2\",\"f1\":\"0\",\"f2\":[{\"f0\":\"c\"}]}]", 110, 122), ']'));
         assertEquals(6, CharSequenceUtils.lastIndexOf(new SubSequence(new SubSequence("[{x:[{y:[{z:0}]}]}]", 4, 17), 4, 11), ']'));
+        assertEquals("{z:0}", new SubSequence(new SubSequence("[{x:[{y:[{z:0}]}]}]", 4, 17), 5, 10).toString());
+    }
+
+    @Test
+    public void testNonStringCharSequence() {
+        StringBuilder sb = new StringBuilder("[{x:[{y:0}]}]");
+        assertEquals(5, CharSequenceUtils.indexOf(sb, '{', 2));
+        assertEquals(10, CharSequenceUtils.lastIndexOf(sb, ']', 0, 11));
+        assertEquals(5, CharSequenceUtils.indexOf(sb, "{y", 0));
+        assertEquals(-1, CharSequenceUtils.indexOf(sb, "{z", 0));
+    }
+
+    @Test
+    public void testParseNumbers() {
+        assertEquals(123, CharSequenceUtils.parseInt(new SubSequence("a123b", 1, 4)));
+        assertEquals(-123, CharSequenceUtils.parseInt("-123"));
+        assertEquals(Integer.MIN_VALUE, CharSequenceUtils.parseInt(String.valueOf(Integer.MIN_VALUE)));
+        assertEquals(Long.MAX_VALUE, CharSequenceUtils.parseLong(String.valueOf(Long.MAX_VALUE)));
+        assertEquals(-9876543210L, CharSequenceUtils.parseLong(new StringBuilder("-9876543210")));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalidNumber() {
+        CharSequenceUtils.parseInt("1a");
+    }
+
+    @Test
+    public void testParseTimestamp() {
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.123456"), CharSequenceUtils.parseTimestamp(new SubSequence("'2020-01-02 03:04:05.123456'", 1, 27)));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05"), CharSequenceUtils.parseTimestamp("2020-01-02 03:04:05"));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05.1"), CharSequenceUtils.parseTimestamp("2020-01-02 03:04:05.1"));
+        assertEquals(Timestamp.valueOf("2020-1-2 03:04:05"), CharSequenceUtils.parseTimestamp("2020-1-2 03:04:05"));
     }
 
 }
@@ -55,6 +55,25 @@ public class JsonParserTest {
         assertEquals(new Object[]{ "1", "test" }, JsonParser.parseStringOnly("[{\"age\": \"1\", \"name\": \"test\"}, {\"age\": \"1\", \"name\": \"test\"}]", "age", "name").get(1));
     }
 
+    @Test
+    public void testStringOnlyMixedEscaping() {
+        assertEquals(new Object[]{ "te\"st", "1" }, JsonParser.parseStringOnly("[{\"name\": \"te\\\"st\", \"age\": \"1\"}]", "name", "age").get(0));
+        assertEquals(new Object[]{ "1", "te\"st" }, JsonParser.parseStringOnly("[{\"name\": \"te\\\"st\", \"age\": \"1\"}]", "age", "name").get(0));
+    }
+
+    @Test
+    public void testStringOnlyNonStringCharSequence() {
+        StringBuilder json = new StringBuilder("[{\"name\": \"test\", \"age\": \"1\"}, {\"name\": \"test2\", \"age\": \"2\"}]");
+        assertEquals(new Object[]{ "test", "1" }, JsonParser.parseStringOnly(json, "name", "age").get(0));
+        assertEquals(new Object[]{ "test2", "2" }, JsonParser.parseStringOnly(json, "name", "age").get(1));
+    }
+
+    @Test
+    public void testStringOnlyNested() {
+        Object nested = JsonParser.parseStringOnly("[{\"name\": \"test\", \"children\": [{\"name\": \"child\", \"children\": null}]}]", "name", "children").get(0)[1];
+        assertEquals(new Object[]{ "child", null }, JsonParser.parseStringOnly((CharSequence) nested, "name", "children").get(0));
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
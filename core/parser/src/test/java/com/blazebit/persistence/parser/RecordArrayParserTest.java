@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class RecordArrayParserTest {
+
+    @Test
+    public void testNormal() {
+        List<Object[]> list = RecordArrayParser.parse("{\"(Doc1,0)\",\"(Doc2,1)\"}", 2);
+        Assert.assertEquals(2, list.size());
+        assertEquals(new Object[]{ "Doc1", "0" }, list.get(0));
+        assertEquals(new Object[]{ "Doc2", "1" }, list.get(1));
+    }
+
+    @Test
+    public void testUnquotedElements() {
+        List<Object[]> list = RecordArrayParser.parse("{(a),(b)}", 1);
+        Assert.assertEquals(2, list.size());
+        assertEquals(new Object[]{ "a" }, list.get(0));
+        assertEquals(new Object[]{ "b" }, list.get(1));
+    }
+
+    @Test
+    public void testNullFields() {
+        assertEquals(new Object[]{ "Doc1", null }, RecordArrayParser.parse("{\"(Doc1,)\"}", 2).get(0));
+        assertEquals(new Object[]{ null, "Doc1" }, RecordArrayParser.parse("{\"(,Doc1)\"}", 2).get(0));
+        assertEquals(new Object[]{ null }, RecordArrayParser.parse("{()}", 1).get(0));
+    }
+
+    @Test
+    public void testEscaping() {
+        assertEquals(new Object[]{ "a \"b\" \\c", "x,y" }, RecordArrayParser.parse("{\"(\\\"a \\\"\\\"b\\\"\\\" \\\\\\\\c\\\",\\\"x,y\\\")\"}", 2).get(0));
+        assertEquals(new Object[]{ "", "1" }, RecordArrayParser.parse("{\"(\\\"\\\",1)\"}", 2).get(0));
+    }
+
+    @Test
+    public void testNested() {
+        Object[] object = RecordArrayParser.parse("{\"(Doc1,\\\"{(a),\\\"\\\"(b c)\\\"\\\"}\\\")\"}", 2).get(0);
+        assertEquals(new Object[]{ "Doc1", "{(a),\"(b c)\"}" }, object);
+        List<Object[]> nested = RecordArrayParser.parse((CharSequence) object[1], 1);
+        Assert.assertEquals(2, nested.size());
+        assertEquals(new Object[]{ "a" }, nested.get(0));
+        assertEquals(new Object[]{ "b c" }, nested.get(1));
+    }
+
+    @Test
+    public void testRecord() {
+        assertEquals(new Object[]{ "Doc1", "a \"b\"", null }, RecordArrayParser.parseRecord("(Doc1,\"a \"\"b\"\"\",)", 3));
+    }
+
+    private static void assertEquals(Object[] array1, Object[] array2) {
+        Assert.assertEquals(array1.length, array2.length);
+        for (int i = 0; i < array1.length; i++) {
+            Assert.assertEquals(array1[i] == null ? null : array1[i].toString(), array2[i] == null ? null : array2[i].toString());
+        }
+    }
+
+}
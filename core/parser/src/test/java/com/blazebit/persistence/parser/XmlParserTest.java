@@ -53,6 +53,19 @@ public class XmlParserTest {
         assertEquals(new Object[]{ "1", "test" }, XmlParser.parse("<e><age>1</age><name>test</name></e><e><age>1</age><name>test</name></e>", "age", "name").get(1));
     }
 
+    @Test
+    public void testMixedEscaping() {
+        assertEquals(new Object[]{ "te&st", "1" }, XmlParser.parse("<e><name>te&amp;st</name><age>1</age></e>", "name", "age").get(0));
+        assertEquals(new Object[]{ "1", "te&st" }, XmlParser.parse("<e><name>te&amp;st</name><age>1</age></e>", "age", "name").get(0));
+    }
+
+    @Test
+    public void testNonStringCharSequence() {
+        StringBuilder xml = new StringBuilder("<e><name>test</name><age>1</age></e><e><name>test2</name><age>2</age></e>");
+        assertEquals(new Object[]{ "test", "1" }, XmlParser.parse(xml, "name", "age").get(0));
+        assertEquals(new Object[]{ "test2", "2" }, XmlParser.parse(xml, "name", "age").get(1));
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
@@ -257,6 +257,41 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.getValuesStrategy();
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return delegate.supportsArrayValues();
+    }
+
+    @Override
+    public String getTemporaryTableName(String name) {
+        return delegate.getTemporaryTableName(name);
+    }
+
+    @Override
+    public String getCreateTemporaryTableSql(String tableName, String[] columnNames, Class<?>[] columnTypes) {
+        return delegate.getCreateTemporaryTableSql(tableName, columnNames, columnTypes);
+    }
+
+    @Override
+    public String getClearTemporaryTableSql(String tableName) {
+        return delegate.getClearTemporaryTableSql(tableName);
+    }
+
+    @Override
+    public String getTableRowCountEstimateSql(String tableReference) {
+        return delegate.getTableRowCountEstimateSql(tableReference);
+    }
+
+    @Override
+    public String getQueryRowCountEstimateSql(String sql) {
+        return delegate.getQueryRowCountEstimateSql(sql);
+    }
+
+    @Override
+    public long getQueryRowCountEstimate(List<Object> planRows) {
+        return delegate.getQueryRowCountEstimate(planRows);
+    }
+
     @Override
     public boolean needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing() {
         return delegate.needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing();
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.QueryPlanCache;
+import com.blazebit.persistence.QueryPlanCacheStatistics;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class QueryPlanCacheTest extends AbstractCoreTest {
+
+    private QueryPlanCache queryPlanCache;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, "16");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        queryPlanCache = cbf.getService(QueryPlanCache.class);
+        queryPlanCache.clear(em);
+    }
+
+    @Test
+    public void secondExecutionHitsCache() {
+        createValuesQuery(Arrays.asList("doc1", "doc2")).getResultList();
+        QueryPlanCacheStatistics before = queryPlanCache.getStatistics(em);
+
+        assertEquals(2, createValuesQuery(Arrays.asList("doc2", "doc3")).getResultList().size());
+
+        QueryPlanCacheStatistics after = queryPlanCache.getStatistics(em);
+        assertEquals(16, after.getMaxSize());
+        assertEquals(1, after.getSize());
+        assertEquals(before.getMissCount(), after.getMissCount());
+        assertEquals(before.getHitCount() + 1, after.getHitCount());
+        assertTrue(after.getCompileTimeSavedNanos() > before.getCompileTimeSavedNanos());
+    }
+
+    @Test
+    public void differentSqlMissesCache() {
+        createValuesQuery(Arrays.asList("doc1")).getResultList();
+        QueryPlanCacheStatistics before = queryPlanCache.getStatistics(em);
+
+        createValuesQuery(Arrays.asList("doc1", "doc2", "doc3")).getResultList();
+
+        QueryPlanCacheStatistics after = queryPlanCache.getStatistics(em);
+        assertEquals(2, after.getSize());
+        assertEquals(before.getHitCount(), after.getHitCount());
+        assertEquals(before.getMissCount() + 1, after.getMissCount());
+    }
+
+    @Test
+    public void clearEmptiesCache() {
+        createValuesQuery(Arrays.asList("doc1")).getResultList();
+        queryPlanCache.clear(em);
+
+        assertEquals(0, queryPlanCache.getStatistics(em).getSize());
+    }
+
+    @Test
+    public void warmUpCompilesPlanForFirstExecution() {
+        assertTrue(queryPlanCache.warmUp(createValuesQuery(Arrays.asList("doc1", "doc2"))));
+        assertFalse(queryPlanCache.warmUp(createValuesQuery(Arrays.asList("doc2", "doc3"))));
+        QueryPlanCacheStatistics before = queryPlanCache.getStatistics(em);
+
+        assertEquals(2, createValuesQuery(Arrays.asList("doc1", "doc3")).getResultList().size());
+
+        QueryPlanCacheStatistics after = queryPlanCache.getStatistics(em);
+        assertEquals(1, after.getSize());
+        assertEquals(before.getMissCount(), after.getMissCount());
+        assertEquals(before.getHitCount() + 1, after.getHitCount());
+    }
+
+    @Test
+    public void warmUpIgnoresPlainJpqlQueries() {
+        assertFalse(queryPlanCache.warmUp(cbf.create(em, Document.class)));
+    }
+
+    @Test
+    public void invalidMaxSizeIsRejected() {
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        config.setProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, "-1");
+        try {
+            config.createCriteriaBuilderFactory(emf);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE));
+        }
+    }
+
+    private CriteriaBuilder<String> createValuesQuery(Collection<String> names) {
+        return cbf.create(em, String.class)
+                .fromValues(String.class, "allowedName", names)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name");
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CountMode;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.dialect.H2DbmsDialect;
+import com.blazebit.persistence.impl.query.CountCache;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoPostgreSQL;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class CountModeTest extends AbstractCoreTest {
+
+    private CountCache countCache;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        if ("h2".equals(dbms)) {
+            // H2 has no plan based estimates, so we emulate a plan that reports the actual count of the explained statement
+            config.registerDialect("h2", new DelegatingDbmsDialect(new H2DbmsDialect()) {
+                @Override
+                public String getQueryRowCountEstimateSql(String sql) {
+                    return "select 'Emulated plan (rows=' || count(*) || ')' from (" + sql + ") t";
+                }
+            });
+        }
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        countCache = cbf.getService(CountCache.class);
+        countCache.invalidateAll();
+    }
+
+    @Test
+    public void exactCountByDefault() {
+        PagedList<String> result = createPage("doc%").getResultList();
+
+        assertEquals(3, result.getTotalSize());
+        assertEquals(CountMode.EXACT, result.getCountMode());
+    }
+
+    @Test
+    public void boundedCountThatReachesTheBound() {
+        PagedList<String> result = createPage("doc%").withBoundedCount(2).getResultList();
+
+        assertEquals(2, result.getTotalSize());
+        assertEquals(CountMode.BOUNDED, result.getCountMode());
+    }
+
+    @Test
+    public void cachedCountIsReusedUntilInvalidated() {
+        PagedList<String> result = createPage("doc%").withCachedCount(60_000L).getResultList();
+        assertEquals(3, result.getTotalSize());
+        assertEquals(CountMode.EXACT, result.getCountMode());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new Document("doc4", cbf.create(em, Person.class).getSingleResult()));
+            }
+        });
+        try {
+            result = createPage("doc%").withCachedCount(60_000L).getResultList();
+            assertEquals(3, result.getTotalSize());
+            assertEquals(CountMode.CACHED, result.getCountMode());
+
+            countCache.invalidate(Document.class);
+
+            result = createPage("doc%").withCachedCount(60_000L).getResultList();
+            assertEquals(4, result.getTotalSize());
+            assertEquals(CountMode.EXACT, result.getCountMode());
+        } finally {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    em.createQuery("DELETE FROM Document d WHERE d.name = 'doc4'").executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void differentParametersDoNotShareCachedCount() {
+        createPage("doc%").withCachedCount(60_000L).getResultList();
+
+        PagedList<String> result = createPage("doc1").withCachedCount(60_000L).getResultList();
+
+        assertEquals(1, result.getTotalSize());
+        assertEquals(CountMode.EXACT, result.getCountMode());
+        assertEquals(2, countCache.getSize());
+    }
+
+    @Test
+    public void expiredCachedCountIsNotUsed() throws InterruptedException {
+        createPage("doc%").withCachedCount(1L).getResultList();
+        Thread.sleep(10L);
+
+        PagedList<String> result = createPage("doc%").withCachedCount(1L).getResultList();
+
+        assertEquals(CountMode.EXACT, result.getCountMode());
+    }
+
+    // NOTE: The row count estimate requires the SQL of the count query which is only available with Hibernate
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoPostgreSQL.class, NoMySQL.class, NoOracle.class, NoMSSQL.class, NoDB2.class })
+    public void estimatedCountForUnrestrictedQuery() {
+        PagedList<String> result = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withEstimatedCount(true)
+                .getResultList();
+
+        assertEquals(1, result.size());
+        assertEquals(CountMode.ESTIMATED, result.getCountMode());
+        assertEquals(3, result.getTotalSize());
+    }
+
+    // NOTE: The row count estimate requires the SQL of the count query which is only available with Hibernate
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoPostgreSQL.class, NoMySQL.class, NoOracle.class, NoMSSQL.class, NoDB2.class })
+    public void estimatedCountForRestrictedQuery() {
+        PagedList<String> result = createPage("doc1").withEstimatedCount(true).getResultList();
+
+        assertEquals(CountMode.ESTIMATED, result.getCountMode());
+        assertEquals(1, result.getTotalSize());
+    }
+
+    @Test
+    public void estimatedCountFallsBackToCountQueryForCollectionJoin() {
+        PagedList<String> result = createPage("doc%")
+                .leftJoin("d.partners", "p")
+                .where("p.name").isNull()
+                .withEstimatedCount(true)
+                .getResultList();
+
+        assertEquals(3, result.getTotalSize());
+        assertEquals(CountMode.EXACT, result.getCountMode());
+    }
+
+    private PaginatedCriteriaBuilder<String> createPage(String namePattern) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .where("d.name").like().value(namePattern).noEscape()
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.keyset.KeysetBookmarkCache;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class KeysetBookmarkTest extends AbstractCoreTest {
+
+    private KeysetBookmarkCache keysetBookmarkCache;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.KEYSET_BOOKMARK_CACHE_MAX_SIZE, "10");
+        config.setProperty(ConfigurationProperties.KEYSET_BOOKMARK_INTERVAL, "2");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                for (int i = 0; i < 10; i++) {
+                    em.persist(new Document("doc" + i, p1));
+                }
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        keysetBookmarkCache = cbf.getService(KeysetBookmarkCache.class);
+        keysetBookmarkCache.invalidateAll();
+    }
+
+    @Test
+    public void farPageUsesNearestBookmark() {
+        // Scrolling through the first pages remembers a bookmark for row 4
+        assertEquals(Arrays.asList("doc0", "doc1"), createPage(0).getResultList());
+        assertEquals(Arrays.asList("doc2", "doc3"), createPage(2).getResultList());
+        long hits = keysetBookmarkCache.getHitCount();
+
+        PaginatedCriteriaBuilder<String> cb = createPage(8);
+        String queryString = cb.getQueryString();
+        PagedList<String> result = cb.getResultList();
+
+        assertEquals(Arrays.asList("doc8", "doc9"), result);
+        assertEquals(8, result.getFirstResult());
+        assertEquals(10, result.getTotalSize());
+        assertEquals(hits + 1, keysetBookmarkCache.getHitCount());
+        // The bookmark is only applied to the executed queries but not to the builder
+        assertEquals(queryString, cb.getQueryString());
+        assertFalse(cb.getQueryString().contains(":_keysetParameter_0"));
+    }
+
+    @Test
+    public void bookmarkDoesNotChangeBuilderState() {
+        createPage(0).getResultList();
+        createPage(2).getResultList();
+        long hits = keysetBookmarkCache.getHitCount();
+
+        PaginatedCriteriaBuilder<String> cb = createPage(6);
+        String queryString = cb.getQueryString();
+        assertEquals(Arrays.asList("doc6", "doc7"), cb.getResultList());
+        assertEquals(queryString, cb.getQueryString());
+
+        // Executing the builder again applies the bookmark again instead of building on the previous execution
+        PagedList<String> result = cb.getResultList();
+        assertEquals(Arrays.asList("doc6", "doc7"), result);
+        assertEquals(6, result.getFirstResult());
+        assertEquals(hits + 2, keysetBookmarkCache.getHitCount());
+    }
+
+    @Test
+    public void farPageWithoutBookmarkUsesOffset() {
+        long misses = keysetBookmarkCache.getMissCount();
+
+        assertEquals(Arrays.asList("doc6", "doc7"), createPage(6).getResultList());
+        assertEquals(misses + 1, keysetBookmarkCache.getMissCount());
+    }
+
+    @Test
+    public void invalidationDiscardsBookmarks() {
+        createPage(0).getResultList();
+        createPage(2).getResultList();
+        assertEquals(1, keysetBookmarkCache.getSize());
+        long hits = keysetBookmarkCache.getHitCount();
+
+        keysetBookmarkCache.invalidate(Document.class);
+
+        assertEquals(Arrays.asList("doc8", "doc9"), createPage(8).getResultList());
+        assertEquals(hits, keysetBookmarkCache.getHitCount());
+        assertEquals(0, keysetBookmarkCache.getSize());
+    }
+
+    @Test
+    public void differentParametersDoNotShareBookmarks() {
+        createPage(0).getResultList();
+        createPage(2).getResultList();
+        long hits = keysetBookmarkCache.getHitCount();
+
+        PagedList<String> result = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .where("d.name").notEq("doc0")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(6, 2)
+                .getResultList();
+
+        assertEquals(Arrays.asList("doc7", "doc8"), result);
+        assertEquals(hits, keysetBookmarkCache.getHitCount());
+    }
+
+    private PaginatedCriteriaBuilder<String> createPage(int firstResult) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(firstResult, 2)
+                .withKeysetExtraction(true);
+    }
+}
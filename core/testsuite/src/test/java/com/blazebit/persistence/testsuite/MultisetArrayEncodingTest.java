@@ -0,0 +1,232 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.entity.Version;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the <code>TO_MULTISET</code> function with the array encoding, which uses arrays of records on PostgreSQL
+ * and falls back to the JSON or XML encoding on other DBMS.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class MultisetArrayEncodingTest extends AbstractCoreTest {
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.MULTISET_ARRAY_ENCODING, "true");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                p.setAge(20L);
+                em.persist(p);
+
+                Version v1 = new Version();
+                v1.setUrl("a,\"b\"");
+                Document doc1 = new Document("Doc3", p, v1);
+                em.persist(doc1);
+                em.persist(v1);
+
+                Version v2 = new Version();
+                v2.setUrl("(b)");
+                Document doc2 = new Document("Doc 2", p, v2);
+                em.persist(doc2);
+                em.persist(v2);
+
+                Version v3 = new Version();
+                v3.setUrl("c\\");
+                Document doc3 = new Document("Doc1", p, v3);
+                doc3.setLastModified(new Date(1000L));
+                doc3.setByteArray(new byte[]{ 1, 2, 3 });
+                em.persist(doc3);
+                em.persist(v3);
+            }
+        });
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink cant' handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus cant' handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testToMultiset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .select("doc.age")
+                .end()
+                ;
+
+        List<Object[]> objects = sortByFirst(criteria.getResultList().get(0).get(0, List.class));
+        assertEquals(3, objects.size());
+        assertRow(objects.get(0), "Doc 2", "0");
+        assertRow(objects.get(1), "Doc1", "0");
+        assertRow(objects.get(2), "Doc3", "0");
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink cant' handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus cant' handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testLimitedToMultiset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .select("doc.age")
+                    .orderByDesc("doc.name")
+                    .setMaxResults(2)
+                .end()
+                ;
+
+        List<Object[]> objects = criteria.getResultList().get(0).get(0, List.class);
+        assertEquals(2, objects.size());
+        assertRow(objects.get(0), "Doc3", "0");
+        assertRow(objects.get(1), "Doc1", "0");
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink cant' handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus cant' handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testNestedToMultisetWithSpecialCharacters() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                        .from("doc.versions", "v")
+                        .select("v.url")
+                    .end()
+                .end()
+                ;
+
+        List<Object[]> objects = sortByFirst(criteria.getResultList().get(0).get(0, List.class));
+        assertEquals(3, objects.size());
+        assertRow(objects.get(0), "Doc 2", "[[(b)]]");
+        assertRow(objects.get(1), "Doc1", "[[c\\]]");
+        assertRow(objects.get(2), "Doc3", "[[a,\"b\"]]");
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink cant' handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus cant' handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testScalarValuesMatchJsonEncoding() {
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        configure(config);
+        config.setProperty(ConfigurationProperties.MULTISET_ARRAY_ENCODING, "false");
+        CriteriaBuilderFactory jsonCbf = config.createCriteriaBuilderFactory(emf);
+
+        List<Object[]> arrayObjects = sortByFirst(createScalarValuesQuery(cbf).getResultList().get(0).get(0, List.class));
+        List<Object[]> jsonObjects = sortByFirst(createScalarValuesQuery(jsonCbf).getResultList().get(0).get(0, List.class));
+        assertEquals(3, arrayObjects.size());
+        assertEquals(jsonObjects.size(), arrayObjects.size());
+        for (int i = 0; i < jsonObjects.size(); i++) {
+            Object[] jsonRow = jsonObjects.get(i);
+            String[] expected = new String[jsonRow.length];
+            for (int j = 0; j < jsonRow.length; j++) {
+                expected[j] = toString(jsonRow[j]);
+            }
+            assertRow(arrayObjects.get(i), expected);
+        }
+    }
+
+    private CriteriaBuilder<Tuple> createScalarValuesQuery(CriteriaBuilderFactory cbf) {
+        return cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .select("doc.archived")
+                    .select("doc.lastModified")
+                    .select("doc.byteArray")
+                .end();
+    }
+
+    private static List<Object[]> sortByFirst(List<Object[]> objects) {
+        Collections.sort(objects, new Comparator<Object[]>() {
+            @Override
+            public int compare(Object[] o1, Object[] o2) {
+                return o1[0].toString().compareTo(o2[0].toString());
+            }
+        });
+        return objects;
+    }
+
+    private static void assertRow(Object[] actual, String... expected) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], toString(actual[i]));
+        }
+    }
+
+    private static String toString(Object o) {
+        if (o instanceof List<?>) {
+            StringBuilder sb = new StringBuilder();
+            sb.append('[');
+            for (Object element : (List<?>) o) {
+                if (sb.length() != 1) {
+                    sb.append(", ");
+                }
+                sb.append(Arrays.toString((Object[]) element));
+            }
+            sb.append(']');
+            return sb.toString();
+        } else {
+            return String.valueOf(o);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ParallelCountQueryTest extends AbstractCoreTest {
+
+    private CountingExecutor executor;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+
+                for (int i = 0; i < 7; i++) {
+                    Document doc = new Document("doc" + i);
+                    doc.setOwner(i < 3 ? o1 : o2);
+                    doc.getStrings().add("a");
+                    doc.getStrings().add("b");
+                    em.persist(doc);
+                }
+            }
+        });
+    }
+
+    @Override
+    protected boolean runTestInTransaction() {
+        // The count query is only executed in parallel when the entity manager is not joined to a transaction
+        return false;
+    }
+
+    @Before
+    public void setUp() {
+        executor = new CountingExecutor();
+    }
+
+    @Test
+    public void parallelCountWithIdQuery() {
+        PaginatedCriteriaBuilder<Tuple> pcb = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .select("d.strings")
+                .where("d.owner.name").eq("Karl2")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withInlineCountQuery(false)
+                .withParallelCountQuery(executor);
+
+        PagedList<Tuple> result = pcb.getResultList();
+
+        assertEquals(1, executor.executions.get());
+        assertEquals(4, result.getTotalSize());
+        assertEquals(4, result.size());
+    }
+
+    @Test
+    public void parallelCountWithoutIdQuery() {
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(2, 2)
+                .withInlineCountQuery(false)
+                .withParallelCountQuery(executor);
+
+        PagedList<String> result = pcb.getResultList();
+
+        assertEquals(1, executor.executions.get());
+        assertEquals(7, result.getTotalSize());
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void parallelCountForEmptyPage() {
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(10, 2)
+                .withInlineCountQuery(false)
+                .withParallelCountQuery(executor);
+
+        PagedList<String> result = pcb.getResultList();
+
+        assertEquals(1, executor.executions.get());
+        assertEquals(7, result.getTotalSize());
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void sequentialCountForNavigation() {
+        Long id = cbf.create(em, Long.class)
+                .from(Document.class, "d")
+                .select("d.id")
+                .where("d.name").eq("doc4")
+                .getSingleResult();
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .pageAndNavigate(id, 2)
+                .withInlineCountQuery(false)
+                .withParallelCountQuery(executor);
+
+        PagedList<String> result = pcb.getResultList();
+
+        // The count query determines the page, so it can't run in parallel
+        assertEquals(0, executor.executions.get());
+        assertEquals(7, result.getTotalSize());
+        assertEquals(4, result.getFirstResult());
+        assertEquals("doc4", result.get(0));
+    }
+
+    @Test
+    public void sequentialCountWithinTransaction() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Document doc = new Document("doc7");
+                doc.setOwner(cbf.create(em, Person.class).from(Person.class, "p").where("p.name").eq("Karl1").getSingleResult());
+                em.persist(doc);
+                em.flush();
+
+                PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class)
+                        .from(Document.class, "d")
+                        .select("d.name")
+                        .orderByAsc("d.id")
+                        .page(0, 2)
+                        .withInlineCountQuery(false)
+                        .withParallelCountQuery(executor);
+
+                PagedList<String> result = pcb.getResultList();
+
+                // A separate entity manager wouldn't see the uncommitted document
+                assertEquals(0, executor.executions.get());
+                assertEquals(8, result.getTotalSize());
+                em.getTransaction().setRollbackOnly();
+            }
+        });
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class CountingExecutor implements Executor {
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            executions.incrementAndGet();
+            new Thread(command).start();
+        }
+    }
+}
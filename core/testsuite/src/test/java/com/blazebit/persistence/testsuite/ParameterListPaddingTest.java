@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ParameterListPaddingTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Test
+    public void padCollectionParameterToPowerOfTwo() {
+        TypedQuery<String> query = createInQuery("true", Arrays.asList("doc1", "doc2", "doc3")).getQuery();
+
+        assertEquals(4, ((Collection<?>) query.getParameterValue("param_0")).size());
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), query.getResultList());
+    }
+
+    @Test
+    public void padCollectionParameterToBuckets() {
+        assertEquals(5, ((Collection<?>) createInQuery("2,5", Arrays.asList("doc1", "doc2", "doc3")).getQuery().getParameterValue("param_0")).size());
+        assertEquals(2, ((Collection<?>) createInQuery("2,5", Arrays.asList("doc1", "doc2")).getQuery().getParameterValue("param_0")).size());
+        assertEquals(10, ((Collection<?>) createInQuery("2,5", Arrays.asList("doc1", "doc2", "doc3", "doc1", "doc2", "doc3")).getQuery().getParameterValue("param_0")).size());
+    }
+
+    @Test
+    public void noPaddingByDefault() {
+        TypedQuery<String> query = createInQuery("false", Arrays.asList("doc1", "doc2", "doc3")).getQuery();
+
+        assertEquals(3, ((Collection<?>) query.getParameterValue("param_0")).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBuckets() {
+        cbf.create(em, String.class).setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, "5,2");
+    }
+
+    @Test
+    // NOTE: VALUES clauses are only supported with Hibernate
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void padValuesClause() {
+        CriteriaBuilder<String> cb3 = createValuesQuery("true", Arrays.asList("doc1", "doc2", "doc3"));
+        CriteriaBuilder<String> cb4 = createValuesQuery("true", Arrays.asList("doc1", "doc2", "doc3", "doc3"));
+        CriteriaBuilder<String> unpadded = createValuesQuery("false", Arrays.asList("doc1", "doc2", "doc3"));
+        String sql3 = ((CustomSQLTypedQuery<?>) cb3.getQuery()).getQuerySpecification().getSql();
+        String sql4 = ((CustomSQLTypedQuery<?>) cb4.getQuery()).getQuerySpecification().getSql();
+        String unpaddedSql = ((CustomSQLTypedQuery<?>) unpadded.getQuery()).getQuerySpecification().getSql();
+
+        assertEquals(sql4, sql3);
+        assertNotEquals(unpaddedSql, sql3);
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), cb3.getResultList());
+    }
+
+    private CriteriaBuilder<String> createInQuery(String padding, List<String> names) {
+        return cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, padding)
+                .from(Document.class, "doc")
+                .where("doc.name").in(names)
+                .select("doc.name")
+                .orderByAsc("doc.name");
+    }
+
+    private CriteriaBuilder<String> createValuesQuery(String padding, Collection<String> names) {
+        return cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, padding)
+                .fromValues(String.class, "allowedName", names)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.impl.query.QueryStringCache;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: The cache is only used for queries that require custom SQL which is only supported with Hibernate
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class QueryStringCacheTest extends AbstractCoreTest {
+
+    private QueryStringCache queryStringCache;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.QUERY_STRING_CACHE_MAX_SIZE, "2");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        queryStringCache = cbf.getService(QueryStringCache.class);
+        queryStringCache.clear();
+    }
+
+    @Test
+    public void structurallyIdenticalBuildersShareSql() {
+        CriteriaBuilder<String> cb1 = createValuesQuery(Arrays.asList("doc1", "doc2"));
+        String sql1 = ((CustomSQLTypedQuery<?>) cb1.getQuery()).getQuerySpecification().getSql();
+        long misses = queryStringCache.getMissCount();
+        long hits = queryStringCache.getHitCount();
+
+        CriteriaBuilder<String> cb2 = createValuesQuery(Arrays.asList("doc2", "doc3"));
+        String sql2 = ((CustomSQLTypedQuery<?>) cb2.getQuery()).getQuerySpecification().getSql();
+
+        assertEquals(sql1, sql2);
+        assertEquals(misses, queryStringCache.getMissCount());
+        assertEquals(hits + 1, queryStringCache.getHitCount());
+        List<String> result = cb2.getResultList();
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void differentValueCountsDoNotShareSql() {
+        createValuesQuery(Arrays.asList("doc1")).getResultList();
+        long hits = queryStringCache.getHitCount();
+
+        List<String> result = createValuesQuery(Arrays.asList("doc1", "doc2", "doc3")).getResultList();
+
+        assertEquals(3, result.size());
+        assertEquals(hits, queryStringCache.getHitCount());
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        long evictions = queryStringCache.getEvictionCount();
+        createValuesQuery(Arrays.asList("doc1")).getResultList();
+        createValuesQuery(Arrays.asList("doc1", "doc2")).getResultList();
+        createValuesQuery(Arrays.asList("doc1", "doc2", "doc3")).getResultList();
+
+        assertEquals(2, queryStringCache.getSize());
+        assertEquals(evictions + 1, queryStringCache.getEvictionCount());
+    }
+
+    private CriteriaBuilder<String> createValuesQuery(Collection<String> names) {
+        return cbf.create(em, String.class)
+                .fromValues(String.class, "allowedName", names)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name");
+    }
+}
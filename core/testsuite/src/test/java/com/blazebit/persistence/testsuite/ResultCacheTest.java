@@ -0,0 +1,248 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.QueryResultCache;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ResultCacheTest extends AbstractCoreTest {
+
+    private QueryResultCache resultCache;
+    private long initialHitCount;
+    private long initialMissCount;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        resultCache = cbf.getService(QueryResultCache.class);
+        resultCache.invalidateAll();
+        initialHitCount = resultCache.getHitCount();
+        initialMissCount = resultCache.getMissCount();
+    }
+
+    @Test
+    public void cachedResultIsReusedUntilModified() {
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), createQuery("doc%").withCachedResult(60_000L).getResultList());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new Document("doc4", cbf.create(em, Person.class).getSingleResult()));
+            }
+        });
+        try {
+            assertEquals(Arrays.asList("doc1", "doc2", "doc3"), createQuery("doc%").withCachedResult(60_000L).getResultList());
+            assertEquals(1, getHitCount());
+
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    cbf.delete(em, Document.class, "d").where("d.name").eq("doc5").executeUpdate();
+                }
+            });
+
+            assertEquals(Arrays.asList("doc1", "doc2", "doc3", "doc4"), createQuery("doc%").withCachedResult(60_000L).getResultList());
+        } finally {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    cbf.delete(em, Document.class, "d").where("d.name").eq("doc4").executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void modificationOfSubqueryEntityTypeInvalidatesCachedResult() {
+        createQueryWithOwnerSubquery().withCachedResult(60_000L).getResultList();
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Person.class, "p").set("age", 1L).where("p.name").eq("p2").executeUpdate();
+            }
+        });
+        createQueryWithOwnerSubquery().withCachedResult(60_000L).getResultList();
+
+        assertEquals(0, getHitCount());
+        assertEquals(2, getMissCount());
+    }
+
+    // Only the Hibernate integration supports transaction bound resources
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void modifyingTransactionBypassesCache() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Document.class, "d").set("age", 1L).where("d.name").eq("doc5").executeUpdate();
+                createQuery(em, "doc%").withCachedResult(60_000L).getResultList();
+                createQuery(em, "doc%").withCachedResult(60_000L).getResultList();
+            }
+        });
+        createQuery("doc%").withCachedResult(60_000L).getResultList();
+
+        assertEquals(0, getHitCount());
+        assertEquals(1, getMissCount());
+        assertEquals(3, resultCache.getSize());
+    }
+
+    // Only the Hibernate integration supports transaction bound resources
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void uncommittedChangesAreNotCachedForOtherTransactions() {
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            otherEm.getTransaction().begin();
+            cbf.update(otherEm, Document.class, "d").set("name", "docX").where("d.name").eq("doc1").executeUpdate();
+            assertEquals(Arrays.asList("docX", "doc2", "doc3"), createQuery(otherEm, "doc%").withCachedResult(60_000L).getResultList());
+
+            assertEquals(Arrays.asList("doc1", "doc2", "doc3"), createQuery("doc%").withCachedResult(60_000L).getResultList());
+            otherEm.getTransaction().rollback();
+        } finally {
+            if (otherEm.getTransaction().isActive()) {
+                otherEm.getTransaction().rollback();
+            }
+            otherEm.close();
+        }
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), createQuery("doc%").withCachedResult(60_000L).getResultList());
+
+        assertEquals(0, getHitCount());
+        assertEquals(2, getMissCount());
+    }
+
+    @Test
+    public void manualInvalidationOfDependentEntityType() {
+        createQuery("doc%").withCachedResult(60_000L, null, Collections.<Class<?>>singleton(Person.class)).getResultList();
+
+        resultCache.invalidate(Person.class);
+        createQuery("doc%").withCachedResult(60_000L, null, Collections.<Class<?>>singleton(Person.class)).getResultList();
+
+        assertEquals(0, getHitCount());
+        assertEquals(2, getMissCount());
+    }
+
+    @Test
+    public void returnedResultIsACopy() {
+        List<String> result = createQuery("doc%").withCachedResult(60_000L).getResultList();
+        result.clear();
+
+        assertEquals(3, createQuery("doc%").withCachedResult(60_000L).getResultList().size());
+        assertEquals(1, getHitCount());
+    }
+
+    @Test
+    public void differentCacheKeysDoNotShareCachedResult() {
+        createQuery("doc%").withCachedResult(60_000L, "a", Collections.<Class<?>>emptySet()).getResultList();
+        createQuery("doc%").withCachedResult(60_000L, "b", Collections.<Class<?>>emptySet()).getResultList();
+
+        assertEquals(0, getHitCount());
+        assertEquals(6, resultCache.getSize());
+    }
+
+    @Test
+    public void pagesAreCachedSeparately() {
+        PagedList<String> firstPage = createQuery("doc%").withCachedResult(60_000L).page(0, 2).getResultList();
+        PagedList<String> secondPage = createQuery("doc%").withCachedResult(60_000L).page(2, 2).getResultList();
+        PagedList<String> cachedSecondPage = createQuery("doc%").withCachedResult(60_000L).page(2, 2).getResultList();
+
+        assertEquals(Arrays.asList("doc1", "doc2"), firstPage);
+        assertEquals(Arrays.asList("doc3"), secondPage);
+        assertEquals(secondPage, cachedSecondPage);
+        assertEquals(3, cachedSecondPage.getTotalSize());
+        assertEquals(2, cachedSecondPage.getFirstResult());
+        assertEquals(1, getHitCount());
+    }
+
+    @Test
+    public void expiredResultIsNotUsed() throws InterruptedException {
+        createQuery("doc%").withCachedResult(1L).getResultList();
+        Thread.sleep(10L);
+
+        createQuery("doc%").withCachedResult(1L).getResultList();
+
+        assertEquals(0, getHitCount());
+    }
+
+    private long getHitCount() {
+        return resultCache.getHitCount() - initialHitCount;
+    }
+
+    private long getMissCount() {
+        return resultCache.getMissCount() - initialMissCount;
+    }
+
+    private CriteriaBuilder<String> createQueryWithOwnerSubquery() {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .whereExists()
+                    .from(Person.class, "p")
+                    .where("p.id").eqExpression("d.owner.id")
+                    .where("p.name").eq("p1")
+                .end()
+                .select("d.name")
+                .orderByAsc("d.id");
+    }
+
+    private CriteriaBuilder<String> createQuery(String namePattern) {
+        return createQuery(em, namePattern);
+    }
+
+    private CriteriaBuilder<String> createQuery(EntityManager em, String namePattern) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .where("d.name").like().value(namePattern).noEscape()
+                .select("d.name")
+                .orderByAsc("d.id");
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Order;
+import com.blazebit.persistence.testsuite.entity.OrderPosition;
+import com.blazebit.persistence.testsuite.entity.OrderPositionElement;
+import com.blazebit.persistence.testsuite.entity.OrderPositionHead;
+import com.blazebit.persistence.testsuite.entity.OrderPositionId;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: Array parameters are only supported with the Hibernate integrations before 6
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class ValuesClauseArrayStrategyTest extends AbstractCoreTest {
+
+    private static final Date LAST_MODIFIED = new Date(1000L);
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return concat(super.getEntityClasses(), new Class<?>[]{
+                Order.class,
+                OrderPosition.class,
+                OrderPositionHead.class,
+                OrderPositionElement.class
+        });
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                Document doc1 = new Document("doc1", p1);
+                doc1.setLastModified(LAST_MODIFIED);
+                em.persist(doc1);
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Test
+    public void sqlIsIndependentOfValueCount() {
+        CriteriaBuilder<String> cb1 = createValuesQuery(Arrays.asList("doc1"));
+        CriteriaBuilder<String> cb2 = createValuesQuery(Arrays.asList("doc1", "doc2", "doc3"));
+        String sql1 = ((CustomSQLTypedQuery<?>) cb1.getQuery()).getQuerySpecification().getSql();
+        String sql2 = ((CustomSQLTypedQuery<?>) cb2.getQuery()).getQuerySpecification().getSql();
+
+        if (dbmsDialect.supportsArrayValues()) {
+            assertTrue(sql1.contains("unnest("));
+            assertEquals(sql1, sql2);
+        }
+        assertEquals(Arrays.asList("doc1"), cb1.getResultList());
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), cb2.getResultList());
+    }
+
+    @Test
+    public void bindMoreValuesThanDeclared() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromValues(String.class, "allowedName", 1)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+        List<String> names = Arrays.asList("doc2", "doc3");
+        if (dbmsDialect.supportsArrayValues()) {
+            cb.setParameter("allowedName", names);
+            assertEquals(names, cb.getResultList());
+        }
+    }
+
+    @Test
+    public void filterNullValues() {
+        List<String> names = new ArrayList<>();
+        names.add("doc1");
+        names.add(null);
+        names.add("doc3");
+        assertEquals(Arrays.asList("doc1", "doc3"), createValuesQuery(names).getResultList());
+    }
+
+    @Test
+    public void identifiableValues() {
+        List<Document> documents = cbf.create(em, Document.class)
+                .where("name").in("doc1", "doc2")
+                .getResultList();
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromIdentifiableValues(Document.class, "docs", documents)
+                .from(Document.class, "doc")
+                .where("doc.id").eqExpression("docs.id")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+
+        String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+        assertEquals(dbmsDialect.supportsArrayValues(), sql.contains("unnest("));
+        assertEquals(Arrays.asList("doc1", "doc2"), cb.getResultList());
+    }
+
+    @Test
+    public void lengthQualifiedColumn() {
+        // The name column is a varchar(30) but the array must be created with the plain type name
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromValues(Document.class, "name", "allowedName", Arrays.asList("doc1", "doc3"))
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+
+        String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+        assertEquals(dbmsDialect.supportsArrayValues(), sql.contains("unnest("));
+        assertEquals(Arrays.asList("doc1", "doc3"), cb.getResultList());
+    }
+
+    @Test
+    public void temporalColumnFallsBack() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromValues(Document.class, "lastModified", "allowedDate", Arrays.asList(LAST_MODIFIED, new Date(2000L)))
+                .from(Document.class, "doc")
+                .where("doc.lastModified").eqExpression("allowedDate")
+                .select("doc.name");
+
+        String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+        assertFalse(sql.contains("unnest("));
+        assertEquals(Arrays.asList("doc1"), cb.getResultList());
+    }
+
+    @Test
+    public void embeddableIdValues() {
+        List<OrderPosition> positions = Arrays.asList(createOrderPosition(1L, 2), createOrderPosition(3L, 4));
+        CriteriaBuilder<Integer> cb = cbf.create(em, Integer.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromIdentifiableValues(OrderPosition.class, "pos", positions)
+                .select("pos.id.position")
+                .orderByAsc("pos.id.position");
+
+        assertEquals(Arrays.asList(2, 4), cb.getResultList());
+    }
+
+    @Test
+    public void disabledByDefault() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .fromValues(String.class, "allowedName", Arrays.asList("doc1"))
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name");
+        String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+        assertFalse(sql.contains("unnest("));
+        assertEquals(Arrays.asList("doc1"), cb.getResultList());
+    }
+
+    private CriteriaBuilder<String> createValuesQuery(Collection<String> names) {
+        return cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY_STRATEGY, "true")
+                .fromValues(String.class, "allowedName", names)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+    }
+
+    private static OrderPosition createOrderPosition(Long orderId, Integer position) {
+        OrderPositionId id = new OrderPositionId();
+        id.setOrderId(orderId);
+        id.setPosition(position);
+        OrderPosition orderPosition = new OrderPosition();
+        orderPosition.setId(id);
+        return orderPosition;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: Temporary tables are only supported with the Hibernate integrations
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class ValuesClauseTemporaryTableTest extends AbstractCoreTest {
+
+    private boolean supportsTemporaryTable() {
+        return dbmsDialect.getCreateTemporaryTableSql(dbmsDialect.getTemporaryTableName("test"), new String[]{ "c1" }, new Class<?>[]{ Long.class }) != null;
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("p1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Test
+    public void basicValuesAboveThreshold() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                CriteriaBuilder<String> cb = createValuesQuery(em, Arrays.asList("doc1", "doc3"));
+                String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+
+                assertEquals(supportsTemporaryTable(), sql.contains("bp_values_"));
+                assertEquals(Arrays.asList("doc1", "doc3"), cb.getResultList());
+            }
+        });
+    }
+
+    @Test
+    public void basicValuesBelowThreshold() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                CriteriaBuilder<String> cb = createValuesQuery(em, Arrays.asList("doc2"));
+                String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+
+                assertFalse(sql.contains("bp_values_"));
+                assertEquals(Arrays.asList("doc2"), cb.getResultList());
+            }
+        });
+    }
+
+    @Test
+    public void temporaryTableIsReusedWithinTransaction() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertEquals(Arrays.asList("doc1", "doc2"), createValuesQuery(em, Arrays.asList("doc1", "doc2")).getResultList());
+                assertEquals(Arrays.asList("doc2", "doc3"), createValuesQuery(em, Arrays.asList("doc2", "doc3")).getResultList());
+            }
+        });
+    }
+
+    @Test
+    public void paginatedQueryInsertsValuesOnce() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                List<String> names = cbf.create(em, String.class)
+                        .setProperty(ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, "2")
+                        .from(Document.class, "doc")
+                        .where("doc.name").in()
+                            .fromValues(String.class, "allowedName", Arrays.asList("doc1", "doc2", "doc3"))
+                            .select("allowedName")
+                        .end()
+                        .select("doc.name")
+                        .orderByAsc("doc.name")
+                        .orderByAsc("doc.id")
+                        .page(1, 1)
+                        .getResultList();
+                assertEquals(Arrays.asList("doc2"), names);
+
+                if (supportsTemporaryTable()) {
+                    // The count and object query must share the inserted rows
+                    Number rowCount = (Number) em.createNativeQuery("select count(*) from " + dbmsDialect.getTemporaryTableName("bp_values_s")).getSingleResult();
+                    assertEquals(3, rowCount.intValue());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void outsideOfTransactionFallsBack() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            CriteriaBuilder<String> cb = createValuesQuery(em, Arrays.asList("doc1", "doc3"));
+            String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+
+            assertFalse(sql.contains("bp_values_"));
+            assertEquals(Arrays.asList("doc1", "doc3"), cb.getResultList());
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    public void filterNullValues() {
+        final List<String> names = new ArrayList<>();
+        names.add("doc1");
+        names.add(null);
+        names.add("doc3");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertEquals(Arrays.asList("doc1", "doc3"), createValuesQuery(em, names).getResultList());
+            }
+        });
+    }
+
+    @Test
+    public void identifiableValues() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                List<Document> documents = cbf.create(em, Document.class)
+                        .where("name").in("doc1", "doc2")
+                        .getResultList();
+                CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                        .setProperty(ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, "2")
+                        .fromIdentifiableValues(Document.class, "docs", documents)
+                        .from(Document.class, "doc")
+                        .where("doc.id").eqExpression("docs.id")
+                        .select("doc.name")
+                        .orderByAsc("doc.name");
+
+                String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+                assertEquals(supportsTemporaryTable(), sql.contains("bp_values_"));
+                assertEquals(Arrays.asList("doc1", "doc2"), cb.getResultList());
+            }
+        });
+    }
+
+    private CriteriaBuilder<String> createValuesQuery(EntityManager em, Collection<String> names) {
+        return cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.VALUES_CLAUSE_TEMPORARY_TABLE_THRESHOLD, "2")
+                .fromValues(String.class, "allowedName", names)
+                .from(Document.class, "doc")
+                .where("doc.name").eqExpression("allowedName")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+    }
+}
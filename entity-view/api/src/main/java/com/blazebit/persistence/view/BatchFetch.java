@@ -22,7 +22,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * If {@link FetchStrategy#SELECT} is used on a property, this annotation configures the default batching.
+ * If {@link FetchStrategy#SELECT} or {@link FetchStrategy#LAZY} is used on a property, this annotation configures the default batching.
  * Beware that if multiple properties of an entity view use {@link FetchStrategy#SELECT},
  * they will only be loaded together in one batch if the batch sizes match.
  *
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies that the results of queries for the annotated entity view should be cached in the query result cache of the criteria builder factory.
+ * Results are cached per entity view type, query and setting for the given time to live and are shared across transactions.
+ * A cached result is invalidated when one of the entity types it depends on is modified through a modification criteria builder or an updatable entity view
+ * of the same factory, or through {@link com.blazebit.persistence.QueryResultCache#invalidate(Class)}.
+ *
+ * Since the cached objects are shared, the annotated entity view and all its subviews must neither be updatable nor creatable.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableEntityView {
+
+    /**
+     * The number of milliseconds for which a result is cached.
+     *
+     * @return The time to live in milliseconds
+     */
+    public long timeToLive() default 60000L;
+
+}
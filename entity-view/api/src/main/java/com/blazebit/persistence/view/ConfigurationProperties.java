@@ -103,6 +103,35 @@ public final class ConfigurationProperties {
      * @since 1.3.0
      */
     public static final String EXPECT_BATCH_MODE = "com.blazebit.persistence.view.batch_mode";
+
+    /**
+     * A boolean flag to enable the adaptive choice of the batch size and batch mode of select fetched correlations.
+     * The entity view manager records per attribute the number of distinct correlation keys, the result rows per key and the query latency
+     * and chooses the batch size and the batch mode based on these statistics, unless they are explicitly configured for a query via {@link #DEFAULT_BATCH_SIZE} or {@link #EXPECT_BATCH_MODE}
+     * or the batch size is given by {@link BatchFetch}. The statistics are available through the {@link CorrelationBatchStatistics} service.
+     * Since batching requires the VALUES clause, the adaptive batch size is always 1 if the JPA provider does not support it.
+     * By default the adaptive choice is disabled i.e. the default value is <code>false</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.6.8
+     */
+    public static final String ADAPTIVE_BATCH_SIZE = "com.blazebit.persistence.view.adaptive_batch_size";
+
+    /**
+     * An integer value that defines the lower bound for adaptively chosen batch sizes when {@link #ADAPTIVE_BATCH_SIZE} is enabled.
+     * By default the value is <code>1</code>.
+     *
+     * @since 1.6.8
+     */
+    public static final String ADAPTIVE_BATCH_SIZE_MIN = "com.blazebit.persistence.view.adaptive_batch_size.min";
+
+    /**
+     * An integer value that defines the upper bound for adaptively chosen batch sizes when {@link #ADAPTIVE_BATCH_SIZE} is enabled.
+     * By default the value is <code>128</code>.
+     *
+     * @since 1.6.8
+     */
+    public static final String ADAPTIVE_BATCH_SIZE_MAX = "com.blazebit.persistence.view.adaptive_batch_size.max";
     /**
      * A boolean flag to make it possible to prepare the entity view updater cache on startup.
      * By default the eager loading of entity view updates is disabled to have a better startup performance.
@@ -156,6 +185,28 @@ public final class ConfigurationProperties {
      */
     public static final String UPDATER_STRICT_CASCADING_CHECK = "com.blazebit.persistence.view.updater.strict_cascading_check";
 
+    /**
+     * An integer value that defines the maximum number of statements that are sent as one JDBC batch when flushing collection elements one by one,
+     * e.g. the inserts for appended list elements or map entries. A value of <code>1</code> or lower disables the use of JDBC batching.
+     * Batching is only done if the JPA provider integration supports it, otherwise the statements are executed one by one.
+     * By default the value is <code>1</code> i.e. JDBC batching is disabled.
+     *
+     * @since 1.6.8
+     */
+    public static final String UPDATER_JDBC_BATCH_SIZE = "com.blazebit.persistence.view.updater.jdbc_batch_size";
+
+    /**
+     * A boolean flag to make it possible to disable the JDBC batching of update statements that use optimistic locking.
+     * Optimistic locking relies on the update count of every statement, so this should be disabled if the JDBC driver
+     * doesn't report the update counts of batched statements. If the driver doesn't report the update counts while this is enabled,
+     * flushing fails with an {@link IllegalStateException}.
+     * By default the batching of versioned updates is enabled i.e. the default value is <code>true</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.6.8
+     */
+    public static final String UPDATER_JDBC_BATCH_VERSIONED_DATA = "com.blazebit.persistence.view.updater.jdbc_batch_versioned_data";
+
     /**
      * A boolean flag that allows to switch from warnings to boot time validation errors when invalid plural attribute setters are encountered while the strict cascading check is enabled.
      * When <code>true</code>, a boot time validation error is thrown when encountering an invalid setter, otherwise just a warning.
@@ -257,6 +308,81 @@ public final class ConfigurationProperties {
      */
     public static final String CREATE_EMPTY_FLAT_VIEWS = "com.blazebit.persistence.view.create_empty_flat_views";
 
+    /**
+     * An integer value that defines the number of entity view roots that are transformed at once when streaming results via
+     * {@link com.blazebit.persistence.Queryable#getResultStream()}. Join fetched collections require all tuples of an entity view root
+     * to be adjacent, so the query must be ordered by the identifier of the entity view root. Select fetched correlations are batched per window.
+     * By default the value is 100 and can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.8
+     */
+    public static final String STREAMING_WINDOW_SIZE = "com.blazebit.persistence.view.streaming_window_size";
+
+    /**
+     * A {@link java.util.concurrent.Executor} instance that is used to execute independent {@link FetchStrategy#SELECT} correlation queries concurrently,
+     * for the attributes that opt into concurrent execution via {@link #CONCURRENT_CORRELATION}.
+     * Every concurrent task uses a separate entity manager created from the entity manager factory with the properties of the entity manager of the query, so correlated entities are detached.
+     * Since changes of a transaction would not be visible to the correlation queries of these entity managers,
+     * correlation queries are only executed concurrently when no transaction is active for the entity manager of the query.
+     * By default no executor is configured i.e. correlation queries are executed sequentially.
+     * The executor can only be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.8
+     */
+    public static final String CORRELATION_EXECUTOR = "com.blazebit.persistence.view.correlation_executor";
+
+    /**
+     * An integer value that defines the maximum number of concurrent tasks used for executing correlation queries when a {@link #CORRELATION_EXECUTOR} is configured.
+     * By default the value is 4 and can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.8
+     */
+    public static final String CORRELATION_PARALLELISM = "com.blazebit.persistence.view.correlation_parallelism";
+
+    /**
+     * A boolean flag to opt into the concurrent execution of {@link FetchStrategy#SELECT} correlation queries when a {@link #CORRELATION_EXECUTOR} is configured.
+     * By default the value is false and can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * To opt into concurrent execution for a specific attribute, append the attribute name after the "concurrent_correlation" like
+     * e.g. <code>com.blazebit.persistence.view.concurrent_correlation.subProperty</code>
+     *
+     * @since 1.6.8
+     */
+    public static final String CONCURRENT_CORRELATION = "com.blazebit.persistence.view.concurrent_correlation";
+
+    /**
+     * A {@link com.blazebit.persistence.view.spi.EntityManagerSupplier} instance that is used to obtain the entity manager for loading
+     * {@link FetchStrategy#LAZY} attributes of the entity views of a query. The supplier is invoked whenever a lazy attribute is loaded
+     * and the supplied entity manager is not closed, so it should supply e.g. the entity manager of the current request or transaction.
+     * By default, the entity manager of the query is used as long as it is open, otherwise a temporary entity manager is created from its entity manager factory
+     * with the properties that the entity manager of the query had at the time of the query execution.
+     * The supplier can only be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.8
+     */
+    public static final String LAZY_FETCH_ENTITY_MANAGER_SUPPLIER = "com.blazebit.persistence.view.lazy_fetch_entity_manager_supplier";
+
+    /**
+     * The name of a classpath resource containing a metamodel snapshot which is created by specifying {@link #METAMODEL_SNAPSHOT_OUTPUT}.
+     * The snapshot records a checksum over the entity view and entity classes, the JPA metamodel, the registered functions and the JPA provider
+     * as well as the configuration of a successfully validated metamodel. Configuration values without stable representation prevent the use of a snapshot.
+     * If the checksum matches during bootstrap, the expensive expression and managed type validation is skipped.
+     * By default the value is <code>META-INF/blaze-persistence/entity-view-metamodel.snapshot</code>. An empty value disables the lookup.
+     *
+     * @since 1.6.8
+     */
+    public static final String METAMODEL_SNAPSHOT = "com.blazebit.persistence.view.metamodel_snapshot";
+
+    /**
+     * The path of a file to which a metamodel snapshot is written after the metamodel was successfully validated during bootstrap.
+     * This is usually set during the build to produce a snapshot that is packaged as classpath resource named by {@link #METAMODEL_SNAPSHOT}.
+     * By default no snapshot is written.
+     *
+     * @since 1.6.8
+     */
+    public static final String METAMODEL_SNAPSHOT_OUTPUT = "com.blazebit.persistence.view.metamodel_snapshot_output";
+
     private ConfigurationProperties() {
     }
 }
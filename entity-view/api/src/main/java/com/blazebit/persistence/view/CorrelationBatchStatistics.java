@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.util.Map;
+
+/**
+ * Statistics about the batched queries of select fetched correlations that are shared between all queries of an entity view manager.
+ * The statistics are recorded per entity view root type and attribute path and are used to choose the batch size and the batch mode
+ * of an attribute adaptively, if no batch size or batch mode is configured for a query or via {@link BatchFetch}.
+ * The statistics are available through {@link EntityViewManager#getService(Class)} if {@link ConfigurationProperties#ADAPTIVE_BATCH_SIZE} is enabled.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface CorrelationBatchStatistics {
+
+    /**
+     * Returns the lower bound for adaptively chosen batch sizes.
+     *
+     * @return the minimum batch size
+     */
+    public int getMinBatchSize();
+
+    /**
+     * Returns the upper bound for adaptively chosen batch sizes which is <code>1</code> if the JPA provider does not support the VALUES clause.
+     *
+     * @return the maximum batch size
+     */
+    public int getMaxBatchSize();
+
+    /**
+     * Returns the statistics for the attribute with the given path relative to the given entity view root or <code>null</code> if nothing was recorded yet.
+     *
+     * @param viewRootClass The entity view class of the query root
+     * @param attributePath The attribute path relative to the query root
+     * @return The statistics or <code>null</code>
+     */
+    public AttributeStatistics getAttributeStatistics(Class<?> viewRootClass, String attributePath);
+
+    /**
+     * Returns the statistics for all attributes keyed by the entity view root class name and attribute path separated by <code>#</code>.
+     *
+     * @return The statistics of all attributes
+     */
+    public Map<String, AttributeStatistics> getAttributeStatistics();
+
+    /**
+     * Discards all recorded statistics.
+     */
+    public void clear();
+
+    /**
+     * The statistics and the current decisions for a correlated attribute.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public interface AttributeStatistics {
+
+        /**
+         * Returns the number of recorded executions.
+         *
+         * @return the number of recorded executions
+         */
+        public long getExecutions();
+
+        /**
+         * Returns the total number of executed correlation queries.
+         *
+         * @return the total number of executed correlation queries
+         */
+        public long getQueries();
+
+        /**
+         * Returns the total number of result rows of the correlation queries.
+         *
+         * @return the total number of result rows
+         */
+        public long getRows();
+
+        /**
+         * Returns the total time in nanoseconds that the correlation queries took.
+         *
+         * @return the total query time in nanoseconds
+         */
+        public long getNanos();
+
+        /**
+         * Returns the moving average of the number of distinct correlation keys per execution.
+         *
+         * @return the average number of distinct keys
+         */
+        public double getAverageKeys();
+
+        /**
+         * Returns the moving average of the ratio between distinct correlation keys and correlated tuples.
+         *
+         * @return the average distinct key ratio
+         */
+        public double getDistinctKeyRatio();
+
+        /**
+         * Returns the moving average of the number of result rows per correlation key.
+         *
+         * @return the average number of rows per key
+         */
+        public double getAverageRowsPerKey();
+
+        /**
+         * Returns the moving average of the latency of a correlation query in nanoseconds.
+         *
+         * @return the average query latency in nanoseconds
+         */
+        public double getAverageQueryNanos();
+
+        /**
+         * Returns the batch size that is currently chosen for the attribute.
+         *
+         * @return the current batch size
+         */
+        public int getBatchSize();
+
+        /**
+         * Returns the batch mode that is currently expected for the attribute,
+         * which is one of the values of {@link ConfigurationProperties#EXPECT_BATCH_MODE}.
+         *
+         * @return the current batch mode
+         */
+        public String getBatchMode();
+    }
+}
@@ -24,6 +24,7 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -345,6 +346,18 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public void saveFull(EntityManager entityManager, Object view);
 
+    /**
+     * Saves the entities which the given entity views map to.
+     * Issues partial updates if enabled for the given views.
+     * The update statements of views with the same type and the same dirty attributes are sent to the database as JDBC batch
+     * if the JPA provider integration supports it. Optimistic locking is still honored for every view.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.8
+     */
+    public void saveAll(EntityManager entityManager, Collection<?> views);
+
     /**
      * Saves the entity view state onto the given entity.
      * Issues a partial update if enabled for the given view.
@@ -410,6 +423,19 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public FlushOperationBuilder saveFullWith(EntityManager entityManager, Object view);
 
+    /**
+     * Saves the entities which the given entity views map to.
+     * Issues partial updates if enabled for the given views.
+     * The update statements of views with the same type and the same dirty attributes are sent to the database as JDBC batch
+     * if the JPA provider integration supports it. Optimistic locking is still honored for every view.
+     *
+     * @param entityManager The entity manager to use for the update
+     * @param views The views to use for updating
+     * @return A flush operation builder for further configuring the flush operation
+     * @since 1.6.8
+     */
+    public FlushOperationBuilder saveAllWith(EntityManager entityManager, Collection<?> views);
+
     /**
      * Saves the entity view state onto the given entity.
      * Issues a partial update if enabled for the given view.
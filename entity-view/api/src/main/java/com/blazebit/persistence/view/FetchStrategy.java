@@ -41,5 +41,20 @@ public enum FetchStrategy {
      *
      * @since 1.5.0
      */
-    MULTISET;
+    MULTISET,
+    /**
+     * A strategy that defines that the target elements are selected in separate queries like with {@link #SELECT}, but only when the attribute is accessed for the first time.
+     * The first access of the attribute of an entity view loads the attribute for all entity views of the same result list in batches,
+     * so that reading the attribute of every element does not cause a query per element. Attributes that are never accessed are never loaded.
+     *
+     * The attribute can be loaded after the entity manager that was used for querying the entity view was closed or the transaction ended.
+     * By default, the original entity manager is used if it is still open, otherwise a temporary entity manager of the same entity manager factory.
+     * An entity manager supplier can be configured via {@link ConfigurationProperties#LAZY_FETCH_ENTITY_MANAGER_SUPPLIER}.
+     *
+     * This strategy is only supported for non-primitive attributes of entity views that are neither updatable nor creatable
+     * and can't be used for constructor parameters or attributes with a type converter.
+     *
+     * @since 1.6.8
+     */
+    LAZY;
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.util.Map;
+
+/**
+ * Statistics about the {@link FetchStrategy#LAZY} fetched attributes that are shared between all queries of an entity view manager.
+ * The statistics are recorded per entity view root type and attribute path and tell how often the loading of a lazy attribute was deferred
+ * and how often the attribute was actually loaded, which helps deciding whether an attribute should rather be fetched eagerly.
+ * The statistics are available through {@link EntityViewManager#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface LazyFetchStatistics {
+
+    /**
+     * Returns the statistics for the attribute with the given path relative to the given entity view root or <code>null</code> if nothing was recorded yet.
+     *
+     * @param viewRootClass The entity view class of the query root
+     * @param attributePath The attribute path relative to the query root
+     * @return The statistics or <code>null</code>
+     */
+    public AttributeStatistics getAttributeStatistics(Class<?> viewRootClass, String attributePath);
+
+    /**
+     * Returns the statistics for all attributes keyed by the entity view root class name and attribute path separated by <code>#</code>.
+     *
+     * @return The statistics of all attributes
+     */
+    public Map<String, AttributeStatistics> getAttributeStatistics();
+
+    /**
+     * Returns the total number of lazy loads over all attributes.
+     *
+     * @return the total number of lazy loads
+     */
+    public long getLoads();
+
+    /**
+     * Discards all recorded statistics.
+     */
+    public void clear();
+
+    /**
+     * The statistics for a lazy fetched attribute.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public interface AttributeStatistics {
+
+        /**
+         * Returns the number of result lists for which the loading of the attribute was deferred.
+         *
+         * @return the number of deferrals
+         */
+        public long getDeferrals();
+
+        /**
+         * Returns the total number of tuples for which the loading of the attribute was deferred.
+         *
+         * @return the number of deferred tuples
+         */
+        public long getDeferredTuples();
+
+        /**
+         * Returns the number of lazy loads that were triggered by accessing the attribute.
+         *
+         * @return the number of lazy loads
+         */
+        public long getLoads();
+
+        /**
+         * Returns the total number of tuples that were loaded by lazy loads.
+         *
+         * @return the number of loaded tuples
+         */
+        public long getLoadedTuples();
+
+        /**
+         * Returns the total time in nanoseconds that the lazy loads took.
+         *
+         * @return the total load time in nanoseconds
+         */
+        public long getNanos();
+    }
+}
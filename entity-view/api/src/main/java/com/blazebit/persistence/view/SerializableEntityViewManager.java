@@ -24,6 +24,7 @@ import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import javax.persistence.EntityManager;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -199,6 +200,11 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         getEvm().saveFull(entityManager, view);
     }
 
+    @Override
+    public void saveAll(EntityManager entityManager, Collection<?> views) {
+        getEvm().saveAll(entityManager, views);
+    }
+
     @Override
     public void saveTo(EntityManager entityManager, Object view, Object entity) {
         getEvm().saveTo(entityManager, view, entity);
@@ -231,6 +237,11 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         return getEvm().saveFullWith(entityManager, view);
     }
 
+    @Override
+    public FlushOperationBuilder saveAllWith(EntityManager entityManager, Collection<?> views) {
+        return getEvm().saveAllWith(entityManager, views);
+    }
+
     @Override
     public FlushOperationBuilder saveWithTo(EntityManager entityManager, Object view, Object entity) {
         return getEvm().saveWithTo(entityManager, view, entity);
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Supplies the entity manager for loading {@link com.blazebit.persistence.view.FetchStrategy#LAZY} attributes.
+ * Can be configured via {@link com.blazebit.persistence.view.ConfigurationProperties#LAZY_FETCH_ENTITY_MANAGER_SUPPLIER}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface EntityManagerSupplier {
+
+    /**
+     * Returns an open entity manager for executing the queries of a lazy attribute load.
+     * The returned entity manager is not closed by the caller.
+     *
+     * @return The entity manager to use
+     */
+    EntityManager getEntityManager();
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi;
+
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+
+import java.util.Map;
+
+/**
+ * Resolves the names under which the attributes of an entity view are serialized, as used by {@link FieldSelectionSupport}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface EntityViewPropertyNameResolver {
+
+    /**
+     * Returns the attributes of the given view type by the name of the property they are serialized as.
+     * Attributes that are not serialized must not be contained. The returned map may use a custom key comparison
+     * e.g. to match property names case insensitively.
+     *
+     * @param viewType The view type
+     * @return The attributes by property name
+     */
+    public Map<String, MethodAttribute<?, ?>> resolveProperties(ManagedViewType<?> viewType);
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.PluralAttribute;
+import com.blazebit.persistence.view.metamodel.SingularAttribute;
+import com.blazebit.persistence.view.metamodel.Type;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Translates a field selection as commonly passed through a <code>fields</code> query parameter of REST endpoints
+ * to fetches of an {@link EntityViewSetting}, so that only the attributes that are serialized are fetched.
+ * The property names are resolved through a {@link EntityViewPropertyNameResolver} which is provided by the serialization integration.
+ * <p>
+ * A field selection is a comma separated list of property paths, which may use dots to refer to nested properties,
+ * and parenthesis to group multiple nested properties e.g. <code>id,name,owner(id,name),kittens.name</code>.
+ * Properties that are unknown are ignored, but a field selection of which no property can be resolved is rejected,
+ * because an entity view setting without fetches would fetch everything.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class FieldSelectionSupport {
+
+    private static final String DELIMITERS = ".,()";
+
+    private final EntityViewManager entityViewManager;
+    private final EntityViewPropertyNameResolver propertyNameResolver;
+    private final ConcurrentMap<Class<?>, Map<String, MethodAttribute<?, ?>>> properties = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new field selection support for the given entity view manager that resolves property names with the given resolver.
+     *
+     * @param entityViewManager The entity view manager
+     * @param propertyNameResolver The resolver for the property names of entity view attributes
+     */
+    public FieldSelectionSupport(EntityViewManager entityViewManager, EntityViewPropertyNameResolver propertyNameResolver) {
+        this.entityViewManager = entityViewManager;
+        this.propertyNameResolver = propertyNameResolver;
+    }
+
+    /**
+     * Creates a new {@link EntityViewSetting} for the given entity view class and applies the fetches for the given field selection.
+     *
+     * @param entityViewClass The entity view class
+     * @param fieldSelection The field selection or <code>null</code> to fetch everything
+     * @param <T> The entity view type
+     * @return A new entity view setting
+     * @throws IllegalArgumentException if the field selection is malformed or none of its properties can be resolved
+     */
+    public <T> EntityViewSetting<T, CriteriaBuilder<T>> createSetting(Class<T> entityViewClass, String fieldSelection) {
+        EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityViewClass);
+        applyFetches(setting, fieldSelection);
+        return setting;
+    }
+
+    /**
+     * Applies the fetches for the given field selection to the given {@link EntityViewSetting}.
+     *
+     * @param setting The entity view setting
+     * @param fieldSelection The field selection or <code>null</code> to fetch everything
+     * @throws IllegalArgumentException if the field selection is malformed or none of its properties can be resolved
+     */
+    public void applyFetches(EntityViewSetting<?, ?> setting, String fieldSelection) {
+        for (String fetch : getFetches(setting.getEntityViewClass(), fieldSelection)) {
+            setting.fetch(fetch);
+        }
+    }
+
+    /**
+     * Returns the entity view attribute paths for the given field selection.
+     * The result is empty only if the field selection is <code>null</code> or blank, which means that everything should be fetched.
+     *
+     * @param entityViewClass The entity view class
+     * @param fieldSelection The field selection or <code>null</code>
+     * @return The attribute paths to fetch
+     * @throws IllegalArgumentException if the field selection is malformed or none of its properties can be resolved
+     */
+    public Set<String> getFetches(Class<?> entityViewClass, String fieldSelection) {
+        ManagedViewType<?> viewType = getManagedViewType(entityViewClass);
+        Set<String> fetches = new LinkedHashSet<>();
+        if (fieldSelection != null && !fieldSelection.trim().isEmpty()) {
+            int index = parseSelection(fieldSelection, 0, viewType, "", fetches);
+            if (index != fieldSelection.length()) {
+                throw new IllegalArgumentException("Unexpected character '" + fieldSelection.charAt(index) + "' at position " + index + " in field selection: " + fieldSelection);
+            }
+            if (fetches.isEmpty()) {
+                throw new IllegalArgumentException("None of the properties of the field selection could be resolved for the entity view " + entityViewClass.getName() + ": " + fieldSelection);
+            }
+        }
+        return fetches;
+    }
+
+    /**
+     * Returns the field selection that corresponds to the fetches of the given {@link EntityViewSetting},
+     * or <code>null</code> if the setting fetches everything.
+     * Fetches of attributes that are not serialized are omitted.
+     *
+     * @param setting The entity view setting
+     * @return The field selection or <code>null</code>
+     */
+    public String getFieldSelection(EntityViewSetting<?, ?> setting) {
+        ManagedViewType<?> rootType = getManagedViewType(setting.getEntityViewClass());
+        StringBuilder sb = new StringBuilder();
+        OUTER: for (String fetch : setting.getFetches()) {
+            int start = sb.length();
+            if (start != 0) {
+                sb.append(',');
+            }
+            ManagedViewType<?> viewType = rootType;
+            String[] attributeNames = fetch.split("\\.");
+            for (int i = 0; i < attributeNames.length; i++) {
+                String attributeName = attributeNames[i];
+                String propertyName = viewType == null ? null : getPropertyName(viewType, attributeName);
+                if (propertyName == null) {
+                    sb.setLength(start);
+                    continue OUTER;
+                }
+                if (i != 0) {
+                    sb.append('.');
+                }
+                sb.append(propertyName);
+                viewType = getViewType(viewType.getAttribute(attributeName));
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /**
+     * Returns the entity view class of the given generic {@link EntityViewSetting} type, like the type of a parameter,
+     * if {@link #createSetting(Class, String)} can create a setting that is assignable to it, or <code>null</code> otherwise.
+     * Settings for a {@link PaginatedCriteriaBuilder} are not supported, because they require pagination parameters.
+     *
+     * @param settingType The generic entity view setting type
+     * @return The entity view class or <code>null</code>
+     */
+    public Class<?> getEntityViewClass(java.lang.reflect.Type settingType) {
+        if (!(settingType instanceof ParameterizedType) || ((ParameterizedType) settingType).getRawType() != EntityViewSetting.class) {
+            return null;
+        }
+        java.lang.reflect.Type[] typeArguments = ((ParameterizedType) settingType).getActualTypeArguments();
+        if (!(typeArguments[0] instanceof Class<?>) || entityViewManager.getMetamodel().managedView((Class<?>) typeArguments[0]) == null) {
+            return null;
+        }
+        if (typeArguments[1] instanceof ParameterizedType && ((ParameterizedType) typeArguments[1]).getRawType() == PaginatedCriteriaBuilder.class) {
+            return null;
+        }
+        return (Class<?>) typeArguments[0];
+    }
+
+    private ManagedViewType<?> getManagedViewType(Class<?> entityViewClass) {
+        ManagedViewType<?> viewType = entityViewManager.getMetamodel().managedView(entityViewClass);
+        if (viewType == null) {
+            throw new IllegalArgumentException("The class " + entityViewClass.getName() + " is not an entity view!");
+        }
+        return viewType;
+    }
+
+    private Map<String, MethodAttribute<?, ?>> getProperties(ManagedViewType<?> viewType) {
+        Map<String, MethodAttribute<?, ?>> viewProperties = properties.get(viewType.getJavaType());
+        if (viewProperties == null) {
+            viewProperties = propertyNameResolver.resolveProperties(viewType);
+            Map<String, MethodAttribute<?, ?>> existing = properties.putIfAbsent(viewType.getJavaType(), viewProperties);
+            if (existing != null) {
+                viewProperties = existing;
+            }
+        }
+        return viewProperties;
+    }
+
+    private String getPropertyName(ManagedViewType<?> viewType, String attributeName) {
+        for (Map.Entry<String, MethodAttribute<?, ?>> entry : getProperties(viewType).entrySet()) {
+            if (entry.getValue().getName().equals(attributeName)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private int parseSelection(String fieldSelection, int index, ManagedViewType<?> viewType, String prefix, Set<String> fetches) {
+        int length = fieldSelection.length();
+        while (index < length) {
+            // A null path means the property could not be resolved, a null view type means the path refers to a non-view attribute
+            String path = prefix;
+            ManagedViewType<?> currentType = viewType;
+            while (true) {
+                int start = index;
+                while (index < length && DELIMITERS.indexOf(fieldSelection.charAt(index)) == -1) {
+                    index++;
+                }
+                if (path != null && currentType != null) {
+                    MethodAttribute<?, ?> attribute = getProperties(currentType).get(fieldSelection.substring(start, index).trim());
+                    if (attribute == null) {
+                        path = null;
+                    } else {
+                        path = path.isEmpty() ? attribute.getName() : path + "." + attribute.getName();
+                        currentType = getViewType(attribute);
+                    }
+                }
+                if (index < length && fieldSelection.charAt(index) == '.') {
+                    index++;
+                } else {
+                    break;
+                }
+            }
+
+            if (index < length && fieldSelection.charAt(index) == '(') {
+                int fetchCount = fetches.size();
+                index = parseSelection(fieldSelection, index + 1, path == null ? null : currentType, path, fetches);
+                if (index == length || fieldSelection.charAt(index) != ')') {
+                    throw new IllegalArgumentException("Missing closing parenthesis in field selection: " + fieldSelection);
+                }
+                index++;
+                // Fetch the whole attribute if none of the nested properties could be resolved
+                if (path != null && fetchCount == fetches.size()) {
+                    fetches.add(path);
+                }
+            } else if (path != null) {
+                fetches.add(path);
+            }
+
+            if (index < length) {
+                char c = fieldSelection.charAt(index);
+                if (c == ',') {
+                    index++;
+                } else {
+                    // Either the closing parenthesis of the enclosing group or an error that is reported by the caller
+                    return index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static ManagedViewType<?> getViewType(MethodAttribute<?, ?> attribute) {
+        Type<?> type;
+        if (attribute instanceof PluralAttribute<?, ?, ?>) {
+            type = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+        } else {
+            type = ((SingularAttribute<?, ?>) attribute).getType();
+        }
+        if (type instanceof ManagedViewType<?>) {
+            return (ManagedViewType<?>) type;
+        }
+        return null;
+    }
+}
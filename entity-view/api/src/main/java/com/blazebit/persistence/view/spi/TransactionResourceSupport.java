@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.spi;
+
+/**
+ * A transaction access extension that allows to bind resources to the current transaction.
+ * Resources bound to a transaction are released when the transaction completes,
+ * which allows to associate state with a transaction without relying on the identity of the thread.
+ * Transaction accesses that don't implement this interface invoke synchronizations in registration order,
+ * also when the transaction is rolled back.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface TransactionResourceSupport {
+
+    /**
+     * Returns the resource bound to the current transaction for the given key or <code>null</code>.
+     *
+     * @param key The resource key
+     * @return The bound resource or <code>null</code>
+     */
+    public Object getResource(Object key);
+
+    /**
+     * Binds the given resource to the current transaction under the given key.
+     *
+     * @param key The resource key
+     * @param value The resource
+     */
+    public void putResource(Object key, Object value);
+
+}
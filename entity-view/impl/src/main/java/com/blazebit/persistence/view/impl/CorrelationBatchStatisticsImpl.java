@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The statistics about the batched queries of select fetched correlations that choose the batch size and the batch correlation mode adaptively.
+ *
+ * The batch size is chosen such that a single query covers the distinct correlation keys of a typical execution.
+ * It is rounded up to a power of two to keep the number of distinct query shapes small and halved as long as
+ * the expected number of result rows of a query exceeds {@value #TARGET_ROWS_PER_QUERY}.
+ * The batch correlation mode is the one that was last required by the correlation, which avoids building the correlation query twice.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class CorrelationBatchStatisticsImpl implements CorrelationBatchStatistics {
+
+    /**
+     * The number of result rows that a batched correlation query should not exceed.
+     */
+    public static final int TARGET_ROWS_PER_QUERY = 1024;
+    /**
+     * The weight of a new observation for the exponential moving averages.
+     */
+    private static final double SMOOTHING_FACTOR = 0.2D;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final ConcurrentMap<String, AttributeStatisticsImpl> statistics = new ConcurrentHashMap<>();
+
+    public CorrelationBatchStatisticsImpl(int minBatchSize, int maxBatchSize) {
+        if (minBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid minimum adaptive batch size: " + minBatchSize);
+        }
+        if (maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Invalid maximum adaptive batch size " + maxBatchSize + " which is lower than the minimum " + minBatchSize);
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public static String getKey(Class<?> viewRootClass, String attributePath) {
+        return viewRootClass.getName() + '#' + attributePath;
+    }
+
+    @Override
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Returns the batch size to use for the attribute with the given key or the given default clamped to the configured bounds if nothing was recorded yet.
+     *
+     * @param key The attribute key
+     * @param defaultBatchSize The batch size to use if no statistics are available
+     * @return The batch size to use
+     */
+    public int getBatchSize(String key, int defaultBatchSize) {
+        AttributeStatisticsImpl attributeStatistics = statistics.get(key);
+        if (attributeStatistics == null) {
+            return clamp(defaultBatchSize);
+        }
+        return attributeStatistics.getBatchSize();
+    }
+
+    /**
+     * Returns the batch correlation mode to expect for the attribute with the given key or the given default if nothing was recorded yet.
+     *
+     * @param key The attribute key
+     * @param defaultBatchCorrelationMode The batch correlation mode to use if no statistics are available
+     * @return The batch correlation mode to expect
+     */
+    public BatchCorrelationMode getBatchCorrelationMode(String key, BatchCorrelationMode defaultBatchCorrelationMode) {
+        AttributeStatisticsImpl attributeStatistics = statistics.get(key);
+        if (attributeStatistics == null) {
+            return defaultBatchCorrelationMode;
+        }
+        return attributeStatistics.getBatchCorrelationMode();
+    }
+
+    /**
+     * Records the observations of a correlation execution for the attribute with the given key.
+     *
+     * @param key The attribute key
+     * @param tuples The number of tuples that were correlated
+     * @param keys The number of distinct keys for which correlation queries were executed
+     * @param queries The number of executed queries
+     * @param rows The number of result rows of all queries
+     * @param nanos The time the queries took in nanoseconds
+     * @param batchCorrelationMode The batch correlation mode the queries required
+     */
+    public void record(String key, int tuples, int keys, int queries, long rows, long nanos, BatchCorrelationMode batchCorrelationMode) {
+        AttributeStatisticsImpl attributeStatistics = statistics.get(key);
+        if (attributeStatistics == null) {
+            attributeStatistics = new AttributeStatisticsImpl();
+            AttributeStatisticsImpl existing = statistics.putIfAbsent(key, attributeStatistics);
+            if (existing != null) {
+                attributeStatistics = existing;
+            }
+        }
+        attributeStatistics.record(this, tuples, keys, queries, rows, nanos, batchCorrelationMode);
+    }
+
+    @Override
+    public AttributeStatistics getAttributeStatistics(Class<?> viewRootClass, String attributePath) {
+        return statistics.get(getKey(viewRootClass, attributePath));
+    }
+
+    @Override
+    public Map<String, AttributeStatistics> getAttributeStatistics() {
+        return Collections.<String, AttributeStatistics>unmodifiableMap(new HashMap<>(statistics));
+    }
+
+    @Override
+    public void clear() {
+        statistics.clear();
+    }
+
+    int clamp(int batchSize) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, batchSize));
+    }
+
+    /**
+     * The statistics and the current decisions for a correlated attribute.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class AttributeStatisticsImpl implements AttributeStatistics {
+
+        private long executions;
+        private long queries;
+        private long rows;
+        private long nanos;
+        private double averageKeys;
+        private double distinctKeyRatio;
+        private double averageRowsPerKey;
+        private double averageQueryNanos;
+        private int batchSize;
+        private BatchCorrelationMode batchCorrelationMode;
+
+        synchronized void record(CorrelationBatchStatisticsImpl owner, int tuples, int keys, int queries, long rows, long nanos, BatchCorrelationMode batchCorrelationMode) {
+            boolean first = executions == 0;
+            this.executions++;
+            this.queries += queries;
+            this.rows += rows;
+            this.nanos += nanos;
+            this.averageKeys = average(first, averageKeys, keys);
+            if (tuples > 0) {
+                this.distinctKeyRatio = average(first, distinctKeyRatio, keys / (double) tuples);
+            }
+            if (keys > 0) {
+                this.averageRowsPerKey = average(first, averageRowsPerKey, rows / (double) keys);
+            }
+            if (queries > 0) {
+                this.averageQueryNanos = average(first, averageQueryNanos, nanos / (double) queries);
+            }
+            this.batchCorrelationMode = batchCorrelationMode;
+
+            // Cover the keys of a typical execution with a single query, rounded to a power of two to limit the number of distinct query shapes
+            int keyCount = (int) Math.max(1D, Math.min(owner.maxBatchSize, Math.ceil(averageKeys)));
+            int size = Integer.highestOneBit(keyCount * 2 - 1);
+            while (size > owner.minBatchSize && size * averageRowsPerKey > TARGET_ROWS_PER_QUERY) {
+                size >>= 1;
+            }
+            this.batchSize = owner.clamp(size);
+        }
+
+        private static double average(boolean first, double average, double value) {
+            if (first) {
+                return value;
+            }
+            return average + SMOOTHING_FACTOR * (value - average);
+        }
+
+        @Override
+        public synchronized long getExecutions() {
+            return executions;
+        }
+
+        @Override
+        public synchronized long getQueries() {
+            return queries;
+        }
+
+        @Override
+        public synchronized long getRows() {
+            return rows;
+        }
+
+        @Override
+        public synchronized long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public synchronized double getAverageKeys() {
+            return averageKeys;
+        }
+
+        @Override
+        public synchronized double getDistinctKeyRatio() {
+            return distinctKeyRatio;
+        }
+
+        @Override
+        public synchronized double getAverageRowsPerKey() {
+            return averageRowsPerKey;
+        }
+
+        @Override
+        public synchronized double getAverageQueryNanos() {
+            return averageQueryNanos;
+        }
+
+        @Override
+        public synchronized int getBatchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public synchronized String getBatchMode() {
+            return batchCorrelationMode == null ? null : batchCorrelationMode.name().toLowerCase();
+        }
+
+        synchronized BatchCorrelationMode getBatchCorrelationMode() {
+            return batchCorrelationMode;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "AttributeStatistics{" +
+                    "executions=" + executions +
+                    ", queries=" + queries +
+                    ", averageKeys=" + averageKeys +
+                    ", distinctKeyRatio=" + distinctKeyRatio +
+                    ", averageRowsPerKey=" + averageRowsPerKey +
+                    ", averageQueryNanos=" + averageQueryNanos +
+                    ", batchSize=" + batchSize +
+                    ", batchCorrelationMode=" + batchCorrelationMode +
+                    '}';
+        }
+    }
+}
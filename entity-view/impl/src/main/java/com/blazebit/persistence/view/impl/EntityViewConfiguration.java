@@ -20,6 +20,8 @@ import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.impl.macro.MutableEmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.impl.macro.MutableViewJpqlMacro;
 import com.blazebit.persistence.view.impl.metamodel.AbstractMethodAttribute;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.metamodel.MethodAttribute;
@@ -28,8 +30,11 @@ import com.blazebit.persistence.view.metamodel.SingularAttribute;
 import com.blazebit.persistence.view.metamodel.Type;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.spi.EntityManagerSupplier;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +42,7 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 /**
  * @author Christian Beikov
@@ -45,6 +51,8 @@ import java.util.TreeSet;
 public final class EntityViewConfiguration {
 
     private static final NavigableSet<String> EMPTY_SET = new TreeSet<>();
+    private static final int DEFAULT_STREAMING_WINDOW_SIZE = 100;
+    private static final int DEFAULT_CORRELATION_PARALLELISM = 4;
     private final FullQueryBuilder<?, ?> criteriaBuilder;
     private final ExpressionFactory expressionFactory;
     private final ViewJpqlMacro viewJpqlMacro;
@@ -53,18 +61,35 @@ public final class EntityViewConfiguration {
     private final NavigableSet<String> fetches;
     private final Map<String, Integer> batchSizeConfiguration;
     private final Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration;
+    private final int streamingWindowSize;
+    private final Executor correlationExecutor;
+    private final int correlationParallelism;
+    private final Map<String, Boolean> concurrentCorrelationConfiguration;
+    private final EntityManagerSupplier lazyFetchEntityManagerSupplier;
+    private final EntityManager entityManager;
+    private final CorrelationBatchStatisticsImpl correlationBatchStatistics;
+    private final Map<String, Object> parameterValues;
 
     public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, String attributePath) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath));
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath), (CorrelationBatchStatisticsImpl) null);
     }
 
     public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType));
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType), (CorrelationBatchStatisticsImpl) null);
     }
 
-    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches) {
+    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType, CorrelationBatchStatisticsImpl correlationBatchStatistics) {
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType), correlationBatchStatistics);
+    }
+
+    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches, CorrelationBatchStatisticsImpl correlationBatchStatistics) {
         Map<String, Integer> batchSizeConfiguration = new HashMap<String, Integer>(properties.size());
         Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration = new HashMap<>(properties.size());
+        int streamingWindowSize = DEFAULT_STREAMING_WINDOW_SIZE;
+        Executor correlationExecutor = null;
+        int correlationParallelism = DEFAULT_CORRELATION_PARALLELISM;
+        Map<String, Boolean> concurrentCorrelationConfiguration = new HashMap<>();
+        EntityManagerSupplier lazyFetchEntityManagerSupplier = null;
 
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             String key = entry.getKey();
@@ -98,6 +123,24 @@ public final class EntityViewConfiguration {
                     key = key.substring(ConfigurationProperties.EXPECT_BATCH_MODE.length() + 1);
                     expectBatchCorrelationValuesConfiguration.put(key, value);
                 }
+            } else if (key.equals(ConfigurationProperties.STREAMING_WINDOW_SIZE)) {
+                streamingWindowSize = getStreamingWindowSize(entry.getValue());
+            } else if (key.equals(ConfigurationProperties.CORRELATION_EXECUTOR)) {
+                correlationExecutor = getCorrelationExecutor(entry.getValue());
+            } else if (key.equals(ConfigurationProperties.CORRELATION_PARALLELISM)) {
+                correlationParallelism = getCorrelationParallelism(entry.getValue());
+            } else if (key.startsWith(ConfigurationProperties.CONCURRENT_CORRELATION)) {
+                Boolean value = getConcurrentCorrelation(key, entry.getValue());
+                if (key.length() == ConfigurationProperties.CONCURRENT_CORRELATION.length()) {
+                    concurrentCorrelationConfiguration.put("", value);
+                } else if (key.length() < ConfigurationProperties.CONCURRENT_CORRELATION.length() + 2) {
+                    throw new IllegalArgumentException("Invalid concurrent correlation configuration!");
+                } else {
+                    key = key.substring(ConfigurationProperties.CONCURRENT_CORRELATION.length() + 1);
+                    concurrentCorrelationConfiguration.put(key, value);
+                }
+            } else if (key.equals(ConfigurationProperties.LAZY_FETCH_ENTITY_MANAGER_SUPPLIER)) {
+                lazyFetchEntityManagerSupplier = getLazyFetchEntityManagerSupplier(entry.getValue());
             }
         }
 
@@ -109,19 +152,35 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = Collections.unmodifiableMap(batchSizeConfiguration);
         this.expectBatchCorrelationValuesConfiguration = Collections.unmodifiableMap(expectBatchCorrelationValuesConfiguration);
+        this.streamingWindowSize = streamingWindowSize;
+        this.correlationExecutor = correlationExecutor;
+        this.correlationParallelism = correlationParallelism;
+        this.concurrentCorrelationConfiguration = Collections.unmodifiableMap(concurrentCorrelationConfiguration);
+        this.lazyFetchEntityManagerSupplier = lazyFetchEntityManagerSupplier;
+        this.entityManager = null;
+        this.correlationBatchStatistics = correlationBatchStatistics;
+        this.parameterValues = null;
         this.criteriaBuilder.registerMacro("view", viewJpqlMacro);
         this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
     }
 
-    private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, NavigableSet<String> fetches, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+    private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, NavigableSet<String> fetches, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Executor correlationExecutor, EntityManager entityManager, Map<String, Object> parameterValues) {
         this.criteriaBuilder = criteriaBuilder;
         this.expressionFactory = original.expressionFactory;
-        this.viewJpqlMacro = original.viewJpqlMacro;
+        this.viewJpqlMacro = viewJpqlMacro;
         this.embeddingViewJpqlMacro = embeddingViewJpqlMacro;
         this.optionalParameters = original.optionalParameters;
         this.fetches = fetches;
         this.batchSizeConfiguration = original.batchSizeConfiguration;
         this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.streamingWindowSize = original.streamingWindowSize;
+        this.correlationExecutor = correlationExecutor;
+        this.correlationParallelism = original.correlationParallelism;
+        this.concurrentCorrelationConfiguration = original.concurrentCorrelationConfiguration;
+        this.lazyFetchEntityManagerSupplier = original.lazyFetchEntityManagerSupplier;
+        this.entityManager = entityManager;
+        this.correlationBatchStatistics = original.correlationBatchStatistics;
+        this.parameterValues = parameterValues;
     }
 
     private static NavigableSet<String> getFetches(Collection<String> fetches, String attributePath) {
@@ -179,8 +238,8 @@ public final class EntityViewConfiguration {
                         } else {
                             t = ((SingularAttribute<?, ?>) attribute).getType();
                         }
-                        // For select and subselect correlation fetched attributes we must add the correlated attribute path also to fetch the correlation basis expression
-                        if ((attribute.getFetchStrategy() == FetchStrategy.SELECT || attribute.getFetchStrategy() == FetchStrategy.SUBSELECT)
+                        // For select, subselect and lazy correlation fetched attributes we must add the correlated attribute path also to fetch the correlation basis expression
+                        if ((attribute.getFetchStrategy() == FetchStrategy.SELECT || attribute.getFetchStrategy() == FetchStrategy.SUBSELECT || attribute.getFetchStrategy() == FetchStrategy.LAZY)
                                 && ((AbstractMethodAttribute<?, ?>) attribute).getCorrelationProviderFactory() != null) {
                             filteredFetches.add(sb.toString());
                         }
@@ -215,7 +274,33 @@ public final class EntityViewConfiguration {
     }
 
     public EntityViewConfiguration forSubview(FullQueryBuilder<?, ?> criteriaBuilder, String attributePath, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
-        return new EntityViewConfiguration(this, criteriaBuilder, getFetches(fetches, attributePath), embeddingViewJpqlMacro);
+        return new EntityViewConfiguration(this, criteriaBuilder, getFetches(fetches, attributePath), viewJpqlMacro, embeddingViewJpqlMacro, correlationExecutor, entityManager, criteriaBuilder == this.criteriaBuilder ? parameterValues : null);
+    }
+
+    /**
+     * Returns a copy of this configuration for running a correlation concurrently to others through the given entity manager.
+     * The copy has its own macro instances as these are mutated during query building and doesn't allow further concurrent execution,
+     * as waiting for nested tasks of the same executor could exhaust it.
+     *
+     * @param entityManager The entity manager to use for the correlation queries
+     * @return The configuration for the concurrent execution
+     */
+    public EntityViewConfiguration forConcurrentExecution(EntityManager entityManager) {
+        MutableViewJpqlMacro viewJpqlMacro = new MutableViewJpqlMacro(this.viewJpqlMacro.getViewPath());
+        MutableEmbeddingViewJpqlMacro embeddingViewJpqlMacro = new MutableEmbeddingViewJpqlMacro(this.embeddingViewJpqlMacro.getEmbeddingViewPath());
+        return new EntityViewConfiguration(this, criteriaBuilder, fetches, viewJpqlMacro, embeddingViewJpqlMacro, null, entityManager, parameterValues);
+    }
+
+    /**
+     * Returns a copy of this configuration for running a correlation at a later point in time, when the criteria builder might have been changed or reused.
+     * The copy captures the current parameter values of the criteria builder and has its own macro instances.
+     *
+     * @return The configuration for the deferred execution
+     */
+    public EntityViewConfiguration forDeferredExecution() {
+        MutableViewJpqlMacro viewJpqlMacro = new MutableViewJpqlMacro(this.viewJpqlMacro.getViewPath());
+        MutableEmbeddingViewJpqlMacro embeddingViewJpqlMacro = new MutableEmbeddingViewJpqlMacro(this.embeddingViewJpqlMacro.getEmbeddingViewPath());
+        return new EntityViewConfiguration(this, criteriaBuilder, fetches, viewJpqlMacro, embeddingViewJpqlMacro, correlationExecutor, entityManager, getParameterValues());
     }
 
     public FullQueryBuilder<?, ?> getCriteriaBuilder() {
@@ -230,6 +315,22 @@ public final class EntityViewConfiguration {
         return optionalParameters;
     }
 
+    /**
+     * Returns the values of the parameters of the criteria builder, which are the values captured by {@link #forDeferredExecution()} or the current values.
+     *
+     * @return The parameter values by parameter name
+     */
+    public Map<String, Object> getParameterValues() {
+        if (parameterValues != null) {
+            return parameterValues;
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (Parameter<?> parameter : criteriaBuilder.getParameters()) {
+            values.put(parameter.getName(), criteriaBuilder.getParameterValue(parameter.getName()));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
     public Set<String> getFetches() {
         return fetches;
     }
@@ -242,6 +343,10 @@ public final class EntityViewConfiguration {
         return fetchedPath != null && (fetchedPath.length() == attributePath.length() || fetchedPath.startsWith(attributePath) && fetchedPath.length() > attributePath.length() && fetchedPath.charAt(attributePath.length()) == '.');
     }
 
+    public EntityManager getEntityManager() {
+        return entityManager == null ? criteriaBuilder.getEntityManager() : entityManager;
+    }
+
     public ViewJpqlMacro getViewJpqlMacro() {
         return viewJpqlMacro;
     }
@@ -270,6 +375,93 @@ public final class EntityViewConfiguration {
         return value;
     }
 
+    public CorrelationBatchStatisticsImpl getCorrelationBatchStatistics() {
+        return correlationBatchStatistics;
+    }
+
+    public int getStreamingWindowSize() {
+        return streamingWindowSize;
+    }
+
+    private static int getStreamingWindowSize(Object value) {
+        Integer val = null;
+        if (value instanceof Integer) {
+            val = (Integer) value;
+        } else if (value instanceof String) {
+            val = Integer.parseInt(value.toString());
+        }
+
+        if (val == null || val < 1) {
+            throw new IllegalArgumentException("Invalid streaming window size configuration: " + value);
+        }
+
+        return val;
+    }
+
+    public Executor getCorrelationExecutor() {
+        return correlationExecutor;
+    }
+
+    public int getCorrelationParallelism() {
+        return correlationParallelism;
+    }
+
+    public EntityManagerSupplier getLazyFetchEntityManagerSupplier() {
+        return lazyFetchEntityManagerSupplier;
+    }
+
+    public boolean isConcurrentCorrelation(String attributePath) {
+        Boolean value = concurrentCorrelationConfiguration.get(attributePath);
+        if (value == null) {
+            value = concurrentCorrelationConfiguration.get("");
+        }
+        // Concurrent execution must be enabled explicitly, as the correlated entities are detached
+        return value != null && value;
+    }
+
+    private static Executor getCorrelationExecutor(Object value) {
+        if (value == null || value instanceof Executor) {
+            return (Executor) value;
+        }
+        throw new IllegalArgumentException("Invalid correlation executor configuration: " + value);
+    }
+
+    private static EntityManagerSupplier getLazyFetchEntityManagerSupplier(Object value) {
+        if (value == null || value instanceof EntityManagerSupplier) {
+            return (EntityManagerSupplier) value;
+        }
+        throw new IllegalArgumentException("Invalid lazy fetch entity manager supplier configuration: " + value);
+    }
+
+    private static Boolean getConcurrentCorrelation(String key, Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            String s = (String) value;
+            if ("true".equalsIgnoreCase(s)) {
+                return Boolean.TRUE;
+            } else if ("false".equalsIgnoreCase(s)) {
+                return Boolean.FALSE;
+            }
+        }
+        throw new IllegalArgumentException("Invalid concurrent correlation configuration " + value + " for key: " + key);
+    }
+
+    private static int getCorrelationParallelism(Object value) {
+        Integer val = null;
+        if (value instanceof Integer) {
+            val = (Integer) value;
+        } else if (value instanceof String) {
+            val = Integer.parseInt(value.toString());
+        }
+
+        if (val == null || val < 1) {
+            throw new IllegalArgumentException("Invalid correlation parallelism configuration: " + value);
+        }
+
+        return val;
+    }
+
     private Integer getBatchSize(String key, Object value) {
         Integer val = null;
         if (value instanceof Integer) {
@@ -296,7 +488,7 @@ public final class EntityViewConfiguration {
         return getExpectBatchCorrelationValues(attributePath, BatchCorrelationMode.VALUES);
     }
 
-    private BatchCorrelationMode getExpectBatchCorrelationValues(String attributePath, BatchCorrelationMode defaultValue) {
+    public BatchCorrelationMode getExpectBatchCorrelationValues(String attributePath, BatchCorrelationMode defaultValue) {
         BatchCorrelationMode value = expectBatchCorrelationValuesConfiguration.get(attributePath);
         if (value == null) {
             value = expectBatchCorrelationValuesConfiguration.get("");
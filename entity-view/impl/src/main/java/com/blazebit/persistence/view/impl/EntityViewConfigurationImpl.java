@@ -71,11 +71,17 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
         properties.put(ConfigurationProperties.MANAGED_TYPE_VALIDATION_DISABLED, "false");
         properties.put(ConfigurationProperties.UPDATER_DISALLOW_OWNED_UPDATABLE_SUBVIEW, "true");
         properties.put(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK, "true");
+        properties.put(ConfigurationProperties.UPDATER_JDBC_BATCH_SIZE, "1");
+        properties.put(ConfigurationProperties.UPDATER_JDBC_BATCH_VERSIONED_DATA, "true");
+        properties.put(ConfigurationProperties.ADAPTIVE_BATCH_SIZE, "false");
+        properties.put(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MIN, "1");
+        properties.put(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MAX, "128");
         properties.put(ConfigurationProperties.UPDATER_ERROR_ON_INVALID_PLURAL_SETTER, "false");
         properties.put(ConfigurationProperties.STATIC_BUILDER_SCANNING_DISABLED, "false");
         properties.put(ConfigurationProperties.STATIC_IMPLEMENTATION_SCANNING_DISABLED, "false");
         properties.put(ConfigurationProperties.STATIC_METAMODEL_SCANNING_DISABLED, "false");
         properties.put(ConfigurationProperties.CREATE_EMPTY_FLAT_VIEWS, "true");
+        properties.put(ConfigurationProperties.METAMODEL_SNAPSHOT, "META-INF/blaze-persistence/entity-view-metamodel.snapshot");
 
         typeTestValues.put(boolean.class, true);
         typeTestValues.put(byte.class, Byte.MAX_VALUE);
@@ -98,8 +104,13 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
         typeTestValues.put(java.sql.Date.class, new java.sql.Date(1));
         typeTestValues.put(Time.class, new Time(1000));
         typeTestValues.put(Timestamp.class, new Timestamp(1));
-        typeTestValues.put(Calendar.class, Calendar.getInstance());
-        typeTestValues.put(GregorianCalendar.class, new GregorianCalendar());
+        // Use a fixed instant so that the test values are stable for the metamodel snapshot checksum
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(1);
+        GregorianCalendar gregorianCalendar = new GregorianCalendar();
+        gregorianCalendar.setTimeInMillis(1);
+        typeTestValues.put(Calendar.class, calendar);
+        typeTestValues.put(GregorianCalendar.class, gregorianCalendar);
         typeTestValues.put(byte[].class, new byte[] { Byte.MAX_VALUE });
         typeTestValues.put(Byte[].class, new Byte[] { Byte.MAX_VALUE });
         typeTestValues.put(char[].class, new char[] { Character.MAX_VALUE });
@@ -23,6 +23,7 @@ import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.Path;
+import com.blazebit.persistence.QueryResultCache;
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.expression.AbstractCachingExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
@@ -30,18 +31,24 @@ import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.MacroFunction;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.PackageOpener;
 import com.blazebit.persistence.view.AttributeFilterProvider;
+import com.blazebit.persistence.view.CacheableEntityView;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.ConvertOperationBuilder;
 import com.blazebit.persistence.view.ConvertOption;
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
 import com.blazebit.persistence.view.EntityViewBuilder;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.FetchStrategy;
 import com.blazebit.persistence.view.FlushOperationBuilder;
+import com.blazebit.persistence.view.LazyFetchStatistics;
+import com.blazebit.persistence.view.MappingCorrelated;
 import com.blazebit.persistence.view.PostCommitListener;
 import com.blazebit.persistence.view.PostPersistEntityListener;
 import com.blazebit.persistence.view.PostPersistListener;
@@ -91,13 +98,18 @@ import com.blazebit.persistence.view.impl.filter.StartsWithIgnoreCaseFilterImpl;
 import com.blazebit.persistence.view.impl.macro.DefaultViewRootJpqlMacro;
 import com.blazebit.persistence.view.impl.mapper.ConvertOperationBuilderImpl;
 import com.blazebit.persistence.view.impl.mapper.ViewMapper;
+import com.blazebit.persistence.view.impl.metamodel.AbstractAttribute;
 import com.blazebit.persistence.view.impl.metamodel.AbstractMethodAttribute;
+import com.blazebit.persistence.view.impl.metamodel.AttributeMapping;
 import com.blazebit.persistence.view.impl.metamodel.ConstrainedAttribute;
+import com.blazebit.persistence.view.impl.metamodel.ConstructorMapping;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImpl;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
 import com.blazebit.persistence.view.impl.metamodel.MetamodelBuildingContext;
 import com.blazebit.persistence.view.impl.metamodel.MetamodelBuildingContextImpl;
+import com.blazebit.persistence.view.impl.metamodel.MetamodelSnapshot;
+import com.blazebit.persistence.view.impl.metamodel.ViewMapping;
 import com.blazebit.persistence.view.impl.metamodel.ViewMetamodelImpl;
 import com.blazebit.persistence.view.impl.metamodel.ViewTypeImpl;
 import com.blazebit.persistence.view.impl.objectbuilder.ContainerAccumulator;
@@ -110,6 +122,7 @@ import com.blazebit.persistence.view.impl.update.EntityViewUpdaterImpl;
 import com.blazebit.persistence.view.impl.update.Listeners;
 import com.blazebit.persistence.view.impl.update.SimpleUpdateContext;
 import com.blazebit.persistence.view.impl.update.UpdateContext;
+import com.blazebit.persistence.view.impl.update.UpdateQueryBatch;
 import com.blazebit.persistence.view.impl.update.flush.CompositeAttributeFlusher;
 import com.blazebit.persistence.view.impl.update.listener.ViewInstancePostCommitListener;
 import com.blazebit.persistence.view.impl.update.listener.ViewInstancePostPersistEntityListener;
@@ -131,10 +144,13 @@ import com.blazebit.persistence.view.metamodel.MethodMultiListAttribute;
 import com.blazebit.persistence.view.metamodel.MethodMultiMapAttribute;
 import com.blazebit.persistence.view.metamodel.MethodPluralAttribute;
 import com.blazebit.persistence.view.metamodel.MethodSingularAttribute;
+import com.blazebit.persistence.view.metamodel.ParameterAttribute;
 import com.blazebit.persistence.view.metamodel.PluralAttribute;
 import com.blazebit.persistence.view.metamodel.SingularAttribute;
+import com.blazebit.persistence.view.metamodel.Type;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.spi.EntityViewRootMapping;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
@@ -153,6 +169,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -212,6 +229,15 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final Map<ViewBuilderKey, Constructor<? extends EntityViewBuilder<?>>> viewBuilderClasses;
     private final boolean unsafeDisabled;
     private final boolean strictCascadingCheck;
+    private final int updaterJdbcBatchSize;
+    private final boolean updaterJdbcBatchVersionedData;
+    private final CorrelationBatchStatisticsImpl correlationBatchStatistics;
+    private final boolean valuesClauseSupported;
+    private final LazyFetchStatisticsImpl lazyFetchStatistics;
+    private final QueryResultCache resultCache;
+    private final ConcurrentMap<ManagedViewType<?>, Set<Class<?>>> dependentEntityClasses;
+    private final Map<Class<?>, Long> resultCacheTimeToLives;
+    private final Set<ManagedViewType<?>> resultCacheableViewTypes;
 
     public EntityViewManagerImpl(EntityViewConfigurationImpl config, CriteriaBuilderFactory cbf) {
         this.cbf = cbf;
@@ -223,6 +249,24 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.entityIdAccessor = new EntityIdAttributeAccessor(jpaProvider);
         this.unsafeDisabled = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
         this.strictCascadingCheck = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK)));
+        this.updaterJdbcBatchSize = parseUpdaterJdbcBatchSize(config.getProperty(ConfigurationProperties.UPDATER_JDBC_BATCH_SIZE));
+        this.updaterJdbcBatchVersionedData = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_JDBC_BATCH_VERSIONED_DATA)));
+        ExtendedQuerySupport extendedQuerySupport = cbf.getService(ExtendedQuerySupport.class);
+        this.valuesClauseSupported = extendedQuerySupport != null && extendedQuerySupport.supportsAdvancedSql();
+        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.ADAPTIVE_BATCH_SIZE)))) {
+            if (!valuesClauseSupported) {
+                // Batching more than a single correlation key per query requires the VALUES clause
+                this.correlationBatchStatistics = new CorrelationBatchStatisticsImpl(1, 1);
+            } else {
+                this.correlationBatchStatistics = new CorrelationBatchStatisticsImpl(
+                        parseAdaptiveBatchSize(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MIN, config.getProperty(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MIN), 1),
+                        parseAdaptiveBatchSize(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MAX, config.getProperty(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MAX), 128)
+                );
+            }
+        } else {
+            this.correlationBatchStatistics = null;
+        }
+        this.lazyFetchStatistics = new LazyFetchStatisticsImpl();
         this.proxyFactory = new ProxyFactory(unsafeDisabled, strictCascadingCheck, packageOpener);
         this.transactionSupport = config.getTransactionSupport();
         this.optionalParameters = Collections.unmodifiableMap(new HashMap<>(config.getOptionalParameters()));
@@ -250,6 +294,42 @@ public class EntityViewManagerImpl implements EntityViewManager {
             registeredFunctions.put(entry.getKey().toLowerCase(), entry.getValue());
         }
 
+        String snapshotResource = config.getProperty(ConfigurationProperties.METAMODEL_SNAPSHOT);
+        String snapshotOutput = config.getProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_OUTPUT);
+        String metamodelChecksum = null;
+        boolean expressionsValidated = validateExpressions;
+        boolean managedTypesValidated = validateManagedTypes;
+        if (snapshotOutput != null && !validateExpressions && !validateManagedTypes) {
+            throw new IllegalArgumentException("Can't write an entity view metamodel snapshot when the expression and managed type validation is disabled!");
+        }
+        if (validateExpressions || validateManagedTypes) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null) {
+                classLoader = EntityViewManagerImpl.class.getClassLoader();
+            }
+            MetamodelSnapshot snapshot = MetamodelSnapshot.load(classLoader, snapshotResource);
+            if (snapshot != null || snapshotOutput != null) {
+                metamodelChecksum = MetamodelSnapshot.computeChecksum(
+                        classLoader,
+                        config.getBootContext().getViewMappingMap().keySet(),
+                        entityMetamodel,
+                        config.getProperties(),
+                        registeredFunctions,
+                        config.getBasicUserTypes(),
+                        config.getTypeConverters(),
+                        getCorrelationProviders(config.getBootContext().getViewMappingMap().values()),
+                        config.getTypeTestValues(),
+                        dbmsDialect,
+                        jpaProvider
+                );
+                // Skip the validations that were already done for the exact same classes and configuration
+                if (snapshot != null && metamodelChecksum != null && metamodelChecksum.equals(snapshot.getChecksum())) {
+                    validateExpressions = validateExpressions && !snapshot.isExpressionsValidated();
+                    validateManagedTypes = validateManagedTypes && !snapshot.isManagedTypesValidated();
+                }
+            }
+        }
+
         MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
                 config.getProperties(),
                 new DefaultBasicUserTypeRegistry(config.getUserTypeRegistry(), cbf),
@@ -287,7 +367,18 @@ public class EntityViewManagerImpl implements EntityViewManager {
             throw new IllegalArgumentException("An error happened during entity view metamodel building!", exception);
         }
 
+        if (snapshotOutput != null) {
+            if (metamodelChecksum == null) {
+                throw new IllegalArgumentException("Can't write an entity view metamodel snapshot because a configuration property or type test value has no stable representation or a user type, type converter or correlation provider is implemented by a synthetic class!");
+            }
+            new MetamodelSnapshot(metamodelChecksum, expressionsValidated, managedTypesValidated).write(snapshotOutput);
+        }
+
         this.metamodel = viewMetamodel;
+        this.resultCache = cbf.getService(QueryResultCache.class);
+        this.dependentEntityClasses = new ConcurrentHashMap<>();
+        this.resultCacheableViewTypes = new HashSet<>();
+        this.resultCacheTimeToLives = resolveResultCacheTimeToLives(viewMetamodel, resultCacheableViewTypes);
         this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
         this.objectBuilderCache = new ConcurrentHashMap<>();
         this.entityViewUpdaterCache = new ConcurrentHashMap<>();
@@ -460,6 +551,32 @@ public class EntityViewManagerImpl implements EntityViewManager {
         }
     }
 
+    private static Collection<Class<?>> getCorrelationProviders(Collection<ViewMapping> viewMappings) {
+        Set<Class<?>> correlationProviders = new HashSet<>();
+        for (ViewMapping viewMapping : viewMappings) {
+            for (AttributeMapping attributeMapping : viewMapping.getMethodAttributes().values()) {
+                addCorrelationProvider(correlationProviders, attributeMapping);
+            }
+            for (ConstructorMapping constructorMapping : viewMapping.getConstructorMappings().values()) {
+                for (AttributeMapping attributeMapping : constructorMapping.getParameterMappings()) {
+                    addCorrelationProvider(correlationProviders, attributeMapping);
+                }
+            }
+            for (EntityViewRootMapping entityViewRoot : viewMapping.getEntityViewRoots()) {
+                if (entityViewRoot.getCorrelationProvider() != null) {
+                    correlationProviders.add(entityViewRoot.getCorrelationProvider());
+                }
+            }
+        }
+        return correlationProviders;
+    }
+
+    private static void addCorrelationProvider(Set<Class<?>> correlationProviders, AttributeMapping attributeMapping) {
+        if (attributeMapping.getMapping() instanceof MappingCorrelated) {
+            correlationProviders.add(((MappingCorrelated) attributeMapping.getMapping()).correlator());
+        }
+    }
+
     private static String getMetamodelClassName(Class<?> javaType) {
         return getGeneratedClassName(javaType, META_MODEL_CLASS_NAME_SUFFIX);
     }
@@ -760,6 +877,12 @@ public class EntityViewManagerImpl implements EntityViewManager {
             return (T) transactionSupport;
         } else if (CriteriaBuilderFactory.class.isAssignableFrom(serviceClass)) {
             return (T) cbf;
+        } else if (CorrelationBatchStatistics.class.equals(serviceClass) || CorrelationBatchStatisticsImpl.class.equals(serviceClass)) {
+            return (T) correlationBatchStatistics;
+        } else if (LazyFetchStatistics.class.equals(serviceClass) || LazyFetchStatisticsImpl.class.equals(serviceClass)) {
+            return (T) lazyFetchStatistics;
+        } else if (QueryResultCache.class.equals(serviceClass)) {
+            return (T) resultCache;
         }
         return cbf.getService(serviceClass);
     }
@@ -1075,6 +1198,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
         update(em, view, true);
     }
 
+    @Override
+    public void saveAll(EntityManager em, Collection<?> views) {
+        updateAll(new DefaultUpdateContext(this, em, false, false, false, true, null, views, null), views);
+    }
+
     @Override
     public void saveTo(EntityManager em, Object view, Object entity) {
         updateTo(em, view, entity, false);
@@ -1113,6 +1241,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
                     }
                 }
                 updater.remove(context, proxy);
+                invalidateResultCache(context, viewType);
             }
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
@@ -1133,6 +1262,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
         EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
         try {
             updater.remove(context, viewId);
+            invalidateResultCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
@@ -1167,6 +1297,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return new DefaultUpdateContext(this, em, true, false, false, null, view, null);
     }
 
+    @Override
+    public FlushOperationBuilder saveAllWith(EntityManager em, Collection<?> views) {
+        return new DefaultUpdateContext(this, em, false, false, false, true, null, views, null);
+    }
+
     @Override
     public FlushOperationBuilder saveWithTo(EntityManager em, Object view, Object entity) {
         return new DefaultUpdateContext(this, em, false, true, false, null, view, entity);
@@ -1192,6 +1327,40 @@ public class EntityViewManagerImpl implements EntityViewManager {
             } else {
                 updater.executeUpdate(context, updatableProxy);
             }
+            invalidateResultCache(context, viewType);
+        } catch (Throwable t) {
+            context.getTransactionAccess().markRollbackOnly();
+            ExceptionUtils.doThrow(t);
+        }
+    }
+
+    public void updateAll(UpdateContext context, Collection<?> views) {
+        UpdateQueryBatch batch = new UpdateQueryBatch(context);
+        int orphanRemovalStartIndex = context.getOrphanRemovalDeleters().size();
+        Set<ManagedViewType<?>> flushedViewTypes = new HashSet<>();
+        try {
+            for (Object view : views) {
+                if (!(view instanceof MutableStateTrackable)) {
+                    throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
+                }
+
+                MutableStateTrackable updatableProxy = (MutableStateTrackable) view;
+                Class<?> entityViewClass = updatableProxy.$$_getEntityViewClass();
+                ManagedViewTypeImplementor<?> viewType = metamodel.managedViewOrError(entityViewClass);
+                EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
+                if (updatableProxy.$$_isNew()) {
+                    updater.executePersist(context, updatableProxy);
+                } else {
+                    updater.executeUpdate(context, updatableProxy, batch);
+                }
+                flushedViewTypes.add(viewType);
+            }
+            batch.flush();
+            // Orphans can only be removed after the owners were updated
+            context.removeOrphans(orphanRemovalStartIndex);
+            for (ManagedViewType<?> viewType : flushedViewTypes) {
+                invalidateResultCache(context, viewType);
+            }
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
@@ -1212,6 +1381,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
         EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
         try {
             updater.executeUpdate(context, entity, updatableProxy);
+            invalidateResultCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
@@ -1227,7 +1397,9 @@ public class EntityViewManagerImpl implements EntityViewManager {
         Class<?> entityViewClass = updatableProxy.$$_getEntityViewClass();
         ManagedViewTypeImplementor<?> viewType = metamodel.managedViewOrError(entityViewClass);
         EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
-        return updater.executePersist(context, updatableProxy);
+        Object entity = updater.executePersist(context, updatableProxy);
+        invalidateResultCache(context, viewType);
+        return entity;
     }
 
     @Override
@@ -1248,6 +1420,188 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return supportsTransientReference;
     }
 
+    public int getUpdaterJdbcBatchSize() {
+        return updaterJdbcBatchSize;
+    }
+
+    public boolean isUpdaterJdbcBatchVersionedData() {
+        return updaterJdbcBatchVersionedData;
+    }
+
+    public CorrelationBatchStatisticsImpl getCorrelationBatchStatistics() {
+        return correlationBatchStatistics;
+    }
+
+    public boolean isValuesClauseSupported() {
+        return valuesClauseSupported;
+    }
+
+    public LazyFetchStatisticsImpl getLazyFetchStatistics() {
+        return lazyFetchStatistics;
+    }
+
+    /**
+     * Returns the number of milliseconds for which results of the given view type are cached or <code>0</code> if they are not cached.
+     *
+     * @param viewType The view type
+     * @return The time to live of cached results
+     */
+    public long getResultCacheTimeToLive(ManagedViewType<?> viewType) {
+        if (resultCache == null) {
+            return 0L;
+        }
+        Long timeToLive = resultCacheTimeToLives.get(viewType.getJavaType());
+        return timeToLive == null ? 0L : timeToLive;
+    }
+
+    /**
+     * Returns whether objects of the given view type can be part of cached results, in which case they are shared and their collections must not be modifiable.
+     *
+     * @param viewType The view type
+     * @return Whether objects of the view type can be cached
+     */
+    public boolean isResultCacheable(ManagedViewType<?> viewType) {
+        return resultCache != null && resultCacheableViewTypes.contains(viewType);
+    }
+
+    /**
+     * Returns the entity types of the given view type, its subviews, inheritance subtypes and correlations.
+     *
+     * @param viewType The view type
+     * @return The entity types the view type depends on
+     */
+    public Set<Class<?>> getDependentEntityClasses(ManagedViewType<?> viewType) {
+        Set<Class<?>> entityClasses = dependentEntityClasses.get(viewType);
+        if (entityClasses == null) {
+            entityClasses = new HashSet<>();
+            collectDependentEntityClasses(viewType, entityClasses, new HashSet<ManagedViewType<?>>());
+            entityClasses = Collections.unmodifiableSet(entityClasses);
+            dependentEntityClasses.putIfAbsent(viewType, entityClasses);
+        }
+        return entityClasses;
+    }
+
+    /**
+     * Invalidates the cached query results that depend on the entity types of the given flushed view type.
+     * The flushing transaction bypasses the cache for these results until it completed, after which the results are invalidated again.
+     *
+     * @param context The update context
+     * @param viewType The flushed view type
+     */
+    public void invalidateResultCache(UpdateContext context, ManagedViewType<?> viewType) {
+        if (resultCache == null) {
+            return;
+        }
+        for (Class<?> entityClass : getDependentEntityClasses(viewType)) {
+            resultCache.invalidate(context.getEntityManager(), entityClass);
+        }
+    }
+
+    private Map<Class<?>, Long> resolveResultCacheTimeToLives(ViewMetamodelImpl viewMetamodel, Set<ManagedViewType<?>> cacheableViewTypes) {
+        Map<Class<?>, Long> timeToLives = new HashMap<>();
+        for (ManagedViewType<?> managedView : viewMetamodel.getManagedViews()) {
+            CacheableEntityView cacheableEntityView = managedView.getJavaType().getAnnotation(CacheableEntityView.class);
+            if (cacheableEntityView != null) {
+                if (cacheableEntityView.timeToLive() <= 0L) {
+                    throw new IllegalArgumentException("The time to live of the @CacheableEntityView '" + managedView.getJavaType().getName() + "' must be positive but was: " + cacheableEntityView.timeToLive());
+                }
+                // Cached objects are shared, so they must not be mutable
+                Set<ManagedViewType<?>> viewTypes = new HashSet<>();
+                Set<Class<?>> entityClasses = new HashSet<>();
+                collectDependentEntityClasses(managedView, entityClasses, viewTypes);
+                for (ManagedViewType<?> viewType : viewTypes) {
+                    if (viewType.isUpdatable() || viewType.isCreatable()) {
+                        throw new IllegalArgumentException("The @CacheableEntityView '" + managedView.getJavaType().getName() + "' must not be or use the updatable or creatable entity view '" + viewType.getJavaType().getName() + "'!");
+                    }
+                    for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+                        assertCacheable(managedView, (AbstractAttribute<?, ?>) attribute);
+                    }
+                    for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+                        for (ParameterAttribute<?, ?> attribute : constructor.getParameterAttributes()) {
+                            assertCacheable(managedView, (AbstractAttribute<?, ?>) attribute);
+                        }
+                    }
+                }
+                cacheableViewTypes.addAll(viewTypes);
+                dependentEntityClasses.put(managedView, Collections.unmodifiableSet(entityClasses));
+                timeToLives.put(managedView.getJavaType(), cacheableEntityView.timeToLive());
+            }
+        }
+        return timeToLives;
+    }
+
+    private void assertCacheable(ManagedViewType<?> cacheableView, AbstractAttribute<?, ?> attribute) {
+        // Entities are bound to the entity manager that loaded them and lazy attributes are loaded through it
+        if (attribute.getFetchStrategy() == FetchStrategy.LAZY) {
+            throw new IllegalArgumentException("The @CacheableEntityView '" + cacheableView.getJavaType().getName() + "' must not use the LAZY fetched attribute " + attribute.getLocation() + "!");
+        }
+        if (isEntityType(attribute.getElementType()) || attribute instanceof MapAttribute<?, ?, ?> && isEntityType(((MapAttribute<?, ?, ?>) attribute).getKeyType())) {
+            throw new IllegalArgumentException("The @CacheableEntityView '" + cacheableView.getJavaType().getName() + "' must not use the entity typed attribute " + attribute.getLocation() + "!");
+        }
+    }
+
+    private boolean isEntityType(Type<?> type) {
+        return type != null && !(type instanceof ManagedViewType<?>) && metamodel.getEntityMetamodel().getEntity(type.getJavaType()) != null;
+    }
+
+    private void collectDependentEntityClasses(ManagedViewType<?> viewType, Set<Class<?>> entityClasses, Set<ManagedViewType<?>> visited) {
+        if (!visited.add(viewType)) {
+            return;
+        }
+        entityClasses.add(viewType.getEntityClass());
+        for (ManagedViewType<?> subtype : viewType.getInheritanceSubtypes()) {
+            collectDependentEntityClasses(subtype, entityClasses, visited);
+        }
+        for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+            collectDependentEntityClasses((AbstractAttribute<?, ?>) attribute, entityClasses, visited);
+        }
+        for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+            for (ParameterAttribute<?, ?> attribute : constructor.getParameterAttributes()) {
+                collectDependentEntityClasses((AbstractAttribute<?, ?>) attribute, entityClasses, visited);
+            }
+        }
+    }
+
+    private void collectDependentEntityClasses(AbstractAttribute<?, ?> attribute, Set<Class<?>> entityClasses, Set<ManagedViewType<?>> visited) {
+        if (attribute.getCorrelated() != null) {
+            entityClasses.add(attribute.getCorrelated());
+        }
+        collectDependentEntityClasses(attribute.getElementType(), entityClasses, visited);
+        if (attribute instanceof MapAttribute<?, ?, ?>) {
+            collectDependentEntityClasses(((MapAttribute<?, ?, ?>) attribute).getKeyType(), entityClasses, visited);
+        }
+    }
+
+    private void collectDependentEntityClasses(Type<?> type, Set<Class<?>> entityClasses, Set<ManagedViewType<?>> visited) {
+        if (type instanceof ManagedViewType<?>) {
+            collectDependentEntityClasses((ManagedViewType<?>) type, entityClasses, visited);
+        } else if (type != null && metamodel.getEntityMetamodel().getEntity(type.getJavaType()) != null) {
+            entityClasses.add(type.getJavaType());
+        }
+    }
+
+    private static int parseAdaptiveBatchSize(String key, String value, int defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid adaptive batch size configuration for key " + key + ": " + value, ex);
+        }
+    }
+
+    private static int parseUpdaterJdbcBatchSize(String value) {
+        if (value == null || value.isEmpty()) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid updater JDBC batch size configuration: " + value, ex);
+        }
+    }
+
     /**
      * Creates a new filter instance of the given filter class.
      *
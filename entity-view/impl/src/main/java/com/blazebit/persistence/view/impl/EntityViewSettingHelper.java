@@ -44,6 +44,7 @@ import com.blazebit.persistence.view.metamodel.ViewFilterMapping;
 import com.blazebit.persistence.view.metamodel.ViewType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -112,13 +113,19 @@ public final class EntityViewSettingHelper {
         Path root = criteriaBuilder.getPath(entityViewRoot);
         entityViewRoot = root.getPath();
         Q queryBuilder = getQueryBuilder(setting, criteriaBuilder, entityViewRoot, managedView, setting.getProperties());
-        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), requestedFetches, managedView);
+        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), requestedFetches, managedView, evm.getCorrelationBatchStatistics());
         queryBuilder.selectNew(evm.createObjectBuilder(managedView, mappingConstructor, root.getJavaType(), entityViewRoot, null, criteriaBuilder, configuration, 0, 0, false));
         Set<String> fetches = configuration.getFetches();
         applyAttributeFilters(setting, evm, queryBuilder, entityViewRoot, fetches, managedView);
         applyViewFilters(setting, evm, queryBuilder, managedView);
         applyAttributeSorters(setting, queryBuilder, entityViewRoot, fetches, managedView);
         applyOptionalParameters(optionalParameters, queryBuilder);
+        long resultCacheTimeToLive = evm.getResultCacheTimeToLive(managedView);
+        if (resultCacheTimeToLive != 0L) {
+            // Filters, sorters and paging are part of the query, but optional parameters, properties and fetches might only be used by correlations
+            List<Object> cacheKey = Arrays.asList(evm, managedView.getJavaType(), mappingConstructor == null ? null : mappingConstructor.getName(), optionalParameters, new HashMap<>(setting.getProperties()), new HashSet<>(setting.getFetches()));
+            queryBuilder.withCachedResult(resultCacheTimeToLive, cacheKey, evm.getDependentEntityClasses(managedView));
+        }
         return queryBuilder;
     }
 
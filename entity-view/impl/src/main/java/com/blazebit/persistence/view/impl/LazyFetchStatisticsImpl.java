@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.LazyFetchStatistics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the statistics about the {@link com.blazebit.persistence.view.FetchStrategy#LAZY} fetched attributes of an entity view manager.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class LazyFetchStatisticsImpl implements LazyFetchStatistics {
+
+    private final ConcurrentMap<String, AttributeStatisticsImpl> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Records that the loading of the attribute with the given key was deferred for the given number of tuples.
+     *
+     * @param key The attribute key as created by {@link CorrelationBatchStatisticsImpl#getKey(Class, String)}
+     * @param tuples The number of tuples for which the loading was deferred
+     */
+    public void recordDeferred(String key, int tuples) {
+        getOrCreate(key).recordDeferred(tuples);
+    }
+
+    /**
+     * Records that the attribute with the given key was loaded for the given number of tuples because the attribute was accessed.
+     *
+     * @param key The attribute key as created by {@link CorrelationBatchStatisticsImpl#getKey(Class, String)}
+     * @param tuples The number of tuples for which the attribute was loaded
+     * @param nanos The time the loading took in nanoseconds
+     */
+    public void recordLoad(String key, int tuples, long nanos) {
+        getOrCreate(key).recordLoad(tuples, nanos);
+    }
+
+    private AttributeStatisticsImpl getOrCreate(String key) {
+        AttributeStatisticsImpl attributeStatistics = statistics.get(key);
+        if (attributeStatistics == null) {
+            attributeStatistics = new AttributeStatisticsImpl();
+            AttributeStatisticsImpl existing = statistics.putIfAbsent(key, attributeStatistics);
+            if (existing != null) {
+                attributeStatistics = existing;
+            }
+        }
+        return attributeStatistics;
+    }
+
+    @Override
+    public AttributeStatistics getAttributeStatistics(Class<?> viewRootClass, String attributePath) {
+        return statistics.get(CorrelationBatchStatisticsImpl.getKey(viewRootClass, attributePath));
+    }
+
+    @Override
+    public Map<String, AttributeStatistics> getAttributeStatistics() {
+        return Collections.<String, AttributeStatistics>unmodifiableMap(new HashMap<>(statistics));
+    }
+
+    @Override
+    public long getLoads() {
+        long loads = 0L;
+        for (AttributeStatistics attributeStatistics : statistics.values()) {
+            loads += attributeStatistics.getLoads();
+        }
+        return loads;
+    }
+
+    @Override
+    public void clear() {
+        statistics.clear();
+    }
+
+    /**
+     * The statistics for a lazy fetched attribute.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class AttributeStatisticsImpl implements AttributeStatistics {
+
+        private long deferrals;
+        private long deferredTuples;
+        private long loads;
+        private long loadedTuples;
+        private long nanos;
+
+        synchronized void recordDeferred(int tuples) {
+            this.deferrals++;
+            this.deferredTuples += tuples;
+        }
+
+        synchronized void recordLoad(int tuples, long nanos) {
+            this.loads++;
+            this.loadedTuples += tuples;
+            this.nanos += nanos;
+        }
+
+        @Override
+        public synchronized long getDeferrals() {
+            return deferrals;
+        }
+
+        @Override
+        public synchronized long getDeferredTuples() {
+            return deferredTuples;
+        }
+
+        @Override
+        public synchronized long getLoads() {
+            return loads;
+        }
+
+        @Override
+        public synchronized long getLoadedTuples() {
+            return loadedTuples;
+        }
+
+        @Override
+        public synchronized long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "AttributeStatistics{" +
+                    "deferrals=" + deferrals +
+                    ", deferredTuples=" + deferredTuples +
+                    ", loads=" + loads +
+                    ", loadedTuples=" + loadedTuples +
+                    ", nanos=" + nanos +
+                    '}';
+        }
+    }
+}
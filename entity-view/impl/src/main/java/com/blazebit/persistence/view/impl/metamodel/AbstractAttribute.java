@@ -245,7 +245,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
                 String correlationPath = null;
                 // The special case when joining the association results in a different join than when doing it through entity joins
                 // This might be due to a @Where annotation being present on the association
-                if (fetchStrategy == FetchStrategy.SELECT && attribute != null && attribute.hasJoinCondition()) {
+                if ((fetchStrategy == FetchStrategy.SELECT || fetchStrategy == FetchStrategy.LAZY) && attribute != null && attribute.hasJoinCondition()) {
                     correlated = declaringType.getEntityClass();
                     correlationExpression = "this IN __correlationAlias";
                     correlationResult = mappingString;
@@ -348,7 +348,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             fetches = mappingCorrelated.fetches();
             fetchStrategy = mappingCorrelated.fetch();
 
-            if (fetchStrategy != FetchStrategy.SELECT) {
+            if (fetchStrategy != FetchStrategy.SELECT && fetchStrategy != FetchStrategy.LAZY) {
                 batchSize = -1;
             }
             this.mappingType = MappingType.CORRELATED;
@@ -370,7 +370,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             fetches = mappingCorrelated.fetches();
             fetchStrategy = mappingCorrelated.fetch();
 
-            if (fetchStrategy != FetchStrategy.SELECT) {
+            if (fetchStrategy != FetchStrategy.SELECT && fetchStrategy != FetchStrategy.LAZY) {
                 batchSize = -1;
             }
             this.mappingType = MappingType.CORRELATED;
@@ -386,7 +386,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             if (mappingCorrelated.correlationBasis().isEmpty()) {
                 context.addError("Illegal empty correlation basis in the " + mapping.getErrorLocation());
             }
-            if (!(declaringType instanceof ViewType<?>) && (fetchStrategy == FetchStrategy.SELECT || fetchStrategy == FetchStrategy.SUBSELECT)) {
+            if (!(declaringType instanceof ViewType<?>) && (fetchStrategy == FetchStrategy.SELECT || fetchStrategy == FetchStrategy.SUBSELECT || fetchStrategy == FetchStrategy.LAZY)) {
                 // This check is not perfect, but good enough since we also check it at runtime
                 if (mappingCorrelated.correlationExpression().toUpperCase().contains("EMBEDDING_VIEW")) {
                     context.addError("The use of EMBEDDING_VIEW in the correlation for '" + mapping.getErrorLocation() + "' is illegal because the embedding view type '" + declaringType.getJavaType().getName() + "' does not declare a @IdMapping!");
@@ -612,7 +612,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
     }
 
     public boolean hasSelectOrSubselectFetchedAttributes() {
-        return getFetchStrategy() == FetchStrategy.SELECT || getFetchStrategy() == FetchStrategy.SUBSELECT || (
+        return getFetchStrategy() == FetchStrategy.SELECT || getFetchStrategy() == FetchStrategy.SUBSELECT || getFetchStrategy() == FetchStrategy.LAZY || (
                 getElementType() instanceof ManagedViewTypeImpl<?> && ((ManagedViewTypeImplementor<?>) getElementType()).hasSelectOrSubselectFetchedAttributes());
     }
 
@@ -1015,6 +1015,20 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             }
         }
 
+        if (fetchStrategy == FetchStrategy.LAZY) {
+            if (!(this instanceof AbstractMethodAttribute<?, ?>)) {
+                context.addError("Using the LAZY fetch strategy is only allowed for attributes that are defined by a getter. LAZY at the " + getLocation() + " is not allowed!");
+            } else if (declaringType.isUpdatable() || declaringType.isCreatable()) {
+                context.addError("Using the LAZY fetch strategy is not allowed for attributes of updatable or creatable entity views. LAZY at the " + getLocation() + " is not allowed!");
+            } else if (!Modifier.isAbstract(declaringType.getJavaType().getModifiers())) {
+                context.addError("Using the LAZY fetch strategy is only allowed for attributes of abstract entity view types. LAZY at the " + getLocation() + " is not allowed!");
+            } else if (getConvertedJavaType().isPrimitive()) {
+                context.addError("Using the LAZY fetch strategy is not allowed for attributes with a primitive type. LAZY at the " + getLocation() + " is not allowed!");
+            } else if (!isCollection() && getElementType() != null && getElementType().getConverter() != null) {
+                context.addError("Using the LAZY fetch strategy is not allowed for attributes with a type converter. LAZY at the " + getLocation() + " is not allowed!");
+            }
+        }
+
         Expression indexExpression = null;
         if (isCollection()) {
             elementType = getElementType().getJavaType();
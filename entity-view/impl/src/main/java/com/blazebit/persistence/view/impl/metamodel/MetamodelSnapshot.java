@@ -0,0 +1,422 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl.metamodel;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.spi.type.BasicUserType;
+import com.blazebit.persistence.view.spi.type.TypeConverter;
+import com.blazebit.reflection.ReflectionUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.MapAttribute;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A snapshot of the outcome of a successful entity view metamodel validation.
+ *
+ * The snapshot records a checksum over everything the validation depends on i.e. the class files of the entity view and
+ * entity types, the JPA metamodel and <code>META-INF/orm.xml</code> mapping files, the configuration properties and type test values,
+ * the registered functions, basic user types, type converters and correlation providers along with their implementation classes
+ * as well as the DBMS dialect and the JPA provider along with its version.
+ * If a configuration property or type test value has no stable representation or an implementation class is synthetic, like the one of a lambda,
+ * no checksum is computed and no snapshot is trusted.
+ * When a snapshot with a matching checksum is found on the classpath during bootstrap, the validation phases that
+ * were done when creating the snapshot are skipped. Any change to one of the inputs invalidates the snapshot.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class MetamodelSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(MetamodelSnapshot.class.getName());
+    private static final String FORMAT_VERSION = "2";
+    private static final String DEFAULT_MAPPING_FILE = "META-INF/orm.xml";
+    private static final String VERSION_KEY = "version";
+    private static final String CHECKSUM_KEY = "checksum";
+    private static final String EXPRESSIONS_VALIDATED_KEY = "expressions_validated";
+    private static final String MANAGED_TYPES_VALIDATED_KEY = "managed_types_validated";
+
+    private final String checksum;
+    private final boolean expressionsValidated;
+    private final boolean managedTypesValidated;
+
+    public MetamodelSnapshot(String checksum, boolean expressionsValidated, boolean managedTypesValidated) {
+        this.checksum = checksum;
+        this.expressionsValidated = expressionsValidated;
+        this.managedTypesValidated = managedTypesValidated;
+    }
+
+    /**
+     * Loads the snapshot from the classpath resource with the given name.
+     *
+     * @param classLoader The class loader to use
+     * @param resourceName The name of the classpath resource
+     * @return The snapshot or <code>null</code> if the resource does not exist or can't be read
+     */
+    public static MetamodelSnapshot load(ClassLoader classLoader, String resourceName) {
+        if (resourceName == null || resourceName.isEmpty()) {
+            return null;
+        }
+        try (InputStream is = classLoader.getResourceAsStream(resourceName)) {
+            if (is == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(is);
+            if (!FORMAT_VERSION.equals(properties.getProperty(VERSION_KEY))) {
+                LOG.warning("Ignoring the entity view metamodel snapshot '" + resourceName + "' because it was created with an unsupported format version");
+                return null;
+            }
+            return new MetamodelSnapshot(
+                    properties.getProperty(CHECKSUM_KEY),
+                    Boolean.parseBoolean(properties.getProperty(EXPRESSIONS_VALIDATED_KEY)),
+                    Boolean.parseBoolean(properties.getProperty(MANAGED_TYPES_VALIDATED_KEY))
+            );
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Ignoring the entity view metamodel snapshot '" + resourceName + "' because it could not be read", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot to the file with the given path, creating parent directories if necessary.
+     *
+     * @param path The path of the file
+     */
+    public void write(String path) {
+        File file = new File(path);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IllegalArgumentException("Could not create the directory for the entity view metamodel snapshot: " + parent);
+        }
+        Properties properties = new Properties();
+        properties.setProperty(VERSION_KEY, FORMAT_VERSION);
+        properties.setProperty(CHECKSUM_KEY, checksum);
+        properties.setProperty(EXPRESSIONS_VALIDATED_KEY, Boolean.toString(expressionsValidated));
+        properties.setProperty(MANAGED_TYPES_VALIDATED_KEY, Boolean.toString(managedTypesValidated));
+        try (OutputStream os = new FileOutputStream(file)) {
+            properties.store(os, "Blaze-Persistence entity view metamodel snapshot");
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Could not write the entity view metamodel snapshot to: " + path, ex);
+        }
+    }
+
+    /**
+     * Computes the checksum over all inputs of the entity view metamodel validation.
+     * Returns <code>null</code> if one of the inputs has no stable representation, in which case no snapshot must be trusted.
+     *
+     * @param classLoader The class loader to look up mapping files
+     * @param entityViewClasses The entity view classes
+     * @param entityMetamodel The entity metamodel
+     * @param properties The configuration properties
+     * @param functions The registered functions by name
+     * @param basicUserTypes The registered basic user types by type
+     * @param typeConverters The registered type converters by view model type and underlying type
+     * @param correlationProviders The correlation provider classes used by the entity views
+     * @param typeTestValues The test values used for the managed type validation
+     * @param dbmsDialect The DBMS dialect
+     * @param jpaProvider The JPA provider
+     * @return The checksum as hex string or <code>null</code>
+     */
+    public static String computeChecksum(ClassLoader classLoader, Collection<Class<?>> entityViewClasses, EntityMetamodel entityMetamodel, Properties properties, Map<String, ?> functions,
+                                         Map<Class<?>, BasicUserType<?>> basicUserTypes, Map<Class<?>, Map<Class<?>, TypeConverter<?, ?>>> typeConverters, Collection<Class<?>> correlationProviders,
+                                         Map<Class<?>, Object> typeTestValues, Object dbmsDialect, Object jpaProvider) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not supported", ex);
+        }
+
+        update(digest, FORMAT_VERSION);
+        update(digest, String.valueOf(MetamodelSnapshot.class.getPackage().getImplementationVersion()));
+
+        Map<String, Class<?>> classes = new TreeMap<>();
+        addTypes(classes, dbmsDialect.getClass());
+        addTypes(classes, jpaProvider.getClass());
+        for (Class<?> entityViewClass : entityViewClasses) {
+            addTypes(classes, entityViewClass);
+        }
+        Map<String, ManagedType<?>> managedTypes = new TreeMap<>();
+        for (ManagedType<?> managedType : entityMetamodel.getManagedTypes()) {
+            if (managedType.getJavaType() != null) {
+                addTypes(classes, managedType.getJavaType());
+                managedTypes.put(managedType.getJavaType().getName(), managedType);
+            }
+            // The implementation classes of the JPA metamodel identify the version of the JPA provider
+            addTypes(classes, managedType.getClass());
+        }
+        for (Object function : functions.values()) {
+            addTypes(classes, function.getClass());
+        }
+        // The registration keys of user types and converters aren't visible in the class files, so they are hashed along with the implementation class names
+        Map<String, Class<?>> registrations = new TreeMap<>();
+        for (Map.Entry<Class<?>, BasicUserType<?>> entry : basicUserTypes.entrySet()) {
+            registrations.put(entry.getKey().getName(), entry.getValue().getClass());
+        }
+        for (Map.Entry<Class<?>, Map<Class<?>, TypeConverter<?, ?>>> entry : typeConverters.entrySet()) {
+            for (Map.Entry<Class<?>, TypeConverter<?, ?>> converterEntry : entry.getValue().entrySet()) {
+                registrations.put(entry.getKey().getName() + "<-" + converterEntry.getKey().getName(), converterEntry.getValue().getClass());
+            }
+        }
+        for (Class<?> correlationProvider : correlationProviders) {
+            registrations.put(correlationProvider.getName(), correlationProvider);
+        }
+        for (Map.Entry<String, Class<?>> entry : registrations.entrySet()) {
+            Class<?> implementationClass = entry.getValue();
+            if (implementationClass.isSynthetic()) {
+                LOG.warning("Not using an entity view metamodel snapshot because the implementation class for '" + entry.getKey() + "' is synthetic: " + implementationClass.getName());
+                return null;
+            }
+            addTypes(classes, implementationClass);
+        }
+        for (Class<?> clazz : classes.values()) {
+            updateClass(digest, clazz);
+            Package classPackage = clazz.getPackage();
+            update(digest, classPackage == null ? null : classPackage.getImplementationVersion());
+        }
+
+        // The JPA metamodel reflects mappings that are not visible in the class files, like the ones of mapping files
+        for (ManagedType<?> managedType : managedTypes.values()) {
+            updateManagedType(digest, managedType);
+        }
+        try {
+            Enumeration<URL> mappingFiles = classLoader.getResources(DEFAULT_MAPPING_FILE);
+            while (mappingFiles.hasMoreElements()) {
+                try (InputStream is = mappingFiles.nextElement().openStream()) {
+                    update(digest, is);
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read the mapping files", ex);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        Map<String, Object> configuration = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (!ConfigurationProperties.METAMODEL_SNAPSHOT.equals(key) && !ConfigurationProperties.METAMODEL_SNAPSHOT_OUTPUT.equals(key)) {
+                configuration.put(key, entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : configuration.entrySet()) {
+            sb.setLength(0);
+            if (!appendStableRepresentation(sb, entry.getValue())) {
+                LOG.warning("Not using an entity view metamodel snapshot because the configuration property '" + entry.getKey() + "' has a value without stable representation: " + entry.getValue());
+                return null;
+            }
+            update(digest, entry.getKey());
+            update(digest, sb.toString());
+        }
+
+        for (String functionName : new TreeSet<>(functions.keySet())) {
+            update(digest, functionName);
+            update(digest, functions.get(functionName).getClass().getName());
+        }
+        for (Map.Entry<String, Class<?>> entry : registrations.entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue().getName());
+        }
+
+        Map<String, Object> sortedTypeTestValues = new TreeMap<>();
+        for (Map.Entry<Class<?>, Object> entry : typeTestValues.entrySet()) {
+            sortedTypeTestValues.put(entry.getKey().getName(), entry.getValue());
+        }
+        for (Map.Entry<String, Object> entry : sortedTypeTestValues.entrySet()) {
+            sb.setLength(0);
+            if (!appendStableRepresentation(sb, entry.getValue())) {
+                LOG.warning("Not using an entity view metamodel snapshot because the type test value for '" + entry.getKey() + "' has no stable representation: " + entry.getValue());
+                return null;
+            }
+            update(digest, entry.getKey());
+            update(digest, sb.toString());
+        }
+
+        byte[] bytes = digest.digest();
+        sb.setLength(0);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static boolean appendStableRepresentation(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+            return true;
+        }
+        if (value instanceof Class<?>) {
+            sb.append("class:").append(((Class<?>) value).getName());
+            return true;
+        }
+        sb.append(value.getClass().getName()).append(':');
+        if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            sb.append(value);
+        } else if (value instanceof Enum<?>) {
+            sb.append(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            sb.append(((Date) value).getTime());
+        } else if (value instanceof Calendar) {
+            // The time zone of test values is the default time zone which must not influence the checksum
+            sb.append(((Calendar) value).getTimeInMillis());
+        } else if (value.getClass().isArray()) {
+            sb.append('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (!appendStableRepresentation(sb, Array.get(value, i))) {
+                    return false;
+                }
+                sb.append(',');
+            }
+            sb.append(']');
+        } else if (value instanceof Collection<?>) {
+            Collection<String> elements = value instanceof List<?> ? new ArrayList<String>() : new TreeSet<String>();
+            for (Object element : (Collection<?>) value) {
+                StringBuilder elementBuilder = new StringBuilder();
+                if (!appendStableRepresentation(elementBuilder, element)) {
+                    return false;
+                }
+                elements.add(elementBuilder.toString());
+            }
+            sb.append(elements);
+        } else if (value instanceof Map<?, ?>) {
+            Map<String, String> entries = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                StringBuilder keyBuilder = new StringBuilder();
+                StringBuilder valueBuilder = new StringBuilder();
+                if (!appendStableRepresentation(keyBuilder, entry.getKey()) || !appendStableRepresentation(valueBuilder, entry.getValue())) {
+                    return false;
+                }
+                entries.put(keyBuilder.toString(), valueBuilder.toString());
+            }
+            sb.append(entries);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void updateManagedType(MessageDigest digest, ManagedType<?> managedType) {
+        update(digest, managedType.getJavaType().getName());
+        update(digest, managedType.getPersistenceType().name());
+        if (managedType instanceof EntityType<?>) {
+            update(digest, ((EntityType<?>) managedType).getName());
+        }
+        Map<String, Attribute<?, ?>> attributes = new TreeMap<>();
+        for (Attribute<?, ?> attribute : managedType.getAttributes()) {
+            attributes.put(attribute.getName(), attribute);
+        }
+        for (Attribute<?, ?> attribute : attributes.values()) {
+            update(digest, attribute.getName());
+            update(digest, attribute.getPersistentAttributeType().name());
+            update(digest, attribute.getJavaType().getName());
+            if (attribute instanceof SingularAttribute<?, ?>) {
+                SingularAttribute<?, ?> singularAttribute = (SingularAttribute<?, ?>) attribute;
+                update(digest, singularAttribute.isId() + ":" + singularAttribute.isVersion() + ":" + singularAttribute.isOptional());
+            } else if (attribute instanceof PluralAttribute<?, ?, ?>) {
+                PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) attribute;
+                update(digest, pluralAttribute.getCollectionType().name());
+                update(digest, pluralAttribute.getElementType().getJavaType().getName());
+                if (pluralAttribute instanceof MapAttribute<?, ?, ?>) {
+                    update(digest, ((MapAttribute<?, ?, ?>) pluralAttribute).getKeyJavaType().getName());
+                }
+            }
+        }
+    }
+
+    private static void addTypes(Map<String, Class<?>> classes, Class<?> clazz) {
+        classes.put(clazz.getName(), clazz);
+        for (Class<?> superType : ReflectionUtils.getSuperTypes(clazz)) {
+            // Classes of the bootstrap class loader are part of the JDK
+            if (superType.getClassLoader() != null) {
+                classes.put(superType.getName(), superType);
+            }
+        }
+    }
+
+    private static void updateClass(MessageDigest digest, Class<?> clazz) {
+        update(digest, clazz.getName());
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return;
+        }
+        try (InputStream is = classLoader.getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            if (is != null) {
+                update(digest, is);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read the class file of " + clazz.getName(), ex);
+        }
+    }
+
+    private static void update(MessageDigest digest, InputStream is) throws IOException {
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 1);
+        }
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public boolean isExpressionsValidated() {
+        return expressionsValidated;
+    }
+
+    public boolean isManagedTypesValidated() {
+        return managedTypesValidated;
+    }
+}
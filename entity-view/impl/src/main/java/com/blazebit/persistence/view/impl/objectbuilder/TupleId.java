@@ -55,40 +55,10 @@ public class TupleId {
     public int hashCode() {
         int hash = 7;
         int result = 1;
-        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
-        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
         Object[] a = id;
         int length = a.length;
         for (int i = 0; i < length; i++) {
-            Object element = a[i];
-            int elementHash = 0;
-            if (element instanceof Object[]) {
-                elementHash = Arrays.deepHashCode((Object[]) element);
-            } else if (element instanceof byte[]) {
-                elementHash = Arrays.hashCode((byte[]) element);
-            } else if (element instanceof short[]) {
-                elementHash = Arrays.hashCode((short[]) element);
-            } else if (element instanceof int[]) {
-                elementHash = Arrays.hashCode((int[]) element);
-            } else if (element instanceof long[]) {
-                elementHash = Arrays.hashCode((long[]) element);
-            } else if (element instanceof char[]) {
-                elementHash = Arrays.hashCode((char[]) element);
-            } else if (element instanceof float[]) {
-                elementHash = Arrays.hashCode((float[]) element);
-            } else if (element instanceof double[]) {
-                elementHash = Arrays.hashCode((double[]) element);
-            } else if (element instanceof boolean[]) {
-                elementHash = Arrays.hashCode((boolean[]) element);
-            } else if (element instanceof RecordingCollection<?, ?>) {
-                elementHash = System.identityHashCode(element);
-            } else if (element instanceof RecordingMap<?, ?, ?>) {
-                elementHash = System.identityHashCode(element);
-            } else if (element != null) {
-                elementHash = element.hashCode();
-            }
-
-            result = 31 * result + elementHash;
+            result = 31 * result + elementHashCode(a[i]);
         }
         hash = 53 * hash + result;
         return hash;
@@ -114,52 +84,142 @@ public class TupleId {
             return false;
         }
 
-        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
-        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
         for (int i = 0; i < length; i++) {
-            Object e1 = a1[i];
-            Object e2 = a2[i];
-
-            if (e1 == e2) {
-                continue;
+            if (!elementEquals(a1[i], a2[i])) {
+                return false;
             }
-            if (e1 == null) {
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether all id elements of the given tuple are null, without materializing a {@link TupleId}.
+     *
+     * @param idPositions The id positions
+     * @param tuple The tuple
+     * @return whether the id is empty
+     */
+    public static boolean isEmpty(int[] idPositions, Object[] tuple) {
+        for (int i = 0; i < idPositions.length; i++) {
+            int idPosition = idPositions[i];
+            if (idPosition < 0 || tuple[idPosition] != null) {
                 return false;
             }
+        }
+        return true;
+    }
 
-            // Figure out whether the two elements are equal
-            boolean eq;
-            if (e1 instanceof Object[] && e2 instanceof Object[]) {
-                eq = Arrays.deepEquals((Object[]) e1, (Object[]) e2);
-            } else if (e1 instanceof byte[] && e2 instanceof byte[]) {
-                eq = Arrays.equals((byte[]) e1, (byte[]) e2);
-            } else if (e1 instanceof short[] && e2 instanceof short[]) {
-                eq = Arrays.equals((short[]) e1, (short[]) e2);
-            } else if (e1 instanceof int[] && e2 instanceof int[]) {
-                eq = Arrays.equals((int[]) e1, (int[]) e2);
-            } else if (e1 instanceof long[] && e2 instanceof long[]) {
-                eq = Arrays.equals((long[]) e1, (long[]) e2);
-            } else if (e1 instanceof char[] && e2 instanceof char[]) {
-                eq = Arrays.equals((char[]) e1, (char[]) e2);
-            } else if (e1 instanceof float[] && e2 instanceof float[]) {
-                eq = Arrays.equals((float[]) e1, (float[]) e2);
-            } else if (e1 instanceof double[] && e2 instanceof double[]) {
-                eq = Arrays.equals((double[]) e1, (double[]) e2);
-            } else if (e1 instanceof boolean[] && e2 instanceof boolean[]) {
-                eq = Arrays.equals((boolean[]) e1, (boolean[]) e2);
-            } else if (e1 instanceof RecordingCollection<?, ?> && e2 instanceof RecordingCollection<?, ?>) {
-                eq = e1 == e2;
-            } else if (e1 instanceof RecordingMap<?, ?, ?> && e2 instanceof RecordingMap<?, ?, ?>) {
-                eq = e1 == e2;
+    /**
+     * Computes the same hash code as a {@link TupleId} of the given tuple would have, without materializing it.
+     *
+     * @param idPositions The id positions
+     * @param tuple The tuple
+     * @return the hash code of the id
+     */
+    public static int hashCode(int[] idPositions, Object[] tuple) {
+        int hash = 7;
+        int result = 1;
+        for (int i = 0; i < idPositions.length; i++) {
+            int idPosition = idPositions[i];
+            if (idPosition < 0) {
+                result = 31 * result + idPosition;
             } else {
-                eq = e1.equals(e2);
+                result = 31 * result + elementHashCode(tuple[idPosition]);
             }
+        }
+        hash = 53 * hash + result;
+        return hash;
+    }
 
-            if (!eq) {
+    /**
+     * Compares the ids of the given tuples like {@link TupleId#equals(Object)} would, without materializing them.
+     *
+     * @param idPositions The id positions
+     * @param tuple1 The first tuple
+     * @param tuple2 The second tuple
+     * @return whether the ids are equal
+     */
+    public static boolean equals(int[] idPositions, Object[] tuple1, Object[] tuple2) {
+        if (tuple1 == tuple2) {
+            return true;
+        }
+        for (int i = 0; i < idPositions.length; i++) {
+            int idPosition = idPositions[i];
+            // Negative positions are constants which are equal for all tuples
+            if (idPosition >= 0 && !elementEquals(tuple1[idPosition], tuple2[idPosition])) {
                 return false;
             }
         }
-
         return true;
     }
+
+    // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
+    // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
+    private static int elementHashCode(Object element) {
+        if (element == null) {
+            return 0;
+        } else if (element instanceof Long || element instanceof Integer || element instanceof String) {
+            // Fast path for the most common id types
+            return element.hashCode();
+        } else if (element instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) element);
+        } else if (element instanceof byte[]) {
+            return Arrays.hashCode((byte[]) element);
+        } else if (element instanceof short[]) {
+            return Arrays.hashCode((short[]) element);
+        } else if (element instanceof int[]) {
+            return Arrays.hashCode((int[]) element);
+        } else if (element instanceof long[]) {
+            return Arrays.hashCode((long[]) element);
+        } else if (element instanceof char[]) {
+            return Arrays.hashCode((char[]) element);
+        } else if (element instanceof float[]) {
+            return Arrays.hashCode((float[]) element);
+        } else if (element instanceof double[]) {
+            return Arrays.hashCode((double[]) element);
+        } else if (element instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) element);
+        } else if (element instanceof RecordingCollection<?, ?>) {
+            return System.identityHashCode(element);
+        } else if (element instanceof RecordingMap<?, ?, ?>) {
+            return System.identityHashCode(element);
+        }
+        return element.hashCode();
+    }
+
+    private static boolean elementEquals(Object e1, Object e2) {
+        if (e1 == e2) {
+            return true;
+        }
+        if (e1 == null) {
+            return false;
+        }
+
+        // Figure out whether the two elements are equal
+        if (e1 instanceof Object[] && e2 instanceof Object[]) {
+            return Arrays.deepEquals((Object[]) e1, (Object[]) e2);
+        } else if (e1 instanceof byte[] && e2 instanceof byte[]) {
+            return Arrays.equals((byte[]) e1, (byte[]) e2);
+        } else if (e1 instanceof short[] && e2 instanceof short[]) {
+            return Arrays.equals((short[]) e1, (short[]) e2);
+        } else if (e1 instanceof int[] && e2 instanceof int[]) {
+            return Arrays.equals((int[]) e1, (int[]) e2);
+        } else if (e1 instanceof long[] && e2 instanceof long[]) {
+            return Arrays.equals((long[]) e1, (long[]) e2);
+        } else if (e1 instanceof char[] && e2 instanceof char[]) {
+            return Arrays.equals((char[]) e1, (char[]) e2);
+        } else if (e1 instanceof float[] && e2 instanceof float[]) {
+            return Arrays.equals((float[]) e1, (float[]) e2);
+        } else if (e1 instanceof double[] && e2 instanceof double[]) {
+            return Arrays.equals((double[]) e1, (double[]) e2);
+        } else if (e1 instanceof boolean[] && e2 instanceof boolean[]) {
+            return Arrays.equals((boolean[]) e1, (boolean[]) e2);
+        } else if (e1 instanceof RecordingCollection<?, ?> && e2 instanceof RecordingCollection<?, ?>) {
+            return false;
+        } else if (e1 instanceof RecordingMap<?, ?, ?> && e2 instanceof RecordingMap<?, ?, ?>) {
+            return false;
+        }
+        return e1.equals(e2);
+    }
 }
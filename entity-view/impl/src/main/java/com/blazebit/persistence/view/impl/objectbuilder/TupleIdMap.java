@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+/**
+ * An open addressing hash map that groups tuples by the elements at the id positions.
+ * Contrary to a {@link java.util.HashMap} keyed by {@link TupleId}, no key or entry objects are allocated.
+ * The tuple that was put first for an id serves as key, so the elements at the id positions of that tuple must not be changed
+ * while the map is in use.
+ *
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class TupleIdMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private final int[] idPositions;
+    private Object[][] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public TupleIdMap(int[] idPositions, int expectedSize) {
+        this.idPositions = idPositions;
+        // Keep the load factor at or below 0.5 for short probe sequences
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object[] tuple) {
+        int hash = TupleId.hashCode(idPositions, tuple);
+        int index = spread(hash) & mask;
+        Object[] key;
+        while ((key = keys[index]) != null) {
+            if (hashes[index] == hash && TupleId.equals(idPositions, key, tuple)) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public void put(Object[] tuple, V value) {
+        int hash = TupleId.hashCode(idPositions, tuple);
+        int index = spread(hash) & mask;
+        Object[] key;
+        while ((key = keys[index]) != null) {
+            if (hashes[index] == hash && TupleId.equals(idPositions, key, tuple)) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = tuple;
+        values[index] = value;
+        hashes[index] = hash;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity][];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private void resize() {
+        Object[][] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = spread(oldHashes[i]) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        // Fibonacci hashing to distribute sequential ids over the table
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -27,11 +27,13 @@ import java.util.Set;
 public class TupleIndexValue {
 
     private final Object tupleValue;
-    private final Set<TupleRest> restTuples = new HashSet<TupleRest>();
+    private final TupleRest firstRestTuple;
+    // Most collections only have very few elements, so we only allocate a set when a second distinct rest tuple appears
+    private Set<TupleRest> restTuples;
 
     public TupleIndexValue(Object targetValue, Object[] tuple, int restTupleIndex, int offset) {
         this.tupleValue = targetValue;
-        restTuples.add(new TupleRest(tuple, restTupleIndex, offset));
+        this.firstRestTuple = new TupleRest(tuple, restTupleIndex, offset);
     }
 
     public Object getTupleValue() {
@@ -39,11 +41,23 @@ public class TupleIndexValue {
     }
 
     public boolean addRestTuple(Object[] tuple, int tupleIndex, int offset) {
-        return restTuples.add(new TupleRest(tuple, tupleIndex, offset));
+        TupleRest restTuple = new TupleRest(tuple, tupleIndex, offset);
+        if (restTuples == null) {
+            if (restTuple.equals(firstRestTuple)) {
+                return false;
+            }
+            restTuples = new HashSet<TupleRest>();
+            restTuples.add(firstRestTuple);
+        }
+        return restTuples.add(restTuple);
     }
 
     public boolean containsRestTuple(Object[] tuple, int tupleIndex, int offset) {
-        return restTuples.contains(new TupleRest(tuple, tupleIndex + offset));
+        TupleRest restTuple = new TupleRest(tuple, tupleIndex + offset);
+        if (restTuples == null) {
+            return restTuple.equals(firstRestTuple);
+        }
+        return restTuples.contains(restTuple);
     }
 
 }
@@ -70,6 +70,7 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformer.IndexedTuple
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.NonIndexedTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.SingularMultisetTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.SubviewTupleTransformerFactory;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.AbstractCorrelatedBatchTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.BasicCorrelator;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionBatchTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionSubselectTupleTransformerFactory;
@@ -79,6 +80,7 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedSingularSubselectTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedSubviewJoinTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.Correlator;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.LazyCorrelatedTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.SubviewCorrelator;
 import com.blazebit.persistence.view.impl.proxy.AbstractReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.AssignmentConstructorReflectionInstantiator;
@@ -465,7 +467,8 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     }
                 }
 
-                boolean dirtyTracking = pluralAttribute instanceof MethodAttribute<?, ?> && attribute.needsDirtyTracker();
+                // Recording collections of attributes that aren't updatable reject modifications, which protects the shared objects of cached results
+                boolean dirtyTracking = pluralAttribute instanceof MethodAttribute<?, ?> && attribute.needsDirtyTracker() || evm.isResultCacheable(attribute.getDeclaringType());
                 if (pluralAttribute.isSubview()) {
                     features.add(Feature.SUBVIEWS);
 
@@ -689,7 +692,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                 mapper = new ExpressionCorrelationJoinTupleElementMapper(factory.create(null, null), ef, joinBase, correlationBasis, attribute.getCorrelationResultExpression(), alias, joinCorrelationAttributePath, embeddingViewPath, attribute.getFetches(), createLimiter(mapperBuilder, correlationAlias, attribute), viewRoot.getEntityViewRootTypes().keySet());
             }
             mapperBuilder.addMapper(mapper);
-        } else if (attribute.getFetchStrategy() == FetchStrategy.SELECT) {
+        } else if (attribute.getFetchStrategy() == FetchStrategy.SELECT || attribute.getFetchStrategy() == FetchStrategy.LAZY) {
             String subviewAliasPrefix = mapperBuilder.getAlias(attribute, false);
             int viewRootIndex = viewRoot.hasSubtypes() ? 1 : 0;
             int embeddingViewIndex = tupleOffset;
@@ -708,9 +711,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             viewRootIndex = addViewRootMappingIfNeeded(mapperBuilder, features, subviewAliasPrefix, attributePath, viewRootIndex);
             embeddingViewIndex = addEmbeddingViewMappingIfNeeded(mapperBuilder, features, subviewAliasPrefix, attributePath, embeddingViewIndex);
 
-            if (batchSize == -1) {
-                batchSize = 1;
-            }
+            int defaultBatchSize = getDefaultBatchSize(attribute);
 
             if (attribute.isCollection()) {
                 PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) attribute;
@@ -741,9 +742,9 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         } else {
                             indexCorrelator = new BasicCorrelator();
                         }
-                        mapperBuilder.addTupleListTransformerFactory(new CorrelatedMapBatchTupleListTransformerFactory(
+                        addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedMapBatchTupleListTransformerFactory(
                                 new BasicCorrelator(),
-                                viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                                viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                                 createLimiter(mapperBuilder, correlationAlias, attribute),
                                 indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
                                 dirtyTracking
@@ -752,17 +753,17 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     default:
                         throw new IllegalArgumentException("Unknown collection type: " + pluralAttribute.getCollectionType());
                 }
-                mapperBuilder.addTupleListTransformerFactory(new CorrelatedCollectionBatchTupleListTransformerFactory(
+                addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedCollectionBatchTupleListTransformerFactory(
                         new BasicCorrelator(),
-                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute),
                         indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
                         dirtyTracking
                 ));
             } else {
-                mapperBuilder.addTupleListTransformerFactory(new CorrelatedSingularBatchTupleListTransformerFactory(
+                addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedSingularBatchTupleListTransformerFactory(
                         new BasicCorrelator(),
-                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute)));
             }
         } else if (attribute.getFetchStrategy() == FetchStrategy.SUBSELECT) {
@@ -1063,7 +1064,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             embeddingViewJpqlMacro.setEmbeddingViewPath(oldEmbeddingViewPath);
             viewJpqlMacro.setViewPath(oldViewPath);
             return new ViewTypeObjectBuilderTemplate[]{ template, indexTemplate };
-        } else if (attribute.getFetchStrategy() == FetchStrategy.SELECT) {
+        } else if (attribute.getFetchStrategy() == FetchStrategy.SELECT || attribute.getFetchStrategy() == FetchStrategy.LAZY) {
             String subviewAliasPrefix = mapperBuilder.getAlias(attribute, false);
             int viewRootIndex = viewRoot.hasSubtypes() ? 1 : 0;
             int embeddingViewIndex = (viewType.hasSubtypes() ? 1 : 0) + tupleOffset;
@@ -1082,9 +1083,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             viewRootIndex = addViewRootMappingIfNeeded(mapperBuilder, features, subviewAliasPrefix, attributePath, viewRootIndex);
             embeddingViewIndex = addEmbeddingViewMappingIfNeeded(mapperBuilder, features, subviewAliasPrefix, attributePath, embeddingViewIndex);
 
-            if (batchSize == -1) {
-                batchSize = 1;
-            }
+            int defaultBatchSize = getDefaultBatchSize(attribute);
 
             if (attribute.isCollection()) {
                 PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) attribute;
@@ -1115,9 +1114,9 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         } else {
                             indexCorrelator = new BasicCorrelator();
                         }
-                        mapperBuilder.addTupleListTransformerFactory(new CorrelatedMapBatchTupleListTransformerFactory(
+                        addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedMapBatchTupleListTransformerFactory(
                                 new SubviewCorrelator(managedViewType, null, evm, subviewAliasPrefix, attributePath),
-                                viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                                viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                                 createLimiter(mapperBuilder, correlationAlias, attribute),
                                 indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
                                 dirtyTracking
@@ -1126,17 +1125,17 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     default:
                         throw new IllegalArgumentException("Unknown collection type: " + pluralAttribute.getCollectionType());
                 }
-                mapperBuilder.addTupleListTransformerFactory(new CorrelatedCollectionBatchTupleListTransformerFactory(
+                addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedCollectionBatchTupleListTransformerFactory(
                         new SubviewCorrelator(managedViewType, null, evm, subviewAliasPrefix, attributePath),
-                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute),
                         indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
                         dirtyTracking
                 ));
             } else {
-                mapperBuilder.addTupleListTransformerFactory(new CorrelatedSingularBatchTupleListTransformerFactory(
+                addBatchTupleListTransformerFactory(mapperBuilder, attribute, new CorrelatedSingularBatchTupleListTransformerFactory(
                         new SubviewCorrelator(managedViewType, null, evm, subviewAliasPrefix, attributePath),
-                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
+                        viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, defaultBatchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute)));
             }
         } else if (attribute.getFetchStrategy() == FetchStrategy.SUBSELECT) {
@@ -1218,6 +1217,22 @@ public class ViewTypeObjectBuilderTemplate<T> {
         return "multiset_" + attributePath.replace('.', '_');
     }
 
+    private int getDefaultBatchSize(AbstractAttribute<?, ?> attribute) {
+        // Batching more than a single correlation key per query requires the VALUES clause
+        if (attribute.getFetchStrategy() == FetchStrategy.LAZY && evm.isValuesClauseSupported()) {
+            return LazyCorrelatedTupleListTransformerFactory.DEFAULT_BATCH_SIZE;
+        }
+        return 1;
+    }
+
+    private void addBatchTupleListTransformerFactory(TupleElementMapperBuilder mapperBuilder, AbstractAttribute<?, ?> attribute, AbstractCorrelatedBatchTupleListTransformerFactory factory) {
+        if (attribute.getFetchStrategy() == FetchStrategy.LAZY) {
+            mapperBuilder.addTupleListTransformerFactory(new LazyCorrelatedTupleListTransformerFactory(factory, evm.getLazyFetchStatistics()));
+        } else {
+            mapperBuilder.addTupleListTransformerFactory(factory);
+        }
+    }
+
     private Limiter createLimiter(TupleElementMapperBuilder mapperBuilder, String prefix, Attribute<?, ?> attribute) {
         return createLimiter(mapperBuilder, prefix, attribute.getLimitExpression(), attribute.getOffsetExpression(), attribute.getOrderByItems());
     }
@@ -1437,7 +1452,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
         if (tupleTransformatorFactory.hasTransformers() && !isSubview) {
             if (tupleTransformatorFactory.hasListTransformers()) {
-                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
+                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, hasId ? idPositions : null);
             } else {
                 result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
             }
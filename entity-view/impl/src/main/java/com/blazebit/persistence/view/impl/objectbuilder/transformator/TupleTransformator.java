@@ -16,15 +16,26 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 
+import com.blazebit.persistence.parser.util.SiblingEntityManagerFactory;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleRest;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.ConcurrentTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
+import com.blazebit.persistence.view.impl.tx.TransactionHelper;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * @author Christian Beikov
@@ -33,9 +44,19 @@ import java.util.Set;
 public class TupleTransformator {
 
     private final List<TupleTransformatorLevel> transformatorLevels;
+    private final EntityViewConfiguration entityViewConfiguration;
+    private final Executor correlationExecutor;
+    private final int correlationParallelism;
 
     public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels) {
+        this(transformatorLevels, null);
+    }
+
+    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels, EntityViewConfiguration entityViewConfiguration) {
         this.transformatorLevels = transformatorLevels;
+        this.entityViewConfiguration = entityViewConfiguration;
+        this.correlationExecutor = entityViewConfiguration == null ? null : entityViewConfiguration.getCorrelationExecutor();
+        this.correlationParallelism = entityViewConfiguration == null ? 1 : entityViewConfiguration.getCorrelationParallelism();
     }
 
     public List<Object[]> transformAll(List<Object[]> tupleList) {
@@ -50,7 +71,13 @@ public class TupleTransformator {
                     newTupleListIter.set(transform(i, tuple, updatableViewMap));
                 }
             }
-            tupleList = transform(i, tupleList);
+            int end = getConcurrentLevelsEnd(i);
+            if (end - i > 1 && !isTransactionActive()) {
+                tupleList = transformConcurrently(i, end, tupleList);
+                i = end - 1;
+            } else {
+                tupleList = transform(i, tupleList);
+            }
         }
 
         // if we have multiple levels, we must filter duplicates afterwards
@@ -86,6 +113,89 @@ public class TupleTransformator {
         return currentTuple;
     }
 
+    private int getConcurrentLevelsEnd(int level) {
+        if (correlationExecutor == null || correlationParallelism < 2) {
+            return level;
+        }
+        // Adjacent list transformers that can run concurrently are independent of each other as long as no tuple transformer runs in between
+        int end = level;
+        while (end < transformatorLevels.size()) {
+            TupleTransformatorLevel transformatorLevel = transformatorLevels.get(end);
+            if (end != level && transformatorLevel.tupleTransformers.length != 0
+                    || !(transformatorLevel.tupleListTransformer instanceof ConcurrentTupleListTransformer)
+                    || !((ConcurrentTupleListTransformer) transformatorLevel.tupleListTransformer).isConcurrent()) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private boolean isTransactionActive() {
+        // Within a transaction, the correlation queries must see the changes of the transaction and can't use separate entity managers
+        return TransactionHelper.getTransactionAccess(entityViewConfiguration.getEntityManager()).isActive();
+    }
+
+    private List<Object[]> transformConcurrently(int start, int end, final List<Object[]> tupleList) {
+        final SiblingEntityManagerFactory entityManagerFactory = new SiblingEntityManagerFactory(entityViewConfiguration.getEntityManager());
+        int taskCount = Math.min(correlationParallelism, end - start);
+        List<List<ConcurrentTupleListTransformer>> taskTransformers = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            taskTransformers.add(new ArrayList<ConcurrentTupleListTransformer>());
+        }
+        // Distribute round-robin so that the assignment is deterministic
+        for (int i = start; i < end; i++) {
+            taskTransformers.get((i - start) % taskCount).add((ConcurrentTupleListTransformer) transformatorLevels.get(i).tupleListTransformer);
+        }
+
+        // The first chunk is executed by the current thread through the entity manager of the query
+        List<FutureTask<Object>> futures = new ArrayList<>(taskCount - 1);
+        try {
+            for (int i = 1; i < taskCount; i++) {
+                final List<ConcurrentTupleListTransformer> transformers = taskTransformers.get(i);
+                FutureTask<Object> future = new FutureTask<>(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        // The entity manager is not thread safe, so every task uses a separate one
+                        EntityManager entityManager = entityManagerFactory.createEntityManager();
+                        try {
+                            for (ConcurrentTupleListTransformer transformer : transformers) {
+                                transformer.transform(tupleList, entityManager);
+                            }
+                            return null;
+                        } finally {
+                            entityManager.close();
+                        }
+                    }
+                });
+                futures.add(future);
+                correlationExecutor.execute(future);
+            }
+            for (ConcurrentTupleListTransformer transformer : taskTransformers.get(0)) {
+                ((TupleListTransformer) transformer).transform(tupleList);
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while waiting for correlation queries", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PersistenceException("A correlation query failed", cause);
+        } finally {
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).cancel(false);
+            }
+        }
+        return tupleList;
+    }
+
     private List<Object[]> transform(int level, List<Object[]> tupleList) {
         TupleListTransformer tupleListTransformer = transformatorLevels.get(level).tupleListTransformer;
         if (tupleListTransformer == null) {
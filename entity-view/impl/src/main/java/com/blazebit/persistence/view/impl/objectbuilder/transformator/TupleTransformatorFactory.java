@@ -19,11 +19,13 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.objectbuilder.ConstrainedTupleList;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.ConcurrentTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformerFactory;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -204,6 +206,40 @@ public class TupleTransformatorFactory {
             }
             return tuples;
         }
+
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class ConcurrentConstrainedTupleListTransformer extends ConstrainedTupleListTransformer implements ConcurrentTupleListTransformer {
+
+        private final int classMappingIndex;
+        private final int[] subtypeIndexes;
+        private final ConcurrentTupleListTransformer delegate;
+
+        public ConcurrentConstrainedTupleListTransformer(int classMappingIndex, int[] subtypeIndexes, TupleListTransformer delegate) {
+            super(classMappingIndex, subtypeIndexes, delegate);
+            this.classMappingIndex = classMappingIndex;
+            this.subtypeIndexes = subtypeIndexes;
+            this.delegate = (ConcurrentTupleListTransformer) delegate;
+        }
+
+        @Override
+        public boolean isConcurrent() {
+            return delegate.isConcurrent();
+        }
+
+        @Override
+        public List<Object[]> transform(List<Object[]> tuples, EntityManager entityManager) {
+            ConstrainedTupleList tupleList = new ConstrainedTupleList(classMappingIndex, subtypeIndexes, tuples);
+            if (!tupleList.isEmpty()) {
+                delegate.transform(tupleList, entityManager);
+            }
+            return tuples;
+        }
     }
 
     /**
@@ -230,7 +266,11 @@ public class TupleTransformatorFactory {
 
         @Override
         public TupleListTransformer create(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
-            return new ConstrainedTupleListTransformer(classMappingIndex, subtypeIndexes, delegate.create(parameterHolder, optionalParameters, entityViewConfiguration));
+            TupleListTransformer tupleListTransformer = delegate.create(parameterHolder, optionalParameters, entityViewConfiguration);
+            if (tupleListTransformer instanceof ConcurrentTupleListTransformer) {
+                return new ConcurrentConstrainedTupleListTransformer(classMappingIndex, subtypeIndexes, tupleListTransformer);
+            }
+            return new ConstrainedTupleListTransformer(classMappingIndex, subtypeIndexes, tupleListTransformer);
         }
     }
 
@@ -277,6 +317,6 @@ public class TupleTransformatorFactory {
             newTransformatorLevels[i] = new TupleTransformatorLevel(tupleTransformers, tupleListTransformer);
         }
         
-        return new TupleTransformator(Arrays.asList(newTransformatorLevels));
+        return new TupleTransformator(Arrays.asList(newTransformatorLevels), entityViewConfiguration);
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * A tuple list transformer that can be executed concurrently to other transformers because it can execute its queries through a separate entity manager.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public interface ConcurrentTupleListTransformer {
+
+    /**
+     * Returns whether concurrent execution was enabled for the attribute of this transformer.
+     *
+     * @return whether the transformer may be executed concurrently
+     */
+    public boolean isConcurrent();
+
+    /**
+     * Transforms the tuples like {@link TupleListTransformer#transform(List)} but executes queries through the given entity manager.
+     *
+     * @param tuples The tuples to transform
+     * @param entityManager The entity manager to use for queries
+     * @return The transformed tuples
+     */
+    public List<Object[]> transform(List<Object[]> tuples, EntityManager entityManager);
+}
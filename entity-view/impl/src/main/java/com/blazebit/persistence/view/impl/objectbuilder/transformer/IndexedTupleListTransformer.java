@@ -18,14 +18,13 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformer;
 
 import com.blazebit.persistence.view.impl.objectbuilder.ContainerAccumulator;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleId;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleIdMap;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleIndexValue;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
  *
@@ -60,15 +59,14 @@ public class IndexedTupleListTransformer extends TupleListTransformer {
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
-        Map<TupleId, TupleIndexValue> tupleIndex = new HashMap<TupleId, TupleIndexValue>(tuples.size());
+        TupleIdMap<TupleIndexValue> tupleIndex = new TupleIdMap<>(parentIdPositions, tuples.size());
         Iterator<Object[]> tupleListIter = tuples.iterator();
 
         while (tupleListIter.hasNext()) {
             Object[] tuple = tupleListIter.next();
-            TupleId id = new TupleId(parentIdPositions, tuple);
             // Skip constructing the collection and removing tuples when the parent is empty i.e. null
-            if (!id.isEmpty()) {
-                TupleIndexValue tupleIndexValue = tupleIndex.get(id);
+            if (!TupleId.isEmpty(parentIdPositions, tuple)) {
+                TupleIndexValue tupleIndexValue = tupleIndex.get(tuple);
 
                 // At startIndex we have the index/key of the list/map
                 // At valueStartIndex is the actual element that should be put into the collection
@@ -79,7 +77,7 @@ public class IndexedTupleListTransformer extends TupleListTransformer {
                     add(collection, key, tuple[valueStartIndex]);
                     tuple[startIndex] = collection;
                     tuple[valueStartIndex] = TupleReuse.CONSUMED;
-                    tupleIndex.put(id, tupleIndexValue);
+                    tupleIndex.put(tuple, tupleIndexValue);
                 } else if (tupleIndexValue.addRestTuple(tuple, startIndex, valueOffset + 1)) {
                     Object collection = tupleIndexValue.getTupleValue();
                     Object key = tuple[startIndex];
@@ -25,6 +25,7 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.CorrelationProviderFactory;
+import com.blazebit.persistence.view.impl.CorrelationBatchStatisticsImpl;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryEmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryViewRootJpqlMacro;
@@ -34,11 +35,11 @@ import com.blazebit.persistence.view.impl.objectbuilder.ContainerAccumulator;
 import com.blazebit.persistence.view.impl.objectbuilder.LateAdditionalObjectBuilder;
 import com.blazebit.persistence.view.impl.objectbuilder.Limiter;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.ConcurrentTupleListTransformer;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.ViewType;
 
 import javax.persistence.EntityManager;
-import javax.persistence.Parameter;
 import javax.persistence.Query;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,7 +52,7 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public abstract class AbstractCorrelatedBatchTupleListTransformer extends AbstractCorrelatedTupleListTransformer {
+public abstract class AbstractCorrelatedBatchTupleListTransformer extends AbstractCorrelatedTupleListTransformer implements ConcurrentTupleListTransformer {
 
     public static final String CORRELATION_KEY_ALIAS = "correlationKey";
     private static final String CORRELATION_PARAM_PREFIX = "correlationParam_";
@@ -61,6 +62,9 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected final BatchCorrelationMode expectBatchCorrelationMode;
     protected final int valueIndex;
     protected final int keyIndex;
+    protected final CorrelationBatchStatisticsImpl correlationBatchStatistics;
+    protected final String correlationBatchStatisticsKey;
+    protected final boolean concurrent;
 
     protected String correlationParamName;
     protected String correlationSelectExpression;
@@ -68,25 +72,49 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected CorrelatedSubqueryEmbeddingViewJpqlMacro embeddingViewJpqlMacro;
     protected Query query;
+    private int executedQueries;
+    private int correlatedKeys;
+    private long resultRows;
+    private long queryNanos;
+    private BatchCorrelationMode usedBatchCorrelationMode;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ContainerAccumulator<?> containerAccumulator, ManagedViewTypeImplementor<?> viewRootType, ManagedViewTypeImplementor<?> embeddingViewType, Expression correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, String[] indexFetches,
-                                                       Expression indexExpression, Correlator indexCorrelator, boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter, EntityViewConfiguration entityViewConfiguration) {
+                                                       Expression indexExpression, Correlator indexCorrelator, boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int batchSize, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter, EntityViewConfiguration entityViewConfiguration) {
         super(ef, correlator, containerAccumulator, viewRootType, embeddingViewType, correlationResult, correlationProviderFactory, attributePath, fetches, indexFetches, indexExpression, indexCorrelator, viewRootIndex, embeddingViewIndex, tupleIndex, correlationBasisType, correlationBasisEntity, limiter, entityViewConfiguration);
-        this.batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        this.correlationBatchStatistics = entityViewConfiguration.getCorrelationBatchStatistics();
+        // A batch size configured for the query or via annotations takes precedence over the default and the adaptive choice
+        int configuredBatchSize = entityViewConfiguration.getBatchSize(attributePath, batchSize);
+        if (correlationBatchStatistics == null) {
+            this.correlationBatchStatisticsKey = null;
+            this.batchSize = configuredBatchSize == -1 ? defaultBatchSize : configuredBatchSize;
+            this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
+        } else {
+            this.correlationBatchStatisticsKey = CorrelationBatchStatisticsImpl.getKey(viewRootType.getJavaType(), attributePath);
+            BatchCorrelationMode configuredBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath, null);
+            this.batchSize = configuredBatchSize == -1 ? correlationBatchStatistics.getBatchSize(correlationBatchStatisticsKey, defaultBatchSize) : configuredBatchSize;
+            if (configuredBatchCorrelationMode != null) {
+                this.expectBatchCorrelationMode = configuredBatchCorrelationMode;
+            } else if (this.batchSize > 1) {
+                this.expectBatchCorrelationMode = correlationBatchStatistics.getBatchCorrelationMode(correlationBatchStatisticsKey, BatchCorrelationMode.VALUES);
+            } else {
+                // The view root and embedding view batch modes are only applicable when batching
+                this.expectBatchCorrelationMode = BatchCorrelationMode.VALUES;
+            }
+        }
         this.correlatesThis = correlatesThis;
-        this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
+        this.concurrent = entityViewConfiguration.isConcurrentCorrelation(attributePath);
         this.valueIndex = correlator.getElementOffset();
         this.keyIndex = valueIndex + 1;
     }
 
     private String generateCorrelationParamName() {
-        final FullQueryBuilder<?, ?> queryBuilder = entityViewConfiguration.getCriteriaBuilder();
+        final Map<String, Object> parameterValues = entityViewConfiguration.getParameterValues();
         final Map<String, Object> optionalParameters = entityViewConfiguration.getOptionalParameters();
         int paramNumber = 0;
         String paramName;
         while (true) {
             paramName = CORRELATION_PARAM_PREFIX + paramNumber;
-            if (queryBuilder.getParameter(paramName) != null) {
+            if (parameterValues.containsKey(paramName)) {
                 paramNumber++;
             } else if (optionalParameters.containsKey(paramName)) {
                 paramNumber++;
@@ -96,14 +124,14 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode) {
+    private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode, EntityViewConfiguration configuration) {
         Class<?> viewRootEntityClass = viewRootType.getEntityClass();
         Class<?> embeddingViewEntityClass = embeddingViewType.getEntityClass();
         String viewRootIdAttributePath = getEntityIdName(viewRootEntityClass);
         String embeddingViewIdAttributePath = getEntityIdName(embeddingViewEntityClass);
 
-        FullQueryBuilder<?, ?> queryBuilder = entityViewConfiguration.getCriteriaBuilder();
-        Map<String, Object> optionalParameters = entityViewConfiguration.getOptionalParameters();
+        FullQueryBuilder<?, ?> queryBuilder = configuration.getCriteriaBuilder();
+        Map<String, Object> optionalParameters = configuration.getOptionalParameters();
 
         Class<?> correlationBasisEntityType;
         String viewRootExpression;
@@ -124,7 +152,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             embeddingViewExpression = CORRELATION_KEY_ALIAS;
         }
 
-        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(queryBuilder.getEntityManager(), Object[].class);
+        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(configuration.getEntityManager(), Object[].class);
         if (queryBuilder instanceof CTEBuilder<?>) {
             this.criteriaBuilder.withCtesFrom((CTEBuilder<?>) queryBuilder);
         }
@@ -136,7 +164,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
         String joinBase = CORRELATION_KEY_ALIAS;
         SubqueryCorrelationBuilder correlationBuilder = new SubqueryCorrelationBuilder(queryBuilder, optionalParameters, criteriaBuilder, correlationAlias, correlationExternalAlias, correlationResult, correlationBasisType, correlationBasisEntityType, joinBase, attributePath, batchSize, limiter, false);
-        CorrelationProvider provider = correlationProviderFactory.create(entityViewConfiguration.getCriteriaBuilder(), entityViewConfiguration.getOptionalParameters());
+        CorrelationProvider provider = correlationProviderFactory.create(configuration.getCriteriaBuilder(), configuration.getOptionalParameters());
 
         String correlationKeyExpression;
         if (batchSize > 1) {
@@ -189,20 +217,39 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         return correlationBuilder.getCorrelationRoot();
     }
 
+    @Override
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    @Override
+    public List<Object[]> transform(List<Object[]> tuples, EntityManager entityManager) {
+        return transform(tuples, entityViewConfiguration.forConcurrentExecution(entityManager));
+    }
+
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
+        return transform(tuples, entityViewConfiguration);
+    }
+
+    private List<Object[]> transform(List<Object[]> tuples, EntityViewConfiguration configuration) {
+        executedQueries = 0;
+        correlatedKeys = 0;
+        resultRows = 0L;
+        queryNanos = 0L;
+        usedBatchCorrelationMode = BatchCorrelationMode.VALUES;
         FixedArrayList correlationParams = new FixedArrayList(batchSize);
         // We have the correlation key on the first position if we do batching
         final int tupleOffset = (batchSize > 1 ? 1 : 0) + (indexCorrelator == null && indexExpression == null ? 0 : 1);
 
-        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationMode);
+        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationMode, configuration);
         // Add select items so that macros are properly used and we can query usage
-        ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+        ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, configuration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
         if (batchSize > 1) {
             criteriaBuilder.select(correlationSelectExpression);
         }
         if (indexCorrelator != null) {
-            ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+            ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, configuration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
             if (indexBuilder != null) {
                 criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
             }
@@ -213,23 +260,23 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             if (!(embeddingViewType instanceof ViewType<?>)) {
                 throw new IllegalStateException("The use of EMBEDDING_VIEW in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the embedding view type '" + embeddingViewType.getJavaType().getName() + "' does not declare a @IdMapping!");
             }
-            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, embeddingViewJpqlMacro, BatchCorrelationMode.EMBEDDING_VIEWS, embeddingViewType, embeddingViewIndex);
+            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, embeddingViewJpqlMacro, BatchCorrelationMode.EMBEDDING_VIEWS, embeddingViewType, embeddingViewIndex, configuration);
         } else if (viewRootJpqlMacro.usesViewMacro()) {
             if (!(viewRootType instanceof ViewType<?>)) {
                 throw new IllegalStateException("The use of VIEW_ROOT in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the view root type '" + viewRootType.getJavaType().getName() + "' does not declare a @IdMapping!");
             }
-            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, viewRootJpqlMacro, BatchCorrelationMode.VIEW_ROOTS, viewRootType, viewRootIndex);
+            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, viewRootJpqlMacro, BatchCorrelationMode.VIEW_ROOTS, viewRootType, viewRootIndex, configuration);
         } else {
             EntityManager em = criteriaBuilder.getEntityManager();
             Iterator<Object[]> tupleListIter = tuples.iterator();
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
                 if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
-                    objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES, configuration);
+                    objectBuilder = correlator.finish(criteriaBuilder, configuration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
                     criteriaBuilder.select(correlationSelectExpression);
                     if (indexCorrelator != null) {
-                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, configuration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
                         if (indexBuilder != null) {
                             criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
                         }
@@ -282,15 +329,18 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
 
         consumeTupleMacroViewValues(tuples);
+        if (correlationBatchStatistics != null) {
+            correlationBatchStatistics.record(correlationBatchStatisticsKey, tuples.size(), correlatedKeys, executedQueries, resultRows, queryNanos, usedBatchCorrelationMode);
+        }
         return tuples;
     }
 
     @Override
     protected void populateParameters(FullQueryBuilder<?, ?> queryBuilder) {
-        FullQueryBuilder<?, ?> mainBuilder = entityViewConfiguration.getCriteriaBuilder();
-        for (Parameter<?> paramEntry : mainBuilder.getParameters()) {
-            if (!paramEntry.getName().equals(correlationParamName) && queryBuilder.containsParameter(paramEntry.getName()) && !queryBuilder.isParameterSet(paramEntry.getName())) {
-                queryBuilder.setParameter(paramEntry.getName(), mainBuilder.getParameterValue(paramEntry.getName()));
+        // Uses the parameter values that were captured if the correlation was deferred
+        for (Map.Entry<String, Object> paramEntry : entityViewConfiguration.getParameterValues().entrySet()) {
+            if (!paramEntry.getKey().equals(correlationParamName) && queryBuilder.containsParameter(paramEntry.getKey()) && !queryBuilder.isParameterSet(paramEntry.getKey())) {
+                queryBuilder.setParameter(paramEntry.getKey(), paramEntry.getValue());
             }
         }
         for (Map.Entry<String, Object> paramEntry : entityViewConfiguration.getOptionalParameters().entrySet()) {
@@ -300,7 +350,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private void consumeTupleMacroViewValues(List<Object[]> tuples) {
+    void consumeTupleMacroViewValues(List<Object[]> tuples) {
         int totalSize = tuples.size();
         if (embeddingViewIndex > startIndex && viewRootIndex > startIndex) {
             for (int i = 0; i < totalSize; i++) {
@@ -321,7 +371,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private void transformViewMacroAware(List<Object[]> tuples, FixedArrayList correlationParams, int tupleOffset, String correlationRoot, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode correlationMode, ManagedViewType<?> viewType, int viewIndex) {
+    private void transformViewMacroAware(List<Object[]> tuples, FixedArrayList correlationParams, int tupleOffset, String correlationRoot, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode correlationMode, ManagedViewType<?> viewType, int viewIndex, EntityViewConfiguration configuration) {
         EntityManager em = criteriaBuilder.getEntityManager();
         int totalSize = tuples.size();
         Map<Object, Map<Object, TuplePromise>> viewRoots = new HashMap<>(totalSize);
@@ -367,12 +417,12 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
                 if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
+                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES, configuration);
                     macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
-                    ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+                    ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, configuration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
                     criteriaBuilder.select(correlationSelectExpression);
                     if (indexCorrelator != null) {
-                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, configuration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
                         if (indexBuilder != null) {
                             criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
                         }
@@ -415,15 +465,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
             fillDefaultValues(viewRoots);
         } else {
+            usedBatchCorrelationMode = correlationMode;
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
                 if (expectBatchCorrelationMode != correlationMode) {
-                    applyAndGetCorrelationRoot(correlationMode);
+                    applyAndGetCorrelationRoot(correlationMode, configuration);
                     macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
-                    ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+                    ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, configuration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
                     criteriaBuilder.select(correlationSelectExpression);
                     if (indexCorrelator != null) {
-                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, configuration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
                         if (indexBuilder != null) {
                             criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
                         }
@@ -488,7 +539,17 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
         }
 
-        populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        if (correlationBatchStatistics == null) {
+            populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        } else {
+            long start = System.nanoTime();
+            List<Object> result = (List<Object>) query.getResultList();
+            queryNanos += System.nanoTime() - start;
+            executedQueries++;
+            resultRows += result.size();
+            correlatedKeys += Math.max(batchParameters.realSize(), viewRootIds == null ? 0 : viewRootIds.realSize());
+            populateResult(correlationValues, defaultKey, result);
+        }
 
         batchParameters.reset();
         if (viewRootIds != null) {
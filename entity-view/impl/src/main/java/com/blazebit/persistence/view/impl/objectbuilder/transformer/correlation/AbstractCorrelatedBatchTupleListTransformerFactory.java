@@ -38,6 +38,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
     protected final String[] fetches;
     protected final boolean correlatesThis;
     protected final int batchSize;
+    protected final int defaultBatchSize;
     protected final int viewRootIndex;
     protected final int embeddingViewIndex;
     protected final int tupleIndex;
@@ -46,7 +47,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
     protected final Limiter limiter;
 
     public AbstractCorrelatedBatchTupleListTransformerFactory(Correlator correlator, ManagedViewTypeImplementor<?> viewRootType, ManagedViewTypeImplementor<?> embeddingViewType, Expression correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches,
-                                                              boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int batchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter) {
+                                                              boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int batchSize, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter) {
         this.correlator = correlator;
         this.viewRootType = viewRootType;
         this.embeddingViewType = embeddingViewType;
@@ -57,6 +58,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
         this.embeddingViewIndex = embeddingViewIndex;
         this.tupleIndex = tupleIndex;
         this.batchSize = batchSize;
+        this.defaultBatchSize = defaultBatchSize;
         this.attributePath = attributePath;
         this.fetches = fetches;
         this.correlationBasisType = correlationBasisType;
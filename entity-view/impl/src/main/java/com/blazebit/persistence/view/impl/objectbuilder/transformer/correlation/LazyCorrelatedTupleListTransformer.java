@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.parser.util.SiblingEntityManagerFactory;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.LazyFetchStatisticsImpl;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
+import com.blazebit.persistence.view.impl.proxy.LazyAttributeLoader;
+import com.blazebit.persistence.view.spi.EntityManagerSupplier;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Defers the select correlation of the delegate until the attribute is accessed on one of the resulting entity views.
+ * Every tuple gets a {@link LazyAttributeLoader} instead of the correlated value, which refers to a copy of the tuple.
+ * On first access, the copies of all tuples of the result list are correlated at once by a transformer of the delegate factory,
+ * that is created for the result list with the parameter values of the query at the time of the transformation.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class LazyCorrelatedTupleListTransformer extends TupleListTransformer {
+
+    private final AbstractCorrelatedBatchTupleListTransformerFactory delegateFactory;
+    private final ParameterHolder<?> parameterHolder;
+    private final Map<String, Object> optionalParameters;
+    private final EntityViewConfiguration entityViewConfiguration;
+    private final LazyFetchStatisticsImpl lazyFetchStatistics;
+    private final String lazyFetchStatisticsKey;
+
+    public LazyCorrelatedTupleListTransformer(int startIndex, AbstractCorrelatedBatchTupleListTransformerFactory delegateFactory, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration,
+                                              LazyFetchStatisticsImpl lazyFetchStatistics, String lazyFetchStatisticsKey) {
+        super(startIndex);
+        this.delegateFactory = delegateFactory;
+        this.parameterHolder = parameterHolder;
+        this.optionalParameters = optionalParameters;
+        this.entityViewConfiguration = entityViewConfiguration;
+        this.lazyFetchStatistics = lazyFetchStatistics;
+        this.lazyFetchStatisticsKey = lazyFetchStatisticsKey;
+    }
+
+    @Override
+    public int getConsumableIndex() {
+        return delegateFactory.getConsumableIndex();
+    }
+
+    @Override
+    public List<Object[]> transform(List<Object[]> tuples) {
+        int size = tuples.size();
+        if (size == 0) {
+            return tuples;
+        }
+        List<Object[]> lazyTuples = new ArrayList<>(size);
+        Object[] keys = new Object[size];
+        // Every batch has its own transformer, as the transformers keep state while correlating
+        EntityViewConfiguration deferredConfiguration = entityViewConfiguration.forDeferredExecution();
+        AbstractCorrelatedBatchTupleListTransformer delegate = (AbstractCorrelatedBatchTupleListTransformer) delegateFactory.create(parameterHolder, optionalParameters, deferredConfiguration);
+        LazyBatch batch = new LazyBatch(delegate, deferredConfiguration, lazyTuples, keys);
+        for (int i = 0; i < size; i++) {
+            Object[] tuple = tuples.get(i);
+            Object[] lazyTuple = Arrays.copyOf(tuple, tuple.length);
+            lazyTuples.add(lazyTuple);
+            keys[i] = tuple[startIndex];
+            tuple[startIndex] = new LazyAttributeLoader(batch, lazyTuple, startIndex);
+        }
+        delegate.consumeTupleMacroViewValues(tuples);
+        lazyFetchStatistics.recordDeferred(lazyFetchStatisticsKey, size);
+        return tuples;
+    }
+
+    /**
+     * The tuple copies of a result list that are correlated together.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private final class LazyBatch implements LazyAttributeLoader.Batch {
+
+        private final AbstractCorrelatedBatchTupleListTransformer delegate;
+        private final List<Object[]> lazyTuples;
+        private final Object[] keys;
+        private final EntityManagerSupplier entityManagerSupplier;
+        private final EntityManager entityManager;
+        private final SiblingEntityManagerFactory entityManagerFactory;
+        private boolean loaded;
+
+        public LazyBatch(AbstractCorrelatedBatchTupleListTransformer delegate, EntityViewConfiguration configuration, List<Object[]> lazyTuples, Object[] keys) {
+            this.delegate = delegate;
+            this.lazyTuples = lazyTuples;
+            this.keys = keys;
+            this.entityManagerSupplier = configuration.getLazyFetchEntityManagerSupplier();
+            this.entityManager = configuration.getEntityManager();
+            // The entity manager factory and properties must be determined now, as they can't be retrieved from a closed entity manager
+            this.entityManagerFactory = entityManagerSupplier == null ? new SiblingEntityManagerFactory(entityManager) : null;
+        }
+
+        @Override
+        public synchronized void load() {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                if (entityManagerSupplier != null) {
+                    EntityManager supplied = entityManagerSupplier.getEntityManager();
+                    if (supplied == null) {
+                        throw new IllegalStateException("The lazy fetch entity manager supplier returned null!");
+                    }
+                    delegate.transform(lazyTuples, supplied);
+                } else if (entityManager.isOpen()) {
+                    delegate.transform(lazyTuples);
+                } else {
+                    EntityManager temporary = entityManagerFactory.createEntityManager();
+                    try {
+                        delegate.transform(lazyTuples, temporary);
+                    } finally {
+                        temporary.close();
+                    }
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    // Restore the correlation keys so that the load can be retried
+                    for (int i = 0; i < keys.length; i++) {
+                        lazyTuples.get(i)[startIndex] = keys[i];
+                    }
+                }
+            }
+            loaded = true;
+            lazyFetchStatistics.recordLoad(lazyFetchStatisticsKey, lazyTuples.size(), System.nanoTime() - start);
+        }
+    }
+}
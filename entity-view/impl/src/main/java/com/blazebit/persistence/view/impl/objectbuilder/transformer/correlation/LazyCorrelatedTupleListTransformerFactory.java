@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.view.impl.CorrelationBatchStatisticsImpl;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.LazyFetchStatisticsImpl;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformerFactory;
+
+import java.util.Map;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class LazyCorrelatedTupleListTransformerFactory implements TupleListTransformerFactory {
+
+    /**
+     * The batch size for lazy fetched attributes without an explicit batch size, as all views of a result list are loaded at once.
+     * Only used if the JPA provider supports the VALUES clause, otherwise the default batch size is <code>1</code>.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    private final AbstractCorrelatedBatchTupleListTransformerFactory delegate;
+    private final LazyFetchStatisticsImpl lazyFetchStatistics;
+    private final String lazyFetchStatisticsKey;
+
+    public LazyCorrelatedTupleListTransformerFactory(AbstractCorrelatedBatchTupleListTransformerFactory delegate, LazyFetchStatisticsImpl lazyFetchStatistics) {
+        this.delegate = delegate;
+        this.lazyFetchStatistics = lazyFetchStatistics;
+        this.lazyFetchStatisticsKey = CorrelationBatchStatisticsImpl.getKey(delegate.viewRootType.getJavaType(), delegate.attributePath);
+    }
+
+    @Override
+    public int getConsumableIndex() {
+        return delegate.getConsumableIndex();
+    }
+
+    @Override
+    public TupleListTransformer create(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+        return new LazyCorrelatedTupleListTransformer(delegate.tupleIndex, delegate, parameterHolder, optionalParameters, entityViewConfiguration, lazyFetchStatistics, lazyFetchStatisticsKey);
+    }
+}
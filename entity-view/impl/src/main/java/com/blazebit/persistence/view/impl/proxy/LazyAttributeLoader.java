@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.proxy;
+
+/**
+ * The value of a {@link com.blazebit.persistence.view.FetchStrategy#LAZY} fetched attribute in the tuple of an entity view until it is accessed.
+ * The proxy constructors store the loader in a separate field and the getter of the attribute replaces the loader by the value of {@link #load()} on first access.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public final class LazyAttributeLoader {
+
+    private final Batch batch;
+    private final Object[] tuple;
+    private final int index;
+    private final Object key;
+
+    public LazyAttributeLoader(Batch batch, Object[] tuple, int index) {
+        this.batch = batch;
+        this.tuple = tuple;
+        this.index = index;
+        this.key = tuple[index];
+    }
+
+    /**
+     * Returns the given tuple value if it is a lazy attribute loader or <code>null</code> otherwise.
+     *
+     * @param value The tuple value
+     * @return The loader or <code>null</code>
+     */
+    public static LazyAttributeLoader getLoader(Object value) {
+        return value instanceof LazyAttributeLoader ? (LazyAttributeLoader) value : null;
+    }
+
+    /**
+     * Returns the given tuple value if it is not a lazy attribute loader or <code>null</code> otherwise.
+     *
+     * @param value The tuple value
+     * @return The value or <code>null</code>
+     */
+    public static Object getValue(Object value) {
+        return value instanceof LazyAttributeLoader ? null : value;
+    }
+
+    /**
+     * Loads the attribute for all tuples of the batch, if that didn't happen yet, and returns the value for the tuple of this loader.
+     *
+     * @return The attribute value
+     */
+    public Object load() {
+        batch.load();
+        return tuple[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LazyAttributeLoader)) {
+            return false;
+        }
+        LazyAttributeLoader that = (LazyAttributeLoader) o;
+        return batch == that.batch && (key == null ? that.key == null : key.equals(that.key));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(batch) + (key == null ? 0 : key.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "LazyAttributeLoader(" + key + ")";
+    }
+
+    /**
+     * The tuples of a result list for which an attribute is loaded together.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    public interface Batch {
+
+        /**
+         * Loads the attribute values into the tuples of the batch if that didn't happen yet.
+         */
+        public void load();
+    }
+}
@@ -20,6 +20,7 @@ import com.blazebit.lang.StringUtils;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.spi.PackageOpener;
 import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.FetchStrategy;
 import com.blazebit.persistence.view.FlushMode;
 import com.blazebit.persistence.view.SerializableEntityViewManager;
 import com.blazebit.persistence.view.StaticImplementation;
@@ -135,7 +136,8 @@ public class ProxyFactory {
     private final ConcurrentMap<Class<?>, Class<?>> unsafeProxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> proxyClassesToViewClasses = new ConcurrentHashMap<>();
     private final Object proxyLock = new Object();
-    private final ClassPool pool;
+    // Lazily initialized, so that no bytecode generation infrastructure is created if static implementations are used
+    private ClassPool pool;
     private final boolean unsafeDisabled;
     private final boolean strictCascadingCheck;
     private final PackageOpener packageOpener;
@@ -167,9 +169,6 @@ public class ProxyFactory {
     }
 
     public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, PackageOpener packageOpener) {
-        ClassPool pool = new ClassPool((ClassPool) null);
-        pool.appendSystemPath();
-        this.pool = pool;
         this.unsafeDisabled = unsafeDisabled;
         this.strictCascadingCheck = strictCascadingCheck;
         this.packageOpener = packageOpener;
@@ -232,8 +231,15 @@ public class ProxyFactory {
         try {
             entityViewImplementationClass.getDeclaredField(SerializableEntityViewManager.EVM_FIELD_NAME).set(null, entityViewManager);
             // Sanity check
+            boolean hasLazyAttributes = false;
             for (MethodAttribute<?, ?> attribute : managedView.getAttributes()) {
                 entityViewImplementationClass.getDeclaredField(attribute.getName());
+                hasLazyAttributes = hasLazyAttributes || isLazy((AbstractMethodAttribute<?, ?>) attribute);
+            }
+            if (hasLazyAttributes) {
+                // Static implementations expect the attribute values in the tuple, but LAZY attributes receive a loader that only generated proxies understand
+                LOG.fine("Ignoring static implementation class '" + implementationClassName + "' because the entity view type has LAZY attributes");
+                return;
             }
             proxyClasses.put(javaType, entityViewImplementationClass);
             proxyClassesToViewClasses.put(entityViewImplementationClass, javaType);
@@ -260,6 +266,11 @@ public class ProxyFactory {
             synchronized (proxyLock) {
                 proxyClass = (Class<? extends T>) classes.get(clazz);
                 if (proxyClass == null) {
+                    if (pool == null) {
+                        ClassPool pool = new ClassPool((ClassPool) null);
+                        pool.appendSystemPath();
+                        this.pool = pool;
+                    }
                     proxyClass = createProxyClass(entityViewManager, viewType, unsafe);
                     classes.put(clazz, proxyClass);
                     proxyClassesToViewClasses.put(proxyClass, clazz);
@@ -557,7 +568,7 @@ public class ProxyFactory {
                                 supportsDirtyTracking[mutableAttributeIndex++] = true;
                             } else {
                                 allSupportDirtyTracking = false;
-                                alwaysDirtyMask |= 1 << mutableAttributeIndex;
+                                alwaysDirtyMask |= 1L << mutableAttributeIndex;
                                 supportsDirtyTracking[mutableAttributeIndex++] = false;
                             }
                         }
@@ -1080,10 +1091,10 @@ public class ProxyFactory {
         if (!hasCustomEqualsHashCode) {
             if (viewType != null) {
                 cc.addMethod(createIdEquals(managedViewType, cc));
-                cc.addMethod(createHashCode(cc, idField));
+                cc.addMethod(createHashCode(managedViewType, cc, idField));
             } else {
                 cc.addMethod(createEquals(managedViewType, cc, attributeFields));
-                cc.addMethod(createHashCode(cc, attributeFields));
+                cc.addMethod(createHashCode(managedViewType, cc, attributeFields));
             }
         }
     }
@@ -1233,24 +1244,72 @@ public class ProxyFactory {
         
         // Create the field from the attribute
         CtField attributeField = new CtField(getType(attribute), attribute.getName(), cc);
-        attributeField.setModifiers(getModifiers(forceMutable || setter != null));
+        // The value of a lazy attribute is assigned on first access
+        boolean lazy = isLazy(attribute);
+        attributeField.setModifiers(getModifiers(forceMutable || setter != null || lazy));
         String genericSignature = getGenericSignature(attribute, attributeField);
         if (genericSignature != null) {
             setGenericSignature(attributeField, genericSignature);
         }
         cc.addField(attributeField);
+
+        CtField lazyLoaderField = null;
+        if (lazy) {
+            lazyLoaderField = new CtField(pool.get(LazyAttributeLoader.class.getName()), getLazyLoaderFieldName(attribute), cc);
+            lazyLoaderField.setModifiers(Modifier.PRIVATE | Modifier.TRANSIENT | Modifier.VOLATILE);
+            cc.addField(lazyLoaderField);
+        }
         
-        createGettersAndSetters(attribute, clazz, cc, getter, setter, mutableStateField, attributeField, dirtyChecking, isId);
+        createGettersAndSetters(attribute, clazz, cc, getter, setter, mutableStateField, attributeField, lazyLoaderField, dirtyChecking, isId);
         
         return attributeField;
     }
 
-    private void createGettersAndSetters(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, Method getter, Method setter, CtField mutableStateField, CtField attributeField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
+    private static boolean isLazy(AbstractMethodAttribute<?, ?> attribute) {
+        return attribute != null && attribute.getFetchStrategy() == FetchStrategy.LAZY;
+    }
+
+    private static String getLazyLoaderFieldName(AbstractMethodAttribute<?, ?> attribute) {
+        return "$$_lazy_" + attribute.getName();
+    }
+
+    private static String getFieldAccess(ManagedViewTypeImplementor<?> managedViewType, CtField field) {
+        AbstractMethodAttribute<?, ?> attribute = (AbstractMethodAttribute<?, ?>) managedViewType.getAttribute(field.getName());
+        if (isLazy(attribute)) {
+            // Invoke the getter so that the lazy attribute is loaded
+            return "$0." + attribute.getJavaMethod().getName() + "()";
+        }
+        return "$0." + field.getName();
+    }
+
+    private CtMethod addLazyGetter(CtClass cc, CtField field, CtField lazyLoaderField, String methodName) throws CannotCompileException, NotFoundException {
+        String fieldTypeName = field.getType().getName();
+        StringBuilder sb = new StringBuilder();
+        sb.append("public ").append(fieldTypeName).append(' ').append(methodName).append("() {\n");
+        sb.append("\t").append(LazyAttributeLoader.class.getName()).append(" loader = $0.").append(lazyLoaderField.getName()).append(";\n");
+        sb.append("\tif (loader != null) {\n");
+        sb.append("\t\t$0.").append(field.getName()).append(" = (").append(fieldTypeName).append(") loader.load();\n");
+        // The volatile write of the loader field publishes the loaded value to other threads
+        sb.append("\t\t$0.").append(lazyLoaderField.getName()).append(" = null;\n");
+        sb.append("\t}\n");
+        sb.append("\treturn $0.").append(field.getName()).append(";\n");
+        sb.append("}");
+        CtMethod method = CtMethod.make(sb.toString(), cc);
+        cc.addMethod(method);
+        return method;
+    }
+
+    private void createGettersAndSetters(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, Method getter, Method setter, CtField mutableStateField, CtField attributeField, CtField lazyLoaderField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
         SignatureAttribute sa = (SignatureAttribute)attributeField.getFieldInfo2().getAttribute(SignatureAttribute.tag);
         String genericSignature = sa == null ? null : sa.getSignature();
         List<Method> bridgeGetters = getBridgeGetters(clazz, attribute, getter);
         
-        CtMethod attributeGetter = addGetter(cc, attributeField, getter.getName());
+        CtMethod attributeGetter;
+        if (lazyLoaderField == null) {
+            attributeGetter = addGetter(cc, attributeField, getter.getName());
+        } else {
+            attributeGetter = addLazyGetter(cc, attributeField, lazyLoaderField, getter.getName());
+        }
         
         if (genericSignature != null) {
             String getterGenericSignature = "()" + genericSignature;
@@ -1370,7 +1429,7 @@ public class ProxyFactory {
         StringBuilder sb = new StringBuilder();
 
         sb.append("{\n");
-        sb.append("\t$0.").append(dirtyFieldName).append(" |= (1 << $1);\n");
+        sb.append("\t$0.").append(dirtyFieldName).append(" |= (1L << $1);\n");
 
         sb.append("\tif ($0.$$_parent != null) {\n");
         sb.append("\t$0.$$_parent.$$_markDirty($0.$$_parentIndex);\n");
@@ -1518,10 +1577,10 @@ public class ProxyFactory {
         }
 
         for (int i = 0; i < supportsDirtyTracking.length; i++) {
-            long mask = 1 << i;
+            long mask = 1L << i;
 
             if (supportsDirtyTracking[i]) {
-                sb.append("\t\t$2[").append(i).append("] = (dirty & ").append(mask).append(") == 0 ? null : $1[").append(i).append("];\n");
+                sb.append("\t\t$2[").append(i).append("] = (dirty & ").append(mask).append("L) == 0 ? null : $1[").append(i).append("];\n");
             } else {
                 sb.append("\t\t$2[").append(i).append("] = $1[").append(i).append("];\n");
             }
@@ -2197,18 +2256,19 @@ public class ProxyFactory {
                         sb.append(") {\n");
                     }
                 } else {
+                    String fieldAccess = getFieldAccess(managedViewType, field);
                     if (Boolean.class.getName().equals(field.getType().getName()) && managedViewType.getAttribute(field.getName()).getJavaMethod().getName().startsWith("is")) {
-                        sb.append("\t\tif ($0.").append(field.getName()).append(" != other.is");
+                        sb.append("\t\tif (").append(fieldAccess).append(" != other.is");
                         StringUtils.addFirstToUpper(sb, field.getName()).append("()");
-                        sb.append(" && ($0.").append(field.getName()).append(" == null");
-                        sb.append(" || !$0.").append(field.getName()).append(".equals(other.is");
+                        sb.append(" && (").append(fieldAccess).append(" == null");
+                        sb.append(" || !").append(fieldAccess).append(".equals(other.is");
                         StringUtils.addFirstToUpper(sb, field.getName()).append("()");
                         sb.append("))) {\n");
                     } else {
-                        sb.append("\t\tif ($0.").append(field.getName()).append(" != other.get");
+                        sb.append("\t\tif (").append(fieldAccess).append(" != other.get");
                         StringUtils.addFirstToUpper(sb, field.getName()).append("()");
-                        sb.append(" && ($0.").append(field.getName()).append(" == null");
-                        sb.append(" || !$0.").append(field.getName()).append(".equals(other.get");
+                        sb.append(" && (").append(fieldAccess).append(" == null");
+                        sb.append(" || !").append(fieldAccess).append(".equals(other.get");
                         StringUtils.addFirstToUpper(sb, field.getName()).append("()");
                         sb.append("))) {\n");
                     }
@@ -2237,7 +2297,7 @@ public class ProxyFactory {
         return "()" + Descriptor.of(returnType);
     }
 
-    private CtMethod createHashCode(CtClass cc, CtField... fields) throws NotFoundException, CannotCompileException {
+    private CtMethod createHashCode(ManagedViewTypeImplementor<?> managedViewType, CtClass cc, CtField... fields) throws NotFoundException, CannotCompileException {
         ConstPool cp = cc.getClassFile2().getConstPool();
         CtClass returnType = CtClass.intType;
         String desc = "()" + Descriptor.of(returnType);
@@ -2279,8 +2339,9 @@ public class ProxyFactory {
                     throw new IllegalArgumentException("Unsupported primitive type: " + type.getName());
                 }
             } else {
-                sb.append("\thash = 83 * hash + ($0.").append(field.getName()).append(" != null ? ");
-                sb.append("$0.").append(field.getName()).append(".hashCode() : 0);\n");
+                String fieldAccess = getFieldAccess(managedViewType, field);
+                sb.append("\thash = 83 * hash + (").append(fieldAccess).append(" != null ? ");
+                sb.append(fieldAccess).append(".hashCode() : 0);\n");
             }
         }
 
@@ -2313,12 +2374,21 @@ public class ProxyFactory {
             sb.append("\tStringBuilder sb = new StringBuilder(").append(sizeEstimate).append(");\n");
             sb.append("\tsb.append(\"").append(managedViewType.getJavaType().getSimpleName()).append("(\");\n");
 
-            if (fields.length != 0) {
-                sb.append("\tsb.append(\"").append(fields[0].getName()).append(" = \").append($0.").append(fields[0].getName()).append(");\n");
-
-                for (int i = 1; i < fields.length; i++) {
+            for (int i = 0; i < fields.length; i++) {
+                if (i != 0) {
                     sb.append("\tsb.append(\", \");\n");
-                    sb.append("\tsb.append(\"").append(fields[i].getName()).append(" = \").append($0.").append(fields[i].getName()).append(");\n");
+                }
+                sb.append("\tsb.append(\"").append(fields[i].getName()).append(" = \");\n");
+                AbstractMethodAttribute<?, ?> attribute = (AbstractMethodAttribute<?, ?>) managedViewType.getAttribute(fields[i].getName());
+                if (isLazy(attribute)) {
+                    // Don't trigger loading a lazy attribute just for the string representation
+                    sb.append("\tif ($0.").append(getLazyLoaderFieldName(attribute)).append(" == null) {\n");
+                    sb.append("\t\tsb.append($0.").append(fields[i].getName()).append(");\n");
+                    sb.append("\t} else {\n");
+                    sb.append("\t\tsb.append(\"<not loaded>\");\n");
+                    sb.append("\t}\n");
+                } else {
+                    sb.append("\tsb.append($0.").append(fields[i].getName()).append(");\n");
                 }
             }
 
@@ -2910,7 +2980,18 @@ public class ProxyFactory {
                 if (possiblyInitialized) {
                     sb.append('\t');
                 }
-                if (methodAttribute.getConvertedJavaType().isPrimitive()) {
+                if (isLazy(methodAttribute)) {
+                    // The tuple contains a loader instead of the value if the attribute wasn't loaded yet
+                    String value;
+                    if (assignment) {
+                        value = "$4[$2 + $3[" + methodAttribute.getAttributeIndex() + "]]";
+                    } else {
+                        value = "$3[$2 + " + methodAttribute.getAttributeIndex() + "]";
+                    }
+                    sb.append("\t$0.").append(getLazyLoaderFieldName(methodAttribute)).append(" = ").append(LazyAttributeLoader.class.getName()).append(".getLoader(").append(value).append(");\n");
+                    sb.append("\t$0.").append(attributeFields[i].getName()).append(" = (").append(attributeFields[i].getType().getName()).append(") ")
+                            .append(LazyAttributeLoader.class.getName()).append(".getValue(").append(value).append(");\n");
+                } else if (methodAttribute.getConvertedJavaType().isPrimitive()) {
                     sb.append("\t$0.").append(attributeFields[i].getName()).append(" = ");
                     if (assignment) {
                         appendUnwrap(sb, methodAttribute.getConvertedJavaType(),"$4[$2 + $3[" + methodAttribute.getAttributeIndex() + "]]");
@@ -18,6 +18,7 @@ package com.blazebit.persistence.view.impl.tx;
 
 import com.blazebit.exception.ExceptionUtils;
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 
 import javax.transaction.Status;
@@ -31,7 +32,7 @@ import javax.transaction.TransactionSynchronizationRegistry;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public class JtaTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport {
+public class JtaTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport, TransactionResourceSupport {
 
     private final TransactionManager tm;
     private final TransactionSynchronizationRegistry synchronizationRegistry;
@@ -60,6 +61,19 @@ public class JtaTransactionSynchronizationStrategy implements TransactionAccess,
         synchronizationRegistry.registerInterposedSynchronization(synchronization);
     }
 
+    @Override
+    public Object getResource(Object key) {
+        if (synchronizationRegistry.getTransactionKey() == null) {
+            return null;
+        }
+        return synchronizationRegistry.getResource(key);
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        synchronizationRegistry.putResource(key, value);
+    }
+
     @Override
     public void transactional(Runnable runnable) {
         Transaction tx = null;
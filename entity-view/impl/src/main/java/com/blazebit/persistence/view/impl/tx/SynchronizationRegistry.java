@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.impl.tx;
 
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 
 import javax.transaction.Status;
 import javax.transaction.Synchronization;
@@ -24,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The main purpose of a custom registry is to invoke synchronizations in reverse order when rolling back.
@@ -33,22 +35,47 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class SynchronizationRegistry implements Synchronization, TransactionAccess {
 
-    // We don't use a thread local because a TX could be rolled back from a different thread
-    private static final ConcurrentMap<Thread, SynchronizationRegistry> REGISTRY = new ConcurrentHashMap<>();
+    private static final Object RESOURCE_KEY = SynchronizationRegistry.class.getName();
+    // Registries of transaction accesses that can't bind resources to the transaction are bound to the thread as fallback
+    private static final ConcurrentMap<Thread, SynchronizationRegistry> THREAD_REGISTRY = new ConcurrentHashMap<>();
     private final TransactionAccess transactionAccess;
     private final List<Synchronization> synchronizations;
-    private final Thread key;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final Thread threadKey;
 
     public SynchronizationRegistry(TransactionAccess transactionAccess) {
         this.transactionAccess = transactionAccess;
         this.synchronizations = new ArrayList<>(1);
-        this.key = Thread.currentThread();
         transactionAccess.registerSynchronization(this);
-        REGISTRY.put(key, this);
+        // We neither use a thread local nor the current thread as key because a TX could be rolled back from a different thread
+        // and a virtual thread might be remounted on a different carrier thread. The entity manager isn't a good key either,
+        // as it might be a proxy that is shared between threads, so we bind the registry to the transaction itself
+        if (transactionAccess instanceof TransactionResourceSupport) {
+            this.threadKey = null;
+            ((TransactionResourceSupport) transactionAccess).putResource(RESOURCE_KEY, this);
+        } else {
+            this.threadKey = Thread.currentThread();
+            THREAD_REGISTRY.put(threadKey, this);
+        }
+    }
+
+    public static SynchronizationRegistry getRegistry(TransactionAccess transactionAccess) {
+        SynchronizationRegistry registry;
+        if (transactionAccess instanceof TransactionResourceSupport) {
+            registry = (SynchronizationRegistry) ((TransactionResourceSupport) transactionAccess).getResource(RESOURCE_KEY);
+        } else {
+            registry = THREAD_REGISTRY.get(Thread.currentThread());
+        }
+        if (registry == null || registry.completed.get()) {
+            return null;
+        }
+        return registry;
     }
 
-    public static SynchronizationRegistry getRegistry() {
-        return REGISTRY.get(Thread.currentThread());
+    private void unbind() {
+        if (threadKey != null) {
+            THREAD_REGISTRY.remove(threadKey, this);
+        }
     }
 
     public TransactionAccess getTransactionAccess() {
@@ -112,7 +139,8 @@ public class SynchronizationRegistry implements Synchronization, TransactionAcce
             case Status.STATUS_PREPARING:
                 break;
             case Status.STATUS_COMMITTED:
-                REGISTRY.remove(key);
+                completed.set(true);
+                unbind();
                 for (int i = 0; i < synchronizations.size(); i++) {
                     Synchronization synchronization = synchronizations.get(i);
                     try {
@@ -130,7 +158,8 @@ public class SynchronizationRegistry implements Synchronization, TransactionAcce
             // We assume unknown means rolled back as Hibernate behaves this way with a local transaction coordinator
             case Status.STATUS_UNKNOWN:
             default:
-                if (REGISTRY.remove(key) != null) {
+                if (completed.compareAndSet(false, true)) {
+                    unbind();
                     for (int i = synchronizations.size() - 1; i >= 0; i--) {
                         Synchronization synchronization = synchronizations.get(i);
                         try {
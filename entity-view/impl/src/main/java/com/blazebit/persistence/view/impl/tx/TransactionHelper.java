@@ -44,9 +44,9 @@ public class TransactionHelper {
     }
 
     public static TransactionAccess getTransactionAccess(EntityManager em) {
-        SynchronizationRegistry registry = SynchronizationRegistry.getRegistry();
+        TransactionAccess transactionAccess = getTransactionAccessInternal(em);
+        SynchronizationRegistry registry = SynchronizationRegistry.getRegistry(transactionAccess);
         if (registry == null) {
-            TransactionAccess transactionAccess = getTransactionAccessInternal(em);
             if (!transactionAccess.isActive()) {
                 return transactionAccess;
             }
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.ImmutableBasicUserType;
 
@@ -30,7 +31,12 @@ public class ByteBasicUserType extends ImmutableBasicUserType<Byte> {
 
     @Override
     public Byte fromString(CharSequence sequence) {
-        return Byte.valueOf(sequence.toString());
+        int value = CharSequenceUtils.parseInt(sequence);
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            // Let the JDK produce the appropriate exception
+            return Byte.valueOf(sequence.toString());
+        }
+        return (byte) value;
     }
 
     @Override
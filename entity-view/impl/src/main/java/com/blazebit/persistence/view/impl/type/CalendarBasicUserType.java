@@ -16,10 +16,10 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.VersionBasicUserType;
 
-import java.sql.Timestamp;
 import java.util.Calendar;
 
 /**
@@ -94,7 +94,7 @@ public class CalendarBasicUserType implements BasicUserType<Calendar>, VersionBa
     @Override
     public Calendar fromString(CharSequence sequence) {
         Calendar instance = Calendar.getInstance();
-        instance.setTime(Timestamp.valueOf(sequence.toString()));
+        instance.setTime(CharSequenceUtils.parseTimestamp(sequence));
         return instance;
     }
 
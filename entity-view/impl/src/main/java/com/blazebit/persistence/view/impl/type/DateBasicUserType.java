@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.VersionBasicUserType;
 
@@ -92,7 +93,7 @@ public class DateBasicUserType implements BasicUserType<Date>, VersionBasicUserT
 
     @Override
     public Date fromString(CharSequence sequence) {
-        return java.sql.Timestamp.valueOf(sequence.toString());
+        return CharSequenceUtils.parseTimestamp(sequence);
     }
 
     @Override
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.ImmutableBasicUserType;
 
@@ -32,7 +33,7 @@ public class DurationBasicUserType extends ImmutableBasicUserType<Duration> {
 
     @Override
     public Duration fromString(CharSequence sequence) {
-        return Duration.ofNanos(Long.valueOf(sequence.toString()));
+        return Duration.ofNanos(CharSequenceUtils.parseLong(sequence));
     }
 
     @Override
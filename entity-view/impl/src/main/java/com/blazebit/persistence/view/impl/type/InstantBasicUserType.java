@@ -16,9 +16,9 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
-import java.sql.Timestamp;
 import java.time.Instant;
 
 /**
@@ -32,7 +32,7 @@ public class InstantBasicUserType extends TimestampishImmutableBasicUserType<Ins
 
     @Override
     public Instant fromString(CharSequence sequence) {
-        return Timestamp.valueOf(sequence.toString()).toInstant();
+        return CharSequenceUtils.parseTimestamp(sequence).toInstant();
     }
 
 }
@@ -16,9 +16,9 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
-import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 
@@ -33,7 +33,7 @@ public class LocalDateBasicUserType extends TimestampishImmutableBasicUserType<L
 
     @Override
     public LocalDate fromString(CharSequence sequence) {
-        return Timestamp.valueOf(sequence.toString()).toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+        return CharSequenceUtils.parseTimestamp(sequence).toInstant().atZone(ZoneOffset.UTC).toLocalDate();
     }
 
 }
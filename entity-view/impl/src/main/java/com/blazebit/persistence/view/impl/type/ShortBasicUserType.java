@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.VersionBasicUserType;
 import com.blazebit.persistence.view.spi.type.ImmutableBasicUserType;
@@ -40,7 +41,12 @@ public class ShortBasicUserType extends ImmutableBasicUserType<Short> implements
 
     @Override
     public Short fromString(CharSequence sequence) {
-        return Short.valueOf(sequence.toString());
+        int value = CharSequenceUtils.parseInt(sequence);
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            // Let the JDK produce the appropriate exception
+            return Short.valueOf(sequence.toString());
+        }
+        return (short) value;
     }
 
     @Override
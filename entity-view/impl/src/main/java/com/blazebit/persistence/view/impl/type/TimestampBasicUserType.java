@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
 import java.sql.Timestamp;
@@ -37,7 +38,7 @@ public class TimestampBasicUserType extends DateBasicUserType {
 
     @Override
     public Date fromString(CharSequence sequence) {
-        return java.sql.Timestamp.valueOf(sequence.toString());
+        return CharSequenceUtils.parseTimestamp(sequence);
     }
 
 }
@@ -16,9 +16,9 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
-import java.sql.Timestamp;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 
@@ -33,7 +33,7 @@ public class ZoneDateTimeBasicUserType extends TimestampishImmutableBasicUserTyp
 
     @Override
     public ZonedDateTime fromString(CharSequence sequence) {
-        return Timestamp.valueOf(sequence.toString()).toInstant().atZone(ZoneOffset.UTC);
+        return CharSequenceUtils.parseTimestamp(sequence).toInstant().atZone(ZoneOffset.UTC);
     }
 
 }
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.type;
 
+import com.blazebit.persistence.parser.CharSequenceUtils;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.ImmutableBasicUserType;
 
@@ -37,7 +38,7 @@ public class ZoneOffsetBasicUserType extends ImmutableBasicUserType<ZoneOffset>
 
     @Override
     public ZoneOffset fromString(CharSequence sequence) {
-        return ZoneOffset.ofTotalSeconds(Integer.parseInt(sequence.toString()));
+        return ZoneOffset.ofTotalSeconds(CharSequenceUtils.parseInt(sequence));
     }
 
 }
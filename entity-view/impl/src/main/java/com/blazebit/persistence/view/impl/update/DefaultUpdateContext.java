@@ -55,6 +55,7 @@ import com.blazebit.persistence.view.spi.type.EntityViewProxy;
 import javax.persistence.EntityManager;
 import javax.transaction.Synchronization;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -77,6 +78,7 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
     private final boolean forceFull;
     private final boolean forceEntity;
     private final boolean remove;
+    private final boolean batch;
     private final Class<?> entityViewClass;
     private final Object object;
     private final Object entity;
@@ -89,12 +91,17 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
     private List<PostFlushDeleter> orphanRemovalDeleters = new ArrayList<>();
 
     public DefaultUpdateContext(EntityViewManagerImpl evm, EntityManager em, boolean forceFull, boolean forceEntity, boolean remove, Class<?> entityViewClass, Object object, Object entity) {
+        this(evm, em, forceFull, forceEntity, remove, false, entityViewClass, object, entity);
+    }
+
+    public DefaultUpdateContext(EntityViewManagerImpl evm, EntityManager em, boolean forceFull, boolean forceEntity, boolean remove, boolean batch, Class<?> entityViewClass, Object object, Object entity) {
         this.evm = evm;
         this.em = em;
         this.forceFull = forceFull;
         this.transactionAccess = TransactionHelper.getTransactionAccess(em);
         this.forceEntity = forceEntity;
         this.remove = remove;
+        this.batch = batch;
         this.entityViewClass = entityViewClass;
         this.object = object;
         this.entity = entity;
@@ -682,6 +689,8 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
             } else {
                 evm.remove(this, entityViewClass, object);
             }
+        } else if (batch) {
+            evm.updateAll(this, (Collection<?>) object);
         } else {
             if (entity == null) {
                 evm.update(this, object);
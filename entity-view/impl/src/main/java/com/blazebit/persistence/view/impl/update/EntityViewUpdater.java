@@ -38,6 +38,8 @@ public interface EntityViewUpdater extends UpdateQueryFactory {
 
     public boolean executeUpdate(UpdateContext context, MutableStateTrackable updatableProxy);
 
+    public boolean executeUpdate(UpdateContext context, MutableStateTrackable updatableProxy, UpdateQueryBatch batch);
+
     public Object executeUpdate(UpdateContext context, Object entity, MutableStateTrackable updatableProxy);
 
     public Object executePersist(UpdateContext context, MutableStateTrackable updatableProxy);
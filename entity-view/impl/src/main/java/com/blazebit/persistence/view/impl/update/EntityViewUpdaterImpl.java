@@ -633,7 +633,12 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
 
     @Override
     public boolean executeUpdate(UpdateContext context, MutableStateTrackable updatableProxy) {
-        return update(context, null, updatableProxy);
+        return update(context, null, updatableProxy, null);
+    }
+
+    @Override
+    public boolean executeUpdate(UpdateContext context, MutableStateTrackable updatableProxy, UpdateQueryBatch batch) {
+        return update(context, null, updatableProxy, batch);
     }
 
     @Override
@@ -641,7 +646,7 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         if (entity == null) {
             throw new IllegalArgumentException("Illegal null entity!");
         }
-        update(context, entity, updatableProxy);
+        update(context, entity, updatableProxy, null);
         return entity;
     }
 
@@ -690,7 +695,7 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         return query;
     }
 
-    private boolean update(UpdateContext context, Object entity, MutableStateTrackable updatableProxy) {
+    private boolean update(UpdateContext context, Object entity, MutableStateTrackable updatableProxy, UpdateQueryBatch batch) {
         if (!rootUpdateAllowed && entity == null) {
             throw new IllegalArgumentException("Updating instances of the view type [" + updatableProxy.getClass().getName() + "] is not allowed because no entity id is known!");
         }
@@ -705,6 +710,13 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
 
         if (flushStrategy == FlushStrategy.ENTITY || context.isForceEntity() || !flusher.supportsQueryFlush()) {
             return flusher.flushEntity(context, entity, updatableProxy, updatableProxy, updatableProxy, null);
+        } else if (batch != null) {
+            // The batch takes care of executing the query and removing orphans afterwards
+            Query query = flusher.flushQuery(context, null, this, null, updatableProxy, updatableProxy, updatableProxy, null, flusher);
+            if (query != null) {
+                batch.add(query, updatableProxy, fullFlusher.hasVersionFlusher());
+            }
+            return true;
         } else {
             int orphanRemovalStartIndex = context.getOrphanRemovalDeleters().size();
             Query query = flusher.flushQuery(context, null, this, null, updatableProxy, updatableProxy, updatableProxy, null, flusher);
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl.update;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.ConfigurationSource;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.ServiceProvider;
+import com.blazebit.persistence.view.OptimisticLockException;
+import com.blazebit.persistence.view.spi.type.MutableStateTrackable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the root update queries of multiple updatable entity views and executes the queries with the same SQL,
+ * i.e. the ones of views with the same type and dirty attributes, as JDBC batch.
+ * The update count of every row is verified, so optimistic locking is still honored per view.
+ * Versioned updates are only batched if {@link com.blazebit.persistence.view.ConfigurationProperties#UPDATER_JDBC_BATCH_VERSIONED_DATA} is enabled,
+ * because the version check relies on the update counts which not every JDBC driver reports for batched statements.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class UpdateQueryBatch {
+
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final ServiceProvider serviceProvider;
+    private final boolean queryPlanCacheEnabled;
+    private final int batchSize;
+    private final boolean batchVersionedData;
+    private final Map<String, List<PendingUpdate>> pendingUpdates = new LinkedHashMap<>();
+
+    public UpdateQueryBatch(UpdateContext context) {
+        final CriteriaBuilderFactory cbf = context.getEntityViewManager().getCriteriaBuilderFactory();
+        final EntityManager em = context.getEntityManager();
+        ExtendedQuerySupport extendedQuerySupport = cbf.getService(ExtendedQuerySupport.class);
+        if (extendedQuerySupport == null || !extendedQuerySupport.supportsAdvancedSql()) {
+            this.extendedQuerySupport = null;
+        } else {
+            this.extendedQuerySupport = extendedQuerySupport;
+        }
+        this.serviceProvider = new ServiceProvider() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getService(Class<T> serviceClass) {
+                if (EntityManager.class.equals(serviceClass)) {
+                    return (T) em;
+                }
+                return cbf.getService(serviceClass);
+            }
+        };
+        ConfigurationSource configurationSource = cbf.getService(ConfigurationSource.class);
+        String queryPlanCacheEnabled = configurationSource == null ? null : configurationSource.getProperty(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED);
+        this.queryPlanCacheEnabled = queryPlanCacheEnabled == null || Boolean.parseBoolean(queryPlanCacheEnabled);
+        this.batchSize = context.getEntityViewManager().getUpdaterJdbcBatchSize();
+        this.batchVersionedData = context.getEntityViewManager().isUpdaterJdbcBatchVersionedData();
+    }
+
+    public void add(Query query, MutableStateTrackable updatableProxy, boolean versioned) {
+        // A batch size of 1 or lower disables batching
+        if (extendedQuerySupport == null || batchSize <= 1 || versioned && !batchVersionedData) {
+            execute(query, updatableProxy);
+            return;
+        }
+        String sql = extendedQuerySupport.getSql(serviceProvider.getService(EntityManager.class), query);
+        List<PendingUpdate> updates = pendingUpdates.get(sql);
+        if (updates == null) {
+            updates = new ArrayList<>();
+            pendingUpdates.put(sql, updates);
+        }
+        updates.add(new PendingUpdate(query, updatableProxy, versioned));
+        if (updates.size() >= batchSize) {
+            executeBatch(sql, updates);
+            updates.clear();
+        }
+    }
+
+    public void flush() {
+        for (Map.Entry<String, List<PendingUpdate>> entry : pendingUpdates.entrySet()) {
+            executeBatch(entry.getKey(), entry.getValue());
+        }
+        pendingUpdates.clear();
+    }
+
+    private void executeBatch(String sql, List<PendingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        if (updates.size() == 1) {
+            PendingUpdate update = updates.get(0);
+            execute(update.query, update.updatableProxy);
+            return;
+        }
+        // All binders bind their parameter values to the first query which serves as template for the batch
+        Query query = updates.get(0).query;
+        List<Runnable> binders = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            binders.add(updates.get(i).createBinder(query));
+        }
+        int[] updateCounts = extendedQuerySupport.executeBatchUpdate(serviceProvider, Collections.singletonList(query), query, query, sql, binders, queryPlanCacheEnabled);
+        for (int i = 0; i < updateCounts.length; i++) {
+            PendingUpdate update = updates.get(i);
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                // Some drivers don't report the update counts of batched statements which is only a problem if we need it for the version check
+                if (update.versioned) {
+                    throw new IllegalStateException("The JDBC driver did not report the update count for a batched versioned update, so optimistic locking can't be verified! "
+                            + "Disable the batching of versioned updates via the configuration property " + com.blazebit.persistence.view.ConfigurationProperties.UPDATER_JDBC_BATCH_VERSIONED_DATA);
+                }
+            } else if (updateCounts[i] != 1) {
+                throw new OptimisticLockException("The update operation did not return the expected update count!", null, update.updatableProxy);
+            }
+        }
+    }
+
+    private static void execute(Query query, MutableStateTrackable updatableProxy) {
+        int updated = query.executeUpdate();
+
+        if (updated != 1) {
+            throw new OptimisticLockException("The update operation did not return the expected update count!", null, updatableProxy);
+        }
+    }
+
+    /**
+     * The parameter values of a root update query of a view, captured when the view was flushed.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class PendingUpdate {
+        private final Query query;
+        private final MutableStateTrackable updatableProxy;
+        private final boolean versioned;
+        private final Map<Parameter<?>, Object> parameterValues;
+
+        public PendingUpdate(Query query, MutableStateTrackable updatableProxy, boolean versioned) {
+            this.query = query;
+            this.updatableProxy = updatableProxy;
+            this.versioned = versioned;
+            Map<Parameter<?>, Object> parameterValues = new LinkedHashMap<>();
+            for (Parameter<?> parameter : query.getParameters()) {
+                if (query.isBound(parameter)) {
+                    parameterValues.put(parameter, query.getParameterValue(parameter));
+                }
+            }
+            this.parameterValues = parameterValues;
+        }
+
+        public Runnable createBinder(final Query targetQuery) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    for (Map.Entry<Parameter<?>, Object> entry : parameterValues.entrySet()) {
+                        Parameter<?> parameter = entry.getKey();
+                        if (parameter.getName() == null) {
+                            targetQuery.setParameter(parameter.getPosition(), entry.getValue());
+                        } else {
+                            targetQuery.setParameter(parameter.getName(), entry.getValue());
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
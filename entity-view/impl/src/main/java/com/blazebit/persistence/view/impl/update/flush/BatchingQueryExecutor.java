@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl.update.flush;
+
+import com.blazebit.persistence.spi.BatchUpdateQuery;
+import com.blazebit.persistence.view.impl.update.UpdateContext;
+
+import javax.persistence.Query;
+
+/**
+ * Executes a modification query for the currently bound parameter values.
+ * If the query supports it, the executions are collected and sent as JDBC batch of the configured size.
+ * Pending executions must be sent by invoking {@link #flush()} before any other statement is executed.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class BatchingQueryExecutor {
+
+    private final Query query;
+    private final BatchUpdateQuery batchUpdateQuery;
+    private final int batchSize;
+
+    public BatchingQueryExecutor(UpdateContext context, Query query) {
+        this.query = query;
+        this.batchSize = context.getEntityViewManager().getUpdaterJdbcBatchSize();
+        if (batchSize > 1 && query instanceof BatchUpdateQuery) {
+            this.batchUpdateQuery = (BatchUpdateQuery) query;
+        } else {
+            this.batchUpdateQuery = null;
+        }
+    }
+
+    public void executeUpdate() {
+        if (batchUpdateQuery == null) {
+            query.executeUpdate();
+        } else {
+            batchUpdateQuery.addBatch();
+            if (batchUpdateQuery.getBatchSize() >= batchSize) {
+                batchUpdateQuery.executeBatch();
+            }
+        }
+    }
+
+    public void flush() {
+        if (batchUpdateQuery != null) {
+            batchUpdateQuery.executeBatch();
+        }
+    }
+}
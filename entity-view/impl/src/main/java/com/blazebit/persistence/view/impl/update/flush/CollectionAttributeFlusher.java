@@ -466,8 +466,6 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
             }
         }
 
-        // TODO: Think about allowing to use batching when we implement #657
-
         return false;
     }
 
@@ -533,7 +531,7 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
                 }
                 insertQuery.executeUpdate();
             } else {
-                // TODO: Use batching when we implement #657
+                BatchingQueryExecutor executor = new BatchingQueryExecutor(context, insertQuery);
                 Object[] singletonArray = new Object[1];
                 List<Object> singletonList = Arrays.asList(singletonArray);
                 for (Object o : elementsToAdd) {
@@ -543,9 +541,10 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
                         }
                         singletonArray[0] = o;
                         insertQuery.setParameter("val", singletonList);
-                        insertQuery.executeUpdate();
+                        executor.executeUpdate();
                     }
                 }
+                executor.flush();
             }
         } else {
             if (removedAllWithoutCollectionActions) {
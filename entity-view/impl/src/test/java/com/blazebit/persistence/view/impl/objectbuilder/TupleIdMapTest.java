@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class TupleIdMapTest {
+
+    @Test
+    public void testGroupsBySingleId() {
+        TupleIdMap<String> map = new TupleIdMap<>(new int[]{ 0 }, 0);
+        for (long i = 0; i < 1000; i++) {
+            map.put(new Object[]{ i, "value" }, "v" + i);
+        }
+        Assert.assertEquals(1000, map.size());
+        for (long i = 0; i < 1000; i++) {
+            Assert.assertEquals("v" + i, map.get(new Object[]{ i, "other" }));
+        }
+        Assert.assertNull(map.get(new Object[]{ 1000L, "value" }));
+    }
+
+    @Test
+    public void testGroupsByCompositeId() {
+        TupleIdMap<String> map = new TupleIdMap<>(new int[]{ 0, -1, 2 }, 4);
+        map.put(new Object[]{ 1L, "a", new byte[]{ 1, 2 } }, "first");
+        map.put(new Object[]{ 1L, "b", new byte[]{ 1, 3 } }, "second");
+        map.put(new Object[]{ 1L, "c", new byte[]{ 1, 2 } }, "replaced");
+
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("replaced", map.get(new Object[]{ 1L, null, new byte[]{ 1, 2 } }));
+        Assert.assertEquals("second", map.get(new Object[]{ 1L, null, new byte[]{ 1, 3 } }));
+        Assert.assertNull(map.get(new Object[]{ 2L, null, new byte[]{ 1, 2 } }));
+    }
+
+    @Test
+    public void testHashCodeMatchesTupleId() {
+        int[] idPositions = { 0, -1, 1 };
+        Object[] tuple = { 5L, new Object[]{ "a", 1 } };
+        Assert.assertEquals(new TupleId(idPositions, tuple).hashCode(), TupleId.hashCode(idPositions, tuple));
+        Assert.assertFalse(TupleId.isEmpty(idPositions, new Object[]{ null, null }));
+        Assert.assertTrue(TupleId.isEmpty(new int[]{ 0, 1 }, new Object[]{ null, null }));
+    }
+}
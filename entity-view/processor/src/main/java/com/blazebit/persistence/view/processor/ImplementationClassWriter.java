@@ -207,7 +207,7 @@ public final class ImplementationClassWriter {
             sb.append("    }").append(NEW_LINE);
             sb.append("    @Override").append(NEW_LINE);
             sb.append("    public void $$_markDirty(int attributeIndex) {").append(NEW_LINE);
-            sb.append("        this.$$_dirty |= (1 << attributeIndex);").append(NEW_LINE);
+            sb.append("        this.$$_dirty |= (1L << attributeIndex);").append(NEW_LINE);
             sb.append("        if (this.$$_parent != null) {").append(NEW_LINE);
             sb.append("            this.$$_parent.$$_markDirty(this.$$_parentIndex);").append(NEW_LINE);
             sb.append("        }").append(NEW_LINE);
@@ -260,8 +260,8 @@ public final class ImplementationClassWriter {
             for (MetaAttribute member : members) {
                 if ((member.getDirtyStateIndex() != -1)) {
                     if (member.supportsDirtyTracking()) {
-                        long mask = 1 << member.getDirtyStateIndex();
-                        sb.append("            target[").append(member.getDirtyStateIndex()).append("] = (this.$$_dirty & ").append(mask).append(") == 0 ? null : source[").append(member.getDirtyStateIndex()).append("];").append(NEW_LINE);
+                        long mask = 1L << member.getDirtyStateIndex();
+                        sb.append("            target[").append(member.getDirtyStateIndex()).append("] = (this.$$_dirty & ").append(mask).append("L) == 0 ? null : source[").append(member.getDirtyStateIndex()).append("];").append(NEW_LINE);
                     } else {
                         sb.append("            target[").append(member.getDirtyStateIndex()).append("] = source[").append(member.getDirtyStateIndex()).append("];").append(NEW_LINE);
                     }
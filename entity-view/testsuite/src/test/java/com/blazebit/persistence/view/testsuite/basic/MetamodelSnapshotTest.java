@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.JpqlFunction;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Mapping;
+import com.blazebit.persistence.view.impl.metamodel.MetamodelSnapshot;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.spi.type.ImmutableBasicUserType;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class MetamodelSnapshotTest extends AbstractEntityViewTest {
+
+    private static final String SNAPSHOT_RESOURCE = "test-entity-view-metamodel.snapshot";
+
+    private File directory;
+    private ClassLoader originalClassLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("metamodel-snapshot").toFile();
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{ directory.toURI().toURL() }, originalClassLoader));
+    }
+
+    @After
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void writesSnapshotAfterValidation() throws IOException {
+        File snapshotFile = new File(directory, SNAPSHOT_RESOURCE);
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_OUTPUT, snapshotFile.getAbsolutePath());
+        cfg.addEntityView(PersonSnapshotView.class);
+        cfg.createEntityViewManager(cbf);
+
+        Properties snapshot = new Properties();
+        try (InputStream is = new FileInputStream(snapshotFile)) {
+            snapshot.load(is);
+        }
+        Assert.assertEquals(computeChecksum(cfg, PersonSnapshotView.class), snapshot.getProperty("checksum"));
+        Assert.assertEquals("true", snapshot.getProperty("expressions_validated"));
+        Assert.assertEquals("true", snapshot.getProperty("managed_types_validated"));
+    }
+
+    @Test
+    public void matchingSnapshotSkipsValidation() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT, SNAPSHOT_RESOURCE);
+        cfg.addEntityView(PersonInvalidSnapshotView.class);
+        new MetamodelSnapshot(computeChecksum(cfg, PersonInvalidSnapshotView.class), true, true).write(new File(directory, SNAPSHOT_RESOURCE).getAbsolutePath());
+
+        // The duplicate collection usage is not detected because the snapshot claims the metamodel was validated already
+        cfg.createEntityViewManager(cbf);
+    }
+
+    @Test
+    public void mismatchingSnapshotIsIgnored() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT, SNAPSHOT_RESOURCE);
+        cfg.addEntityView(PersonInvalidSnapshotView.class);
+        new MetamodelSnapshot(computeChecksum(cfg, PersonSnapshotView.class), true, true).write(new File(directory, SNAPSHOT_RESOURCE).getAbsolutePath());
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'ownedDocuments'")) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void checksumCoversTypeTestValues() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        String checksum = computeChecksum(cfg, PersonSnapshotView.class);
+        cfg.setTypeTestValue(String.class, "other");
+
+        Assert.assertNotEquals(checksum, computeChecksum(cfg, PersonSnapshotView.class));
+    }
+
+    @Test
+    public void checksumCoversBasicUserTypes() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        String checksum = computeChecksum(cfg, PersonSnapshotView.class);
+        cfg.registerBasicUserType(SnapshotValue.class, new SnapshotValueBasicUserType());
+
+        Assert.assertNotEquals(checksum, computeChecksum(cfg, PersonSnapshotView.class));
+    }
+
+    @Test
+    public void checksumIsIndependentOfDefaultTimeZone() {
+        TimeZone originalTimeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            String checksum = computeChecksum(EntityViews.createDefaultConfiguration(), PersonSnapshotView.class);
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+
+            Assert.assertEquals(checksum, computeChecksum(EntityViews.createDefaultConfiguration(), PersonSnapshotView.class));
+        } finally {
+            TimeZone.setDefault(originalTimeZone);
+        }
+    }
+
+    @Test
+    public void checksumIsStableForEqualInputs() {
+        Assert.assertEquals(
+                computeChecksum(EntityViews.createDefaultConfiguration(), PersonSnapshotView.class),
+                computeChecksum(EntityViews.createDefaultConfiguration(), PersonSnapshotView.class)
+        );
+    }
+
+    @Test
+    public void unstablePropertyValueDisablesSnapshot() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT, SNAPSHOT_RESOURCE);
+        cfg.getProperties().put("custom_property", new Object());
+        cfg.addEntityView(PersonInvalidSnapshotView.class);
+        Assert.assertNull(computeChecksum(cfg, PersonInvalidSnapshotView.class));
+        new MetamodelSnapshot("", true, true).write(new File(directory, SNAPSHOT_RESOURCE).getAbsolutePath());
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'ownedDocuments'")) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void unstablePropertyValuePreventsWritingSnapshot() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_OUTPUT, new File(directory, SNAPSHOT_RESOURCE).getAbsolutePath());
+        cfg.getProperties().put("custom_property", new Object());
+        cfg.addEntityView(PersonSnapshotView.class);
+
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("stable representation")) {
+                throw ex;
+            }
+        }
+    }
+
+    private String computeChecksum(EntityViewConfiguration cfg, Class<?> entityViewClass) {
+        Map<String, JpqlFunction> functions = new HashMap<>();
+        for (Map.Entry<String, JpqlFunction> entry : cbf.getRegisteredFunctions().entrySet()) {
+            functions.put(entry.getKey().toLowerCase(), entry.getValue());
+        }
+        return MetamodelSnapshot.computeChecksum(
+                Thread.currentThread().getContextClassLoader(),
+                Collections.<Class<?>>singleton(entityViewClass),
+                cbf.getService(EntityMetamodel.class),
+                cfg.getProperties(),
+                functions,
+                cfg.getBasicUserTypes(),
+                cfg.getTypeConverters(),
+                Collections.<Class<?>>emptySet(),
+                cfg.getTypeTestValues(),
+                cbf.getService(DbmsDialect.class),
+                cbf.getService(JpaProvider.class)
+        );
+    }
+
+    public static class SnapshotValue {
+    }
+
+    public static class SnapshotValueBasicUserType extends ImmutableBasicUserType<SnapshotValue> {
+    }
+
+    @EntityView(Person.class)
+    public interface PersonSnapshotView {
+
+        @IdMapping
+        public Long getId();
+
+        public String getName();
+    }
+
+    @EntityView(Person.class)
+    public interface PersonInvalidSnapshotView {
+
+        @IdMapping
+        public Long getId();
+
+        @Mapping("ownedDocuments.id")
+        public Set<Long> getOwnedDocumentIds();
+
+        @Mapping("ownedDocuments.name")
+        public Set<String> getOwnedDocumentNames();
+    }
+}
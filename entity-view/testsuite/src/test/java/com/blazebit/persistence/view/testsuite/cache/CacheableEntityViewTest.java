@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.cache;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.QueryResultCache;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableDocumentView;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableEntityTypedDocumentView;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableLazyDocumentView;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableUpdatableDocumentView;
+import com.blazebit.persistence.view.testsuite.cache.model.PersonView;
+import com.blazebit.persistence.view.testsuite.cache.model.UpdatablePersonView;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class CacheableEntityViewTest extends AbstractEntityViewTest {
+
+    private EntityViewManager evm;
+    private QueryResultCache resultCache;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1");
+                Person o2 = new Person("pers2");
+                em.persist(o1);
+                em.persist(o2);
+
+                Document doc1 = new Document("doc1", o1);
+                Document doc2 = new Document("doc2", o2);
+                em.persist(doc1);
+                em.persist(doc2);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        evm = build(CacheableDocumentView.class, PersonView.class, UpdatablePersonView.class);
+        resultCache = evm.getService(QueryResultCache.class);
+        resultCache.invalidateAll();
+    }
+
+    @Test
+    public void testCachedUntilModifiedThroughModificationBuilder() {
+        List<CacheableDocumentView> result = getDocuments();
+        assertEquals(2, result.size());
+        assertSame(result.get(0), getDocuments().get(0));
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new Document("doc3", cbf.create(em, Person.class).where("name").eq("pers1").getSingleResult()));
+            }
+        });
+        try {
+            assertEquals(2, getDocuments().size());
+
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    cbf.update(em, Document.class, "d").set("age", 1L).where("d.name").eq("doc3").executeUpdate();
+                }
+            });
+
+            assertEquals(3, getDocuments().size());
+        } finally {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    cbf.delete(em, Document.class, "d").where("d.name").eq("doc3").executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testCorrelatedEntityFlushedThroughUpdatableViewInvalidates() {
+        assertEquals("pers1", getDocuments().get(0).getOwner().getName());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                UpdatablePersonView person = evm.applySetting(EntityViewSetting.create(UpdatablePersonView.class), cbf.create(em, Person.class).where("name").eq("pers1")).getSingleResult();
+                person.setName("newPers1");
+                evm.save(em, person);
+            }
+        });
+        try {
+            assertEquals("newPers1", getDocuments().get(0).getOwner().getName());
+        } finally {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    cbf.update(em, Person.class, "p").set("name", "pers1").where("p.name").eq("newPers1").executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testPagesAreCachedSeparately() {
+        PagedList<CacheableDocumentView> firstPage = evm.applySetting(EntityViewSetting.create(CacheableDocumentView.class, 0, 1), cbf.create(em, Document.class).orderByAsc("id")).getResultList();
+        PagedList<CacheableDocumentView> secondPage = evm.applySetting(EntityViewSetting.create(CacheableDocumentView.class, 1, 1), cbf.create(em, Document.class).orderByAsc("id")).getResultList();
+        PagedList<CacheableDocumentView> cachedSecondPage = evm.applySetting(EntityViewSetting.create(CacheableDocumentView.class, 1, 1), cbf.create(em, Document.class).orderByAsc("id")).getResultList();
+
+        assertEquals("doc1", firstPage.get(0).getName());
+        assertEquals("doc2", secondPage.get(0).getName());
+        assertSame(secondPage.get(0), cachedSecondPage.get(0));
+        assertEquals(2, cachedSecondPage.getTotalSize());
+    }
+
+    @Test
+    public void testCacheableUpdatableViewIsRejected() {
+        try {
+            build(CacheableUpdatableDocumentView.class);
+            fail("Expected failure");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(CacheableUpdatableDocumentView.class.getName()));
+        }
+    }
+
+    @Test
+    public void testCacheableViewWithEntityTypedAttributeIsRejected() {
+        try {
+            build(CacheableEntityTypedDocumentView.class);
+            fail("Expected failure");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(CacheableEntityTypedDocumentView.class.getName()));
+        }
+    }
+
+    @Test
+    public void testCacheableViewWithLazyAttributeIsRejected() {
+        try {
+            build(CacheableLazyDocumentView.class, PersonView.class);
+            fail("Expected failure");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(CacheableLazyDocumentView.class.getName()));
+        }
+    }
+
+    @Test
+    public void testFetchesAreCachedSeparately() {
+        CacheableDocumentView document = getDocuments().get(0);
+        EntityViewSetting<CacheableDocumentView, CriteriaBuilder<CacheableDocumentView>> setting = EntityViewSetting.create(CacheableDocumentView.class);
+        setting.fetch("name");
+        CacheableDocumentView documentWithFetches = evm.applySetting(setting, cbf.create(em, Document.class).orderByAsc("id")).getResultList().get(0);
+
+        assertNotSame(document, documentWithFetches);
+        assertEquals("doc1", documentWithFetches.getName());
+        assertNull(documentWithFetches.getOwner());
+    }
+
+    @Test
+    public void testCollectionsOfCachedViewsAreNotModifiable() {
+        CacheableDocumentView document = getDocuments().get(0);
+        PersonView owner = document.getOwner();
+        try {
+            document.getPartners().add(owner);
+            fail("Expected failure");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+        try {
+            document.getContacts().put(1, owner);
+            fail("Expected failure");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+
+        CacheableDocumentView cachedDocument = getDocuments().get(0);
+        assertSame(document, cachedDocument);
+        assertTrue(cachedDocument.getPartners().isEmpty());
+        assertTrue(cachedDocument.getContacts().isEmpty());
+    }
+
+    private List<CacheableDocumentView> getDocuments() {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class).orderByAsc("id");
+        return evm.applySetting(EntityViewSetting.create(CacheableDocumentView.class), cb).getResultList();
+    }
+}
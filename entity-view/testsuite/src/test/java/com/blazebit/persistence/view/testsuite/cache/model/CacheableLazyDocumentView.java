@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.cache.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.CacheableEntityView;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@CacheableEntityView
+@EntityView(Document.class)
+public interface CacheableLazyDocumentView {
+
+    @IdMapping
+    public Long getId();
+
+    @MappingCorrelatedSimple(
+            correlated = Person.class,
+            correlationBasis = "owner.id",
+            correlationExpression = "id IN correlationKey",
+            fetch = FetchStrategy.LAZY)
+    public PersonView getOwner();
+}
@@ -33,7 +33,10 @@ import org.junit.Before;
 
 import javax.persistence.EntityManager;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
 
@@ -90,18 +93,43 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
     }
 
     protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize) {
+        testCorrelation(entityView, batchSize, null);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize, Executor correlationExecutor) {
+        testCorrelation(em, entityView, batchSize, correlationExecutor);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(EntityManager entityManager, Class<T> entityView, Integer batchSize, Executor correlationExecutor) {
+        testCorrelation(entityManager, entityView, batchSize, correlationExecutor, Collections.<String, Object>singletonMap(ConfigurationProperties.CONCURRENT_CORRELATION, true));
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(EntityManager entityManager, Class<T> entityView, Integer batchSize, Executor correlationExecutor, Map<String, Object> concurrentCorrelationProperties) {
         EntityViewManager evm = build(
                 entityView,
                 SimpleDocumentCorrelatedView.class,
                 SimplePersonCorrelatedSubView.class,
                 SimpleVersionCorrelatedView.class
         );
+        testCorrelation(entityManager, evm, entityView, batchSize, correlationExecutor, concurrentCorrelationProperties);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(EntityViewManager evm, Class<T> entityView, Integer batchSize, Executor correlationExecutor) {
+        testCorrelation(em, evm, entityView, batchSize, correlationExecutor, Collections.<String, Object>singletonMap(ConfigurationProperties.CONCURRENT_CORRELATION, true));
+    }
 
-        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+    protected <T extends DocumentCorrelationView> void testCorrelation(EntityManager entityManager, EntityViewManager evm, Class<T> entityView, Integer batchSize, Executor correlationExecutor, Map<String, Object> concurrentCorrelationProperties) {
+        CriteriaBuilder<Document> criteria = cbf.create(entityManager, Document.class, "d").orderByAsc("id");
         EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityView);
         if (batchSize != null) {
             setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
         }
+        if (correlationExecutor != null) {
+            setting.setProperty(ConfigurationProperties.CORRELATION_EXECUTOR, correlationExecutor);
+            for (Map.Entry<String, Object> entry : concurrentCorrelationProperties.entrySet()) {
+                setting.setProperty(entry.getKey(), entry.getValue());
+            }
+        }
         CriteriaBuilder<T> cb = evm.applySetting(setting, criteria);
         List<T> results = cb.getResultList();
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.correlation.lazy;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.view.LazyFetchStatistics;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.DocumentLazyCorrelationView;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.DocumentLazyFlatView;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.DocumentLazyParameterCorrelationView;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.DocumentLazyStaticImplementationView;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.DocumentLazyStaticImplementationViewImpl;
+import com.blazebit.persistence.view.testsuite.correlation.lazy.model.UpdatableDocumentLazyCorrelationView;
+import com.blazebit.persistence.view.spi.EntityManagerSupplier;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimplePersonCorrelatedSubView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: Requires values clause which currently is only available for Hibernate
+@Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class })
+public class LazyCorrelationTest extends AbstractCorrelationTest {
+
+    @Test
+    public void testLazyCorrelationLoadsBatchOnFirstAccess() {
+        EntityViewManager evm = build(DocumentLazyCorrelationView.class, SimplePersonCorrelatedSubView.class);
+        LazyFetchStatistics statistics = evm.getService(LazyFetchStatistics.class);
+        statistics.clear();
+
+        List<DocumentLazyCorrelationView> results = query(evm, em, EntityViewSetting.create(DocumentLazyCorrelationView.class));
+        assertEquals(0, statistics.getLoads());
+        LazyFetchStatistics.AttributeStatistics idsStatistics = statistics.getAttributeStatistics(DocumentLazyCorrelationView.class, "ownerOnlyRelatedDocumentIds");
+        assertEquals(1, idsStatistics.getDeferrals());
+        assertEquals(4, idsStatistics.getDeferredTuples());
+
+        // Accessing the attribute of one view loads the attribute for all views of the batch
+        assertEquals(new HashSet<>(Arrays.asList(doc1.getId())), results.get(0).getOwnerOnlyRelatedDocumentIds());
+        assertEquals(1, idsStatistics.getLoads());
+        assertEquals(4, idsStatistics.getLoadedTuples());
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(3).getOwnerOnlyRelatedDocumentIds());
+        assertEquals(1, statistics.getLoads());
+
+        // Other lazy attributes are loaded independently
+        assertEquals("PERS2", results.get(1).getCorrelatedOwnerView().getName());
+        assertEquals("PERS1", results.get(0).getCorrelatedOwnerView().getName());
+        assertEquals(2, statistics.getLoads());
+    }
+
+    @Test
+    public void testLazyCorrelationAfterEntityManagerClosed() {
+        EntityViewManager evm = build(DocumentLazyCorrelationView.class, SimplePersonCorrelatedSubView.class);
+        EntityManager otherEm = emf.createEntityManager();
+        List<DocumentLazyCorrelationView> results;
+        try {
+            results = query(evm, otherEm, EntityViewSetting.create(DocumentLazyCorrelationView.class));
+        } finally {
+            otherEm.close();
+        }
+
+        assertEquals("PERS2", results.get(2).getCorrelatedOwnerView().getName());
+        assertEquals(3, results.get(1).getOwnerOnlyRelatedDocumentIds().size());
+    }
+
+    @Test
+    public void testLazyCorrelationWithEntityManagerSupplier() {
+        EntityViewManager evm = build(DocumentLazyCorrelationView.class, SimplePersonCorrelatedSubView.class);
+        final AtomicInteger supplierCalls = new AtomicInteger();
+        EntityViewSetting<DocumentLazyCorrelationView, CriteriaBuilder<DocumentLazyCorrelationView>> setting = EntityViewSetting.create(DocumentLazyCorrelationView.class);
+        setting.setProperty(ConfigurationProperties.LAZY_FETCH_ENTITY_MANAGER_SUPPLIER, new EntityManagerSupplier() {
+            @Override
+            public EntityManager getEntityManager() {
+                supplierCalls.incrementAndGet();
+                return em;
+            }
+        });
+
+        List<DocumentLazyCorrelationView> results = query(evm, em, setting);
+        assertEquals(0, supplierCalls.get());
+        assertEquals("PERS1", results.get(0).getCorrelatedOwnerView().getName());
+        assertEquals("PERS2", results.get(3).getCorrelatedOwnerView().getName());
+        assertEquals(1, supplierCalls.get());
+    }
+
+    @Test
+    public void testLazyCorrelationIgnoresStaticImplementation() {
+        EntityViewManager evm = build(DocumentLazyStaticImplementationView.class);
+        List<DocumentLazyStaticImplementationView> results = evm.applySetting(EntityViewSetting.create(DocumentLazyStaticImplementationView.class), cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+
+        // The static implementation can't handle the lazy attribute loader, so a proxy is generated instead
+        assertFalse(results.get(0) instanceof DocumentLazyStaticImplementationViewImpl);
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(1).getOwnerOnlyRelatedDocumentIds());
+    }
+
+    @Test
+    public void testLazyCorrelationUsesParameterValuesOfQuery() {
+        EntityViewManager evm = build(DocumentLazyParameterCorrelationView.class);
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .where("d.name").notEqExpression(":excludedName")
+                .orderByAsc("id")
+                .setParameter("excludedName", "doc4");
+        List<DocumentLazyParameterCorrelationView> results = evm.applySetting(EntityViewSetting.create(DocumentLazyParameterCorrelationView.class), criteria).getResultList();
+        assertEquals(3, results.size());
+
+        // Changing the parameter of the query afterwards doesn't affect the loading
+        criteria.setParameter("excludedName", "doc2");
+        assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId())), results.get(1).getOwnerRelatedDocumentIds());
+    }
+
+    @Test
+    public void testLazyCorrelationInFlatViewEqualsAndToString() {
+        EntityViewManager evm = build(DocumentLazyFlatView.class);
+        LazyFetchStatistics statistics = evm.getService(LazyFetchStatistics.class);
+        statistics.clear();
+        List<DocumentLazyFlatView> results = evm.applySetting(EntityViewSetting.create(DocumentLazyFlatView.class), cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+        List<DocumentLazyFlatView> otherResults = evm.applySetting(EntityViewSetting.create(DocumentLazyFlatView.class), cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+
+        // The string representation doesn't load lazy attributes
+        assertTrue(results.get(0).toString().contains("<not loaded>"));
+        assertEquals(0, statistics.getLoads());
+
+        // Equality takes lazy attributes into account by loading them
+        assertEquals(results.get(0), otherResults.get(0));
+        assertEquals(results.get(0).hashCode(), otherResults.get(0).hashCode());
+        assertFalse(results.get(0).equals(results.get(1)));
+        assertEquals(2, statistics.getLoads());
+        assertFalse(results.get(0).toString().contains("<not loaded>"));
+    }
+
+    @Test
+    public void testLazyCorrelationNotAllowedForUpdatableViews() {
+        try {
+            build(UpdatableDocumentLazyCorrelationView.class, SimplePersonCorrelatedSubView.class);
+            fail("Expected building the entity view manager to fail!");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("LAZY"));
+            assertTrue(ex.getMessage().contains("updatable"));
+        }
+    }
+
+    private List<DocumentLazyCorrelationView> query(EntityViewManager evm, EntityManager entityManager, EntityViewSetting<DocumentLazyCorrelationView, CriteriaBuilder<DocumentLazyCorrelationView>> setting) {
+        CriteriaBuilder<Document> criteria = cbf.create(entityManager, Document.class, "d").orderByAsc("id");
+        List<DocumentLazyCorrelationView> results = evm.applySetting(setting, criteria).getResultList();
+        assertEquals(4, results.size());
+        return results;
+    }
+}
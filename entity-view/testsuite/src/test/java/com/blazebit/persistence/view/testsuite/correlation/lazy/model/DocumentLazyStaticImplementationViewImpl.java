@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.lazy.model;
+
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.StaticImplementation;
+
+import java.util.Set;
+
+/**
+ * A static implementation like the annotation processor generates it, which expects the attribute values in the tuple.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@StaticImplementation(DocumentLazyStaticImplementationView.class)
+public class DocumentLazyStaticImplementationViewImpl implements DocumentLazyStaticImplementationView {
+
+    public static volatile EntityViewManager ENTITY_VIEW_MANAGER;
+
+    private final Long id;
+    private final Set<Long> ownerOnlyRelatedDocumentIds;
+
+    @SuppressWarnings("unchecked")
+    public DocumentLazyStaticImplementationViewImpl(DocumentLazyStaticImplementationViewImpl noop, int offset, Object[] tuple) {
+        this.id = (Long) tuple[offset + 0];
+        this.ownerOnlyRelatedDocumentIds = (Set<Long>) tuple[offset + 1];
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Set<Long> getOwnerOnlyRelatedDocumentIds() {
+        return ownerOnlyRelatedDocumentIds;
+    }
+}
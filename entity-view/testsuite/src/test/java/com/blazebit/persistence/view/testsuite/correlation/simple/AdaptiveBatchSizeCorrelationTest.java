@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.simple;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.BatchFetch;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimpleDocumentCorrelatedView;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimplePersonCorrelatedSubView;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimpleVersionCorrelatedView;
+import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewSubqueryNormal;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class AdaptiveBatchSizeCorrelationTest extends AbstractCorrelationTest {
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testAdaptiveBatchSize() {
+        EntityViewManager evm = build(8);
+        CorrelationBatchStatistics statistics = evm.getService(CorrelationBatchStatistics.class);
+        assertNotNull(statistics);
+        statistics.clear();
+
+        // The first execution uses the default batch size of 1
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, null, null);
+        CorrelationBatchStatistics.AttributeStatistics ownerStatistics = statistics.getAttributeStatistics(DocumentSimpleCorrelationViewSubqueryNormal.class, "correlatedOwnerId");
+        assertEquals(1, ownerStatistics.getExecutions());
+        assertEquals(2, ownerStatistics.getQueries());
+        assertEquals(2, ownerStatistics.getBatchSize());
+        assertEquals("values", ownerStatistics.getBatchMode());
+
+        CorrelationBatchStatistics.AttributeStatistics relatedStatistics = statistics.getAttributeStatistics(DocumentSimpleCorrelationViewSubqueryNormal.class, "ownerRelatedDocumentIds");
+        assertEquals(4, relatedStatistics.getQueries());
+        assertEquals(4, relatedStatistics.getBatchSize());
+        assertEquals("view_roots", relatedStatistics.getBatchMode());
+
+        // The second execution batches the keys into a single query per correlation value
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, null, null);
+        assertEquals(2, ownerStatistics.getExecutions());
+        assertEquals(3, ownerStatistics.getQueries());
+        assertEquals(2, ownerStatistics.getBatchSize());
+        assertEquals(6, relatedStatistics.getQueries());
+        assertEquals(4, relatedStatistics.getBatchSize());
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testAdaptiveBatchSizeBounds() {
+        EntityViewManager evm = build(2);
+        CorrelationBatchStatistics statistics = evm.getService(CorrelationBatchStatistics.class);
+        statistics.clear();
+
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, null, null);
+        testCorrelation(evm, DocumentSimpleCorrelationViewSubqueryNormal.class, null, null);
+        CorrelationBatchStatistics.AttributeStatistics relatedStatistics = statistics.getAttributeStatistics(DocumentSimpleCorrelationViewSubqueryNormal.class, "ownerRelatedDocumentIds");
+        assertEquals(2, relatedStatistics.getBatchSize());
+        // 4 queries with a batch size of 1 and then 1 query for the first and 2 queries for the three view roots of the second owner
+        assertEquals(7, relatedStatistics.getQueries());
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testAnnotatedBatchSizeTakesPrecedence() {
+        EntityViewManager evm = build(8, DocumentBatchFetchView.class);
+        CorrelationBatchStatistics statistics = evm.getService(CorrelationBatchStatistics.class);
+        statistics.clear();
+
+        for (int i = 0; i < 2; i++) {
+            List<DocumentBatchFetchView> results = evm.applySetting(EntityViewSetting.create(DocumentBatchFetchView.class), cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+            assertEquals(4, results.size());
+            assertEquals(2, results.get(1).getOwnerRelatedDocumentIds().size());
+        }
+        CorrelationBatchStatistics.AttributeStatistics relatedStatistics = statistics.getAttributeStatistics(DocumentBatchFetchView.class, "ownerRelatedDocumentIds");
+        assertEquals(4, relatedStatistics.getBatchSize());
+        // The statistics suggest a batch size of 4 after the first execution, but the annotated batch size is used
+        assertEquals(8, relatedStatistics.getQueries());
+    }
+
+    @Test
+    public void testAdaptiveBatchSizeDisabled() {
+        EntityViewManager evm = build(
+                DocumentSimpleCorrelationViewSubqueryNormal.class,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+        assertNull(evm.getService(CorrelationBatchStatistics.class));
+    }
+
+    private EntityViewManager build(int maxBatchSize) {
+        return build(maxBatchSize, DocumentSimpleCorrelationViewSubqueryNormal.class);
+    }
+
+    private EntityViewManager build(int maxBatchSize, Class<?> entityView) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.ADAPTIVE_BATCH_SIZE, "true");
+        cfg.setProperty(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MAX, Integer.toString(maxBatchSize));
+        return build(
+                cfg,
+                entityView,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+    }
+
+    @EntityView(Document.class)
+    public interface DocumentBatchFetchView {
+
+        @IdMapping
+        public Long getId();
+
+        @BatchFetch(size = 1)
+        @MappingCorrelatedSimple(correlationBasis = "owner", correlationResult = "id", correlated = Document.class, correlationExpression = "owner IN correlationKey AND id NOT IN VIEW_ROOT(id)", fetch = FetchStrategy.SELECT)
+        public Set<Long> getOwnerRelatedDocumentIds();
+    }
+}
@@ -23,6 +23,7 @@ import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
 import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewJoinId;
 import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewJoinNormal;
@@ -33,6 +34,18 @@ import com.blazebit.persistence.view.testsuite.correlation.simple.model.Document
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  *
  * @author Christian Beikov
@@ -96,6 +109,89 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubqueryId.class, 20);
     }
 
+    @Test
+    // NOTE: Detecting the transaction requires a transaction access which is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class })
+    public void testSubqueryCorrelationNormalConcurrent() {
+        CountingExecutor executor = new CountingExecutor();
+        // Correlation queries are only executed concurrently outside of a transaction
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            testCorrelation(entityManager, DocumentSimpleCorrelationViewSubqueryNormal.class, null, executor);
+        } finally {
+            entityManager.close();
+            executor.shutdown();
+        }
+        assertTrue(executor.executions.get() > 0);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedCorrelationIdSize2Concurrent() {
+        CountingExecutor executor = new CountingExecutor();
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            testCorrelation(entityManager, DocumentSimpleCorrelationViewSubqueryId.class, 2, executor);
+        } finally {
+            entityManager.close();
+            executor.shutdown();
+        }
+        assertTrue(executor.executions.get() > 0);
+    }
+
+    @Test
+    // NOTE: Detecting the transaction requires a transaction access which is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class })
+    public void testSubqueryCorrelationNormalConcurrentInTransaction() {
+        // The uncommitted change must be visible to the correlation queries, so these must not use separate entity managers
+        doc3.setName("doc3-changed");
+        em.flush();
+        CountingExecutor executor = new CountingExecutor();
+        try {
+            testCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class, null, executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, executor.executions.get());
+    }
+
+    @Test
+    // NOTE: Detecting the transaction requires a transaction access which is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class })
+    public void testSubqueryCorrelationNormalConcurrentNotEnabled() {
+        CountingExecutor executor = new CountingExecutor();
+        // An executor alone doesn't enable concurrent execution
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            testCorrelation(entityManager, DocumentSimpleCorrelationViewSubqueryNormal.class, null, executor, Collections.<String, Object>emptyMap());
+        } finally {
+            entityManager.close();
+            executor.shutdown();
+        }
+        assertEquals(0, executor.executions.get());
+    }
+
+    @Test
+    // NOTE: Detecting the transaction requires a transaction access which is only available for Hibernate
+    @Category({ NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class })
+    public void testSubqueryCorrelationNormalConcurrentPerAttribute() {
+        CountingExecutor executor = new CountingExecutor();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationProperties.CONCURRENT_CORRELATION, false);
+        properties.put(ConfigurationProperties.CONCURRENT_CORRELATION + ".correlatedOwnerId", true);
+        properties.put(ConfigurationProperties.CONCURRENT_CORRELATION + ".correlatedOwner", true);
+        properties.put(ConfigurationProperties.CONCURRENT_CORRELATION + ".correlatedOwnerView", true);
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            testCorrelation(entityManager, DocumentSimpleCorrelationViewSubqueryNormal.class, null, executor, properties);
+        } finally {
+            entityManager.close();
+            executor.shutdown();
+        }
+        assertTrue(executor.executions.get() > 0);
+    }
+
     // TODO: test batch correlation expectation configuration
     // TODO: make explicit test for correlation key batching with view root usage maybe via nested subviews through collections?
 
@@ -125,4 +221,24 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewJoinId.class, null);
     }
 
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class CountingExecutor implements Executor {
+
+        private final ExecutorService delegate = Executors.newFixedThreadPool(3);
+        private final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            executions.incrementAndGet();
+            delegate.execute(command);
+        }
+
+        public void shutdown() {
+            delegate.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.stream;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.stream.model.DocumentStreamingView;
+import com.blazebit.persistence.view.testsuite.stream.model.PersonStreamingView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class StreamingTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                for (int i = 0; i < 5; i++) {
+                    Person owner = new Person("owner" + i);
+                    Document document = new Document("doc" + i, owner);
+                    document.getStrings().add("s" + i + "_1");
+                    document.getStrings().add("s" + i + "_2");
+                    em.persist(owner);
+                    em.persist(document);
+                    for (int j = 0; j < 2; j++) {
+                        Person partner = new Person("partner" + i + "_" + j);
+                        partner.setPartnerDocument(document);
+                        em.persist(partner);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testStreamWithJoinAndSelectFetchedCollections() {
+        assertStreamEqualsList(streamWithWindowSize(null));
+    }
+
+    @Test
+    public void testStreamWithWindowSizeOne() {
+        assertStreamEqualsList(streamWithWindowSize(1));
+    }
+
+    @Test
+    public void testStreamWithWindowSizeSmallerThanResult() {
+        assertStreamEqualsList(streamWithWindowSize(2));
+    }
+
+    @Test
+    public void testStreamWithoutOrderByFails() {
+        EntityViewSetting<DocumentStreamingView, CriteriaBuilder<DocumentStreamingView>> setting = createSetting(2);
+        CriteriaBuilder<DocumentStreamingView> cb = evm.applySetting(setting, cbf.create(em, Document.class, "d"));
+        verifyException(cb, IllegalStateException.class, r -> r.getResultStream());
+    }
+
+    @Test
+    public void testStreamWithGroupCrossingWindowBoundaryFails() {
+        // Ordering by the collection element first interleaves the tuples of the documents,
+        // so the tuples of a document would end up in different windows
+        EntityViewSetting<DocumentStreamingView, CriteriaBuilder<DocumentStreamingView>> setting = createSetting(2);
+        CriteriaBuilder<DocumentStreamingView> cb = evm.applySetting(setting, cbf.create(em, Document.class, "d").orderByAsc("strings").orderByAsc("id"));
+        verifyException(cb, IllegalStateException.class, r -> r.getResultStream());
+    }
+
+    private void assertStreamEqualsList(CriteriaBuilder<DocumentStreamingView> cb) {
+        List<DocumentStreamingView> expected = cb.getResultList();
+        List<DocumentStreamingView> actual;
+        Stream<DocumentStreamingView> stream = cb.getResultStream();
+        try {
+            actual = stream.collect(Collectors.<DocumentStreamingView>toList());
+        } finally {
+            stream.close();
+        }
+
+        assertEquals(5, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DocumentStreamingView expectedView = expected.get(i);
+            DocumentStreamingView actualView = actual.get(i);
+            assertEquals(expectedView.getId(), actualView.getId());
+            assertEquals(expectedView.getName(), actualView.getName());
+            assertEquals(2, actualView.getStrings().size());
+            assertEquals(expectedView.getStrings(), actualView.getStrings());
+            assertEquals(names(expectedView.getPartners()), names(actualView.getPartners()));
+            assertEquals(2, actualView.getPartners().size());
+        }
+    }
+
+    private CriteriaBuilder<DocumentStreamingView> streamWithWindowSize(Integer windowSize) {
+        EntityViewSetting<DocumentStreamingView, CriteriaBuilder<DocumentStreamingView>> setting = createSetting(windowSize);
+        return evm.applySetting(setting, cbf.create(em, Document.class, "d").orderByAsc("id"));
+    }
+
+    private EntityViewSetting<DocumentStreamingView, CriteriaBuilder<DocumentStreamingView>> createSetting(Integer windowSize) {
+        build(
+                DocumentStreamingView.class,
+                PersonStreamingView.class
+        );
+
+        EntityViewSetting<DocumentStreamingView, CriteriaBuilder<DocumentStreamingView>> setting = EntityViewSetting.create(DocumentStreamingView.class);
+        if (windowSize != null) {
+            setting.setProperty(ConfigurationProperties.STREAMING_WINDOW_SIZE, windowSize);
+        }
+        return setting;
+    }
+
+    private static Set<String> names(Set<PersonStreamingView> persons) {
+        Set<String> names = new HashSet<>();
+        for (PersonStreamingView person : persons) {
+            names.add(person.getName());
+        }
+        return names;
+    }
+}
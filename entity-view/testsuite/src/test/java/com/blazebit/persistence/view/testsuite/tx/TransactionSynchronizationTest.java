@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.tx;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.view.impl.tx.SynchronizationRegistry;
+import com.blazebit.persistence.view.impl.tx.TransactionHelper;
+import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the synchronization registry is bound to the transaction and not to the entity manager of the caller.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: Only the Hibernate integration provides a transaction access for resource local transactions
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class TransactionSynchronizationTest extends AbstractEntityViewTest {
+
+    @Test
+    public void concurrentTransactionsSharingProxiedEntityManager() throws Exception {
+        final ThreadLocal<EntityManager> targetEntityManager = new ThreadLocal<>();
+        final EntityManager sharedEm = createSharedEntityManager(targetEntityManager);
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final List<String> completions = new CopyOnWriteArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<TransactionAccess> committing = executorService.submit(new TransactionTask(targetEntityManager, sharedEm, barrier, completions, "commit"));
+            Future<TransactionAccess> rollingBack = executorService.submit(new TransactionTask(targetEntityManager, sharedEm, barrier, completions, "rollback"));
+            TransactionAccess committingAccess = committing.get(30, TimeUnit.SECONDS);
+            TransactionAccess rollingBackAccess = rollingBack.get(30, TimeUnit.SECONDS);
+
+            assertTrue(committingAccess instanceof SynchronizationRegistry);
+            assertTrue(rollingBackAccess instanceof SynchronizationRegistry);
+            assertNotSame(committingAccess, rollingBackAccess);
+            assertEquals(2, completions.size());
+            assertTrue(completions.contains("commit:" + Status.STATUS_COMMITTED));
+            assertFalse(completions.contains("rollback:" + Status.STATUS_COMMITTED));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void registryIsReleasedAfterRollback() {
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            final List<Integer> completions = new CopyOnWriteArrayList<>();
+            otherEm.getTransaction().begin();
+            TransactionAccess firstAccess = TransactionHelper.getTransactionAccess(otherEm);
+            firstAccess.registerSynchronization(new RecordingSynchronization(completions));
+            otherEm.getTransaction().rollback();
+
+            assertEquals(1, completions.size());
+            assertFalse(TransactionHelper.getTransactionAccess(otherEm) instanceof SynchronizationRegistry);
+
+            otherEm.getTransaction().begin();
+            TransactionAccess secondAccess = TransactionHelper.getTransactionAccess(otherEm);
+            assertTrue(secondAccess instanceof SynchronizationRegistry);
+            assertNotSame(firstAccess, secondAccess);
+            otherEm.getTransaction().commit();
+
+            assertEquals(1, completions.size());
+        } finally {
+            otherEm.close();
+        }
+    }
+
+    private static EntityManager createSharedEntityManager(final ThreadLocal<EntityManager> targetEntityManager) {
+        // Similar to a container or Spring shared entity manager, the proxy delegates to the entity manager of the current thread
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(), new Class[]{ EntityManager.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                try {
+                    return method.invoke(targetEntityManager.get(), args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class TransactionTask implements Callable<TransactionAccess> {
+
+        private final ThreadLocal<EntityManager> targetEntityManager;
+        private final EntityManager sharedEm;
+        private final CyclicBarrier barrier;
+        private final List<String> completions;
+        private final String name;
+
+        public TransactionTask(ThreadLocal<EntityManager> targetEntityManager, EntityManager sharedEm, CyclicBarrier barrier, List<String> completions, String name) {
+            this.targetEntityManager = targetEntityManager;
+            this.sharedEm = sharedEm;
+            this.barrier = barrier;
+            this.completions = completions;
+            this.name = name;
+        }
+
+        @Override
+        public TransactionAccess call() throws Exception {
+            EntityManager em = emf.createEntityManager();
+            targetEntityManager.set(em);
+            try {
+                em.getTransaction().begin();
+                TransactionAccess transactionAccess = TransactionHelper.getTransactionAccess(sharedEm);
+                transactionAccess.registerSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        completions.add(name + ":" + status);
+                    }
+                });
+                // Both transactions are active and registered their synchronizations at this point
+                barrier.await(30, TimeUnit.SECONDS);
+                if ("commit".equals(name)) {
+                    em.getTransaction().commit();
+                } else {
+                    em.getTransaction().rollback();
+                }
+                return transactionAccess;
+            } finally {
+                targetEntityManager.remove();
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class RecordingSynchronization implements Synchronization {
+
+        private final List<Integer> completions;
+
+        public RecordingSynchronization(List<Integer> completions) {
+            this.completions = completions;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            completions.add(status);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.update.batch;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.OptimisticLockException;
+import com.blazebit.persistence.view.UpdatableEntityView;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.spi.EntityViewMapping;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: JDBC batching is only implemented for Hibernate
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class EntityViewSaveAllTest extends AbstractEntityViewTest {
+
+    @Before
+    public void setUp() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                em.persist(p1);
+                for (int i = 0; i < 5; i++) {
+                    Document document = new Document("doc" + i);
+                    document.setOwner(p1);
+                    document.setVersion(1L);
+                    em.persist(document);
+                }
+            }
+        });
+        enableQueryCollecting();
+    }
+
+    private void build(int batchSize, boolean batchVersionedData) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.UPDATER_JDBC_BATCH_SIZE, Integer.toString(batchSize));
+        cfg.setProperty(ConfigurationProperties.UPDATER_JDBC_BATCH_VERSIONED_DATA, Boolean.toString(batchVersionedData));
+        cfg.addEntityView(DocumentSaveAllView.class);
+        for (EntityViewMapping mapping : cfg.getEntityViewMappings()) {
+            mapping.setVersionAttribute(mapping.getAttributes().get("version"));
+            mapping.setFlushStrategy(FlushStrategy.QUERY);
+        }
+        evm = build(cfg);
+    }
+
+    @After
+    public void tearDown() {
+        disableQueryCollecting();
+    }
+
+    @Test
+    public void viewsWithSameDirtyAttributesAreUpdatedInOneBatch() {
+        build(10, true);
+        final List<DocumentSaveAllView> views = findAll();
+        for (DocumentSaveAllView view : views) {
+            view.setName(view.getName() + "-updated");
+        }
+        // A different dirty attribute results in a different update statement
+        views.get(0).setAge(10L);
+        clearQueries();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, views);
+            }
+        });
+
+        assertQueryCount(2);
+        em.clear();
+        for (DocumentSaveAllView view : findAll()) {
+            assertEquals(view.getId() + "", 2L, view.getVersion().longValue());
+            assertEquals(true, view.getName().endsWith("-updated"));
+        }
+    }
+
+    @Test
+    public void batchSizeOneDisablesBatching() {
+        build(1, true);
+        assertUpdatedOneByOne();
+    }
+
+    @Test
+    public void versionedUpdatesAreNotBatchedIfDisabled() {
+        build(10, false);
+        assertUpdatedOneByOne();
+    }
+
+    @Test
+    public void batchedStaleUpdateThrowsOptimisticLockException() {
+        build(10, true);
+        final List<DocumentSaveAllView> views = findAll();
+        for (DocumentSaveAllView view : views) {
+            view.setName(view.getName() + "-updated");
+        }
+        final DocumentSaveAllView staleView = views.get(2);
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.createQuery("UPDATE Document d SET d.version = d.version + 1 WHERE d.id = :id")
+                        .setParameter("id", staleView.getId())
+                        .executeUpdate();
+            }
+        });
+
+        try {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    evm.saveAllWith(em, views).flush();
+                }
+            });
+            fail("Expected an optimistic lock exception");
+        } catch (OptimisticLockException ex) {
+            assertSame(staleView, ex.getEntityView());
+        }
+    }
+
+    private void assertUpdatedOneByOne() {
+        final List<DocumentSaveAllView> views = findAll();
+        for (DocumentSaveAllView view : views) {
+            view.setName(view.getName() + "-updated");
+        }
+        clearQueries();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, views);
+            }
+        });
+
+        assertQueryCount(views.size());
+        em.clear();
+        for (DocumentSaveAllView view : findAll()) {
+            assertEquals(2L, view.getVersion().longValue());
+            assertEquals(true, view.getName().endsWith("-updated"));
+        }
+    }
+
+    private List<DocumentSaveAllView> findAll() {
+        List<DocumentSaveAllView> views = new ArrayList<>();
+        for (Document document : em.createQuery("SELECT d FROM Document d ORDER BY d.id", Document.class).getResultList()) {
+            views.add(evm.find(em, DocumentSaveAllView.class, document.getId()));
+        }
+        return views;
+    }
+
+    @UpdatableEntityView
+    @EntityView(Document.class)
+    public interface DocumentSaveAllView {
+
+        @IdMapping
+        Long getId();
+
+        Long getVersion();
+
+        String getName();
+
+        void setName(String name);
+
+        long getAge();
+
+        void setAge(long age);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.update.batch;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+// NOTE: JDBC batching is only implemented for Hibernate
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class EntityViewUpdateJdbcBatchTest extends AbstractEntityViewTest {
+
+    private Document doc1;
+
+    @Before
+    public void setUp() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                em.persist(p1);
+                doc1 = new Document("doc1");
+                doc1.setOwner(p1);
+                for (int i = 0; i < 4; i++) {
+                    doc1.getStrings().add("s" + i);
+                }
+                doc1.getStringMap().put("k0", "v0");
+                em.persist(doc1);
+            }
+        });
+        enableQueryCollecting();
+    }
+
+    @After
+    public void tearDown() {
+        disableQueryCollecting();
+    }
+
+    @Test
+    public void listAppendsAreSentInJdbcBatches() {
+        build(3);
+        DocumentJdbcBatchView docView = evm.find(em, DocumentJdbcBatchView.class, doc1.getId());
+        for (int i = 1; i <= 7; i++) {
+            docView.getStrings().add("a" + i);
+        }
+        clearQueries();
+        update(docView);
+
+        // 7 inserts are sent in batches of 3, 3 and 1
+        assertQueryCount(3);
+        assertEquals(Arrays.asList("s0", "s1", "s2", "s3", "a1", "a2", "a3", "a4", "a5", "a6", "a7"), reload().getStrings());
+    }
+
+    @Test
+    public void listReplacementsAreSentInJdbcBatches() {
+        build(3);
+        DocumentJdbcBatchView docView = evm.find(em, DocumentJdbcBatchView.class, doc1.getId());
+        for (int i = 0; i < 4; i++) {
+            docView.getStrings().set(i, "u" + i);
+        }
+        clearQueries();
+        update(docView);
+
+        // 4 updates are sent in batches of 3 and 1
+        assertQueryCount(2);
+        assertEquals(Arrays.asList("u0", "u1", "u2", "u3"), reload().getStrings());
+    }
+
+    @Test
+    public void mapAppendsAreSentInJdbcBatches() {
+        build(3);
+        DocumentJdbcBatchView docView = evm.find(em, DocumentJdbcBatchView.class, doc1.getId());
+        for (int i = 1; i <= 4; i++) {
+            docView.getStringMap().put("k" + i, "v" + i);
+        }
+        clearQueries();
+        update(docView);
+
+        // 4 inserts are sent in batches of 3 and 1
+        assertQueryCount(2);
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i <= 4; i++) {
+            expected.put("k" + i, "v" + i);
+        }
+        assertEquals(expected, reload().getStringMap());
+    }
+
+    @Test
+    public void batchSizeOneDisablesBatching() {
+        build(1);
+        DocumentJdbcBatchView docView = evm.find(em, DocumentJdbcBatchView.class, doc1.getId());
+        for (int i = 1; i <= 4; i++) {
+            docView.getStrings().add("a" + i);
+        }
+        clearQueries();
+        update(docView);
+
+        assertQueryCount(4);
+        assertEquals(Arrays.asList("s0", "s1", "s2", "s3", "a1", "a2", "a3", "a4"), reload().getStrings());
+    }
+
+    @Test
+    public void batchingIsDisabledByDefault() {
+        build(EntityViews.createDefaultConfiguration(), DocumentJdbcBatchView.class);
+        DocumentJdbcBatchView docView = evm.find(em, DocumentJdbcBatchView.class, doc1.getId());
+        for (int i = 1; i <= 4; i++) {
+            docView.getStrings().add("a" + i);
+        }
+        clearQueries();
+        update(docView);
+
+        assertQueryCount(4);
+        assertEquals(Arrays.asList("s0", "s1", "s2", "s3", "a1", "a2", "a3", "a4"), reload().getStrings());
+    }
+
+    private void build(int batchSize) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.UPDATER_JDBC_BATCH_SIZE, Integer.toString(batchSize));
+        build(cfg, DocumentJdbcBatchView.class);
+    }
+
+    private void update(final Object docView) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, docView);
+                em.flush();
+            }
+        });
+    }
+
+    private Document reload() {
+        em.clear();
+        Document document = em.find(Document.class, doc1.getId());
+        document.getStrings().size();
+        document.getStringMap().size();
+        return document;
+    }
+
+    @UpdatableEntityView
+    @EntityView(Document.class)
+    public interface DocumentJdbcBatchView {
+
+        @IdMapping
+        Long getId();
+
+        List<String> getStrings();
+
+        void setStrings(List<String> strings);
+
+        Map<String, String> getStringMap();
+
+        void setStringMap(Map<String, String> stringMap);
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.update.dirty;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Dirty tracking of views with more than 32 mutable attributes, which need the upper half of the long dirty mask.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+@Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class EntityViewUpdateManyAttributesTest extends AbstractEntityViewTest {
+
+    private EntityViewManager evm;
+
+    @Entity
+    @Table(name = "many_attributes_entity")
+    public static class ManyAttributesEntity {
+
+        @Id
+        private Long id;
+
+        @Column
+        private String value00;
+
+        @Column
+        private String value01;
+
+        @Column
+        private String value02;
+
+        @Column
+        private String value03;
+
+        @Column
+        private String value04;
+
+        @Column
+        private String value05;
+
+        @Column
+        private String value06;
+
+        @Column
+        private String value07;
+
+        @Column
+        private String value08;
+
+        @Column
+        private String value09;
+
+        @Column
+        private String value10;
+
+        @Column
+        private String value11;
+
+        @Column
+        private String value12;
+
+        @Column
+        private String value13;
+
+        @Column
+        private String value14;
+
+        @Column
+        private String value15;
+
+        @Column
+        private String value16;
+
+        @Column
+        private String value17;
+
+        @Column
+        private String value18;
+
+        @Column
+        private String value19;
+
+        @Column
+        private String value20;
+
+        @Column
+        private String value21;
+
+        @Column
+        private String value22;
+
+        @Column
+        private String value23;
+
+        @Column
+        private String value24;
+
+        @Column
+        private String value25;
+
+        @Column
+        private String value26;
+
+        @Column
+        private String value27;
+
+        @Column
+        private String value28;
+
+        @Column
+        private String value29;
+
+        @Column
+        private String value30;
+
+        @Column
+        private String value31;
+
+        @Column
+        private String value32;
+
+        public ManyAttributesEntity() {
+        }
+
+        public ManyAttributesEntity(Long id) {
+            this.id = id;
+        }
+
+        public String getValue00() {
+            return value00;
+        }
+
+        public String getValue32() {
+            return value32;
+        }
+    }
+
+    // Attributes are indexed by name, so zero padding makes value32 the attribute with index 32
+    @UpdatableEntityView
+    @EntityView(ManyAttributesEntity.class)
+    public interface ManyAttributesView {
+
+        @IdMapping
+        Long getId();
+
+        String getValue00();
+        void setValue00(String value00);
+
+        String getValue01();
+        void setValue01(String value01);
+
+        String getValue02();
+        void setValue02(String value02);
+
+        String getValue03();
+        void setValue03(String value03);
+
+        String getValue04();
+        void setValue04(String value04);
+
+        String getValue05();
+        void setValue05(String value05);
+
+        String getValue06();
+        void setValue06(String value06);
+
+        String getValue07();
+        void setValue07(String value07);
+
+        String getValue08();
+        void setValue08(String value08);
+
+        String getValue09();
+        void setValue09(String value09);
+
+        String getValue10();
+        void setValue10(String value10);
+
+        String getValue11();
+        void setValue11(String value11);
+
+        String getValue12();
+        void setValue12(String value12);
+
+        String getValue13();
+        void setValue13(String value13);
+
+        String getValue14();
+        void setValue14(String value14);
+
+        String getValue15();
+        void setValue15(String value15);
+
+        String getValue16();
+        void setValue16(String value16);
+
+        String getValue17();
+        void setValue17(String value17);
+
+        String getValue18();
+        void setValue18(String value18);
+
+        String getValue19();
+        void setValue19(String value19);
+
+        String getValue20();
+        void setValue20(String value20);
+
+        String getValue21();
+        void setValue21(String value21);
+
+        String getValue22();
+        void setValue22(String value22);
+
+        String getValue23();
+        void setValue23(String value23);
+
+        String getValue24();
+        void setValue24(String value24);
+
+        String getValue25();
+        void setValue25(String value25);
+
+        String getValue26();
+        void setValue26(String value26);
+
+        String getValue27();
+        void setValue27(String value27);
+
+        String getValue28();
+        void setValue28(String value28);
+
+        String getValue29();
+        void setValue29(String value29);
+
+        String getValue30();
+        void setValue30(String value30);
+
+        String getValue31();
+        void setValue31(String value31);
+
+        String getValue32();
+        void setValue32(String value32);
+    }
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            ManyAttributesEntity.class
+        };
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new ManyAttributesEntity(1L));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        this.evm = build(ManyAttributesView.class);
+    }
+
+    @Test
+    public void testMarkDirtyBeyondIndex31() {
+        ManyAttributesView view = evm.find(em, ManyAttributesView.class, 1L);
+        DirtyStateTrackable trackable = (DirtyStateTrackable) view;
+        int lastIndex = 32;
+        view.setValue32("changed");
+
+        assertTrue(trackable.$$_isDirty(lastIndex));
+        // An int shift wraps around and would mark the attribute at index 0 instead
+        assertFalse(trackable.$$_isDirty(0));
+        assertEquals(1L << lastIndex, trackable.$$_getSimpleDirty());
+    }
+
+    @Test
+    public void testFlushAttributeBeyondIndex31() {
+        final ManyAttributesView view = evm.find(em, ManyAttributesView.class, 1L);
+        view.setValue32("changed");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, view);
+            }
+        });
+
+        em.clear();
+        ManyAttributesEntity entity = em.find(ManyAttributesEntity.class, 1L);
+        assertEquals("changed", entity.getValue32());
+        assertNull(entity.getValue00());
+    }
+}
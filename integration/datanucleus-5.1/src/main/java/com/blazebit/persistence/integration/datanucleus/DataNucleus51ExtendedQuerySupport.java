@@ -17,6 +17,7 @@
 package com.blazebit.persistence.integration.datanucleus;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.QueryPlanCacheStatistics;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import org.datanucleus.store.rdbms.query.JPQLQuery;
@@ -55,6 +56,16 @@ public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
         return false;
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsTemporaryTableValues(EntityManager em) {
+        return false;
+    }
+
     @Override
     public boolean applyFirstResultMaxResults(Query query, int firstResult, int maxResults) {
         query.setFirstResult(firstResult);
@@ -128,6 +139,56 @@ public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
         return query.executeUpdate();
     }
 
+    @Override
+    public int[] executeBatchUpdate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String sqlOverride, List<? extends Runnable> batchBinders, boolean queryPlanCacheEnabled) {
+        applySql(query, sqlOverride);
+        int[] updateCounts = new int[batchBinders.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            batchBinders.get(i).run();
+            updateCounts[i] = query.executeUpdate();
+        }
+        return updateCounts;
+    }
+
+    @Override
+    public void insertTemporaryTableValues(EntityManager em, String createSql, String clearSql, String insertSql, int[] sqlTypes, List<Object[]> rows, Runnable afterTransactionCompletion) {
+        throw new UnsupportedOperationException("Not yet implemeneted!");
+    }
+
+    @Override
+    public List<Object> getFirstColumnValues(EntityManager em, Query query, String sql) {
+        throw new UnsupportedOperationException("Not yet implemeneted!");
+    }
+
+    @Override
+    public boolean registerAfterTransactionCompletion(EntityManager em, Runnable callback) {
+        return false;
+    }
+
+    @Override
+    public Object getTransactionResource(EntityManager em, Object key) {
+        return null;
+    }
+
+    @Override
+    public boolean putTransactionResource(EntityManager em, Object key, Object value) {
+        return false;
+    }
+
+    @Override
+    public QueryPlanCacheStatistics getQueryPlanCacheStatistics(EntityManager em) {
+        return null;
+    }
+
+    @Override
+    public void clearQueryPlanCache(EntityManager em) {
+    }
+
+    @Override
+    public boolean warmUpQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
+        return false;
+    }
+
     @Override
     public ReturningResult<Object[]> executeReturning(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query modificationBaseQuery, Query exampleQuery, String sqlOverride, boolean queryPlanCacheEnabled) {
         // TODO: implement
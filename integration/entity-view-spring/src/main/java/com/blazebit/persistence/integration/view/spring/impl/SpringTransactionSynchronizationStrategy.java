@@ -17,6 +17,7 @@
 package com.blazebit.persistence.integration.view.spring.impl;
 
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 import org.springframework.transaction.interceptor.TransactionInterceptor;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
@@ -29,7 +30,7 @@ import javax.transaction.Synchronization;
  * @author Christian Beikov
  * @since 1.4.0
  */
-public class SpringTransactionSynchronizationStrategy implements TransactionAccess {
+public class SpringTransactionSynchronizationStrategy implements TransactionAccess, TransactionResourceSupport {
 
     public static final SpringTransactionSynchronizationStrategy INSTANCE = new SpringTransactionSynchronizationStrategy();
 
@@ -51,6 +52,72 @@ public class SpringTransactionSynchronizationStrategy implements TransactionAcce
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationWrapper(synchronization));
     }
 
+    @Override
+    public Object getResource(Object key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        return TransactionSynchronizationManager.getResource(key);
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        TransactionSynchronizationManager.bindResource(key, value);
+        TransactionSynchronizationManager.registerSynchronization(new ResourceBindingSynchronization(key, value));
+    }
+
+    /**
+     * Unbinds a resource when the transaction is suspended or completes and rebinds it when the transaction is resumed.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class ResourceBindingSynchronization implements TransactionSynchronization {
+
+        private final Object key;
+        private final Object value;
+
+        public ResourceBindingSynchronization(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, value);
+        }
+
+        @Override
+        public void flush() {
+            // No-op
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // No-op
+        }
+
+        @Override
+        public void beforeCompletion() {
+            // No-op
+        }
+
+        @Override
+        public void afterCommit() {
+            // No-op
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+    }
+
     /**
      *
      * @author Christian Beikov
@@ -27,6 +27,8 @@ import org.hibernate.HibernateException;
 import org.hibernate.LockOptions;
 import org.hibernate.Query;
 import org.hibernate.ScrollableResults;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.ejb.HibernateEntityManagerImplementor;
 import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
@@ -55,10 +57,13 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.logging.Logger;
@@ -155,6 +160,41 @@ public class Hibernate4Access implements HibernateAccess {
         }
     }
 
+    @Override
+    public PreparedStatement prepareStatement(SessionImplementor session, String sql) {
+        return session.getTransactionCoordinator().getJdbcCoordinator().getStatementPreparer().prepareStatement(sql, false);
+    }
+
+    @Override
+    public void releaseStatement(SessionImplementor session, PreparedStatement statement) {
+        session.getTransactionCoordinator().getJdbcCoordinator().release(statement);
+    }
+
+    @Override
+    public int bindParameter(ParameterSpecification parameterSpecification, PreparedStatement statement, QueryParameters parameters, SessionImplementor session, int position) throws SQLException {
+        return parameterSpecification.bind(statement, parameters, session, position);
+    }
+
+    @Override
+    public void scheduleBulkOperationCleanup(SessionImplementor session, Set<String> querySpaces) {
+        BulkOperationCleanupAction action = new BulkOperationCleanupAction(session, querySpaces);
+        if (session.isEventSource()) {
+            ((EventSource) session).getActionQueue().addAction(action);
+        } else {
+            action.getAfterTransactionCompletionProcess().doAfterTransactionCompletion(true, session);
+        }
+    }
+
+    @Override
+    public void registerAfterTransactionCompletion(SessionImplementor session, final Runnable callback) {
+        ((EventSource) session).getActionQueue().registerProcess(new AfterTransactionCompletionProcess() {
+            @Override
+            public void doAfterTransactionCompletion(boolean success, SessionImplementor sessionImplementor) {
+                callback.run();
+            }
+        });
+    }
+
     @Override
     public QueryParameters getQueryParameters(Query hibernateQuery, Map<String, TypedValue> namedParams) {
         return ((org.hibernate.internal.AbstractQueryImpl) hibernateQuery).getQueryParameters(namedParams);
@@ -16,7 +16,9 @@
 
 package com.blazebit.persistence.integration.hibernate;
 
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import org.hibernate.Session;
 import org.hibernate.engine.spi.SessionImplementor;
@@ -31,18 +33,22 @@ import javax.transaction.Synchronization;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public class Hibernate4TransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport {
+public class Hibernate4TransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport, TransactionResourceSupport {
     
     private final EntityTransaction tx;
     private final SynchronizationRegistry synchronizationRegistry;
+    private final Session session;
+    private final TransactionBoundResources resources;
 
-    public Hibernate4TransactionSynchronizationStrategy(EntityManager em) {
+    public Hibernate4TransactionSynchronizationStrategy(EntityManager em, TransactionBoundResources resources) {
         try {
             this.tx = em.getTransaction();
         } catch (IllegalStateException e) {
             throw new IllegalStateException("Could not access entity transaction!", e);
         }
         Session s = em.unwrap(Session.class);
+        this.session = s;
+        this.resources = resources;
         this.synchronizationRegistry = ((SessionImplementor) s).getTransactionCoordinator().getSynchronizationRegistry();
     }
 
@@ -65,10 +71,22 @@ public class Hibernate4TransactionSynchronizationStrategy implements Transaction
         }
     }
 
+    @Override
+    public Object getResource(Object key) {
+        return resources.getResource(session, key);
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        Synchronization synchronization = resources.putResource(session, key, value);
+        if (synchronization != null) {
+            registerSynchronization(synchronization);
+        }
+    }
+
     @Override
     public void transactional(Runnable runnable) {
         // In resource local mode, we have no global transaction state
         runnable.run();
     }
-
 }
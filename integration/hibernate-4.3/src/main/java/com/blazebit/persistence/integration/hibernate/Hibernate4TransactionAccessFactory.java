@@ -17,6 +17,7 @@
 package com.blazebit.persistence.integration.hibernate;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
 import com.blazebit.persistence.view.spi.TransactionAccessFactory;
 
@@ -29,9 +30,11 @@ import javax.persistence.EntityManager;
 @ServiceProvider(TransactionAccessFactory.class)
 public class Hibernate4TransactionAccessFactory implements TransactionAccessFactory {
 
+    private final TransactionBoundResources resources = new TransactionBoundResources();
+
     @Override
     public TransactionAccess createTransactionAccess(EntityManager entityManager) {
-        return new Hibernate4TransactionSynchronizationStrategy(entityManager);
+        return new Hibernate4TransactionSynchronizationStrategy(entityManager, resources);
     }
 
     @Override
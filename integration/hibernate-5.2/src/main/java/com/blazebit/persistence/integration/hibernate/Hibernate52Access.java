@@ -25,6 +25,8 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import org.hibernate.HibernateException;
 import org.hibernate.LockOptions;
 import org.hibernate.Query;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
 import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
 import org.hibernate.engine.query.spi.HQLQueryPlan;
 import org.hibernate.engine.spi.ExceptionConverter;
@@ -54,9 +56,12 @@ import javax.persistence.PersistenceException;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.logging.Logger;
@@ -156,6 +161,43 @@ public class Hibernate52Access implements HibernateAccess {
         }
     }
 
+    @Override
+    public PreparedStatement prepareStatement(SessionImplementor session, String sql) {
+        return session.getJdbcCoordinator().getStatementPreparer().prepareStatement(sql, false);
+    }
+
+    @Override
+    public void releaseStatement(SessionImplementor session, PreparedStatement statement) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+        jdbcCoordinator.afterStatementExecution();
+    }
+
+    @Override
+    public int bindParameter(ParameterSpecification parameterSpecification, PreparedStatement statement, QueryParameters parameters, SessionImplementor session, int position) throws SQLException {
+        return parameterSpecification.bind(statement, parameters, session, position);
+    }
+
+    @Override
+    public void scheduleBulkOperationCleanup(SessionImplementor session, Set<String> querySpaces) {
+        BulkOperationCleanupAction action = new BulkOperationCleanupAction(session, querySpaces);
+        if (session.isEventSource()) {
+            ((EventSource) session).getActionQueue().addAction(action);
+        } else {
+            action.getAfterTransactionCompletionProcess().doAfterTransactionCompletion(true, session);
+        }
+    }
+
+    @Override
+    public void registerAfterTransactionCompletion(SessionImplementor session, final Runnable callback) {
+        ((EventSource) session).getActionQueue().registerProcess(new AfterTransactionCompletionProcess() {
+            @Override
+            public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor sessionImplementor) {
+                callback.run();
+            }
+        });
+    }
+
     @Override
     public QueryParameters getQueryParameters(Query hibernateQuery, Map<String, TypedValue> namedParams) {
         return ((AbstractProducedQuery<?>) hibernateQuery).getQueryParameters();
@@ -16,6 +16,7 @@
 package com.blazebit.persistence.integration.hibernate;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
 import com.blazebit.persistence.view.spi.TransactionAccessFactory;
 import org.hibernate.Session;
@@ -33,13 +34,16 @@ import javax.persistence.EntityManager;
  */
 @ServiceProvider(TransactionAccessFactory.class)
 public class Hibernate5TransactionAccessFactory implements TransactionAccessFactory {
+
+    private final TransactionBoundResources resources = new TransactionBoundResources();
+
     @Override
     public TransactionAccess createTransactionAccess(EntityManager entityManager) {
         JtaPlatform jtaPlatform = getHibernate5JtaPlatformPresent(entityManager);
         if (jtaPlatform == null || NoJtaPlatform.class == jtaPlatform.getClass()) {
-            return new Hibernate5EntityTransactionSynchronizationStrategy(entityManager);
+            return new Hibernate5EntityTransactionSynchronizationStrategy(entityManager, resources);
         } else {
-            return new Hibernate5JtaPlatformTransactionSynchronizationStrategy(jtaPlatform);
+            return new Hibernate5JtaPlatformTransactionSynchronizationStrategy(jtaPlatform, resources);
         }
     }
 
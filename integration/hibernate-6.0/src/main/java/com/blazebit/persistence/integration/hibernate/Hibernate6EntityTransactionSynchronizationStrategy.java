@@ -16,7 +16,9 @@
 
 package com.blazebit.persistence.integration.hibernate;
 
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import org.hibernate.Session;
 import org.hibernate.engine.spi.SessionImplementor;
@@ -31,14 +33,18 @@ import jakarta.transaction.Synchronization;
  * @author Christian Beikov
  * @since 1.6.7
  */
-public class Hibernate6EntityTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport {
+public class Hibernate6EntityTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport, TransactionResourceSupport {
     
     private final EntityTransaction tx;
     private final SynchronizationRegistry synchronizationRegistry;
+    private final Session session;
+    private final TransactionBoundResources resources;
 
-    public Hibernate6EntityTransactionSynchronizationStrategy(EntityTransaction tx, EntityManager em) {
+    public Hibernate6EntityTransactionSynchronizationStrategy(EntityTransaction tx, EntityManager em, TransactionBoundResources resources) {
         this.tx = tx;
         Session s = em.unwrap(Session.class);
+        this.session = s;
+        this.resources = resources;
         this.synchronizationRegistry = ((SessionImplementor) s).getTransactionCoordinator().getLocalSynchronizations();
     }
 
@@ -57,6 +63,19 @@ public class Hibernate6EntityTransactionSynchronizationStrategy implements Trans
         synchronizationRegistry.registerSynchronization(synchronization);
     }
 
+    @Override
+    public Object getResource(Object key) {
+        return resources.getResource(session, key);
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        Synchronization synchronization = resources.putResource(session, key, value);
+        if (synchronization != null) {
+            registerSynchronization(synchronization);
+        }
+    }
+
     @Override
     public void transactional(Runnable runnable) {
         // In resource local mode, we have no global transaction state
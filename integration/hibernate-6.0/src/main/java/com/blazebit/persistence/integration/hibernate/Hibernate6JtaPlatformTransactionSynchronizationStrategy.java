@@ -16,27 +16,32 @@
 
 package com.blazebit.persistence.integration.hibernate;
 
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
+import com.blazebit.persistence.view.spi.TransactionResourceSupport;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import org.hibernate.engine.transaction.jta.platform.spi.JtaPlatform;
 
 import jakarta.transaction.Status;
 import jakarta.transaction.Synchronization;
 import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
 import jakarta.transaction.TransactionManager;
 
 /**
  * @author Moritz Becker
  * @since 1.6.7
  */
-public class Hibernate6JtaPlatformTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport {
+public class Hibernate6JtaPlatformTransactionSynchronizationStrategy implements TransactionAccess, TransactionSupport, TransactionResourceSupport {
 
     private final JtaPlatform jtaPlatform;
     private final TransactionManager jtaTransactionManager;
+    private final TransactionBoundResources resources;
 
-    public Hibernate6JtaPlatformTransactionSynchronizationStrategy(JtaPlatform jtaPlatform) {
+    public Hibernate6JtaPlatformTransactionSynchronizationStrategy(JtaPlatform jtaPlatform, TransactionBoundResources resources) {
         this.jtaPlatform = jtaPlatform;
         this.jtaTransactionManager = jtaPlatform.retrieveTransactionManager();
+        this.resources = resources;
     }
 
     @Override
@@ -62,10 +67,35 @@ public class Hibernate6JtaPlatformTransactionSynchronizationStrategy implements
         jtaPlatform.registerSynchronization(synchronization);
     }
 
+    @Override
+    public Object getResource(Object key) {
+        Transaction transaction = getTransaction();
+        return transaction == null ? null : resources.getResource(transaction, key);
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        Transaction transaction = getTransaction();
+        if (transaction == null) {
+            throw new IllegalStateException("No active JTA transaction to bind the resource to!");
+        }
+        Synchronization synchronization = resources.putResource(transaction, key, value);
+        if (synchronization != null) {
+            registerSynchronization(synchronization);
+        }
+    }
+
+    private Transaction getTransaction() {
+        try {
+            return jtaTransactionManager.getTransaction();
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void transactional(Runnable runnable) {
         // In resource local mode, we have no global transaction state
         runnable.run();
     }
-
-}
\ No newline at end of file
+}
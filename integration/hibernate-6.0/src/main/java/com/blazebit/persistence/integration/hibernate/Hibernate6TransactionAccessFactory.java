@@ -16,6 +16,7 @@
 package com.blazebit.persistence.integration.hibernate;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.integration.hibernate.base.TransactionBoundResources;
 import com.blazebit.persistence.view.spi.TransactionAccess;
 import com.blazebit.persistence.view.spi.TransactionAccessFactory;
 import org.hibernate.Session;
@@ -32,13 +33,16 @@ import jakarta.persistence.EntityManager;
  */
 @ServiceProvider(TransactionAccessFactory.class)
 public class Hibernate6TransactionAccessFactory implements TransactionAccessFactory {
+
+    private final TransactionBoundResources resources = new TransactionBoundResources();
+
     @Override
     public TransactionAccess createTransactionAccess(EntityManager entityManager) {
         try {
-            return new Hibernate6EntityTransactionSynchronizationStrategy(entityManager.getTransaction(), entityManager);
+            return new Hibernate6EntityTransactionSynchronizationStrategy(entityManager.getTransaction(), entityManager, resources);
         } catch (IllegalStateException ex) {
             JtaPlatform jtaPlatform = getHibernateJtaPlatform(entityManager);
-            return new Hibernate6JtaPlatformTransactionSynchronizationStrategy(jtaPlatform);
+            return new Hibernate6JtaPlatformTransactionSynchronizationStrategy(jtaPlatform, resources);
         }
     }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import com.blazebit.persistence.spi.ArrayValue;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.BasicBinder;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * A type that binds an {@link ArrayValue} as SQL array parameter.
+ * It is only used for binding the parameters of a VALUES clause that uses the array strategy and can't extract values.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class ArrayValueType extends AbstractSingleColumnStandardBasicType<ArrayValue> {
+
+    public static final ArrayValueType INSTANCE = new ArrayValueType();
+
+    public ArrayValueType() {
+        super(ArrayValueSqlTypeDescriptor.INSTANCE, ArrayValueJavaTypeDescriptor.INSTANCE);
+    }
+
+    @Override
+    public String getName() {
+        return "array_value";
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class ArrayValueJavaTypeDescriptor extends AbstractTypeDescriptor<ArrayValue> {
+
+        static final ArrayValueJavaTypeDescriptor INSTANCE = new ArrayValueJavaTypeDescriptor();
+
+        private ArrayValueJavaTypeDescriptor() {
+            super(ArrayValue.class);
+        }
+
+        @Override
+        public String toString(ArrayValue value) {
+            return value.toString();
+        }
+
+        @Override
+        public ArrayValue fromString(String string) {
+            throw new UnsupportedOperationException("Array values can't be parsed");
+        }
+
+        @Override
+        public <X> X unwrap(ArrayValue value, Class<X> type, WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+            if (ArrayValue.class.isAssignableFrom(type)) {
+                return type.cast(value);
+            }
+            throw unknownUnwrap(type);
+        }
+
+        @Override
+        public <X> ArrayValue wrap(X value, WrapperOptions options) {
+            if (value == null || value instanceof ArrayValue) {
+                return (ArrayValue) value;
+            }
+            throw unknownWrap(value.getClass());
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static class ArrayValueSqlTypeDescriptor implements SqlTypeDescriptor {
+
+        static final ArrayValueSqlTypeDescriptor INSTANCE = new ArrayValueSqlTypeDescriptor();
+
+        @Override
+        public int getSqlType() {
+            return Types.ARRAY;
+        }
+
+        @Override
+        public boolean canBeRemapped() {
+            return false;
+        }
+
+        @Override
+        public <X> ValueBinder<X> getBinder(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new BasicBinder<X>(javaTypeDescriptor, this) {
+                @Override
+                protected void doBind(PreparedStatement st, X value, int index, WrapperOptions options) throws SQLException {
+                    ArrayValue arrayValue = (ArrayValue) value;
+                    st.setArray(index, st.getConnection().createArrayOf(arrayValue.getElementTypeName(), arrayValue.getValues()));
+                }
+            };
+        }
+
+        @Override
+        public <X> ValueExtractor<X> getExtractor(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new ValueExtractor<X>() {
+                @Override
+                public X extract(ResultSet rs, String name, WrapperOptions options) throws SQLException {
+                    throw new UnsupportedOperationException("Array values can't be extracted");
+                }
+            };
+        }
+    }
+}
@@ -35,8 +35,11 @@ import org.hibernate.type.Type;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
 import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Christian Beikov
@@ -54,6 +57,16 @@ public interface HibernateAccess {
 
     public void doExecute(StatementExecutor executor, String delete, QueryParameters parameters, SessionImplementor session, List<ParameterSpecification> parameterSpecifications);
 
+    public PreparedStatement prepareStatement(SessionImplementor session, String sql);
+
+    public void releaseStatement(SessionImplementor session, PreparedStatement statement);
+
+    public int bindParameter(ParameterSpecification parameterSpecification, PreparedStatement statement, QueryParameters parameters, SessionImplementor session, int position) throws SQLException;
+
+    public void scheduleBulkOperationCleanup(SessionImplementor session, Set<String> querySpaces);
+
+    public void registerAfterTransactionCompletion(SessionImplementor session, Runnable callback);
+
     public QueryParameters getQueryParameters(Query hibernateQuery, Map<String, TypedValue> namedParams);
 
     public Map<String, TypedValue> getNamedParams(Query hibernateQuery);
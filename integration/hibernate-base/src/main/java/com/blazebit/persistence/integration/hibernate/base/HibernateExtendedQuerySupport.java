@@ -19,7 +19,9 @@ package com.blazebit.persistence.integration.hibernate.base;
 import antlr.collections.AST;
 import com.blazebit.apt.service.ServiceProvider;
 import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.QueryPlanCacheStatistics;
 import com.blazebit.persistence.ReturningResult;
+import com.blazebit.persistence.spi.ArrayValue;
 import com.blazebit.persistence.spi.ConfigurationSource;
 import com.blazebit.persistence.spi.CteQueryWrapper;
 import com.blazebit.persistence.spi.DbmsDialect;
@@ -29,7 +31,9 @@ import com.blazebit.reflection.ReflectionUtils;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
 import org.hibernate.LockOptions;
+import org.hibernate.Session;
 import org.hibernate.TypeMismatchException;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
 import org.hibernate.engine.query.spi.HQLQueryPlan;
 import org.hibernate.engine.query.spi.QueryPlanCache;
 import org.hibernate.engine.spi.QueryParameters;
@@ -55,7 +59,7 @@ import org.hibernate.hql.internal.ast.tree.QueryNode;
 import org.hibernate.hql.internal.ast.tree.SelectClause;
 import org.hibernate.hql.spi.ParameterTranslations;
 import org.hibernate.hql.spi.QueryTranslator;
-import org.hibernate.internal.util.collections.BoundedConcurrentHashMap;
+import org.hibernate.jdbc.Work;
 import org.hibernate.loader.hql.QueryLoader;
 import org.hibernate.param.ParameterSpecification;
 import org.hibernate.persister.entity.AbstractEntityPersister;
@@ -67,8 +71,15 @@ import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
@@ -96,9 +107,10 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
     private static final Logger LOG = Logger.getLogger(HibernateExtendedQuerySupport.class.getName());
     private static final String[] KNOWN_STATEMENTS = { "select ", "insert ", "update ", "delete " };
     
-    private final ConcurrentMap<SessionFactoryImplementor, BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue>> queryPlanCachesCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SessionFactoryImplementor, ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue>> queryPlanCachesCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<FieldKey, Field> fieldCache = new ConcurrentHashMap<>();
     private final HibernateAccess hibernateAccess;
+    private final TransactionBoundResources transactionResources = new TransactionBoundResources();
     
     public HibernateExtendedQuerySupport() {
         Iterator<HibernateAccess> serviceIter = ServiceLoader.load(HibernateAccess.class).iterator();
@@ -118,6 +130,17 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return false;
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsTemporaryTableValues(EntityManager em) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return !session.isClosed() && session.isTransactionInProgress();
+    }
+
     @Override
     public boolean applyFirstResultMaxResults(Query query, int firstResult, int maxResults) {
 //        boolean changed = firstResult == 0 && query.getFirstResult() != 0 || firstResult != 0 && query.getFirstResult() == 0
@@ -427,6 +450,45 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public QueryPlanCacheStatistics getQueryPlanCacheStatistics(EntityManager em) {
+        ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = queryPlanCachesCache.get(em.unwrap(SessionImplementor.class).getFactory());
+        return queryPlanCache == null ? null : queryPlanCache.getStatistics();
+    }
+
+    @Override
+    public void clearQueryPlanCache(EntityManager em) {
+        ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = queryPlanCachesCache.get(em.unwrap(SessionImplementor.class).getFactory());
+        if (queryPlanCache != null) {
+            queryPlanCache.clear();
+        }
+    }
+
+    @Override
+    public boolean warmUpQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        try {
+            SessionImplementor session = em.unwrap(SessionImplementor.class);
+            SessionFactoryImplementor sfi = session.getFactory();
+            List<String> queryStrings = new ArrayList<>(participatingQueries.size());
+            QueryParamEntry queryParametersEntry = createQueryParameters(em, query, participatingQueries, queryStrings, new HashSet<String>());
+
+            QueryPlanCacheKey cacheKey = createCacheKey(sqlOverride, participatingQueries, queryStrings);
+            CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
+            if (queryPlanEntry.isFromCache() || getQueryPlanCache(serviceProvider, sfi).getMaxSize() == 0) {
+                return false;
+            }
+
+            QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
+            prepareQueryPlan(queryPlanCacheValue.getQueryPlan(), queryParametersEntry.specifications, sqlOverride, session, null, false, serviceProvider.getService(DbmsDialect.class));
+            putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue, queryPlanEntry);
+            return true;
+        } catch (HibernateException he) {
+            LOG.severe("Could not compile the query plan for the following SQL query: " + sqlOverride);
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     private List list(com.blazebit.persistence.spi.ServiceProvider serviceProvider, EntityManager em, List<Query> participatingQueries, Query query, String finalSql, boolean queryPlanCacheEnabled) {
         SessionImplementor session = em.unwrap(SessionImplementor.class);
@@ -443,14 +505,14 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
         
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, null, false, serviceProvider.getService(DbmsDialect.class));
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, queryPlanCacheValue);
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue, queryPlanEntry);
             }
         }
 
@@ -474,14 +536,14 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, null, false, serviceProvider.getService(DbmsDialect.class));
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, queryPlanCacheValue);
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue, queryPlanEntry);
             }
         }
 
@@ -517,7 +579,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings, firstResult, maxResults) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -541,7 +603,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, baseQuery, true, dbmsDialect);
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes), queryPlanEntry);
             }
         }
 
@@ -574,6 +636,248 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public int[] executeBatchUpdate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String finalSql, List<? extends Runnable> batchBinders, boolean queryPlanCacheEnabled) {
+        int[] updateCounts = new int[batchBinders.size()];
+        if (updateCounts.length == 0) {
+            return updateCounts;
+        }
+        DbmsDialect dbmsDialect = serviceProvider.getService(DbmsDialect.class);
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor sfi = session.getFactory();
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        Integer firstResult = null;
+        Integer maxResults = null;
+
+        if (query.getFirstResult() > 0) {
+            firstResult = query.getFirstResult();
+        }
+        if (query.getMaxResults() != Integer.MAX_VALUE) {
+            maxResults = query.getMaxResults();
+        }
+
+        batchBinders.get(0).run();
+        List<String> queryStrings = new ArrayList<>(participatingQueries.size());
+        Set<String> querySpaces = new HashSet<>();
+        QueryParamEntry queryParametersEntry = createQueryParameters(em, baseQuery, participatingQueries, queryStrings, querySpaces);
+
+        QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings, firstResult, maxResults) : null;
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
+        HQLQueryPlan queryPlan = queryPlanEntry.getValue().getQueryPlan();
+
+        // Statements with a returning clause can't be batched
+        if (queryPlan.getReturnMetadata() != null) {
+            return executeUpdates(serviceProvider, participatingQueries, baseQuery, query, finalSql, batchBinders, queryPlanCacheEnabled);
+        }
+
+        if (!queryPlanEntry.isFromCache()) {
+            prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, baseQuery, true, dbmsDialect);
+            if (queryPlanCacheEnabled) {
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, new QueryPlanCacheValue(queryPlan, null, null), queryPlanEntry);
+            }
+        }
+
+        // Executors that run additional statements can't be batched either
+        StatementExecutor executor = getStatementExecutor(queryPlan.getTranslators()[0]);
+        if (!(executor instanceof BasicExecutor) || executor instanceof DeleteExecutor && !((List<?>) getField(executor, "deletes")).isEmpty()) {
+            return executeUpdates(serviceProvider, participatingQueries, baseQuery, query, finalSql, batchBinders, queryPlanCacheEnabled);
+        }
+
+        autoFlush(querySpaces, session);
+
+        try {
+            List<QueryParameters> batchParameters = new ArrayList<>(updateCounts.length);
+            batchParameters.add(queryParametersEntry.queryParameters);
+            for (int i = 1; i < updateCounts.length; i++) {
+                batchBinders.get(i).run();
+                batchParameters.add(createQueryParameters(em, baseQuery, participatingQueries, new ArrayList<String>(participatingQueries.size()), new HashSet<String>()).queryParameters);
+            }
+            return executeBatch(session, querySpaces, finalSql, queryParametersEntry.specifications, batchParameters);
+        } catch (HibernateException he) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            hibernateAccess.throwPersistenceException(em, he);
+            return updateCounts;
+        }
+    }
+
+    @Override
+    public void insertTemporaryTableValues(EntityManager em, final String createSql, final String clearSql, final String insertSql, final int[] sqlTypes, final List<Object[]> rows, Runnable afterTransactionCompletion) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+        // Outside of a transaction, the rows might be deleted right after the insert or not at all
+        if (!session.isTransactionInProgress()) {
+            throw new IllegalStateException("The temporary table strategy for the VALUES clause requires an active transaction! Execute the query in the transaction it was built in.");
+        }
+        // The temporary table lives at least as long as the transaction, so it is created and cleared only once per transaction
+        final boolean create = transactionResources.getResource(session, createSql) == null;
+
+        try {
+            ((Session) session).doWork(new Work() {
+                @Override
+                public void execute(Connection connection) throws SQLException {
+                    if (create) {
+                        // The DDL is executed via a plain statement, since some DBMS drop temporary tables created by a prepared statement right away
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute(createSql);
+                        }
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+                        for (Object[] row : rows) {
+                            for (int i = 0; i < row.length; i++) {
+                                if (row[i] == null) {
+                                    ps.setNull(i + 1, sqlTypes[i]);
+                                } else {
+                                    ps.setObject(i + 1, row[i], sqlTypes[i]);
+                                }
+                            }
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+            });
+        } catch (HibernateException he) {
+            LOG.severe("Could not insert values into temporary table via: " + insertSql);
+            hibernateAccess.throwPersistenceException(em, he);
+        }
+
+        if (create) {
+            putTransactionResource(session, createSql, Boolean.TRUE);
+        }
+        if (create && clearSql != null && session instanceof EventSource) {
+            ((EventSource) session).getActionQueue().registerProcess(new BeforeTransactionCompletionProcess() {
+                @Override
+                public void doBeforeTransactionCompletion(SessionImplementor session) {
+                    ((Session) session).doWork(new Work() {
+                        @Override
+                        public void execute(Connection connection) throws SQLException {
+                            try (Statement statement = connection.createStatement()) {
+                                statement.executeUpdate(clearSql);
+                            }
+                        }
+                    });
+                }
+            });
+        }
+        hibernateAccess.registerAfterTransactionCompletion(session, afterTransactionCompletion);
+    }
+
+    @Override
+    public boolean registerAfterTransactionCompletion(EntityManager em, Runnable callback) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return false;
+        }
+        hibernateAccess.registerAfterTransactionCompletion(session, callback);
+        return true;
+    }
+
+    @Override
+    public Object getTransactionResource(EntityManager em, Object key) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return null;
+        }
+        return transactionResources.getResource(session, key);
+    }
+
+    @Override
+    public boolean putTransactionResource(EntityManager em, Object key, Object value) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return false;
+        }
+        putTransactionResource(session, key, value);
+        return true;
+    }
+
+    private void putTransactionResource(SessionImplementor session, Object key, Object value) {
+        final Synchronization synchronization = transactionResources.putResource(session, key, value);
+        if (synchronization != null) {
+            hibernateAccess.registerAfterTransactionCompletion(session, new Runnable() {
+                @Override
+                public void run() {
+                    synchronization.afterCompletion(Status.STATUS_UNKNOWN);
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<Object> getFirstColumnValues(EntityManager em, Query query, String sql) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        List<Query> participatingQueries = Collections.singletonList(query);
+        QueryParamEntry queryParametersEntry = createQueryParameters(em, query, participatingQueries, new ArrayList<String>(1), new HashSet<String>());
+        List<Object> values = new ArrayList<>();
+        PreparedStatement st = null;
+        try {
+            st = hibernateAccess.prepareStatement(session, sql);
+            int position = 1;
+            for (ParameterSpecification parameterSpecification : queryParametersEntry.specifications) {
+                position += hibernateAccess.bindParameter(parameterSpecification, st, queryParametersEntry.queryParameters, session, position);
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    values.add(rs.getObject(1));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.severe("Could not execute the following SQL query: " + sql);
+            hibernateAccess.throwPersistenceException(em, session.getFactory().getJdbcServices().getSqlExceptionHelper().convert(e, "could not execute query", sql));
+        } catch (HibernateException he) {
+            LOG.severe("Could not execute the following SQL query: " + sql);
+            hibernateAccess.throwPersistenceException(em, he);
+        } finally {
+            if (st != null) {
+                hibernateAccess.releaseStatement(session, st);
+            }
+        }
+        return values;
+    }
+
+    private int[] executeBatch(SessionImplementor session, Set<String> querySpaces, String sql, List<ParameterSpecification> parameterSpecifications, List<QueryParameters> batchParameters) {
+        // Like for DML statements executed through the query plan, the affected cache regions must be invalidated
+        hibernateAccess.scheduleBulkOperationCleanup(session, querySpaces);
+        PreparedStatement st = null;
+        try {
+            st = hibernateAccess.prepareStatement(session, sql);
+            for (QueryParameters parameters : batchParameters) {
+                int position = 1;
+                for (ParameterSpecification parameterSpecification : parameterSpecifications) {
+                    position += hibernateAccess.bindParameter(parameterSpecification, st, parameters, session, position);
+                }
+                st.addBatch();
+            }
+            return st.executeBatch();
+        } catch (SQLException e) {
+            throw session.getFactory().getJdbcServices().getSqlExceptionHelper().convert(e, "could not execute batch update", sql);
+        } finally {
+            if (st != null) {
+                hibernateAccess.releaseStatement(session, st);
+            }
+        }
+    }
+
+    private int[] executeUpdates(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String finalSql, List<? extends Runnable> batchBinders, boolean queryPlanCacheEnabled) {
+        int[] updateCounts = new int[batchBinders.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            batchBinders.get(i).run();
+            updateCounts[i] = executeUpdate(serviceProvider, participatingQueries, baseQuery, query, finalSql, queryPlanCacheEnabled);
+        }
+        return updateCounts;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public ReturningResult<Object[]> executeReturning(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query modificationBaseQuery, Query exampleQuery, String sqlOverride, boolean queryPlanCacheEnabled) {
@@ -594,7 +898,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         
         // Create plan for example query
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(sqlOverride, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, exampleQuery, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, exampleQuery, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -619,7 +923,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             if (!queryPlanEntry.isFromCache()) {
                 prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, modificationBaseQuery, true, dbmsDialect);
                 if (queryPlanCacheEnabled) {
-                    putQueryPlanIfAbsent(sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
+                    putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes), queryPlanEntry);
                 }
             }
 
@@ -824,7 +1128,14 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             // Merge parameters
             Collections.addAll(types, participatingQueryParameters.getPositionalParameterTypes());
             Collections.addAll(values, participatingQueryParameters.getPositionalParameterValues());
-            namedParams.putAll(participatingQueryParameters.getNamedParameters());
+            for (Map.Entry<String, TypedValue> entry : participatingQueryParameters.getNamedParameters().entrySet()) {
+                TypedValue typedValue = entry.getValue();
+                if (typedValue.getValue() instanceof ArrayValue) {
+                    // The parameters of a VALUES clause with the array strategy have no expected type, so we have to bind them as SQL arrays
+                    typedValue = new TypedValue(ArrayValueType.INSTANCE, typedValue.getValue());
+                }
+                namedParams.put(entry.getKey(), typedValue);
+            }
             parameterSpecifications.addAll(queryParamEntry.specifications);
 
             // Merge lock options
@@ -1112,14 +1423,15 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return i;
     }
 
-    private CacheEntry<QueryPlanCacheValue> getQueryPlan(SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
+    private CacheEntry<QueryPlanCacheValue> getQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
         QueryPlanCacheValue queryPlan;
         boolean fromCache;
+        long compileStartNanos = System.nanoTime();
         if (cacheKey == null) {
             fromCache = false;
             queryPlan = createQueryPlan(sfi, query);
         } else {
-            BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(sfi);
+            ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(serviceProvider, sfi);
             queryPlan = queryPlanCache.get(cacheKey);
             if (queryPlan == null) {
                 fromCache = false;
@@ -1129,12 +1441,13 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             }
         }
         
-        return new CacheEntry<>(queryPlan, fromCache);
+        return new CacheEntry<>(queryPlan, fromCache, compileStartNanos);
     }
     
-    private QueryPlanCacheValue putQueryPlanIfAbsent(SessionFactoryImplementor sfi, QueryPlanCacheKey cacheKey, QueryPlanCacheValue queryPlan) {
-        BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(sfi);
-        return queryPlanCache.putIfAbsent(cacheKey, queryPlan);
+    private QueryPlanCacheValue putQueryPlanIfAbsent(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, QueryPlanCacheKey cacheKey, QueryPlanCacheValue queryPlan, CacheEntry<QueryPlanCacheValue> queryPlanEntry) {
+        ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(serviceProvider, sfi);
+        // The compile time spans the creation and preparation of the query plan
+        return queryPlanCache.putIfAbsent(cacheKey, queryPlan, System.nanoTime() - queryPlanEntry.getCompileStartNanos());
     }
     
     private QueryPlanCacheValue createQueryPlan(SessionFactoryImplementor sfi, Query query) {
@@ -1143,11 +1456,11 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return new QueryPlanCacheValue(new HQLQueryPlan(queryString, false, Collections.EMPTY_MAP, sfi), null, null);
     }
     
-    private BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> getQueryPlanCache(SessionFactoryImplementor sfi) {
-        BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = queryPlanCachesCache.get(sfi);
+    private ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> getQueryPlanCache(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi) {
+        ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = queryPlanCachesCache.get(sfi);
         if (queryPlanCache == null) {
-            queryPlanCache = new BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue>(QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT, 20, BoundedConcurrentHashMap.Eviction.LIRS);
-            BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> oldQueryPlanCache = queryPlanCachesCache.putIfAbsent(sfi, queryPlanCache);
+            queryPlanCache = new ObservableQueryPlanCache<>(getQueryPlanCacheMaxSize(serviceProvider));
+            ObservableQueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> oldQueryPlanCache = queryPlanCachesCache.putIfAbsent(sfi, queryPlanCache);
             if (oldQueryPlanCache != null) {
                 queryPlanCache = oldQueryPlanCache;
             }
@@ -1156,6 +1469,24 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return queryPlanCache;
     }
 
+    private int getQueryPlanCacheMaxSize(com.blazebit.persistence.spi.ServiceProvider serviceProvider) {
+        ConfigurationSource configurationSource = serviceProvider.getService(ConfigurationSource.class);
+        String maxSize = configurationSource == null ? null : configurationSource.getProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE);
+        if (maxSize == null) {
+            return QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT;
+        }
+        try {
+            int intValue = Integer.parseInt(maxSize);
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through to the exception
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + maxSize + "' for non-negative integer property '" + ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE + "'");
+    }
+
     private QueryPlanCacheKey createCacheKey(String sql, List<Query> queries, List<String> queryStrings) {
         return createCacheKey(sql, queries, queryStrings, null, null);
     }
@@ -1302,10 +1633,12 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         
         private final T value;
         private final boolean fromCache;
+        private final long compileStartNanos;
         
-        public CacheEntry(T value, boolean fromCache) {
+        public CacheEntry(T value, boolean fromCache, long compileStartNanos) {
             this.value = value;
             this.fromCache = fromCache;
+            this.compileStartNanos = compileStartNanos;
         }
 
         public T getValue() {
@@ -1315,6 +1648,10 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         public boolean isFromCache() {
             return fromCache;
         }
+
+        public long getCompileStartNanos() {
+            return compileStartNanos;
+        }
     }
 
     /**
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import com.blazebit.persistence.QueryPlanCacheStatistics;
+import org.hibernate.internal.util.collections.BoundedConcurrentHashMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded LIRS cache for query plans that keeps track of hits, misses, evictions and the compile time saved by hits.
+ *
+ * @param <K> The key type
+ * @param <V> The query plan type
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+class ObservableQueryPlanCache<K, V> {
+
+    private final int maxSize;
+    private final BoundedConcurrentHashMap<K, Entry<V>> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong compileTimeSavedNanos = new AtomicLong();
+
+    public ObservableQueryPlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        if (maxSize == 0) {
+            this.cache = null;
+        } else {
+            this.cache = new BoundedConcurrentHashMap<>(maxSize, 20, BoundedConcurrentHashMap.Eviction.LIRS, new BoundedConcurrentHashMap.EvictionListener<K, Entry<V>>() {
+                @Override
+                public void onEntryEviction(Map<K, Entry<V>> evicted) {
+                    evictionCount.addAndGet(evicted.size());
+                }
+
+                @Override
+                public void onEntryChosenForEviction(Entry<V> internalCacheEntry) {
+                    // Counted in onEntryEviction
+                }
+            });
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = cache == null ? null : cache.get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        compileTimeSavedNanos.addAndGet(entry.compileTimeNanos);
+        return entry.value;
+    }
+
+    public V putIfAbsent(K key, V value, long compileTimeNanos) {
+        if (cache == null) {
+            return null;
+        }
+        Entry<V> oldEntry = cache.putIfAbsent(key, new Entry<>(value, compileTimeNanos));
+        return oldEntry == null ? null : oldEntry.value;
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public QueryPlanCacheStatistics getStatistics() {
+        return new QueryPlanCacheStatistics(
+                maxSize,
+                cache == null ? 0 : cache.size(),
+                hitCount.get(),
+                missCount.get(),
+                evictionCount.get(),
+                compileTimeSavedNanos.get()
+        );
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class Entry<V> {
+        final V value;
+        final long compileTimeNanos;
+
+        Entry(V value, long compileTimeNanos) {
+            this.value = value;
+            this.compileTimeNanos = compileTimeNanos;
+        }
+    }
+}
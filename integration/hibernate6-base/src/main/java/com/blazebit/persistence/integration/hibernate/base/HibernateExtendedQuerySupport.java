@@ -18,6 +18,7 @@ package com.blazebit.persistence.integration.hibernate.base;
 
 import com.blazebit.apt.service.ServiceProvider;
 import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.QueryPlanCacheStatistics;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.spi.ConfigurationSource;
 import com.blazebit.persistence.spi.DbmsDialect;
@@ -27,21 +28,30 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceException;
 import jakarta.persistence.Query;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import jakarta.persistence.Tuple;
 import jakarta.persistence.TupleElement;
 import jakarta.persistence.criteria.CompoundSelection;
 import org.hibernate.HibernateException;
 import org.hibernate.NonUniqueResultException;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
 import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.ActionQueue;
 import org.hibernate.engine.spi.EntityKey;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.engine.spi.SubselectFetch;
+import org.hibernate.event.spi.EventSource;
 import org.hibernate.internal.FilterJdbcParameter;
 import org.hibernate.internal.util.collections.ArrayHelper;
-import org.hibernate.internal.util.collections.BoundedConcurrentHashMap;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.jdbc.Work;
 import org.hibernate.metamodel.mapping.EntityMappingType;
 import org.hibernate.metamodel.mapping.JdbcMapping;
 import org.hibernate.metamodel.mapping.MappingModelExpressible;
@@ -56,7 +66,6 @@ import org.hibernate.query.spi.QueryEngine;
 import org.hibernate.query.spi.QueryInterpretationCache;
 import org.hibernate.query.spi.QueryOptions;
 import org.hibernate.query.spi.QueryParameterImplementor;
-import org.hibernate.query.spi.QueryPlan;
 import org.hibernate.query.sqm.internal.DomainParameterXref;
 import org.hibernate.query.sqm.internal.MultiTableDeleteQueryPlan;
 import org.hibernate.query.sqm.internal.MultiTableUpdateQueryPlan;
@@ -124,11 +133,15 @@ import org.hibernate.sql.results.internal.TupleMetadata;
 import org.hibernate.sql.results.jdbc.spi.JdbcValuesMapping;
 import org.hibernate.sql.results.spi.ListResultsConsumer;
 import org.hibernate.sql.results.spi.RowTransformer;
+import org.hibernate.stat.spi.StatisticsImplementor;
 import org.hibernate.type.Type;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -152,8 +165,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
     private static final Logger LOG = Logger.getLogger(HibernateExtendedQuerySupport.class.getName());
 
     private final HibernateAccess hibernateAccess;
-    private final BoundedConcurrentHashMap<QueryInterpretationCache.Key, QueryPlan> participatingInterpretationCache;
-    private final BoundedConcurrentHashMap<QueryInterpretationCache.Key, QueryPlan> queryPlanCache;
+    private final TransactionBoundResources transactionResources = new TransactionBoundResources();
 
     public HibernateExtendedQuerySupport() {
         Iterator<HibernateAccess> serviceIter = ServiceLoader.load(HibernateAccess.class).iterator();
@@ -161,8 +173,52 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             throw new IllegalStateException("Hibernate integration was not found on the class path!");
         }
         this.hibernateAccess = serviceIter.next();
-        this.participatingInterpretationCache = new BoundedConcurrentHashMap<>(2048, 20, BoundedConcurrentHashMap.Eviction.LIRS);
-        this.queryPlanCache = new BoundedConcurrentHashMap<>(2048, 20, BoundedConcurrentHashMap.Eviction.LIRS);
+    }
+
+    /**
+     * Returns the statistics of the Hibernate query plan cache of the persistence unit of the given entity manager.
+     * Custom SQL queries are not cached separately, so the statistics of the Hibernate query plan cache are reported,
+     * which is configured through <code>hibernate.query.plan_cache_max_size</code>
+     * rather than {@link ConfigurationProperties#QUERY_PLAN_CACHE_MAX_SIZE}.
+     * Hits and misses are only known if Hibernate statistics are enabled.
+     *
+     * @param em The entity manager
+     * @return the query plan cache statistics
+     */
+    @Override
+    public QueryPlanCacheStatistics getQueryPlanCacheStatistics(EntityManager em) {
+        SessionFactoryImplementor sfi = em.unwrap(SessionImplementor.class).getFactory();
+        QueryInterpretationCache interpretationCache = sfi.getQueryEngine().getInterpretationCache();
+        int maxSize = interpretationCache.isEnabled() ? ConfigurationHelper.getInt(AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE, sfi.getProperties(), QueryEngine.DEFAULT_QUERY_PLAN_MAX_COUNT) : 0;
+        StatisticsImplementor statistics = sfi.getStatistics();
+        boolean statisticsEnabled = statistics != null && statistics.isStatisticsEnabled();
+        return new QueryPlanCacheStatistics(
+                maxSize,
+                interpretationCache.getNumberOfCachedQueryPlans(),
+                statisticsEnabled ? statistics.getQueryPlanCacheHitCount() : -1L,
+                statisticsEnabled ? statistics.getQueryPlanCacheMissCount() : -1L,
+                -1L,
+                -1L
+        );
+    }
+
+    /**
+     * Does nothing, because there is no separate cache for custom SQL queries and the Hibernate query plan cache is owned by Hibernate.
+     *
+     * @param em The entity manager
+     */
+    @Override
+    public void clearQueryPlanCache(EntityManager em) {
+    }
+
+    /**
+     * Does nothing, because participating queries already resolve their Hibernate query interpretations when they are created.
+     *
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean warmUpQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride) {
+        return false;
     }
 
     @Override
@@ -175,6 +231,17 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return true;
     }
 
+    @Override
+    public boolean supportsArrayValues() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsTemporaryTableValues(EntityManager em) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return !session.isClosed() && session.isTransactionInProgress();
+    }
+
     @Override
     public boolean applyFirstResultMaxResults(Query query, int firstResult, int maxResults) {
         Limit limit = query.unwrap(QuerySqmImpl.class).getQueryOptions().getLimit();
@@ -791,6 +858,96 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         List<JdbcParameterBinder> parameterBinders = new ArrayList<>();
         Set<String> affectedTableNames = new HashSet<>();
         Set<FilterJdbcParameter> filterJdbcParameters = new HashSet<>();
+        final JdbcParameterBindings jdbcParameterBindings = createJdbcParameterBindings(session, sessionFactory, participatingQueries, parameterBinders, affectedTableNames, filterJdbcParameters);
+
+        CacheableSqmInterpretation interpretation = buildQueryPlan(query);
+        final JdbcMutation realJdbcStatement = createJdbcMutation(query, finalSql, parameterBinders, affectedTableNames, filterJdbcParameters);
+
+        session.autoFlushIfRequired(realJdbcStatement.getAffectedTableNames());
+
+        Function<String, PreparedStatement> statementCreator = sql -> session.getJdbcCoordinator().getStatementPreparer().prepareStatement(sql);
+        BiConsumer<Integer, PreparedStatement> expectationCheck = (integer, preparedStatement) -> { };
+        try {
+            return session.getFactory().getJdbcServices().getJdbcMutationExecutor().execute(
+                    realJdbcStatement,
+                    jdbcParameterBindings,
+                    statementCreator,
+                    expectationCheck,
+                    SqmJdbcExecutionContextAdapter.usingLockingAndPaging(query.unwrap(DomainQueryExecutionContext.class))
+            );
+        } catch (HibernateException e) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            if (session.getFactory().getSessionFactoryOptions().isJpaBootstrap()) {
+                throw session.getExceptionConverter().convert(e);
+            } else {
+                throw e;
+            }
+        } finally {
+            interpretation.domainParameterXref.clearExpansions();
+        }
+    }
+
+    @Override
+    public int[] executeBatchUpdate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String finalSql, List<? extends Runnable> batchBinders, boolean queryPlanCacheEnabled) {
+        int[] updateCounts = new int[batchBinders.size()];
+        if (updateCounts.length == 0) {
+            return updateCounts;
+        }
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+        final SessionFactoryImplementor sessionFactory = session.getSessionFactory();
+
+        List<JdbcParameterBinder> parameterBinders = new ArrayList<>();
+        Set<String> affectedTableNames = new HashSet<>();
+        Set<FilterJdbcParameter> filterJdbcParameters = new HashSet<>();
+        batchBinders.get(0).run();
+        JdbcParameterBindings jdbcParameterBindings = createJdbcParameterBindings(session, sessionFactory, participatingQueries, parameterBinders, affectedTableNames, filterJdbcParameters);
+
+        CacheableSqmInterpretation interpretation = buildQueryPlan(query);
+        final JdbcMutation realJdbcStatement = createJdbcMutation(query, finalSql, parameterBinders, affectedTableNames, filterJdbcParameters);
+
+        session.autoFlushIfRequired(realJdbcStatement.getAffectedTableNames());
+
+        ExecutionContext executionContext = SqmJdbcExecutionContextAdapter.usingLockingAndPaging(query.unwrap(DomainQueryExecutionContext.class));
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement st = null;
+        try {
+            st = jdbcCoordinator.getStatementPreparer().prepareStatement(finalSql);
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (i != 0) {
+                    batchBinders.get(i).run();
+                    jdbcParameterBindings = createJdbcParameterBindings(session, sessionFactory, participatingQueries, new ArrayList<JdbcParameterBinder>(), new HashSet<String>(), new HashSet<FilterJdbcParameter>());
+                }
+                int position = 1;
+                for (JdbcParameterBinder parameterBinder : realJdbcStatement.getParameterBinders()) {
+                    parameterBinder.bindParameterValue(st, position++, jdbcParameterBindings, executionContext);
+                }
+                st.addBatch();
+            }
+            return st.executeBatch();
+        } catch (SQLException e) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "could not execute batch update", finalSql);
+        } catch (HibernateException e) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            if (session.getFactory().getSessionFactoryOptions().isJpaBootstrap()) {
+                throw session.getExceptionConverter().convert(e);
+            } else {
+                throw e;
+            }
+        } finally {
+            if (st != null) {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(st);
+                jdbcCoordinator.afterStatementExecution();
+            }
+            interpretation.domainParameterXref.clearExpansions();
+        }
+    }
+
+    private JdbcParameterBindings createJdbcParameterBindings(SessionImplementor session, SessionFactoryImplementor sessionFactory, List<Query> participatingQueries, List<JdbcParameterBinder> parameterBinders, Set<String> affectedTableNames, Set<FilterJdbcParameter> filterJdbcParameters) {
         final JdbcParameterBindings jdbcParameterBindings = new JdbcParameterBindingsImpl(0);
         for (Query participatingQuery : participatingQueries) {
             CacheableSqmInterpretation interpretation = buildQueryPlan(participatingQuery);
@@ -822,15 +979,16 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
                 tempJdbcParameterBindings.visitBindings(jdbcParameterBindings::addBinding);
             }
         }
+        return jdbcParameterBindings;
+    }
 
+    private JdbcMutation createJdbcMutation(Query query, String finalSql, List<JdbcParameterBinder> parameterBinders, Set<String> affectedTableNames, Set<FilterJdbcParameter> filterJdbcParameters) {
         QuerySqmImpl<?> hqlQuery = query.unwrap(QuerySqmImpl.class);
         SqmStatement<?> sqmStatement = hqlQuery.getSqmStatement();
-        CacheableSqmInterpretation interpretation = buildQueryPlan(query);
-        final JdbcMutation realJdbcStatement;
         if (sqmStatement instanceof SqmUpdateStatement<?>) {
 //            final JdbcUpdate jdbcUpdate = sqlAstTranslatorFactory.buildUpdateTranslator(sessionFactory, (UpdateStatement) interpretation.getSqmTranslation().getSqlAst())
 //                    .translate(jdbcParameterBindings, executionContext.getQueryOptions());
-            realJdbcStatement = new JdbcUpdate(
+            return new JdbcUpdate(
                     finalSql,
                     parameterBinders,
                     affectedTableNames,
@@ -838,7 +996,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
                     Collections.emptyMap()
             );
         } else if (sqmStatement instanceof SqmDeleteStatement<?>) {
-            realJdbcStatement = new JdbcDelete(
+            return new JdbcDelete(
                     finalSql,
                     parameterBinders,
                     affectedTableNames,
@@ -846,7 +1004,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
                     Collections.emptyMap()
             );
         } else if (sqmStatement instanceof SqmInsertSelectStatement<?>) {
-            realJdbcStatement = new JdbcInsert(
+            return new JdbcInsert(
                     finalSql,
                     parameterBinders,
                     affectedTableNames,
@@ -856,27 +1014,171 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         } else {
             throw new IllegalArgumentException("Unsupported sqm statement: " + sqmStatement);
         }
+    }
 
-        session.autoFlushIfRequired(realJdbcStatement.getAffectedTableNames());
+    @Override
+    public void insertTemporaryTableValues(EntityManager em, final String createSql, final String clearSql, final String insertSql, final int[] sqlTypes, final List<Object[]> rows, final Runnable afterTransactionCompletion) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+        // Outside of a transaction, the rows might be deleted right after the insert or not at all
+        if (!session.isTransactionInProgress()) {
+            throw new IllegalStateException("The temporary table strategy for the VALUES clause requires an active transaction! Execute the query in the transaction it was built in.");
+        }
+        // The temporary table lives at least as long as the transaction, so it is created and cleared only once per transaction
+        final boolean create = transactionResources.getResource(session, createSql) == null;
 
-        Function<String, PreparedStatement> statementCreator = sql -> session.getJdbcCoordinator().getStatementPreparer().prepareStatement(sql);
-        BiConsumer<Integer, PreparedStatement> expectationCheck = (integer, preparedStatement) -> { };
         try {
-            return session.getFactory().getJdbcServices().getJdbcMutationExecutor().execute(
-                    realJdbcStatement,
-                    jdbcParameterBindings,
-                    statementCreator,
-                    expectationCheck,
-                    SqmJdbcExecutionContextAdapter.usingLockingAndPaging(query.unwrap(DomainQueryExecutionContext.class))
-            );
+            session.doWork(new Work() {
+                @Override
+                public void execute(Connection connection) throws SQLException {
+                    if (create) {
+                        // The DDL is executed via a plain statement, since some DBMS drop temporary tables created by a prepared statement right away
+                        try (java.sql.Statement statement = connection.createStatement()) {
+                            statement.execute(createSql);
+                        }
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+                        for (Object[] row : rows) {
+                            for (int i = 0; i < row.length; i++) {
+                                if (row[i] == null) {
+                                    ps.setNull(i + 1, sqlTypes[i]);
+                                } else {
+                                    ps.setObject(i + 1, row[i], sqlTypes[i]);
+                                }
+                            }
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+            });
         } catch (HibernateException e) {
-            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            LOG.severe("Could not insert values into temporary table via: " + insertSql);
+            if (session.getFactory().getSessionFactoryOptions().isJpaBootstrap()) {
+                throw session.getExceptionConverter().convert(e);
+            } else {
+                throw e;
+            }
+        }
+
+        ActionQueue actionQueue = ((EventSource) session).getActionQueue();
+        if (create) {
+            putTransactionResource(session, createSql, Boolean.TRUE);
+        }
+        if (create && clearSql != null) {
+            actionQueue.registerProcess(new BeforeTransactionCompletionProcess() {
+                @Override
+                public void doBeforeTransactionCompletion(SessionImplementor session) {
+                    session.doWork(new Work() {
+                        @Override
+                        public void execute(Connection connection) throws SQLException {
+                            try (java.sql.Statement statement = connection.createStatement()) {
+                                statement.executeUpdate(clearSql);
+                            }
+                        }
+                    });
+                }
+            });
+        }
+        actionQueue.registerProcess(new AfterTransactionCompletionProcess() {
+            @Override
+            public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+                afterTransactionCompletion.run();
+            }
+        });
+    }
+
+    @Override
+    public boolean registerAfterTransactionCompletion(EntityManager em, final Runnable callback) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return false;
+        }
+        ((EventSource) session).getActionQueue().registerProcess(new AfterTransactionCompletionProcess() {
+            @Override
+            public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+                callback.run();
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public Object getTransactionResource(EntityManager em, Object key) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return null;
+        }
+        return transactionResources.getResource(session, key);
+    }
+
+    @Override
+    public boolean putTransactionResource(EntityManager em, Object key, Object value) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed() || !session.isTransactionInProgress()) {
+            return false;
+        }
+        putTransactionResource(session, key, value);
+        return true;
+    }
+
+    private void putTransactionResource(SessionImplementor session, Object key, Object value) {
+        final Synchronization synchronization = transactionResources.putResource(session, key, value);
+        if (synchronization != null) {
+            ((EventSource) session).getActionQueue().registerProcess(new AfterTransactionCompletionProcess() {
+                @Override
+                public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+                    synchronization.afterCompletion(Status.STATUS_UNKNOWN);
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<Object> getFirstColumnValues(EntityManager em, Query query, String sql) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+        final SessionFactoryImplementor sessionFactory = session.getSessionFactory();
+
+        List<JdbcParameterBinder> parameterBinders = new ArrayList<>();
+        CacheableSqmInterpretation interpretation = buildQueryPlan(query);
+        JdbcParameterBindings jdbcParameterBindings = createJdbcParameterBindings(session, sessionFactory, Collections.singletonList(query), parameterBinders, new HashSet<String>(), new HashSet<FilterJdbcParameter>());
+
+        ExecutionContext executionContext = SqmJdbcExecutionContextAdapter.usingLockingAndPaging(query.unwrap(DomainQueryExecutionContext.class));
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        List<Object> values = new ArrayList<>();
+        PreparedStatement st = null;
+        try {
+            st = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+            int position = 1;
+            for (JdbcParameterBinder parameterBinder : parameterBinders) {
+                parameterBinder.bindParameterValue(st, position++, jdbcParameterBindings, executionContext);
+            }
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    values.add(rs.getObject(1));
+                }
+            }
+            return values;
+        } catch (SQLException e) {
+            LOG.severe("Could not execute the following SQL query: " + sql);
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "could not execute query", sql);
+        } catch (HibernateException e) {
+            LOG.severe("Could not execute the following SQL query: " + sql);
             if (session.getFactory().getSessionFactoryOptions().isJpaBootstrap()) {
                 throw session.getExceptionConverter().convert(e);
             } else {
                 throw e;
             }
         } finally {
+            if (st != null) {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(st);
+                jdbcCoordinator.afterStatementExecution();
+            }
             interpretation.domainParameterXref.clearExpansions();
         }
     }
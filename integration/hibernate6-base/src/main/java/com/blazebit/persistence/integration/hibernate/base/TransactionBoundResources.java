@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import jakarta.transaction.Synchronization;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resources bound to a transaction. The transaction is identified by the unwrapped Hibernate session for resource local transactions
+ * or by the JTA transaction object, but never by the entity manager of the caller which might be a proxy that is shared between threads.
+ * <p>
+ * The resources of a transaction are held by a {@link Synchronization} that the caller registers with the transaction
+ * and that releases the resources when the transaction completes. Transactions are only referenced weakly, so the resources of a transaction
+ * for which no completion callback is invoked are reclaimed together with the transaction.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class TransactionBoundResources {
+
+    private final Map<Object, WeakReference<ResourceReleasingSynchronization>> resources = new WeakHashMap<>();
+
+    public Object getResource(Object transaction, Object key) {
+        ResourceReleasingSynchronization synchronization = getSynchronization(transaction);
+        return synchronization == null ? null : synchronization.resources.get(key);
+    }
+
+    /**
+     * Binds the given resource to the given transaction.
+     *
+     * @param transaction The transaction
+     * @param key The resource key
+     * @param value The resource
+     * @return The synchronization that the caller has to register with the transaction if this is the first resource bound to it, otherwise <code>null</code>
+     */
+    public Synchronization putResource(Object transaction, Object key, Object value) {
+        ResourceReleasingSynchronization newSynchronization = null;
+        ResourceReleasingSynchronization synchronization;
+        synchronized (resources) {
+            synchronization = getSynchronization(transaction);
+            if (synchronization == null) {
+                synchronization = newSynchronization = new ResourceReleasingSynchronization(this, transaction);
+                resources.put(transaction, new WeakReference<>(synchronization));
+            }
+        }
+        synchronization.resources.put(key, value);
+        return newSynchronization;
+    }
+
+    private ResourceReleasingSynchronization getSynchronization(Object transaction) {
+        WeakReference<ResourceReleasingSynchronization> reference;
+        synchronized (resources) {
+            reference = resources.get(transaction);
+        }
+        return reference == null ? null : reference.get();
+    }
+
+    private void release(ResourceReleasingSynchronization synchronization) {
+        synchronized (resources) {
+            WeakReference<ResourceReleasingSynchronization> reference = resources.get(synchronization.transaction.get());
+            if (reference != null && reference.get() == synchronization) {
+                resources.remove(synchronization.transaction.get());
+            }
+        }
+    }
+
+    /**
+     * Holds the resources of a transaction and releases them when it completes.
+     * The synchronization is strongly reachable through the transaction it is registered with, which keeps the resources alive.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class ResourceReleasingSynchronization implements Synchronization {
+
+        private final TransactionBoundResources owner;
+        private final WeakReference<Object> transaction;
+        private final Map<Object, Object> resources = new ConcurrentHashMap<>();
+
+        ResourceReleasingSynchronization(TransactionBoundResources owner, Object transaction) {
+            this.owner = owner;
+            this.transaction = new WeakReference<>(transaction);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            // No-op
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            owner.release(this);
+        }
+    }
+}
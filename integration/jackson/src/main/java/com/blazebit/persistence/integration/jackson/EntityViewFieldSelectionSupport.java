@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.jackson;
+
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.spi.EntityViewPropertyNameResolver;
+import com.blazebit.persistence.view.spi.FieldSelectionSupport;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link FieldSelectionSupport} that resolves the JSON property names through the {@link ObjectMapper},
+ * so renamed or ignored properties and naming strategies are respected.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class EntityViewFieldSelectionSupport extends FieldSelectionSupport {
+
+    public EntityViewFieldSelectionSupport(EntityViewManager entityViewManager, ObjectMapper objectMapper) {
+        super(entityViewManager, new JacksonPropertyNameResolver(objectMapper));
+    }
+
+    /**
+     * Resolves the attributes of a view type by the JSON property name that Jackson serializes them as.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class JacksonPropertyNameResolver implements EntityViewPropertyNameResolver {
+
+        private final ObjectMapper objectMapper;
+
+        public JacksonPropertyNameResolver(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Map<String, MethodAttribute<?, ?>> resolveProperties(ManagedViewType<?> viewType) {
+            Map<String, MethodAttribute<?, ?>> properties = new HashMap<>();
+            BeanDescription beanDescription = objectMapper.getSerializationConfig().introspect(objectMapper.constructType(viewType.getJavaType()));
+            for (BeanPropertyDefinition property : beanDescription.findProperties()) {
+                if (property.couldSerialize()) {
+                    MethodAttribute<?, ?> attribute = viewType.getAttribute(property.getInternalName());
+                    if (attribute != null) {
+                        properties.put(property.getName(), attribute);
+                    }
+                }
+            }
+            return properties;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.integration.jackson;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Mapping;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class EntityViewFieldSelectionSupportTest {
+
+    static EntityManagerFactory emf;
+    static CriteriaBuilderFactory cbf;
+    static EntityViewFieldSelectionSupport support;
+
+    @BeforeClass
+    public static void prepare() {
+        emf = Persistence.createEntityManagerFactory("Test");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+        EntityViewConfiguration configuration = EntityViews.createDefaultConfiguration();
+        configuration.addEntityView(FieldSelectionView.class);
+        configuration.addEntityView(FieldSelectionSubView.class);
+        support = new EntityViewFieldSelectionSupport(configuration.createEntityViewManager(cbf), new ObjectMapper());
+    }
+
+    @EntityView(SomeEntity.class)
+    interface FieldSelectionView {
+        @IdMapping
+        long getId();
+        @JsonProperty("title")
+        String getName();
+        @JsonIgnore
+        @Mapping("name")
+        String getIgnoredName();
+        FieldSelectionSubView getParent();
+        Set<FieldSelectionSubView> getChildren();
+    }
+
+    @EntityView(SomeEntity.class)
+    interface FieldSelectionSubView {
+        @IdMapping
+        long getId();
+        String getName();
+    }
+
+    @Test
+    public void testSimpleFields() {
+        assertFetches("id,title", "id", "name");
+    }
+
+    @Test
+    public void testNestedFields() {
+        assertFetches("parent(id, name), children.name", "parent.id", "parent.name", "children.name");
+    }
+
+    @Test
+    public void testUnknownAndIgnoredFields() {
+        assertFetches("name,title,ignoredName,unknown,parent.unknown", "name");
+    }
+
+    @Test
+    public void testEmptyGroupFetchesWholeAttribute() {
+        assertFetches("parent(),children(unknown)", "parent", "children");
+    }
+
+    @Test
+    public void testNoFieldSelection() {
+        assertEquals(Collections.emptySet(), support.getFetches(FieldSelectionView.class, null));
+        assertEquals(Collections.emptySet(), support.getFetches(FieldSelectionView.class, " "));
+    }
+
+    @Test
+    public void testUnresolvableFieldSelection() {
+        try {
+            support.getFetches(FieldSelectionView.class, "ignoredName,unknown");
+            fail("Expected field selection to be rejected");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMalformedFieldSelection() {
+        for (String fieldSelection : Arrays.asList("parent(id", "id)", "parent(id).name")) {
+            try {
+                support.getFetches(FieldSelectionView.class, fieldSelection);
+                fail("Expected field selection '" + fieldSelection + "' to be rejected");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testCreateSetting() {
+        EntityViewSetting<FieldSelectionView, CriteriaBuilder<FieldSelectionView>> setting = support.createSetting(FieldSelectionView.class, "title,parent(name)");
+        assertEquals(new HashSet<>(Arrays.asList("name", "parent.name")), new HashSet<>(setting.getFetches()));
+    }
+
+    @Test
+    public void testFieldSelectionOfSetting() {
+        EntityViewSetting<FieldSelectionView, CriteriaBuilder<FieldSelectionView>> setting = support.createSetting(FieldSelectionView.class, "title,parent(id,name)");
+        assertEquals(new HashSet<>(Arrays.asList("title", "parent.id", "parent.name")), new HashSet<>(Arrays.asList(support.getFieldSelection(setting).split(","))));
+        assertNull(support.getFieldSelection(support.createSetting(FieldSelectionView.class, null)));
+    }
+
+    private void assertFetches(String fieldSelection, String... expectedFetches) {
+        assertEquals(new HashSet<>(Arrays.asList(expectedFetches)), support.getFetches(FieldSelectionView.class, fieldSelection));
+    }
+}
@@ -63,6 +63,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -478,6 +479,10 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             entityViewManager.get().saveFull(entityManager, view);
         }
 
+        public void saveAll(EntityManager entityManager, Collection<?> views) {
+            entityViewManager.get().saveAll(entityManager, views);
+        }
+
         public void saveTo(EntityManager entityManager, Object view, Object entity) {
             entityViewManager.get().saveTo(entityManager, view, entity);
         }
@@ -504,6 +509,10 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             return entityViewManager.get().saveFullWith(entityManager, view);
         }
 
+        public FlushOperationBuilder saveAllWith(EntityManager entityManager, Collection<?> views) {
+            return entityViewManager.get().saveAllWith(entityManager, views);
+        }
+
         public FlushOperationBuilder saveWithTo(EntityManager entityManager, Object view, Object entity) {
             return entityViewManager.get().saveWithTo(entityManager, view, entity);
         }
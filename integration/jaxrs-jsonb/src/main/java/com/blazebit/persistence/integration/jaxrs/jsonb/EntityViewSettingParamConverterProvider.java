@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.integration.jaxrs.jsonb;
+
+import com.blazebit.persistence.integration.jsonb.EntityViewFieldSelectionSupport;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.json.bind.JsonbConfig;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.ParamConverter;
+import javax.ws.rs.ext.ParamConverterProvider;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Converts a field selection parameter like <code>@QueryParam("fields") EntityViewSetting&lt;MyView, CriteriaBuilder&lt;MyView&gt;&gt; setting</code>
+ * to a new {@link EntityViewSetting} that only fetches the selected fields.
+ * Note that JAX-RS passes <code>null</code> if the parameter is absent and that a field selection of which no property can be resolved is rejected.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ * @see EntityViewFieldSelectionSupport
+ */
+@Provider
+public class EntityViewSettingParamConverterProvider implements ParamConverterProvider {
+
+    @Inject
+    private Instance<EntityViewManager> entityViewManager;
+    @Inject
+    private Instance<JsonbConfig> jsonbConfig;
+    @Context
+    private Providers providers;
+
+    private EntityViewFieldSelectionSupport fieldSelectionSupport;
+
+    @PostConstruct
+    public void init() {
+        if (!entityViewManager.isUnsatisfied()) {
+            JsonbConfig config = null;
+            ContextResolver<JsonbConfig> resolver;
+            if (providers != null && (resolver = providers.getContextResolver(JsonbConfig.class, MediaType.APPLICATION_JSON_TYPE)) != null) {
+                config = resolver.getContext(EntityViewSettingParamConverterProvider.class);
+            }
+            if (config == null) {
+                if (jsonbConfig.isUnsatisfied()) {
+                    config = new JsonbConfig();
+                } else {
+                    config = jsonbConfig.get();
+                }
+            }
+            this.fieldSelectionSupport = new EntityViewFieldSelectionSupport(entityViewManager.get(), config);
+        }
+    }
+
+    @Override
+    public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
+        if (fieldSelectionSupport == null || rawType != EntityViewSetting.class) {
+            return null;
+        }
+        final Class<?> entityViewClass = fieldSelectionSupport.getEntityViewClass(genericType);
+        if (entityViewClass == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        ParamConverter<T> converter = (ParamConverter<T>) new ParamConverter<EntityViewSetting<?, ?>>() {
+            @Override
+            public EntityViewSetting<?, ?> fromString(String value) {
+                return fieldSelectionSupport.createSetting(entityViewClass, value);
+            }
+
+            @Override
+            public String toString(EntityViewSetting<?, ?> value) {
+                return fieldSelectionSupport.getFieldSelection(value);
+            }
+        };
+        return converter;
+    }
+}
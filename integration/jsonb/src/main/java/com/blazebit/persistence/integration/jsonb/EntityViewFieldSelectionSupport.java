@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.jsonb;
+
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.spi.EntityViewPropertyNameResolver;
+import com.blazebit.persistence.view.spi.FieldSelectionSupport;
+
+import javax.json.bind.JsonbConfig;
+import javax.json.bind.annotation.JsonbProperty;
+import javax.json.bind.annotation.JsonbTransient;
+import javax.json.bind.config.PropertyNamingStrategy;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link FieldSelectionSupport} that resolves the JSON property names like JSON-B does, so {@link JsonbProperty} and {@link JsonbTransient} annotations
+ * as well as the property naming strategy of the {@link JsonbConfig} are respected.
+ *
+ * @author Christian Beikov
+ * @since 1.6.8
+ */
+public class EntityViewFieldSelectionSupport extends FieldSelectionSupport {
+
+    public EntityViewFieldSelectionSupport(EntityViewManager entityViewManager) {
+        this(entityViewManager, new JsonbConfig());
+    }
+
+    public EntityViewFieldSelectionSupport(EntityViewManager entityViewManager, JsonbConfig jsonbConfig) {
+        super(entityViewManager, new JsonbPropertyNameResolver(jsonbConfig.getProperty(JsonbConfig.PROPERTY_NAMING_STRATEGY).orElse(PropertyNamingStrategy.IDENTITY)));
+    }
+
+    /**
+     * Resolves the attributes of a view type by the JSON property name that JSON-B serializes them as.
+     *
+     * @author Christian Beikov
+     * @since 1.6.8
+     */
+    private static final class JsonbPropertyNameResolver implements EntityViewPropertyNameResolver {
+
+        private final Object propertyNamingStrategy;
+
+        public JsonbPropertyNameResolver(Object propertyNamingStrategy) {
+            this.propertyNamingStrategy = propertyNamingStrategy;
+        }
+
+        @Override
+        public Map<String, MethodAttribute<?, ?>> resolveProperties(ManagedViewType<?> viewType) {
+            Map<String, MethodAttribute<?, ?>> properties;
+            if (PropertyNamingStrategy.CASE_INSENSITIVE.equals(propertyNamingStrategy)) {
+                properties = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            } else {
+                properties = new HashMap<>();
+            }
+            for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+                Method getter = attribute.getJavaMethod();
+                if (getter.getAnnotation(JsonbTransient.class) == null) {
+                    JsonbProperty jsonbProperty = getter.getAnnotation(JsonbProperty.class);
+                    if (jsonbProperty != null && !jsonbProperty.value().isEmpty()) {
+                        properties.put(jsonbProperty.value(), attribute);
+                    } else {
+                        properties.put(translateName(attribute.getName()), attribute);
+                    }
+                }
+            }
+            return properties;
+        }
+
+        private String translateName(String name) {
+            if (propertyNamingStrategy instanceof PropertyNamingStrategy) {
+                return ((PropertyNamingStrategy) propertyNamingStrategy).translateName(name);
+            }
+            switch (propertyNamingStrategy.toString()) {
+                case PropertyNamingStrategy.LOWER_CASE_WITH_DASHES:
+                    return lowerCaseWithSeparator(name, '-');
+                case PropertyNamingStrategy.LOWER_CASE_WITH_UNDERSCORES:
+                    return lowerCaseWithSeparator(name, '_');
+                case PropertyNamingStrategy.UPPER_CAMEL_CASE:
+                    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                case PropertyNamingStrategy.UPPER_CAMEL_CASE_WITH_SPACES:
+                    StringBuilder sb = new StringBuilder(name.length() + 4);
+                    sb.append(Character.toUpperCase(name.charAt(0)));
+                    for (int i = 1; i < name.length(); i++) {
+                        char c = name.charAt(i);
+                        if (Character.isUpperCase(c)) {
+                            sb.append(' ');
+                        }
+                        sb.append(c);
+                    }
+                    return sb.toString();
+                default:
+                    return name;
+            }
+        }
+
+        private static String lowerCaseWithSeparator(String name, char separator) {
+            StringBuilder sb = new StringBuilder(name.length() + 4);
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (Character.isUpperCase(c)) {
+                    if (i != 0) {
+                        sb.append(separator);
+                    }
+                    sb.append(Character.toLowerCase(c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}